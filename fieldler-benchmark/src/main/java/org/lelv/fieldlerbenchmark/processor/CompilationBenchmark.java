@@ -0,0 +1,86 @@
+package org.lelv.fieldlerbenchmark.processor;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Measures how the compilation time grows with the size of the codebase, compiling synthetic source trees in-process with
+ * and without the Fieldler annotation processor. For every combination of number of classes and fields per class it
+ * reports the wall time, the time spent by the processor (in total and per round) and the peak heap usage, taking the
+ * best of the measured iterations after a warm up compilation.
+ *
+ * <p>Usage: {@code CompilationBenchmark [classes] [fieldsPerClass] [depth] [iterations]}, where classes and fields per
+ * class accept comma separated lists, e.g. {@code CompilationBenchmark 100,1000,10000 5,50,500 5 3}
+ */
+public class CompilationBenchmark {
+
+  private static final String ROW_FORMAT = "%8s %8s %6s %10s %10s %10s %9s %-30s%n";
+
+  public static void main(String[] args) throws IOException {
+    List<Integer> classes = integers(args, 0, "100,1000");
+    List<Integer> fieldsPerClass = integers(args, 1, "5,50");
+    int depth = integers(args, 2, "5").get(0);
+    int iterations = integers(args, 3, "3").get(0);
+
+    InProcessCompiler compiler = new InProcessCompiler();
+    System.out.printf("Compilation benchmark: depth %d, %d iterations, best iteration reported%n", depth, iterations);
+    System.out.printf(ROW_FORMAT, "classes", "fields", "proc", "wall(ms)", "proc(ms)", "over(ms)", "heap(MB)", "rounds(ms)");
+    for (int classCount : classes) {
+      for (int fieldCount : fieldsPerClass) {
+        Path sourceDirectory = Files.createTempDirectory("fieldler-benchmark-sources");
+        List<File> sources = new SyntheticSourceGenerator(classCount, fieldCount, depth).write(sourceDirectory);
+        CompilationResult withoutProcessor = best(compiler, sources, false, iterations);
+        CompilationResult withProcessor = best(compiler, sources, true, iterations);
+        printRow(classCount, fieldCount, withoutProcessor, withoutProcessor);
+        printRow(classCount, fieldCount, withProcessor, withoutProcessor);
+      }
+    }
+  }
+
+  private static CompilationResult best(InProcessCompiler compiler, List<File> sources, boolean withProcessor, int iterations) throws IOException {
+    compiler.compile(sources, withProcessor);
+    CompilationResult best = null;
+    for (int iteration = 0; iteration < iterations; iteration++) {
+      CompilationResult result = compiler.compile(sources, withProcessor);
+      if (!result.isSuccess()) {
+        throw new IllegalStateException("Compilation of the synthetic sources failed");
+      }
+      if (best == null || result.getWallNanos() < best.getWallNanos()) {
+        best = result;
+      }
+    }
+    return best;
+  }
+
+  private static void printRow(int classes, int fields, CompilationResult result, CompilationResult baseline) {
+    boolean withProcessor = !result.getProcessorRoundNanos().isEmpty();
+    String rounds = result.getProcessorRoundNanos()
+                          .stream()
+                          .map(nanos -> String.valueOf(millis(nanos)))
+                          .collect(Collectors.joining(", ", "[", "]"));
+    System.out.printf(ROW_FORMAT, classes, fields, withProcessor ? "yes" : "no",
+                      millis(result.getWallNanos()),
+                      withProcessor ? millis(result.getProcessorNanos()) : "-",
+                      withProcessor ? millis(result.getWallNanos() - baseline.getWallNanos()) : "-",
+                      result.getPeakHeapBytes() / (1024 * 1024),
+                      withProcessor ? rounds : "-");
+  }
+
+  private static long millis(long nanos) {
+    return nanos / 1_000_000;
+  }
+
+  private static List<Integer> integers(String[] args, int index, String defaultValue) {
+    String value = args.length > index ? args[index] : defaultValue;
+    List<Integer> result = new ArrayList<>();
+    Arrays.stream(value.split(",")).map(String::trim).map(Integer::valueOf).forEach(result::add);
+    return result;
+  }
+
+}
@@ -0,0 +1,39 @@
+package org.lelv.fieldlerbenchmark.processor;
+
+import java.util.List;
+
+class CompilationResult {
+
+  private final boolean success;
+  private final long wallNanos;
+  private final List<Long> processorRoundNanos;
+  private final long peakHeapBytes;
+
+  CompilationResult(boolean success, long wallNanos, List<Long> processorRoundNanos, long peakHeapBytes) {
+    this.success = success;
+    this.wallNanos = wallNanos;
+    this.processorRoundNanos = processorRoundNanos;
+    this.peakHeapBytes = peakHeapBytes;
+  }
+
+  boolean isSuccess() {
+    return success;
+  }
+
+  long getWallNanos() {
+    return wallNanos;
+  }
+
+  List<Long> getProcessorRoundNanos() {
+    return processorRoundNanos;
+  }
+
+  long getProcessorNanos() {
+    return processorRoundNanos.stream().mapToLong(Long::longValue).sum();
+  }
+
+  long getPeakHeapBytes() {
+    return peakHeapBytes;
+  }
+
+}
@@ -0,0 +1,61 @@
+package org.lelv.fieldlerbenchmark.processor;
+
+import org.lelv.fieldler.processor.FieldlerAnnotationProcessor;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Measures the time spent by the annotation processor on a codebase in which many annotated classes share a deep chain of
+ * abstract parent classes, the case in which scanning every parent class once per round pays off the most. All the
+ * sources are compiled in a single round, so each parent class is scanned once per compilation when the scanned
+ * classes are memoized.
+ *
+ * <p>The {@code memoize} argument selects whether the sources are compiled with the memoization ({@code true}),
+ * without it ({@code false}), or both ways in every iteration so that the times can be compared ({@code both}, the
+ * default).
+ *
+ * <p>Usage: {@code HierarchyScanBenchmark [classes] [depth] [fieldsPerClass] [iterations] [memoize]}
+ */
+public class HierarchyScanBenchmark {
+
+  public static void main(String[] args) throws IOException {
+    int classes = argument(args, 0, 1000);
+    int depth = argument(args, 1, 10);
+    int fieldsPerClass = argument(args, 2, 10);
+    int iterations = argument(args, 3, 5);
+    String memoize = args.length > 4 ? args[4] : "both";
+    if (!memoize.equals("true") && !memoize.equals("false") && !memoize.equals("both")) {
+      throw new IllegalArgumentException("memoize must be true, false or both: " + memoize);
+    }
+
+    List<File> sources = new SyntheticSourceGenerator(classes, fieldsPerClass, depth)
+        .write(Files.createTempDirectory("fieldler-hierarchy-sources"));
+    InProcessCompiler withMemoization = new InProcessCompiler();
+    InProcessCompiler withoutMemoization = new InProcessCompiler(
+        Collections.singletonList("-A" + FieldlerAnnotationProcessor.MEMOIZE_HIERARCHY_OPTION + "=false"));
+    System.out.printf("Hierarchy scan benchmark: %d annotated classes, %d parent classes, %d fields per class%n",
+                      classes, depth, fieldsPerClass);
+    for (int iteration = 1; iteration <= iterations; iteration++) {
+      if (!memoize.equals("false")) {
+        print(iteration, "memoized", withMemoization.compile(sources, true));
+      }
+      if (!memoize.equals("true")) {
+        print(iteration, "not memoized", withoutMemoization.compile(sources, true));
+      }
+    }
+  }
+
+  private static void print(int iteration, String mode, CompilationResult result) {
+    System.out.printf("Iteration %d, %s: success=%s, wall=%d ms, processor=%d ms%n", iteration, mode, result.isSuccess(),
+                      result.getWallNanos() / 1_000_000, result.getProcessorNanos() / 1_000_000);
+  }
+
+  private static int argument(String[] args, int index, int defaultValue) {
+    return args.length > index ? Integer.parseInt(args[index]) : defaultValue;
+  }
+
+}
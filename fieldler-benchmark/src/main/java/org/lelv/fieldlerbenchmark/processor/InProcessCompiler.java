@@ -0,0 +1,110 @@
+package org.lelv.fieldlerbenchmark.processor;
+
+import org.lelv.fieldler.annotation.FieldComparator;
+import org.lelv.fieldler.processor.FieldlerAnnotationProcessor;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Compiles sources in-process through {@link javax.tools.JavaCompiler}, with or without the Fieldler annotation
+ * processor, measuring the wall time, the time spent by the processor on every round and the peak heap usage.
+ */
+class InProcessCompiler {
+
+  private final JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+  private final List<String> processorOptions;
+
+  InProcessCompiler() {
+    this(Collections.emptyList());
+  }
+
+  /**
+   * @param processorOptions options passed to the annotation processor, such as {@code -Akey=value}
+   */
+  InProcessCompiler(List<String> processorOptions) {
+    if (compiler == null) {
+      throw new IllegalStateException("No system java compiler available, the benchmark must run on a JDK");
+    }
+    this.processorOptions = processorOptions;
+  }
+
+  CompilationResult compile(List<File> sources, boolean withProcessor) throws IOException {
+    return compile(sources, withProcessor, Files.createTempDirectory("fieldler-benchmark-output"));
+  }
+
+  CompilationResult compile(List<File> sources, boolean withProcessor, Path outputDirectory) throws IOException {
+    DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+    try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(diagnostics, null, StandardCharsets.UTF_8)) {
+      Iterable<? extends JavaFileObject> compilationUnits = fileManager.getJavaFileObjectsFromFiles(sources);
+      List<String> options = new ArrayList<>();
+      Collections.addAll(options, "-classpath", fieldlerClasspath(), "-d", outputDirectory.toString(),
+                         "-s", outputDirectory.toString(), "-nowarn", "-XDsuppressNotes");
+      if (withProcessor) {
+        options.addAll(processorOptions);
+      } else {
+        options.add("-proc:none");
+      }
+      JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, diagnostics, options, null, compilationUnits);
+      TimedProcessor processor = new TimedProcessor(new FieldlerAnnotationProcessor());
+      if (withProcessor) {
+        task.setProcessors(Collections.singletonList(processor));
+      }
+      System.gc();
+      resetPeakHeapUsage();
+      long start = System.nanoTime();
+      boolean success = task.call();
+      long wallNanos = System.nanoTime() - start;
+      if (!success) {
+        diagnostics.getDiagnostics()
+                   .stream()
+                   .filter(diagnostic -> diagnostic.getKind() == Diagnostic.Kind.ERROR)
+                   .limit(5)
+                   .forEach(diagnostic -> System.err.println(diagnostic.getMessage(null)));
+      }
+      return new CompilationResult(success, wallNanos, processor.getRoundNanos(), peakHeapUsage());
+    }
+  }
+
+  private static void resetPeakHeapUsage() {
+    heapPools().forEach(MemoryPoolMXBean::resetPeakUsage);
+  }
+
+  private static long peakHeapUsage() {
+    return heapPools().stream().mapToLong(pool -> pool.getPeakUsage().getUsed()).sum();
+  }
+
+  private static List<MemoryPoolMXBean> heapPools() {
+    List<MemoryPoolMXBean> heapPools = new ArrayList<>();
+    for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+      if (pool.getType() == MemoryType.HEAP) {
+        heapPools.add(pool);
+      }
+    }
+    return heapPools;
+  }
+
+  private static String fieldlerClasspath() {
+    try {
+      return new File(FieldComparator.class.getProtectionDomain().getCodeSource().getLocation().toURI()).getPath();
+    } catch (Exception e) {
+      throw new IllegalStateException("Can not locate the fieldler classes", e);
+    }
+  }
+
+}
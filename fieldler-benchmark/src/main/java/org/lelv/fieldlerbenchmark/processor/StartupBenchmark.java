@@ -0,0 +1,91 @@
+package org.lelv.fieldlerbenchmark.processor;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Measures the startup cost of the generated comparators, with and without {@code lambdaFree}. The same synthetic source
+ * tree is compiled in both modes, and then every run launches a fresh JVM with the {@link StartupProbe}, which loads
+ * every comparator and makes its first comparison. It reports the median of the runs for the time until the first
+ * comparison of every class, the used metaspace and the number of loaded classes.
+ *
+ * <p>Usage: {@code StartupBenchmark [classes] [fieldsPerClass] [runs]}
+ */
+public class StartupBenchmark {
+
+  private static final String ROW_FORMAT = "%-12s %14s %14s %14s%n";
+
+  public static void main(String[] args) throws IOException, InterruptedException {
+    int classes = argument(args, 0, 1000);
+    int fieldsPerClass = argument(args, 1, 20);
+    int runs = argument(args, 2, 5);
+
+    InProcessCompiler compiler = new InProcessCompiler();
+    Path defaultOutput = compile(compiler, classes, fieldsPerClass, "");
+    Path lambdaFreeOutput = compile(compiler, classes, fieldsPerClass, "lambdaFree = true");
+
+    long[][] defaultSamples = new long[3][runs];
+    long[][] lambdaFreeSamples = new long[3][runs];
+    for (int run = 0; run < runs; run++) {
+      // alternate the modes, so both see the same state of the machine
+      probe(defaultOutput, classes, defaultSamples, run);
+      probe(lambdaFreeOutput, classes, lambdaFreeSamples, run);
+    }
+    System.out.printf("Startup benchmark: %d annotated classes, %d fields per class, median of %d runs%n",
+                      classes, fieldsPerClass, runs);
+    System.out.printf(ROW_FORMAT, "mode", "first(ms)", "metaspace(KB)", "classes");
+    printRow("default", defaultSamples);
+    printRow("lambdaFree", lambdaFreeSamples);
+  }
+
+  private static Path compile(InProcessCompiler compiler, int classes, int fieldsPerClass, String annotationArguments) throws IOException {
+    List<File> sources = new SyntheticSourceGenerator(classes, fieldsPerClass, 0, annotationArguments)
+        .write(Files.createTempDirectory("fieldler-startup-sources"));
+    Path outputDirectory = Files.createTempDirectory("fieldler-startup-output");
+    if (!compiler.compile(sources, true, outputDirectory).isSuccess()) {
+      throw new IllegalStateException("Compilation of the synthetic sources failed");
+    }
+    return outputDirectory;
+  }
+
+  private static void probe(Path outputDirectory, int classes, long[][] samples, int run) throws IOException, InterruptedException {
+    String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+    String classpath = outputDirectory + File.pathSeparator + System.getProperty("java.class.path");
+    Process process = new ProcessBuilder(java, "-classpath", classpath, StartupProbe.class.getName(), String.valueOf(classes))
+        .redirectError(ProcessBuilder.Redirect.INHERIT)
+        .start();
+    String line;
+    try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+      line = reader.readLine();
+    }
+    if (process.waitFor() != 0 || line == null) {
+      throw new IllegalStateException("The startup probe failed");
+    }
+    String[] values = line.trim().split(" ");
+    for (int sample = 0; sample < samples.length; sample++) {
+      samples[sample][run] = Long.parseLong(values[sample]);
+    }
+  }
+
+  private static void printRow(String mode, long[][] samples) {
+    System.out.printf(ROW_FORMAT, mode, median(samples[0]) / 1_000_000, median(samples[1]) / 1024, median(samples[2]));
+  }
+
+  private static long median(long[] samples) {
+    long[] sorted = samples.clone();
+    Arrays.sort(sorted);
+    return sorted[sorted.length / 2];
+  }
+
+  private static int argument(String[] args, int index, int defaultValue) {
+    return args.length > index ? Integer.parseInt(args[index]) : defaultValue;
+  }
+
+}
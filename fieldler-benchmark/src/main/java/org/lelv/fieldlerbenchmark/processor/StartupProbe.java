@@ -0,0 +1,46 @@
+package org.lelv.fieldlerbenchmark.processor;
+
+import org.lelv.fieldler.output.FieldComparison;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.reflect.Method;
+
+/**
+ * Runs in a fresh JVM launched by {@link StartupBenchmark}: loads the comparator of every synthetic class, compares two
+ * objects on all their fields, and prints a single line with the nanoseconds until the last first comparison, the used
+ * metaspace bytes and the number of loaded classes.
+ *
+ * <p>Usage: {@code StartupProbe classes}
+ */
+public class StartupProbe {
+
+  public static void main(String[] args) throws Exception {
+    int classes = Integer.parseInt(args[0]);
+    long start = System.nanoTime();
+    int differences = 0;
+    for (int index = 0; index < classes; index++) {
+      String name = SyntheticSourceGenerator.PACKAGE + ".Entity" + index;
+      Class<?> entityClass = Class.forName(name);
+      Method compare = Class.forName(name + "FieldComparator").getMethod("compare", entityClass, entityClass);
+      Object objectA = entityClass.newInstance();
+      Object objectB = entityClass.newInstance();
+      differences += ((FieldComparison<?, ?>) compare.invoke(null, objectA, objectB)).testAllFields().numberOfDifferences();
+    }
+    long nanos = System.nanoTime() - start;
+    if (differences != 0) {
+      throw new IllegalStateException("Objects with default values should have no differences");
+    }
+    System.out.println(nanos + " " + metaspaceUsage() + " " + ManagementFactory.getClassLoadingMXBean().getLoadedClassCount());
+  }
+
+  private static long metaspaceUsage() {
+    for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+      if ("Metaspace".equals(pool.getName())) {
+        return pool.getUsage().getUsed();
+      }
+    }
+    return -1;
+  }
+
+}
@@ -0,0 +1,111 @@
+package org.lelv.fieldlerbenchmark.processor;
+
+import org.lelv.fieldler.annotation.FieldComparator;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes a synthetic source tree: a chain of abstract parent classes, and annotated classes extending the deepest one.
+ * Fields rotate over several types and accessor styles, so that every rule of the processor is exercised: public fields,
+ * {@code getXxx()} getters, {@code isXxx()} getters for booleans, same name accessors, and fields with no accessor.
+ */
+class SyntheticSourceGenerator {
+
+  static final String PACKAGE = "org.lelv.fieldlerbenchmark.synthetic";
+  private static final String[] FIELD_TYPES = {"int", "boolean", "String", "Long", "java.util.List<String>"};
+
+  private enum AccessorStyle {PUBLIC_FIELD, GETTER, SAME_NAME, NONE}
+
+  private final int classes;
+  private final int fieldsPerClass;
+  private final int depth;
+  private final String annotationArguments;
+
+  SyntheticSourceGenerator(int classes, int fieldsPerClass, int depth) {
+    this(classes, fieldsPerClass, depth, "");
+  }
+
+  /**
+   * @param annotationArguments arguments written verbatim between the parentheses of every {@link FieldComparator}
+   *                            annotation, e.g. {@code "lambdaFree = true"}
+   */
+  SyntheticSourceGenerator(int classes, int fieldsPerClass, int depth, String annotationArguments) {
+    this.classes = classes;
+    this.fieldsPerClass = fieldsPerClass;
+    this.depth = depth;
+    this.annotationArguments = annotationArguments;
+  }
+
+  List<File> write(Path directory) throws IOException {
+    Path packageDirectory = Files.createDirectories(directory.resolve(PACKAGE.replace('.', File.separatorChar)));
+    List<File> sources = new ArrayList<>();
+    for (int level = 0; level < depth; level++) {
+      String parent = level == 0 ? null : baseName(level - 1);
+      sources.add(writeClass(packageDirectory, baseName(level), parent, false));
+    }
+    String parent = depth == 0 ? null : baseName(depth - 1);
+    for (int index = 0; index < classes; index++) {
+      sources.add(writeClass(packageDirectory, "Entity" + index, parent, true));
+    }
+    return sources;
+  }
+
+  private File writeClass(Path directory, String name, String parent, boolean annotated) throws IOException {
+    StringBuilder source = new StringBuilder("package ").append(PACKAGE).append(";\n\n");
+    if (annotated) {
+      source.append('@').append(FieldComparator.class.getCanonicalName());
+      if (!annotationArguments.isEmpty()) {
+        source.append('(').append(annotationArguments).append(')');
+      }
+      source.append('\n');
+    }
+    source.append("public ").append(annotated ? "" : "abstract ").append("class ").append(name);
+    if (parent != null) {
+      source.append(" extends ").append(parent);
+    }
+    source.append(" {\n\n");
+    String fieldPrefix = Character.toLowerCase(name.charAt(0)) + name.substring(1) + "Field";
+    for (int field = 0; field < fieldsPerClass; field++) {
+      appendField(source, fieldPrefix + field, FIELD_TYPES[field % FIELD_TYPES.length],
+                  AccessorStyle.values()[(field / FIELD_TYPES.length) % AccessorStyle.values().length]);
+    }
+    source.append("}\n");
+    Path file = directory.resolve(name + ".java");
+    Files.write(file, source.toString().getBytes(StandardCharsets.UTF_8));
+    return file.toFile();
+  }
+
+  private static void appendField(StringBuilder source, String fieldName, String type, AccessorStyle style) {
+    String capitalized = Character.toUpperCase(fieldName.charAt(0)) + fieldName.substring(1);
+    switch (style) {
+      case PUBLIC_FIELD:
+        source.append("  public ").append(type).append(' ').append(fieldName).append(";\n\n");
+        break;
+      case GETTER:
+        String prefix = "boolean".equals(type) ? "is" : "get";
+        source.append("  private ").append(type).append(' ').append(fieldName).append(";\n\n");
+        source.append("  public ").append(type).append(' ').append(prefix).append(capitalized)
+              .append("() {\n    return ").append(fieldName).append(";\n  }\n\n");
+        break;
+      case SAME_NAME:
+        source.append("  private ").append(type).append(' ').append(fieldName).append(";\n\n");
+        source.append("  public ").append(type).append(' ').append(fieldName)
+              .append("() {\n    return ").append(fieldName).append(";\n  }\n\n");
+        break;
+      case NONE:
+        source.append("  private ").append(type).append(' ').append(fieldName).append(";\n\n");
+        break;
+    }
+  }
+
+  private static String baseName(int level) {
+    return "Base" + level;
+  }
+
+}
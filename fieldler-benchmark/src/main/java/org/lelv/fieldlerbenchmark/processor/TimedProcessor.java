@@ -0,0 +1,72 @@
+package org.lelv.fieldlerbenchmark.processor;
+
+import javax.annotation.processing.Completion;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.Processor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.TypeElement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Processor that delegates to another one, measuring the time spent on every round.
+ */
+class TimedProcessor implements Processor {
+
+  private final Processor delegate;
+  private final List<Long> roundNanos = new ArrayList<>();
+
+  TimedProcessor(Processor delegate) {
+    this.delegate = delegate;
+  }
+
+  List<Long> getRoundNanos() {
+    return Collections.unmodifiableList(roundNanos);
+  }
+
+  long getTotalNanos() {
+    return roundNanos.stream().mapToLong(Long::longValue).sum();
+  }
+
+  @Override
+  public Set<String> getSupportedOptions() {
+    return delegate.getSupportedOptions();
+  }
+
+  @Override
+  public Set<String> getSupportedAnnotationTypes() {
+    return delegate.getSupportedAnnotationTypes();
+  }
+
+  @Override
+  public SourceVersion getSupportedSourceVersion() {
+    return delegate.getSupportedSourceVersion();
+  }
+
+  @Override
+  public void init(ProcessingEnvironment processingEnv) {
+    delegate.init(processingEnv);
+  }
+
+  @Override
+  public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+    long start = System.nanoTime();
+    try {
+      return delegate.process(annotations, roundEnv);
+    } finally {
+      roundNanos.add(System.nanoTime() - start);
+    }
+  }
+
+  @Override
+  public Iterable<? extends Completion> getCompletions(Element element, AnnotationMirror annotation, ExecutableElement member, String userText) {
+    return delegate.getCompletions(element, annotation, member, userText);
+  }
+
+}
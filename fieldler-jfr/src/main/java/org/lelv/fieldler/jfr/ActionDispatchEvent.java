@@ -0,0 +1,29 @@
+package org.lelv.fieldler.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+/**
+ * Action run by a comparison because its condition holds, such as the one given to
+ * {@link org.lelv.fieldler.output.FieldComparison#doWhenDifferent(Object, Runnable)}
+ *
+ * @author Lelv
+ */
+@Name("org.lelv.fieldler.ActionDispatch")
+@Label("Action Dispatch")
+@Category("Fieldler")
+@Description("Action run by a comparison whose condition holds")
+@Threshold("1 ms")
+class ActionDispatchEvent extends ComparisonEvent {
+
+  @Label("Tested Fields")
+  @Description("Number of fields tested by the comparison when the action was run")
+  int testedFields;
+
+  @Label("Differences")
+  @Description("Number of different fields known by the comparison when the action was run")
+  int differences;
+}
@@ -0,0 +1,27 @@
+package org.lelv.fieldler.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Creation of a {@link org.lelv.fieldler.output.FieldComparison}. Comparisons are usually created at a high rate, so the
+ * event is disabled unless a recording enables it.
+ *
+ * @author Lelv
+ */
+@Name("org.lelv.fieldler.ComparisonCreated")
+@Label("Comparison Created")
+@Category("Fieldler")
+@Description("Creation of a comparison of two objects")
+@Enabled(false)
+@StackTrace(false)
+class ComparisonCreatedEvent extends ComparisonEvent {
+
+  @Label("Fields")
+  @Description("Number of fields of the compared class")
+  int fields;
+}
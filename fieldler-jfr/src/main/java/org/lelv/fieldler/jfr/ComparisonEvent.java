@@ -0,0 +1,17 @@
+package org.lelv.fieldler.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+
+/**
+ * Common fields of the events of the comparisons
+ *
+ * @author Lelv
+ */
+abstract class ComparisonEvent extends Event {
+
+  @Label("Type")
+  @Description("Class of the compared objects")
+  Class<?> type;
+}
@@ -0,0 +1,29 @@
+package org.lelv.fieldler.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+/**
+ * Batch of field tests of a comparison, such as those run by
+ * {@link org.lelv.fieldler.output.FieldComparison#testAllFields()}
+ *
+ * @author Lelv
+ */
+@Name("org.lelv.fieldler.FieldTestBatch")
+@Label("Field Test Batch")
+@Category("Fieldler")
+@Description("Batch of equality tests of the fields of a comparison")
+@Threshold("1 ms")
+class FieldTestBatchEvent extends ComparisonEvent {
+
+  @Label("Tested Fields")
+  @Description("Number of fields tested by the batch")
+  int testedFields;
+
+  @Label("Differences")
+  @Description("Number of different fields known after the batch")
+  int differences;
+}
@@ -0,0 +1,92 @@
+package org.lelv.fieldler.jfr;
+
+import jdk.jfr.EventType;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.FlightRecorderListener;
+import jdk.jfr.Recording;
+import org.lelv.fieldler.output.ComparisonRecorder;
+
+/**
+ * {@link ComparisonRecorder} which emits JDK Flight Recorder events: {@code org.lelv.fieldler.ComparisonCreated},
+ * {@code org.lelv.fieldler.FieldTestBatch} and {@code org.lelv.fieldler.ActionDispatch}, all of them in the Fieldler
+ * category.
+ *
+ * <p>The recorder is registered as a service of {@code fieldler}. Every time a recording changes its state, it enables
+ * in the comparisons exactly the notifications whose event is enabled, so without a running recording the comparisons
+ * do not notify anything. The thresholds of the events are applied when they end.
+ *
+ * @author Lelv
+ */
+public final class JfrComparisonRecorder extends ComparisonRecorder {
+
+  /**
+   * Creates the recorder and listens to the changes of state of the recordings
+   */
+  public JfrComparisonRecorder() {
+    FlightRecorder.addListener(new FlightRecorderListener() {
+      @Override
+      public void recordingStateChanged(Recording recording) {
+        refresh();
+      }
+    });
+    // the event types are only looked up when the flight recorder is in use, to not initialize it otherwise
+    if (FlightRecorder.isInitialized()) {
+      refresh();
+    }
+  }
+
+  private void refresh() {
+    enable(EventType.getEventType(ComparisonCreatedEvent.class).isEnabled(),
+           EventType.getEventType(FieldTestBatchEvent.class).isEnabled(),
+           EventType.getEventType(ActionDispatchEvent.class).isEnabled());
+  }
+
+  @Override
+  protected void comparisonCreated(Class<?> type, int fields) {
+    ComparisonCreatedEvent event = new ComparisonCreatedEvent();
+    if (event.shouldCommit()) {
+      event.type = type;
+      event.fields = fields;
+      event.commit();
+    }
+  }
+
+  @Override
+  protected Object beginTests() {
+    FieldTestBatchEvent event = new FieldTestBatchEvent();
+    event.begin();
+    return event;
+  }
+
+  @Override
+  protected void endTests(Object batch, Class<?> type, int testedFields, int differences) {
+    FieldTestBatchEvent event = (FieldTestBatchEvent) batch;
+    event.end();
+    if (event.shouldCommit()) {
+      event.type = type;
+      event.testedFields = testedFields;
+      event.differences = differences;
+      event.commit();
+    }
+  }
+
+  @Override
+  protected Object beginAction() {
+    ActionDispatchEvent event = new ActionDispatchEvent();
+    event.begin();
+    return event;
+  }
+
+  @Override
+  protected void endAction(Object action, Class<?> type, int testedFields, int differences) {
+    ActionDispatchEvent event = (ActionDispatchEvent) action;
+    event.end();
+    if (event.shouldCommit()) {
+      event.type = type;
+      event.testedFields = testedFields;
+      event.differences = differences;
+      event.commit();
+    }
+  }
+
+}
@@ -0,0 +1,113 @@
+package org.lelv.fieldler.jfr;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.lelv.fieldler.output.FieldComparison;
+import org.lelv.fieldler.output.RuntimeField;
+import org.lelv.fieldler.output.RuntimeFieldComparator;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class JfrComparisonRecorderTest {
+
+  private static final String CREATED = "org.lelv.fieldler.ComparisonCreated";
+  private static final String TEST_BATCH = "org.lelv.fieldler.FieldTestBatch";
+  private static final String ACTION = "org.lelv.fieldler.ActionDispatch";
+
+  private final RuntimeFieldComparator<Sample> comparator = RuntimeFieldComparator.of(Sample.class);
+
+  @Test
+  public void testEnabledEventsAreRecorded() throws IOException {
+    List<RecordedEvent> events;
+    try (Recording recording = new Recording()) {
+      recording.enable(CREATED);
+      recording.enable(TEST_BATCH).withThreshold(Duration.ZERO);
+      recording.enable(ACTION).withThreshold(Duration.ZERO);
+      recording.start();
+      compare();
+      recording.stop();
+      events = events(recording);
+    }
+
+    RecordedEvent created = event(events, CREATED);
+    RecordedEvent testBatch = event(events, TEST_BATCH);
+    RecordedEvent action = event(events, ACTION);
+    assertThat(created.getClass("type").getName()).isEqualTo(Sample.class.getName());
+    assertThat(created.getInt("fields")).isEqualTo(3);
+    assertThat(testBatch.getInt("testedFields")).isEqualTo(2);
+    assertThat(testBatch.getInt("differences")).isEqualTo(2);
+    assertThat(action.getInt("testedFields")).isEqualTo(3);
+    assertThat(action.getInt("differences")).isEqualTo(2);
+    assertThat(action.getDuration()).isGreaterThanOrEqualTo(Duration.ofMillis(5));
+  }
+
+  @Test
+  public void testDisabledEventsAreNotRecorded() throws IOException {
+    List<RecordedEvent> events;
+    try (Recording recording = new Recording()) {
+      // the creation is disabled by default
+      recording.enable(TEST_BATCH).withThreshold(Duration.ZERO);
+      recording.disable(ACTION);
+      recording.start();
+      compare();
+      recording.stop();
+      events = events(recording);
+    }
+
+    assertThat(events).extracting(event -> event.getEventType().getName()).containsOnly(TEST_BATCH);
+  }
+
+  private void compare() {
+    Sample sampleA = new Sample();
+    Sample sampleB = new Sample();
+    sampleB.code = "B";
+    sampleB.count = 1;
+    FieldComparison<Sample, RuntimeField> comparison = comparator.compare(sampleA, sampleB);
+    comparison.isEqual(comparator.field("code"));
+    comparison.testAllFields();
+    comparison.doWhenDifferent(comparator.field("count"), () -> sleep(5));
+  }
+
+  private static List<RecordedEvent> events(Recording recording) throws IOException {
+    Path file = Files.createTempFile("fieldler-jfr", ".jfr");
+    try {
+      recording.dump(file);
+      return RecordingFile.readAllEvents(file).stream()
+                          .filter(event -> event.getEventType().getName().startsWith("org.lelv.fieldler"))
+                          .collect(Collectors.toList());
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  private static RecordedEvent event(List<RecordedEvent> events, String name) {
+    List<RecordedEvent> matching = events.stream().filter(event -> event.getEventType().getName().equals(name)).collect(Collectors.toList());
+    assertThat(matching).as(name).hasSize(1);
+    return matching.get(0);
+  }
+
+  private static void sleep(long millis) {
+    try {
+      Thread.sleep(millis);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  public static class Sample {
+
+    public String code = "A";
+    public int count;
+    public boolean active;
+  }
+
+}
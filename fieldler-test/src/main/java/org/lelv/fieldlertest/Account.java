@@ -0,0 +1,57 @@
+package org.lelv.fieldlertest;
+
+import org.lelv.fieldler.annotation.FieldComparator;
+import org.lelv.fieldler.annotation.FieldEquality;
+
+import java.math.BigDecimal;
+
+@FieldComparator(adaptive = true, columns = true)
+public class Account {
+
+  // built-in static method strategy
+  @FieldEquality(method = "equalsIgnoreCase")
+  private String email;
+
+  // comparator strategy
+  @FieldEquality(using = NumericValueComparator.class)
+  private BigDecimal balance;
+
+  // built-in static method strategy with tolerance
+  @FieldEquality(method = "equalsWithTolerance", tolerance = 0.01)
+  private double weight;
+
+  // default equality
+  private String owner;
+
+  public String getEmail() {
+    return email;
+  }
+
+  public void setEmail(String email) {
+    this.email = email;
+  }
+
+  public BigDecimal getBalance() {
+    return balance;
+  }
+
+  public void setBalance(BigDecimal balance) {
+    this.balance = balance;
+  }
+
+  public double getWeight() {
+    return weight;
+  }
+
+  public void setWeight(double weight) {
+    this.weight = weight;
+  }
+
+  public String getOwner() {
+    return owner;
+  }
+
+  public void setOwner(String owner) {
+    this.owner = owner;
+  }
+}
@@ -0,0 +1,15 @@
+package org.lelv.fieldlertest;
+
+public class Article {
+
+  // package-private field, inherited through a class of another package, getter accessor
+  int revision;
+
+  public int getRevision() {
+    return revision;
+  }
+
+  public void setRevision(int revision) {
+    this.revision = revision;
+  }
+}
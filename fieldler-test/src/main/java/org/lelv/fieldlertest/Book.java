@@ -0,0 +1,19 @@
+package org.lelv.fieldlertest;
+
+import org.lelv.fieldler.annotation.FieldComparator;
+import org.lelv.fieldlertest.catalog.CatalogEntry;
+
+@FieldComparator
+public class Book extends CatalogEntry {
+
+  // package-private field, read directly
+  String isbn;
+
+  public String getIsbn() {
+    throw new IllegalArgumentException("Should not be used by the library");
+  }
+
+  public void setIsbn(String isbn) {
+    this.isbn = isbn;
+  }
+}
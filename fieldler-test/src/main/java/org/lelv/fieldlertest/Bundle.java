@@ -0,0 +1,31 @@
+package org.lelv.fieldlertest;
+
+import org.lelv.fieldler.annotation.FieldComparator;
+
+import java.util.List;
+
+@FieldComparator(json = true)
+public class Bundle {
+
+  // private field, getter accessor
+  private String name;
+
+  // private field, getter accessor, not comparable
+  private List<String> tags;
+
+  public String getName() {
+    return name;
+  }
+
+  public List<String> getTags() {
+    return tags;
+  }
+
+  public void setName(String name) {
+    this.name = name;
+  }
+
+  public void setTags(List<String> tags) {
+    this.tags = tags;
+  }
+}
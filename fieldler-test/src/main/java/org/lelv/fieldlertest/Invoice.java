@@ -0,0 +1,25 @@
+package org.lelv.fieldlertest;
+
+import org.lelv.fieldler.annotation.FieldComparator;
+
+@FieldComparator(directFieldAccess = false)
+public class Invoice {
+
+  // package-private field, getter accessor because direct access is disabled
+  String number;
+
+  // package-private field without accessor
+  String notes;
+
+  public String getNumber() {
+    return number;
+  }
+
+  public void setNumber(String number) {
+    this.number = number;
+  }
+
+  public void setNotes(String notes) {
+    this.notes = notes;
+  }
+}
@@ -0,0 +1,15 @@
+package org.lelv.fieldlertest;
+
+public abstract class Item {
+
+  // protected field in the same package, read directly
+  protected String category;
+
+  public String getCategory() {
+    throw new IllegalArgumentException("Should not be used by the library");
+  }
+
+  public void setCategory(String category) {
+    this.category = category;
+  }
+}
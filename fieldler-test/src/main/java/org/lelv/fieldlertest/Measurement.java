@@ -0,0 +1,44 @@
+package org.lelv.fieldlertest;
+
+import org.lelv.fieldler.annotation.FieldData;
+import org.lelv.fieldler.annotation.FieldEquality;
+
+import java.util.List;
+
+@FieldData(columns = true)
+public class Measurement {
+
+  // primitive columns
+  public int sensor;
+  public long timestamp;
+  public boolean valid;
+  public char unit;
+
+  // primitive column with a custom equality
+  @FieldEquality(method = "equalsWithTolerance", tolerance = 0.5)
+  public double temperature;
+
+  // reference columns
+  public String label;
+  public int[] samples;
+
+  // generic column, stored with its erasure
+  private List<String> tags;
+
+  public Measurement(int sensor, long timestamp, double temperature, String label) {
+    this.sensor = sensor;
+    this.timestamp = timestamp;
+    this.valid = true;
+    this.unit = 'C';
+    this.temperature = temperature;
+    this.label = label;
+  }
+
+  public List<String> getTags() {
+    return tags;
+  }
+
+  public void setTags(List<String> tags) {
+    this.tags = tags;
+  }
+}
@@ -0,0 +1,15 @@
+package org.lelv.fieldlertest;
+
+import java.math.BigDecimal;
+import java.util.Comparator;
+
+public class NumericValueComparator implements Comparator<BigDecimal> {
+
+  @Override
+  public int compare(BigDecimal a, BigDecimal b) {
+    if (a == null || b == null) {
+      return a == b ? 0 : a == null ? -1 : 1;
+    }
+    return a.compareTo(b);
+  }
+}
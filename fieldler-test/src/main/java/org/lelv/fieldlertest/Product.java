@@ -0,0 +1,40 @@
+package org.lelv.fieldlertest;
+
+import org.lelv.fieldler.annotation.FieldComparator;
+
+@FieldComparator(json = true)
+public class Product extends Item {
+
+  // package-private field, read directly
+  String code;
+
+  // protected field, read directly
+  protected long stock;
+
+  // private field, getter accessor
+  private String description;
+
+  public String getCode() {
+    throw new IllegalArgumentException("Should not be used by the library");
+  }
+
+  public long getStock() {
+    throw new IllegalArgumentException("Should not be used by the library");
+  }
+
+  public String getDescription() {
+    return description;
+  }
+
+  public void setCode(String code) {
+    this.code = code;
+  }
+
+  public void setStock(long stock) {
+    this.stock = stock;
+  }
+
+  public void setDescription(String description) {
+    this.description = description;
+  }
+}
@@ -0,0 +1,20 @@
+package org.lelv.fieldlertest;
+
+import org.lelv.fieldler.annotation.FieldData;
+
+// no accessible fields, so no classes are generated even with columns requested
+@FieldData(columns = true)
+public class SealedReading {
+
+  private int sensor;
+  private double value;
+
+  public SealedReading(int sensor, double value) {
+    this.sensor = sensor;
+    this.value = value;
+  }
+
+  public double scaled(double factor) {
+    return sensor * value * factor;
+  }
+}
@@ -0,0 +1,48 @@
+package org.lelv.fieldlertest;
+
+import org.lelv.fieldler.annotation.FieldComparator;
+import org.lelv.fieldler.annotation.FieldEquality;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Entity whose comparator is generated without lambdas, with more fields than fit in a single chunk of the switches
+ */
+@FieldComparator(lambdaFree = true)
+public class Shipment {
+
+  // primitive fields
+  public int parcels;
+  public long trackingNumber;
+  public boolean express;
+  public char priority;
+  public short zone;
+
+  // primitive field with a custom equality
+  @FieldEquality(method = "equalsWithTolerance", tolerance = 0.1)
+  public double weight;
+
+  // reference fields
+  public String carrier;
+  public Integer attempts;
+
+  // built-in static method strategy
+  @FieldEquality(method = "equalsIgnoreCase")
+  public String destination;
+
+  // comparator strategy
+  @FieldEquality(using = NumericValueComparator.class)
+  public BigDecimal insuredValue;
+
+  // getter accessor, not comparable
+  private List<String> labels;
+
+  public List<String> getLabels() {
+    return labels;
+  }
+
+  public void setLabels(List<String> labels) {
+    this.labels = labels;
+  }
+}
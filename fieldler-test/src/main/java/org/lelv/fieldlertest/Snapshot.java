@@ -0,0 +1,27 @@
+package org.lelv.fieldlertest;
+
+import org.lelv.fieldler.annotation.FieldComparator;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+@FieldComparator(immutable = true, cacheSize = 16)
+public final class Snapshot {
+
+  public static final AtomicInteger OWNER_READS = new AtomicInteger();
+
+  // package-private field, read directly
+  final int version;
+
+  // getter accessor, counts its invocations
+  private final String owner;
+
+  public Snapshot(int version, String owner) {
+    this.version = version;
+    this.owner = owner;
+  }
+
+  public String getOwner() {
+    OWNER_READS.incrementAndGet();
+    return owner;
+  }
+}
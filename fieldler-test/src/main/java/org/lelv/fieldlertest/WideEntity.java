@@ -0,0 +1,162 @@
+package org.lelv.fieldlertest;
+
+import org.lelv.fieldler.annotation.FieldComparator;
+
+/**
+ * Entity with more fields than fit in a single chunk of the generated methods
+ */
+@FieldComparator(columns = true, json = true)
+public class WideEntity {
+
+  public int value0;
+  public int value1;
+  public int value2;
+  public int value3;
+  public int value4;
+  public int value5;
+  public int value6;
+  public int value7;
+  public int value8;
+  public int value9;
+  public int value10;
+  public int value11;
+  public int value12;
+  public int value13;
+  public int value14;
+  public int value15;
+  public int value16;
+  public int value17;
+  public int value18;
+  public int value19;
+  public int value20;
+  public int value21;
+  public int value22;
+  public int value23;
+  public int value24;
+  public int value25;
+  public int value26;
+  public int value27;
+  public int value28;
+  public int value29;
+  public int value30;
+  public int value31;
+  public int value32;
+  public int value33;
+  public int value34;
+  public int value35;
+  public int value36;
+  public int value37;
+  public int value38;
+  public int value39;
+  public int value40;
+  public int value41;
+  public int value42;
+  public int value43;
+  public int value44;
+  public int value45;
+  public int value46;
+  public int value47;
+  public int value48;
+  public int value49;
+  public int value50;
+  public int value51;
+  public int value52;
+  public int value53;
+  public int value54;
+  public int value55;
+  public int value56;
+  public int value57;
+  public int value58;
+  public int value59;
+  public int value60;
+  public int value61;
+  public int value62;
+  public int value63;
+  public int value64;
+  public int value65;
+  public int value66;
+  public int value67;
+  public int value68;
+  public int value69;
+  public int value70;
+  public int value71;
+  public int value72;
+  public int value73;
+  public int value74;
+  public int value75;
+  public int value76;
+  public int value77;
+  public int value78;
+  public int value79;
+  public int value80;
+  public int value81;
+  public int value82;
+  public int value83;
+  public int value84;
+  public int value85;
+  public int value86;
+  public int value87;
+  public int value88;
+  public int value89;
+  public int value90;
+  public int value91;
+  public int value92;
+  public int value93;
+  public int value94;
+  public int value95;
+  public int value96;
+  public int value97;
+  public int value98;
+  public int value99;
+  public int value100;
+  public int value101;
+  public int value102;
+  public int value103;
+  public int value104;
+  public int value105;
+  public int value106;
+  public int value107;
+  public int value108;
+  public int value109;
+  public int value110;
+  public int value111;
+  public int value112;
+  public int value113;
+  public int value114;
+  public int value115;
+  public int value116;
+  public int value117;
+  public int value118;
+  public int value119;
+  public int value120;
+  public int value121;
+  public int value122;
+  public int value123;
+  public int value124;
+  public int value125;
+  public int value126;
+  public int value127;
+  public int value128;
+  public int value129;
+  public int value130;
+  public int value131;
+  public int value132;
+  public int value133;
+  public int value134;
+  public int value135;
+  public int value136;
+  public int value137;
+  public int value138;
+  public int value139;
+  public int value140;
+  public int value141;
+  public int value142;
+  public int value143;
+  public int value144;
+  public int value145;
+  public int value146;
+  public int value147;
+  public int value148;
+  public int value149;
+
+}
@@ -0,0 +1,17 @@
+package org.lelv.fieldlertest.catalog;
+
+import org.lelv.fieldlertest.Article;
+
+public class CatalogEntry extends Article {
+
+  // package-private field of another package, getter accessor
+  String section;
+
+  public String getSection() {
+    return section;
+  }
+
+  public void setSection(String section) {
+    this.section = section;
+  }
+}
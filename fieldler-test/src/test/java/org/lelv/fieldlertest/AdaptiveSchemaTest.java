@@ -0,0 +1,49 @@
+package org.lelv.fieldlertest;
+
+import org.junit.jupiter.api.Test;
+import org.lelv.fieldler.output.FieldComparison;
+import org.lelv.fieldler.output.FieldCost;
+import org.lelv.fieldler.output.FieldSchema;
+import org.lelv.fieldler.output.FieldStatistics;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.function.BiPredicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.lelv.fieldlertest.PersonField.*;
+
+public class AdaptiveSchemaTest {
+
+  @Test
+  public void testGeneratedSchemaIsAdaptive() {
+    assertThat(AccountFieldComparator.schema().isAdaptive()).isTrue();
+    assertThat(PersonFieldComparator.schema().isAdaptive()).isFalse();
+    assertThat(PersonFieldComparator.schema().evaluationOrder()).startsWith(AGE, ALIVE);
+  }
+
+  @Test
+  public void testFieldsThatDecideQueriesMoveFirst() {
+    Map<PersonField, BiPredicate<Person, Person>> equalityTests = new EnumMap<>(PersonField.class);
+    equalityTests.put(AGE, (personA, personB) -> true);
+    equalityTests.put(ALIVE, (personA, personB) -> true);
+    equalityTests.put(NAME, (personA, personB) -> false);
+    Map<PersonField, FieldCost> costs = new EnumMap<>(PersonField.class);
+    costs.put(AGE, FieldCost.PRIMITIVE);
+    costs.put(ALIVE, FieldCost.PRIMITIVE);
+    costs.put(NAME, FieldCost.COMPLEX);
+    FieldSchema<Person, PersonField> schema = FieldSchema.builder(equalityTests).costs(costs).adaptive(true).build();
+    assertThat(schema.evaluationOrder()).containsExactly(AGE, ALIVE, NAME);
+
+    Person person = new Person();
+    for (int i = 0; i < 100_000; i++) {
+      new FieldComparison<>(person, person, schema).isAnyDifferent();
+    }
+
+    assertThat(schema.evaluationOrder()).startsWith(NAME);
+    FieldStatistics<PersonField> nameStatistics = schema.statistics().get(schema.indexOf(NAME));
+    assertThat(nameStatistics.getSamples()).isPositive();
+    assertThat(nameStatistics.getDifferenceRate()).isEqualTo(1.0);
+  }
+
+}
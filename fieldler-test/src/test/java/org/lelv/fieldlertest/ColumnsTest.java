@@ -0,0 +1,109 @@
+package org.lelv.fieldlertest;
+
+import org.junit.jupiter.api.Test;
+import org.lelv.fieldler.output.ColumnDiff;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class ColumnsTest {
+
+  @Test
+  public void testRowsAreCopiedToColumns() {
+    Measurement measurement = new Measurement(7, 1000L, 21.5, "kitchen");
+    measurement.setTags(Collections.singletonList("indoor"));
+
+    MeasurementColumns columns = MeasurementColumns.of(Arrays.asList(new Measurement(1, 0L, 0.0, null), measurement));
+
+    assertThat(columns.size()).isEqualTo(2);
+    assertThat(columns.getSensor(1)).isEqualTo(7);
+    assertThat(columns.getTimestamp(1)).isEqualTo(1000L);
+    assertThat(columns.getUnit(1)).isEqualTo('C');
+    assertThat(columns.getLabel(0)).isNull();
+    assertThat(columns.getTags(1)).containsExactly("indoor");
+    assertThat(columns.get(MeasurementField.TEMPERATURE, 1)).isEqualTo(21.5);
+    assertThat(columns.get(MeasurementField.VALID, 0)).isEqualTo(true);
+  }
+
+  @Test
+  public void testEmptyColumnsHaveNoRows() {
+    MeasurementColumns columns = MeasurementColumns.of(Collections.emptyList());
+
+    assertThat(columns.size()).isZero();
+    assertThat(columns.diff(MeasurementColumns.of(Collections.emptyList())).rows()).isZero();
+  }
+
+  @Test
+  public void testNoColumnsAreGeneratedWithoutAccessibleFields() {
+    assertThat(new SealedReading(1, 2.0).scaled(3.0)).isEqualTo(6.0);
+    assertThatThrownBy(() -> Class.forName("org.lelv.fieldlertest.SealedReadingColumns"))
+        .isInstanceOf(ClassNotFoundException.class);
+  }
+
+  @Test
+  public void testDiffProducesMasksPerRow() {
+    List<Measurement> before = Arrays.asList(new Measurement(1, 10L, 20.0, "a"), new Measurement(2, 20L, 20.0, "b"),
+                                             new Measurement(3, 30L, 20.0, "c"));
+    List<Measurement> after = Arrays.asList(new Measurement(1, 10L, 20.4, "a"), new Measurement(2, 21L, 25.0, "b"),
+                                            new Measurement(3, 30L, 20.0, "z"));
+
+    ColumnDiff<MeasurementField> diff = MeasurementColumns.of(before).diff(MeasurementColumns.of(after));
+
+    assertThat(diff.rows()).isEqualTo(3);
+    assertThat(diff.hasDifferences(0)).isFalse();
+    assertThat(diff.differentFields(1)).containsExactly(MeasurementField.TIMESTAMP, MeasurementField.TEMPERATURE);
+    assertThat(diff.differentFields(2)).containsExactly(MeasurementField.LABEL);
+    assertThat(diff.differentRows().stream().toArray()).containsExactly(1, 2);
+    assertThat(diff.differenceCount(MeasurementField.TEMPERATURE)).isEqualTo(1);
+    assertThatThrownBy(() -> MeasurementColumns.of(before).diff(MeasurementColumns.of(after.subList(0, 1))))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  public void testDiffMatchesFieldComparisons() {
+    List<Account> accountsA = new ArrayList<>();
+    List<Account> accountsB = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      accountsA.add(account("user" + i + "@mail.com", BigDecimal.valueOf(i), i, "owner" + i));
+      accountsB.add(account((i % 3 == 0 ? "USER" : "other") + i + "@mail.com", new BigDecimal(i + (i % 5 == 0 ? ".00" : ".5")),
+                            i + (i % 7 == 0 ? 0.001 : 1), "owner" + i % 50));
+    }
+
+    ColumnDiff<AccountField> diff = AccountColumns.of(accountsA).diff(AccountColumns.of(accountsB));
+
+    for (int row = 0; row < accountsA.size(); row++) {
+      assertThat(diff.differentFields(row)).as("row %d", row)
+                                           .containsExactlyInAnyOrderElementsOf(
+                                               AccountFieldComparator.compare(accountsA.get(row), accountsB.get(row)).differentFields());
+    }
+  }
+
+  @Test
+  public void testWideColumns() {
+    WideEntity entityA = new WideEntity();
+    WideEntity entityB = new WideEntity();
+    entityB.value3 = 1;
+    entityB.value149 = 1;
+
+    ColumnDiff<WideEntityField> diff = WideEntityColumns.of(Collections.singletonList(entityA)).diff(WideEntityColumns.of(Collections.singletonList(entityB)));
+
+    assertThat(diff.differentFields(0)).containsExactly(WideEntityField.VALUE3, WideEntityField.VALUE149);
+    assertThat(WideEntityColumns.of(Collections.singletonList(entityB)).get(WideEntityField.VALUE149, 0)).isEqualTo(1);
+  }
+
+  private static Account account(String email, BigDecimal balance, double weight, String owner) {
+    Account account = new Account();
+    account.setEmail(email);
+    account.setBalance(balance);
+    account.setWeight(weight);
+    account.setOwner(owner);
+    return account;
+  }
+
+}
@@ -0,0 +1,57 @@
+package org.lelv.fieldlertest;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.lelv.fieldler.output.ComparisonCache;
+import org.lelv.fieldler.output.FieldComparison;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.lelv.fieldlertest.SnapshotField.*;
+
+public class ComparisonCacheTest {
+
+  private final Snapshot snapshotA = new Snapshot(1, "alice");
+  private final Snapshot snapshotB = new Snapshot(2, "alice");
+
+  @BeforeEach
+  public void beforeEach() {
+    Snapshot.OWNER_READS.set(0);
+  }
+
+  @Test
+  public void testSamePairIsOnlyTestedOnce() {
+    FieldComparison<Snapshot, SnapshotField> first = SnapshotFieldComparator.compare(snapshotA, snapshotB);
+    FieldComparison<Snapshot, SnapshotField> second = SnapshotFieldComparator.compare(snapshotA, snapshotB);
+
+    assertThat(first.differentFields()).containsExactly(VERSION);
+    assertThat(second.differentFields()).containsExactly(VERSION);
+    assertThat(second.isEqual(OWNER)).isTrue();
+    assertThat(second.getObjectA()).isSameAs(snapshotA);
+    assertThat(Snapshot.OWNER_READS.get()).isEqualTo(2);
+  }
+
+  @Test
+  public void testPairsAreKeyedByIdentity() {
+    SnapshotFieldComparator.compare(snapshotA, snapshotB);
+    SnapshotFieldComparator.compare(snapshotB, snapshotA);
+    SnapshotFieldComparator.compare(snapshotA, new Snapshot(2, "alice"));
+
+    assertThat(Snapshot.OWNER_READS.get()).isEqualTo(6);
+  }
+
+  @Test
+  public void testClearingACachedComparisonDoesNotAffectTheCache() {
+    SnapshotFieldComparator.compare(snapshotA, snapshotB).clearTests();
+
+    assertThat(SnapshotFieldComparator.compare(snapshotA, snapshotB).isDifferent(VERSION)).isTrue();
+    assertThat(Snapshot.OWNER_READS.get()).isEqualTo(2);
+  }
+
+  @Test
+  public void testCacheSize() {
+    assertThat(new ComparisonCache<>(SnapshotFieldComparator.schema(), 100).capacity()).isEqualTo(128);
+    assertThatThrownBy(() -> new ComparisonCache<>(SnapshotFieldComparator.schema(), 0)).isInstanceOf(IllegalArgumentException.class);
+  }
+
+}
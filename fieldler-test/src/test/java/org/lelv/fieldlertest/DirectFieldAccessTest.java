@@ -0,0 +1,64 @@
+package org.lelv.fieldlertest;
+
+import org.junit.jupiter.api.Test;
+import org.lelv.fieldler.output.FieldComparison;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class DirectFieldAccessTest {
+
+  @Test
+  public void testPackagePrivateAndProtectedFieldsAreReadDirectly() {
+    Product productA = new Product();
+    productA.setCategory("books");
+    productA.setCode("B-1");
+    productA.setStock(3);
+    productA.setDescription("A book");
+    Product productB = new Product();
+    productB.setCategory("books");
+    productB.setCode("B-2");
+    productB.setStock(3);
+    productB.setDescription("Another book");
+
+    FieldComparison<Product, ProductField> comparison = ProductFieldComparator.compare(productA, productB);
+
+    assertThat(ProductField.values()).containsExactlyInAnyOrder(ProductField.CODE, ProductField.STOCK,
+                                                                ProductField.DESCRIPTION, ProductField.CATEGORY);
+    assertThat(comparison.equalFields()).containsExactlyInAnyOrder(ProductField.STOCK, ProductField.CATEGORY);
+    assertThat(comparison.differentFields()).containsExactlyInAnyOrder(ProductField.CODE, ProductField.DESCRIPTION);
+  }
+
+  @Test
+  public void testFieldsInheritedThroughAnotherPackageAreReadByGetters() {
+    Book bookA = new Book();
+    bookA.setIsbn("978-0");
+    bookA.setSection("novels");
+    bookA.setRevision(1);
+    Book bookB = new Book();
+    bookB.setIsbn("978-0");
+    bookB.setSection("essays");
+    bookB.setRevision(2);
+
+    FieldComparison<Book, BookField> comparison = BookFieldComparator.compare(bookA, bookB);
+
+    assertThat(BookField.values()).containsExactly(BookField.ISBN, BookField.SECTION, BookField.REVISION);
+    assertThat(comparison.equalFields()).containsExactly(BookField.ISBN);
+    assertThat(comparison.differentFields()).containsExactlyInAnyOrder(BookField.SECTION, BookField.REVISION);
+  }
+
+  @Test
+  public void testDirectFieldAccessCanBeDisabled() {
+    Invoice invoiceA = new Invoice();
+    invoiceA.setNumber("1");
+    invoiceA.setNotes("first");
+    Invoice invoiceB = new Invoice();
+    invoiceB.setNumber("1");
+    invoiceB.setNotes("second");
+
+    FieldComparison<Invoice, InvoiceField> comparison = InvoiceFieldComparator.compare(invoiceA, invoiceB);
+
+    assertThat(InvoiceField.values()).containsExactly(InvoiceField.NUMBER);
+    assertThat(comparison.hasDifferences()).isFalse();
+  }
+
+}
@@ -0,0 +1,73 @@
+package org.lelv.fieldlertest;
+
+import org.junit.jupiter.api.Test;
+import org.lelv.fieldler.output.FieldComparison;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class FieldComparisonOrderTest {
+
+  @Test
+  public void testGreaterAndLess() {
+    Person personA = new Person();
+    personA.setAge(30);
+    personA.setName("Anne");
+    Person personB = new Person();
+    personB.setAge(20);
+
+    FieldComparison<Person, PersonField> comparison = PersonFieldComparator.compare(personA, personB);
+
+    assertThat(comparison.compare(PersonField.AGE)).isEqualTo(1);
+    assertThat(comparison.isGreater(PersonField.AGE)).isTrue();
+    assertThat(comparison.isLess(PersonField.AGE)).isFalse();
+    assertThat(comparison.isGreater(PersonField.NAME)).isTrue();
+    assertThat(comparison.compare(PersonField.LAST_NAME)).isZero();
+  }
+
+  @Test
+  public void testOrderAndEqualityAreDeducedFromEachOther() {
+    Snapshot snapshotA = new Snapshot(1, "alice");
+    Snapshot snapshotB = new Snapshot(1, "bob");
+    Snapshot.OWNER_READS.set(0);
+    FieldComparison<Snapshot, SnapshotField> comparison = new FieldComparison<>(snapshotA, snapshotB, SnapshotFieldComparator.schema());
+
+    assertThat(comparison.isLess(SnapshotField.OWNER)).isTrue();
+    assertThat(comparison.isDifferent(SnapshotField.OWNER)).isTrue();
+    assertThat(comparison.isEqual(SnapshotField.VERSION)).isTrue();
+    assertThat(comparison.compare(SnapshotField.VERSION)).isZero();
+    assertThat(comparison.compare(SnapshotField.OWNER)).isEqualTo(-1);
+    assertThat(Snapshot.OWNER_READS.get()).isEqualTo(2);
+
+    comparison.clearTests();
+    assertThat(comparison.isGreater(SnapshotField.OWNER)).isFalse();
+    assertThat(Snapshot.OWNER_READS.get()).isEqualTo(4);
+  }
+
+  @Test
+  public void testOrderOfCustomEqualities() {
+    Account accountA = new Account();
+    accountA.setBalance(new BigDecimal("2.0"));
+    accountA.setWeight(1.0);
+    Account accountB = new Account();
+    accountB.setBalance(new BigDecimal("2.00"));
+    accountB.setWeight(1.005);
+
+    FieldComparison<Account, AccountField> comparison = AccountFieldComparator.compare(accountA, accountB);
+
+    assertThat(comparison.compare(AccountField.BALANCE)).isZero();
+    assertThat(comparison.isEqual(AccountField.WEIGHT)).isTrue();
+    assertThat(comparison.isLess(AccountField.WEIGHT)).isTrue();
+  }
+
+  @Test
+  public void testNotComparableField() {
+    FieldComparison<Bundle, BundleField> comparison = BundleFieldComparator.compare(new Bundle(), new Bundle());
+
+    assertThat(BundleFieldComparator.schema().isComparable(BundleField.TAGS)).isFalse();
+    assertThatThrownBy(() -> comparison.compare(BundleField.TAGS)).isInstanceOf(IllegalArgumentException.class);
+  }
+
+}
@@ -0,0 +1,154 @@
+package org.lelv.fieldlertest;
+
+import org.junit.jupiter.api.Test;
+import org.lelv.fieldler.output.FieldComparison;
+import org.lelv.fieldler.output.FieldComparisonResult;
+
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.EnumSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class FieldComparisonResultTest {
+
+  @Test
+  public void testResultAnswersLikeTheComparison() {
+    Random random = new Random(50);
+    for (int iteration = 0; iteration < 200; iteration++) {
+      FieldComparison<Person, PersonField> comparison = PersonFieldComparator.compare(randomPerson(random), randomPerson(random));
+      FieldComparisonResult<Person, PersonField> result = comparison.freeze();
+      List<PersonField> fields = randomFields(random);
+
+      assertThat(result.differentFields()).isEqualTo(comparison.differentFields());
+      assertThat(result.equalFields()).isEqualTo(comparison.equalFields());
+      assertThat(result.numberOfDifferences()).isEqualTo(comparison.numberOfDifferences());
+      assertThat(result.isAnyEqual(fields)).isEqualTo(comparison.isAnyEqual(fields));
+      assertThat(result.isAnyDifferent(fields)).isEqualTo(comparison.isAnyDifferent(fields));
+      assertThat(result.areAllEqual(fields)).isEqualTo(comparison.areAllEqual(fields));
+      assertThat(result.areAllDifferent(fields)).isEqualTo(comparison.areAllDifferent(fields));
+      for (PersonField field : PersonField.values()) {
+        assertThat(result.isDifferent(field)).isEqualTo(comparison.isDifferent(field));
+      }
+      assertThat(result).isEqualTo(PersonFieldComparator.compare(comparison.getObjectA(), comparison.getObjectB()).freeze());
+    }
+  }
+
+  @Test
+  public void testResultDoesNotKeepTheObjects() throws InterruptedException {
+    Person personA = new Person();
+    Person personB = new Person();
+    personB.setName("John");
+    WeakReference<Person> reference = new WeakReference<>(personA);
+
+    FieldComparisonResult<Person, PersonField> result = PersonFieldComparator.compare(personA, personB).freeze();
+    personA = null;
+    for (int attempt = 0; attempt < 20 && reference.get() != null; attempt++) {
+      System.gc();
+      Thread.sleep(10);
+    }
+
+    assertThat(reference.get()).isNull();
+    assertThat(result.differentFields()).containsExactly(PersonField.NAME);
+  }
+
+  @Test
+  public void testResultReachesNoneOfTheObjects() throws IllegalAccessException {
+    Person personA = new Person();
+    Person personB = new Person();
+    personB.setName("John");
+
+    FieldComparison<Person, PersonField> comparison = PersonFieldComparator.compare(personA, personB);
+    FieldComparisonResult<Person, PersonField> result = comparison.freeze();
+
+    assertThat(reachableObjects(comparison)).anyMatch(object -> object == personA).anyMatch(object -> object == personB);
+    assertThat(reachableObjects(result)).noneMatch(object -> object == personA || object == personB);
+  }
+
+  @Test
+  public void testMasksOfSeveralWords() {
+    WideEntity entityA = new WideEntity();
+    WideEntity entityB = new WideEntity();
+    entityB.value63 = 1;
+    entityB.value64 = 1;
+    entityB.value149 = 1;
+
+    FieldComparisonResult<WideEntity, WideEntityField> result = WideEntityFieldComparator.compare(entityA, entityB).freeze();
+
+    assertThat(result.differentMask().fields()).containsExactly(WideEntityField.VALUE63, WideEntityField.VALUE64, WideEntityField.VALUE149);
+    assertThat(result.equalMask().size()).isEqualTo(147);
+    assertThat(result.areAllEqual(EnumSet.range(WideEntityField.VALUE65, WideEntityField.VALUE148))).isTrue();
+    assertThat(result.isAnyEqual(WideEntityField.VALUE63, WideEntityField.VALUE64)).isFalse();
+    assertThat(result.hasEqualities()).isTrue();
+  }
+
+  /**
+   * Collects the objects reachable from an object through the fields of the classes of Fieldler and of its tests, and
+   * through the elements of arrays, collections and maps
+   */
+  private static Set<Object> reachableObjects(Object root) throws IllegalAccessException {
+    Set<Object> reached = Collections.newSetFromMap(new IdentityHashMap<>());
+    Deque<Object> pending = new ArrayDeque<>(Collections.singleton(root));
+    while (!pending.isEmpty()) {
+      Object object = pending.pop();
+      if (!reached.add(object)) {
+        continue;
+      }
+      List<Object> references = new ArrayList<>();
+      Class<?> type = object.getClass();
+      if (object instanceof Object[]) {
+        references.addAll(Arrays.asList((Object[]) object));
+      } else if (object instanceof Collection) {
+        references.addAll((Collection<?>) object);
+      } else if (object instanceof Map) {
+        references.addAll(((Map<?, ?>) object).keySet());
+        references.addAll(((Map<?, ?>) object).values());
+      } else {
+        for (Class<?> declaringType = type; declaringType != null && declaringType.getName().startsWith("org.lelv.");
+             declaringType = declaringType.getSuperclass()) {
+          for (Field field : declaringType.getDeclaredFields()) {
+            if (!Modifier.isStatic(field.getModifiers()) && !field.getType().isPrimitive()) {
+              field.setAccessible(true);
+              references.add(field.get(object));
+            }
+          }
+        }
+      }
+      references.stream().filter(reference -> reference != null).forEach(pending::push);
+    }
+    return reached;
+  }
+
+  private static Person randomPerson(Random random) {
+    Person person = new Person();
+    person.setAge(random.nextInt(2));
+    person.setName(random.nextBoolean() ? "John" : "Jane");
+    person.setLastName(random.nextBoolean() ? "Smith" : null);
+    person.setAlive(random.nextBoolean());
+    return person;
+  }
+
+  private static List<PersonField> randomFields(Random random) {
+    List<PersonField> fields = new ArrayList<>();
+    for (PersonField field : PersonField.values()) {
+      if (random.nextInt(3) == 0) {
+        fields.add(field);
+      }
+    }
+    Collections.shuffle(fields, random);
+    return fields;
+  }
+
+}
@@ -0,0 +1,66 @@
+package org.lelv.fieldlertest;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.lelv.fieldler.output.FieldComparison;
+import org.lelv.fieldler.output.FieldCost;
+import org.lelv.fieldler.output.FieldSchema;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.function.BiPredicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.lelv.fieldlertest.PersonField.*;
+
+public class FieldCostTest {
+
+  private static final BiPredicate<Person, Person> FAILING_TEST = (personA, personB) -> {
+    throw new IllegalStateException("Expensive field should not be tested");
+  };
+
+  private FieldSchema<Person, PersonField> schema;
+
+  @BeforeEach
+  public void beforeEach() {
+    Map<PersonField, BiPredicate<Person, Person>> equalityTests = new EnumMap<>(PersonField.class);
+    equalityTests.put(AGE, (personA, personB) -> false);
+    equalityTests.put(NAME, FAILING_TEST);
+    equalityTests.put(LAST_NAME, (personA, personB) -> true);
+    equalityTests.put(ALIVE, (personA, personB) -> true);
+    equalityTests.put(REQUIRES_OXYGEN, FAILING_TEST);
+    Map<PersonField, FieldCost> costs = new EnumMap<>(PersonField.class);
+    costs.put(AGE, FieldCost.PRIMITIVE);
+    costs.put(NAME, FieldCost.COMPLEX);
+    costs.put(LAST_NAME, FieldCost.BOXED);
+    costs.put(ALIVE, FieldCost.PRIMITIVE);
+    schema = FieldSchema.builder(equalityTests).costs(costs).build();
+  }
+
+  @Test
+  public void testEvaluationOrder() {
+    assertThat(schema.evaluationOrder()).containsExactly(AGE, ALIVE, LAST_NAME, NAME, REQUIRES_OXYGEN);
+    assertThat(schema.cost(REQUIRES_OXYGEN)).isEqualTo(FieldCost.COMPLEX);
+  }
+
+  @Test
+  public void testQueriesEvaluateCheapestFieldsFirst() {
+    FieldComparison<Person, PersonField> comparison = new FieldComparison<>(new Person(), new Person(), schema);
+    assertThatCode(() -> {
+      assertThat(comparison.isAnyDifferent(NAME, REQUIRES_OXYGEN, AGE)).isTrue();
+      assertThat(comparison.areAllEqual(NAME, LAST_NAME, AGE)).isFalse();
+      assertThat(comparison.isAnyEqual(REQUIRES_OXYGEN, LAST_NAME)).isTrue();
+      assertThat(comparison.hasDifferences()).isTrue();
+      assertThat(comparison.hasEqualities()).isTrue();
+    }).doesNotThrowAnyException();
+  }
+
+  @Test
+  public void testQueriesCheckStoredResultsFirst() {
+    FieldComparison<Person, PersonField> comparison = new FieldComparison<>(new Person(), new Person(), schema);
+    comparison.testFields(LAST_NAME);
+    assertThatCode(() -> assertThat(comparison.isAnyEqual(NAME, LAST_NAME)).isTrue()).doesNotThrowAnyException();
+  }
+
+}
@@ -0,0 +1,55 @@
+package org.lelv.fieldlertest;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.lelv.fieldler.output.FieldComparison;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.lelv.fieldlertest.AccountField.*;
+
+public class FieldEqualityTest {
+
+  private final Account accountA = new Account();
+  private final Account accountB = new Account();
+
+  @BeforeEach
+  public void beforeEach() {
+    accountA.setEmail("John.Williams@mail.com");
+    accountB.setEmail("john.williams@MAIL.com");
+    accountA.setBalance(new BigDecimal("2.0"));
+    accountB.setBalance(new BigDecimal("2.00"));
+    accountA.setWeight(70.001);
+    accountB.setWeight(70.009);
+    accountA.setOwner("John");
+    accountB.setOwner("john");
+  }
+
+  @Test
+  public void testCustomEqualityStrategies() {
+    FieldComparison<Account, AccountField> comparison = AccountFieldComparator.compare(accountA, accountB);
+    assertThat(comparison.areAllEqual(EMAIL, BALANCE, WEIGHT)).isTrue();
+    assertThat(comparison.isDifferent(OWNER)).isTrue();
+  }
+
+  @Test
+  public void testCustomEqualityStrategiesDetectDifferences() {
+    accountB.setEmail("maria@mail.com");
+    accountB.setBalance(new BigDecimal("2.01"));
+    accountB.setWeight(70.5);
+    FieldComparison<Account, AccountField> comparison = AccountFieldComparator.compare(accountA, accountB);
+    assertThat(comparison.areAllDifferent(EMAIL, BALANCE, WEIGHT)).isTrue();
+  }
+
+  @Test
+  public void testCustomEqualityStrategiesWithNullValues() {
+    accountA.setEmail(null);
+    accountB.setEmail(null);
+    accountA.setBalance(null);
+    FieldComparison<Account, AccountField> comparison = AccountFieldComparator.compare(accountA, accountB);
+    assertThat(comparison.isEqual(EMAIL)).isTrue();
+    assertThat(comparison.isDifferent(BALANCE)).isTrue();
+  }
+
+}
@@ -0,0 +1,92 @@
+package org.lelv.fieldlertest;
+
+import org.junit.jupiter.api.Test;
+import org.lelv.fieldler.output.FieldHistory;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class FieldHistoryTest {
+
+  @Test
+  public void testEveryVersionIsReadOnce() {
+    List<Snapshot> versions = Arrays.asList(new Snapshot(1, "alice"), new Snapshot(2, "alice"), new Snapshot(3, "bob"),
+                                            new Snapshot(4, "bob"), new Snapshot(4, "carol"));
+    Snapshot.OWNER_READS.set(0);
+
+    FieldHistory<Snapshot, SnapshotField> history = SnapshotFieldComparator.history(versions);
+
+    assertThat(Snapshot.OWNER_READS.get()).isEqualTo(versions.size());
+    assertThat(history.size()).isEqualTo(5);
+    assertThat(history.changes(SnapshotField.VERSION)).isEqualTo(bits(1, 2, 3));
+    assertThat(history.changes(SnapshotField.OWNER)).isEqualTo(bits(2, 4));
+    assertThat(history.changeCount(SnapshotField.OWNER)).isEqualTo(2);
+    assertThat(history.nextChange(SnapshotField.OWNER, 3)).isEqualTo(4);
+    assertThat(history.nextChange(SnapshotField.VERSION, 4)).isEqualTo(-1);
+  }
+
+  @Test
+  public void testChangedFieldsByVersion() {
+    List<Account> versions = Arrays.asList(account("a@mail.com", "10", 1.0), account("A@MAIL.COM", "10.00", 1.005),
+                                           account("b@mail.com", "10", 1.005), account("b@mail.com", "11", 2.0));
+
+    FieldHistory<Account, AccountField> history = AccountFieldComparator.history(versions);
+
+    assertThat(history.changedFields(0).isEmpty()).isTrue();
+    assertThat(history.changedFields(1).isEmpty()).isTrue();
+    assertThat(history.changedFields(2).fields()).containsExactly(AccountField.EMAIL);
+    assertThat(history.changedFields(3).fields()).containsExactly(AccountField.BALANCE, AccountField.WEIGHT);
+    assertThat(history.changedFields().fields()).containsExactly(AccountField.EMAIL, AccountField.BALANCE, AccountField.WEIGHT);
+    assertThat(history.hasChanged(AccountField.OWNER, 3)).isFalse();
+    assertThatThrownBy(() -> history.hasChanged(AccountField.EMAIL, 4)).isInstanceOf(IndexOutOfBoundsException.class);
+  }
+
+  @Test
+  public void testLargeHistoryMatchesConsecutiveComparisons() {
+    List<Person> versions = new ArrayList<>();
+    for (int version = 0; version < 20_000; version++) {
+      Person person = new Person();
+      person.setAge(version / 3);
+      person.setName("name" + version % 7 / 5);
+      person.setLastName("lastName" + version / 4096);
+      person.setAlive(version % 2 == 0);
+      versions.add(person);
+    }
+
+    FieldHistory<Person, PersonField> history = PersonFieldComparator.history(versions);
+
+    for (PersonField field : PersonField.values()) {
+      BitSet expected = new BitSet();
+      for (int version = 1; version < versions.size(); version++) {
+        if (PersonFieldComparator.compare(versions.get(version - 1), versions.get(version)).isDifferent(field)) {
+          expected.set(version);
+        }
+      }
+      assertThat(history.changes(field)).as(field.name()).isEqualTo(expected);
+    }
+  }
+
+  private static BitSet bits(int... versions) {
+    BitSet bitSet = new BitSet();
+    for (int version : versions) {
+      bitSet.set(version);
+    }
+    return bitSet;
+  }
+
+  private static Account account(String email, String balance, double weight) {
+    Account account = new Account();
+    account.setEmail(email);
+    account.setBalance(new BigDecimal(balance));
+    account.setWeight(weight);
+    account.setOwner("owner");
+    return account;
+  }
+
+}
@@ -0,0 +1,78 @@
+package org.lelv.fieldlertest;
+
+import org.junit.jupiter.api.Test;
+import org.lelv.fieldler.output.FieldIndex;
+import org.lelv.fieldler.output.FieldMask;
+import org.lelv.fieldler.output.FieldSchema;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiPredicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.lelv.fieldlertest.PersonField.*;
+
+public class FieldIndexTest {
+
+  private static final FieldSchema<Person, PersonField> SCHEMA = PersonFieldComparator.schema();
+
+  @Test
+  public void testMaskAndHash() {
+    FieldMask<PersonField> mask = SCHEMA.mask(LAST_NAME, AGE);
+    Person personA = person("John", "Smith", 30);
+    Person personB = person("Jane", "Smith", 30);
+
+    assertThat(mask.fields()).containsExactly(AGE, LAST_NAME);
+    assertThat(mask.contains(NAME)).isFalse();
+    assertThat(SCHEMA.equal(mask, personA, personB)).isTrue();
+    assertThat(SCHEMA.hash(mask, personA)).isEqualTo(SCHEMA.hash(mask, personB));
+    assertThat(SCHEMA.equal(SCHEMA.mask(NAME), personA, personB)).isFalse();
+  }
+
+  @Test
+  public void testLookupAndGroups() {
+    Person john = person("John", "Smith", 30);
+    Person jane = person("Jane", "Smith", 30);
+    Person jack = person("Jack", "Smith", 40);
+    Person anne = person("Anne", "Brown", 30);
+    FieldIndex<Person, PersonField> index = FieldIndex.build(SCHEMA, SCHEMA.mask(LAST_NAME, AGE), Arrays.asList(john, jane, jack, anne));
+
+    assertThat(index.lookup(person("Other", "Smith", 30))).containsExactly(john, jane);
+    assertThat(index.contains(person("Other", "Brown", 40))).isFalse();
+    assertThat(index.groups()).containsExactly(Arrays.asList(john, jane), Arrays.asList(jack), Arrays.asList(anne));
+  }
+
+  @Test
+  public void testParallelBuild() {
+    List<Person> persons = new ArrayList<>();
+    for (int i = 0; i < 20_000; i++) {
+      persons.add(person("Name" + i, "LastName" + (i % 100), i % 7));
+    }
+    FieldIndex<Person, PersonField> index = FieldIndex.build(SCHEMA, SCHEMA.mask(LAST_NAME), persons);
+
+    assertThat(index.size()).isEqualTo(20_000);
+    assertThat(index.lookup(person("Any", "LastName42", 0))).hasSize(200).allMatch(person -> person.lastName().equals("LastName42"));
+    assertThat(index.groups()).hasSize(100);
+  }
+
+  @Test
+  public void testMaskOfAnotherSchema() {
+    Map<PersonField, BiPredicate<Person, Person>> equalityTests = new EnumMap<>(PersonField.class);
+    FieldSchema<Person, PersonField> otherSchema = FieldSchema.builder(equalityTests).build();
+
+    assertThatThrownBy(() -> SCHEMA.hash(otherSchema.mask(), person("John", "Smith", 30))).isInstanceOf(IllegalArgumentException.class);
+  }
+
+  private static Person person(String name, String lastName, int age) {
+    Person person = new Person();
+    person.setName(name);
+    person.setLastName(lastName);
+    person.setAge(age);
+    return person;
+  }
+
+}
@@ -0,0 +1,72 @@
+package org.lelv.fieldlertest;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.lelv.fieldlertest.PersonField.*;
+
+public class FieldOrderTest {
+
+  @Test
+  public void testSingleFieldComparators() {
+    Person younger = person("John", "Smith", 20);
+    Person older = person(null, "Smith", 40);
+
+    assertThat(PersonFieldComparator.AGE_ORDER.compare(younger, older)).isNegative();
+    assertThat(PersonFieldComparator.comparator(AGE)).isSameAs(PersonFieldComparator.AGE_ORDER);
+    assertThat(PersonFieldComparator.comparator(NAME).compare(younger, older)).isPositive();
+    assertThat(PersonFieldComparator.comparator(LAST_NAME).compare(younger, older)).isZero();
+  }
+
+  @Test
+  public void testCompositeComparator() {
+    Person smith40 = person("A", "Smith", 40);
+    Person smith20 = person("B", "Smith", 20);
+    Person brown30 = person("C", "Brown", 30);
+    Person noLastName = person("D", null, 50);
+    List<Person> persons = new ArrayList<>(Arrays.asList(smith40, smith20, brown30, noLastName));
+
+    persons.sort(PersonFieldComparator.comparator(LAST_NAME, AGE));
+
+    assertThat(persons).containsExactly(noLastName, brown30, smith20, smith40);
+  }
+
+  @Test
+  public void testComparatorStrategyAndNotComparableFields() {
+    Account accountA = new Account();
+    accountA.setBalance(new BigDecimal("2.0"));
+    Account accountB = new Account();
+    accountB.setBalance(new BigDecimal("10"));
+
+    assertThat(AccountFieldComparator.comparator(AccountField.BALANCE).compare(accountA, accountB)).isNegative();
+    assertThatThrownBy(() -> BundleFieldComparator.comparator(BundleField.TAGS)).isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> BundleFieldComparator.comparator(BundleField.NAME, BundleField.TAGS)).isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  public void testChunkedComparator() {
+    WideEntity entityA = new WideEntity();
+    WideEntity entityB = new WideEntity();
+    entityA.value149 = 2;
+    entityB.value149 = 1;
+    entityB.value100 = 1;
+
+    assertThat(WideEntityFieldComparator.comparator(WideEntityField.VALUE149, WideEntityField.VALUE100).compare(entityA, entityB)).isPositive();
+    assertThat(WideEntityFieldComparator.comparator(WideEntityField.VALUE0, WideEntityField.VALUE100).compare(entityA, entityB)).isNegative();
+  }
+
+  private static Person person(String name, String lastName, int age) {
+    Person person = new Person();
+    person.setName(name);
+    person.setLastName(lastName);
+    person.setAge(age);
+    return person;
+  }
+
+}
@@ -0,0 +1,120 @@
+package org.lelv.fieldlertest;
+
+import org.junit.jupiter.api.Test;
+import org.lelv.fieldler.output.FieldProjection;
+import org.lelv.fieldler.output.ProjectionSet;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class FieldProjectionTest {
+
+  @Test
+  public void testKeysOnlyConsiderTheFieldsOfTheProjection() {
+    FieldProjection<Person, PersonField> projection = PersonFieldComparator.projection(PersonField.LAST_NAME, PersonField.AGE);
+    Person smith = person(40, "John", "Smith");
+    Person otherSmith = person(40, "Jane", "Smith");
+    Person youngSmith = person(20, "John", "Smith");
+
+    Map<FieldProjection.Key<Person>, Integer> counts = new HashMap<>();
+    for (Person person : Arrays.asList(smith, otherSmith, youngSmith)) {
+      counts.merge(projection.key(person), 1, Integer::sum);
+    }
+
+    assertThat(projection.key(smith)).isEqualTo(projection.key(otherSmith)).isNotEqualTo(projection.key(youngSmith));
+    assertThat(projection.key(smith).hashCode()).isEqualTo(projection.key(otherSmith).hashCode());
+    assertThat(projection.key(smith)).isNotEqualTo(PersonFieldComparator.projection(PersonField.LAST_NAME, PersonField.AGE).key(smith));
+    assertThat(counts.get(projection.key(smith))).isEqualTo(2);
+    assertThat(counts.get(projection.key(youngSmith))).isEqualTo(1);
+    assertThat(projection.distinct(Arrays.asList(smith, otherSmith, youngSmith))).containsExactly(smith, youngSmith);
+  }
+
+  @Test
+  public void testSetStoresTheOriginalObjects() {
+    ProjectionSet<Person> set = PersonFieldComparator.projection(PersonField.NAME).newSet();
+    Person john = person(1, "John", "Smith");
+    Person otherJohn = person(2, "John", "Doe");
+    Person nobody = person(3, null, "Doe");
+
+    assertThat(set.add(john)).isTrue();
+    assertThat(set.add(otherJohn)).isFalse();
+    assertThat(set.add(nobody)).isTrue();
+    assertThat(set).containsExactly(john, nobody);
+    assertThat(set.get(otherJohn)).isSameAs(john);
+    assertThat(set.contains(person(9, null, "Any"))).isTrue();
+    assertThatThrownBy(() -> set.add(null)).isInstanceOf(NullPointerException.class);
+
+    Iterator<Person> iterator = set.iterator();
+    iterator.next();
+    iterator.remove();
+    assertThat(iterator.next()).isSameAs(nobody);
+    assertThat(iterator.hasNext()).isFalse();
+    assertThat(set).containsExactly(nobody);
+    assertThat(set.remove(otherJohn)).isFalse();
+    assertThat(set.remove(person(4, null, null))).isTrue();
+    assertThat(set).isEmpty();
+  }
+
+  @Test
+  public void testSetMatchesSetOfBoxedKeys() {
+    ProjectionSet<Person> set = PersonFieldComparator.projection(PersonField.AGE, PersonField.LAST_NAME).newSet();
+    Set<List<Object>> expected = new HashSet<>();
+    Random random = new Random(46);
+    for (int operation = 0; operation < 20_000; operation++) {
+      Person person = person(random.nextInt(50), "Name", "Last" + random.nextInt(40));
+      List<Object> key = Arrays.asList(person.age, person.lastName());
+      if (random.nextInt(3) == 0) {
+        assertThat(set.remove(person)).isEqualTo(expected.remove(key));
+      } else {
+        assertThat(set.add(person)).isEqualTo(expected.add(key));
+      }
+      assertThat(set.size()).isEqualTo(expected.size());
+    }
+    for (Person person : set) {
+      assertThat(expected).contains(Arrays.asList(person.age, person.lastName()));
+    }
+    set.removeIf(person -> person.age % 2 == 0);
+    expected.removeIf(key -> (Integer) key.get(0) % 2 == 0);
+    assertThat(set).hasSameSizeAs(expected);
+  }
+
+  @Test
+  public void testSetEqualityFollowsTheProjection() {
+    ProjectionSet<Person> set = PersonFieldComparator.projection(PersonField.LAST_NAME).newSet();
+    ProjectionSet<Person> otherSet = PersonFieldComparator.projection(PersonField.LAST_NAME).newSet();
+    set.addAll(Arrays.asList(person(1, "John", "Smith"), person(2, "Jane", "Doe")));
+    otherSet.addAll(Arrays.asList(person(3, "Jane", "Doe"), person(4, "John", "Smith")));
+
+    assertThat(set.equals(otherSet)).isTrue();
+    assertThat(otherSet.equals(set)).isTrue();
+    assertThat(set.hashCode()).isEqualTo(otherSet.hashCode());
+    ProjectionSet<Person> setByName = PersonFieldComparator.projection(PersonField.NAME).newSet();
+    setByName.addAll(set);
+    assertThat(set.equals(setByName)).isFalse();
+    assertThat(set.equals(new HashSet<>(set))).isFalse();
+
+    otherSet.add(person(5, "John", "Wick"));
+    assertThat(set.equals(otherSet)).isFalse();
+    assertThat(set.contains("Smith")).isFalse();
+    assertThat(set.remove(1)).isFalse();
+    assertThat(set).hasSize(2);
+  }
+
+  private static Person person(int age, String name, String lastName) {
+    Person person = new Person();
+    person.setAge(age);
+    person.setName(name);
+    person.setLastName(lastName);
+    return person;
+  }
+
+}
@@ -0,0 +1,116 @@
+package org.lelv.fieldlertest;
+
+import org.junit.jupiter.api.Test;
+import org.lelv.fieldler.output.FieldComparison;
+import org.lelv.fieldler.output.JsonWriter;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class JsonWriterTest {
+
+  @Test
+  public void testDifferencesAreWrittenInFieldOrder() {
+    Product before = product("P-1", 10L, "plain", "tools");
+    Product after = product("P-1", 12L, "says \"hi\"\n\ttwice \\ \u0001", "tools");
+
+    String json = ProductJsonWriter.toJson(ProductFieldComparator.compare(before, after));
+
+    assertThat(json).isEqualTo("[{\"field\":\"stock\",\"before\":10,\"after\":12},"
+                                   + "{\"field\":\"description\",\"before\":\"plain\",\"after\":\"says \\\"hi\\\"\\n\\ttwice \\\\ \\u0001\"}]");
+    assertThat(ProductJsonWriter.toJson(ProductFieldComparator.compare(before, before))).isEqualTo("[]");
+  }
+
+  @Test
+  public void testCollectionsAreWrittenAsArrays() {
+    Bundle before = new Bundle();
+    Bundle after = new Bundle();
+    after.setTags(Arrays.asList("new", "sale"));
+
+    assertThat(BundleJsonWriter.toJson(BundleFieldComparator.compare(before, after)))
+        .isEqualTo("[{\"field\":\"tags\",\"before\":null,\"after\":[\"new\",\"sale\"]}]");
+  }
+
+  @Test
+  public void testByteBufferIsEncodedAsUtf8() throws IOException {
+    Product before = product("P-1", 1L, "caf\u00e9 \u20ac \ud83d\ude00", "tools");
+    Product after = product("P-2", -1L, "caf\u00e9 \u20ac \ud83d\ude00", "t\u00f6ols");
+    FieldComparison<Product, ProductField> comparison = ProductFieldComparator.compare(before, after);
+
+    ByteBuffer buffer = ByteBuffer.allocate(256);
+    ProductJsonWriter.writeDifferences(comparison, buffer);
+    StringBuilder builder = new StringBuilder();
+    ProductJsonWriter.writeDifferences(comparison, builder);
+
+    buffer.flip();
+    assertThat(StandardCharsets.UTF_8.decode(buffer).toString()).isEqualTo(builder.toString());
+    assertThat(builder.toString()).contains("\"before\":\"tools\",\"after\":\"t\u00f6ols\"").contains("\"after\":-1");
+  }
+
+  @Test
+  public void testWriterEmbedsDifferencesInBiggerDocuments() throws IOException {
+    WideEntity before = new WideEntity();
+    WideEntity after = new WideEntity();
+    after.value140 = 7;
+
+    StringBuilder builder = new StringBuilder();
+    JsonWriter writer = JsonWriter.of(builder);
+    writer.beginObject().name("entity").value(42).name("values").value(new double[]{0.5, Double.NaN}).name("differences");
+    WideEntityJsonWriter.writeDifferences(WideEntityFieldComparator.compare(before, after), writer);
+    writer.name("user").nullValue().endObject();
+
+    assertThat(builder.toString()).isEqualTo("{\"entity\":42,\"values\":[0.5,\"NaN\"],"
+                                                 + "\"differences\":[{\"field\":\"value140\",\"before\":0,\"after\":7}],\"user\":null}");
+  }
+
+  @Test
+  public void testPathsAreWrittenAsStrings() throws IOException {
+    Path path = Paths.get("data", "products.json");
+    StringBuilder builder = new StringBuilder();
+    JsonWriter.of(builder).value(Collections.singletonList(path));
+
+    assertThat(builder.toString()).isEqualTo("[\"" + path.toString().replace("\\", "\\\\") + "\"]");
+  }
+
+  @Test
+  public void testValuesWhichContainThemselvesAreRejected() throws IOException {
+    List<Object> list = new ArrayList<>();
+    list.add(1);
+    list.add(list);
+    Map<String, Object> map = new HashMap<>();
+    map.put("self", Collections.singletonList(map));
+    Object[] array = new Object[1];
+    array[0] = array;
+
+    assertThatThrownBy(() -> JsonWriter.of(new StringBuilder()).value(list)).isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> JsonWriter.of(new StringBuilder()).value(map)).isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> JsonWriter.of(new StringBuilder()).value(array)).isInstanceOf(IllegalArgumentException.class);
+
+    List<Integer> shared = Arrays.asList(1, 2);
+    StringBuilder builder = new StringBuilder();
+    JsonWriter.of(builder).value(Arrays.asList(shared, shared));
+    assertThat(builder.toString()).isEqualTo("[[1,2],[1,2]]");
+  }
+
+  private static Product product(String code, long stock, String description, String category) {
+    Product product = new Product();
+    product.setCode(code);
+    product.setStock(stock);
+    product.setDescription(description);
+    product.setCategory(category);
+    return product;
+  }
+
+}
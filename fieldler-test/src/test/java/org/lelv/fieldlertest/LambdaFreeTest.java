@@ -0,0 +1,86 @@
+package org.lelv.fieldlertest;
+
+import org.junit.jupiter.api.Test;
+import org.lelv.fieldler.output.FieldComparison;
+import org.lelv.fieldler.output.ReferenceComparator;
+
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class LambdaFreeTest {
+
+  @Test
+  public void testComparatorHasNoLambdas() {
+    assertThat(lambdaMethods(PersonFieldComparator.class)).isNotEmpty();
+    assertThat(lambdaMethods(ShipmentFieldComparator.class)).isEmpty();
+  }
+
+  @Test
+  public void testFieldsAreComparedByTheGeneratedSwitches() {
+    Shipment shipmentA = shipment(3, "DHL", 10.0, "Madrid", "100.0");
+    Shipment shipmentB = shipment(3, "UPS", 10.05, "MADRID", "100");
+    shipmentB.priority = 'A';
+    shipmentB.setLabels(Collections.singletonList("fragile"));
+
+    FieldComparison<Shipment, ShipmentField> comparison = ShipmentFieldComparator.compare(shipmentA, shipmentB).testAllFields();
+
+    assertThat(comparison.differentFields()).containsExactlyInAnyOrder(ShipmentField.CARRIER, ShipmentField.PRIORITY, ShipmentField.LABELS);
+    assertThat(comparison.isLess(ShipmentField.CARRIER)).isTrue();
+    assertThat(ShipmentFieldComparator.against(shipmentA).differentFields(shipmentB).fields())
+        .containsExactly(ShipmentField.PRIORITY, ShipmentField.CARRIER, ShipmentField.LABELS);
+    assertThat(ShipmentFieldComparator.history(Arrays.asList(shipmentA, shipmentB, shipmentB)).changeCount(ShipmentField.CARRIER)).isEqualTo(1);
+  }
+
+  @Test
+  public void testReferenceValuesAreCaptured() {
+    Shipment reference = shipment(3, "DHL", 10.0, "Madrid", "100.0");
+    ReferenceComparator<Shipment, ShipmentField> comparator = ShipmentFieldComparator.against(reference);
+    reference.carrier = "UPS";
+
+    // reference fields are read when the comparator is created, primitive fields on every test
+    assertThat(comparator.isEqual(ShipmentField.CARRIER, shipment(3, "DHL", 10.0, "Madrid", "100.0"))).isTrue();
+    assertThat(comparator.isEqual(ShipmentField.CARRIER, shipment(3, "UPS", 10.0, "Madrid", "100.0"))).isFalse();
+    assertThat(comparator.isEqual(ShipmentField.PARCELS, shipment(3, "UPS", 10.0, "Madrid", "100.0"))).isTrue();
+  }
+
+  @Test
+  public void testOrdersAndProjectionsUseTheFieldFunctions() {
+    Shipment first = shipment(1, "UPS", 1.0, "Lima", "5");
+    Shipment second = shipment(2, "DHL", 1.0, "Lima", "5");
+    Shipment third = shipment(2, "UPS", 1.0, "Lima", "5");
+    List<Shipment> shipments = new ArrayList<>(Arrays.asList(third, first, second));
+
+    shipments.sort(ShipmentFieldComparator.comparator(ShipmentField.PARCELS, ShipmentField.CARRIER));
+
+    assertThat(shipments).containsExactly(first, second, third);
+    assertThat(ShipmentFieldComparator.comparator(Collections.emptyList()).compare(first, third)).isZero();
+    assertThat(ShipmentFieldComparator.projection(ShipmentField.CARRIER).distinct(shipments)).containsExactly(first, second);
+  }
+
+  private static List<String> lambdaMethods(Class<?> comparatorClass) {
+    List<String> lambdaMethods = new ArrayList<>();
+    for (Method method : comparatorClass.getDeclaredMethods()) {
+      if (method.getName().startsWith("lambda$")) {
+        lambdaMethods.add(method.getName());
+      }
+    }
+    return lambdaMethods;
+  }
+
+  private static Shipment shipment(int parcels, String carrier, double weight, String destination, String insuredValue) {
+    Shipment shipment = new Shipment();
+    shipment.parcels = parcels;
+    shipment.carrier = carrier;
+    shipment.weight = weight;
+    shipment.destination = destination;
+    shipment.insuredValue = new BigDecimal(insuredValue);
+    return shipment;
+  }
+
+}
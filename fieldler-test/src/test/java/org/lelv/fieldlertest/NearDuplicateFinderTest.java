@@ -0,0 +1,100 @@
+package org.lelv.fieldlertest;
+
+import org.junit.jupiter.api.Test;
+import org.lelv.fieldler.output.FieldComparison;
+import org.lelv.fieldler.output.FieldMask;
+import org.lelv.fieldler.output.FieldSchema;
+import org.lelv.fieldler.output.NearDuplicateFinder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.lelv.fieldlertest.PersonField.*;
+
+public class NearDuplicateFinderTest {
+
+  private static final FieldSchema<Person, PersonField> SCHEMA = PersonFieldComparator.schema();
+  private static final FieldMask<PersonField> MASK = SCHEMA.mask(NAME, LAST_NAME, AGE, ALIVE);
+
+  @Test
+  public void testFindNearDuplicates() {
+    Person john = person("John", "Smith", 30, true);
+    Person johnny = person("Johnny", "Smith", 30, true);
+    Person jane = person("Jane", "Smith", 31, true);
+    Person other = person("John", "Brown", 40, false);
+    NearDuplicateFinder<Person, PersonField> finder = new NearDuplicateFinder<>(SCHEMA, MASK, 3);
+
+    List<FieldComparison<Person, PersonField>> duplicates = finder.find(Arrays.asList(john, johnny, jane, other));
+
+    assertThat(duplicates).hasSize(1);
+    assertThat(duplicates.get(0).getObjectA()).isSameAs(john);
+    assertThat(duplicates.get(0).getObjectB()).isSameAs(johnny);
+    assertThat(duplicates.get(0).isDifferent(NAME)).isTrue();
+  }
+
+  @Test
+  public void testSameResultAsComparingAllPairs() {
+    Random random = new Random(42);
+    List<Person> persons = new ArrayList<>();
+    for (int i = 0; i < 9_000; i++) {
+      persons.add(person("Name" + random.nextInt(50), "LastName" + random.nextInt(50), random.nextInt(50), random.nextBoolean()));
+    }
+    List<Person> sample = persons.subList(0, 1_000);
+
+    assertThat(pairs(sample, new NearDuplicateFinder<>(SCHEMA, MASK, 3).find(sample))).isEqualTo(allPairs(sample, 3));
+    assertThat(pairs(persons, new NearDuplicateFinder<>(SCHEMA, MASK, 4).find(persons))).isEqualTo(allPairs(persons, 4));
+  }
+
+  @Test
+  public void testInvalidMinimum() {
+    assertThatThrownBy(() -> new NearDuplicateFinder<>(SCHEMA, MASK, 5)).isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> new NearDuplicateFinder<>(SCHEMA, MASK, 0)).isInstanceOf(IllegalArgumentException.class);
+  }
+
+  // pairs of positions, as persons with the same values are equal
+  private static Set<List<Integer>> pairs(List<Person> persons, List<FieldComparison<Person, PersonField>> comparisons) {
+    Map<Person, Integer> positions = new IdentityHashMap<>();
+    persons.forEach(person -> positions.put(person, positions.size()));
+    Set<List<Integer>> pairs = new HashSet<>();
+    comparisons.forEach(comparison -> assertThat(pairs.add(Arrays.asList(positions.get(comparison.getObjectA()),
+                                                                         positions.get(comparison.getObjectB())))).isTrue());
+    return pairs;
+  }
+
+  private static Set<List<Integer>> allPairs(List<Person> persons, int minimumEqualFields) {
+    Set<List<Integer>> pairs = new HashSet<>();
+    for (int i = 0; i < persons.size(); i++) {
+      for (int j = i + 1; j < persons.size(); j++) {
+        if (equalFields(persons.get(i), persons.get(j)) >= minimumEqualFields) {
+          pairs.add(Arrays.asList(i, j));
+        }
+      }
+    }
+    return pairs;
+  }
+
+  private static int equalFields(Person personA, Person personB) {
+    return (personA.getName().equals(personB.getName()) ? 1 : 0)
+        + (personA.lastName().equals(personB.lastName()) ? 1 : 0)
+        + (personA.age == personB.age ? 1 : 0)
+        + (personA.isAlive() == personB.isAlive() ? 1 : 0);
+  }
+
+  private static Person person(String name, String lastName, int age, boolean alive) {
+    Person person = new Person();
+    person.setName(name);
+    person.setLastName(lastName);
+    person.setAge(age);
+    person.setAlive(alive);
+    return person;
+  }
+
+}
@@ -0,0 +1,98 @@
+package org.lelv.fieldlertest;
+
+import org.junit.jupiter.api.Test;
+import org.lelv.fieldler.output.FieldComparison;
+import org.lelv.fieldler.output.FieldSchema;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BiPredicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.lelv.fieldlertest.PersonField.*;
+
+public class ParallelTestAllFieldsTest {
+
+  private static final long SLOW_TEST_NANOS = 200_000;
+
+  private final AtomicInteger submittedTasks = new AtomicInteger();
+  private final Executor countingExecutor = task -> {
+    submittedTasks.incrementAndGet();
+    ForkJoinPool.commonPool().execute(task);
+  };
+
+  @Test
+  public void testCheapFieldsRunOnTheCallingThread() {
+    for (int i = 0; i < 3; i++) {
+      FieldComparison<Person, PersonField> comparison = PersonFieldComparator.compare(new Person(), new Person());
+
+      comparison.testAllFieldsInParallel(countingExecutor);
+
+      assertThat(comparison.numberOfEqualities()).isEqualTo(PersonField.values().length);
+    }
+    assertThat(submittedTasks.get()).isZero();
+  }
+
+  @Test
+  public void testExpensiveFieldsRunInParallelOnceTimed() {
+    Map<PersonField, BiPredicate<Person, Person>> equalityTests = new EnumMap<>(PersonField.class);
+    equalityTests.put(AGE, slowTest(true));
+    equalityTests.put(NAME, slowTest(false));
+    equalityTests.put(LAST_NAME, slowTest(true));
+    equalityTests.put(ALIVE, slowTest(false));
+    FieldSchema<Person, PersonField> schema = FieldSchema.builder(equalityTests).build();
+
+    // the static estimation can not tell that the tests are slow, the first call times them
+    FieldComparison<Person, PersonField> first = new FieldComparison<>(new Person(), new Person(), schema);
+    first.testAllFieldsInParallel(countingExecutor);
+    assertThat(submittedTasks.getAndSet(0)).isZero();
+
+    FieldComparison<Person, PersonField> comparison = new FieldComparison<>(new Person(), new Person(), schema);
+    comparison.testAllFieldsInParallel(countingExecutor);
+
+    // every field is tested in its own task, except the last one which is tested by the calling thread
+    assertThat(submittedTasks.get()).isEqualTo(3);
+    assertThat(comparison.equalFields()).containsExactlyInAnyOrder(AGE, LAST_NAME);
+    assertThat(comparison.differentFields()).containsExactlyInAnyOrder(NAME, ALIVE);
+  }
+
+  @Test
+  public void testExceptionOfAWorkerReachesTheCaller() {
+    Thread caller = Thread.currentThread();
+    Map<PersonField, BiPredicate<Person, Person>> equalityTests = new EnumMap<>(PersonField.class);
+    for (PersonField field : new PersonField[]{AGE, NAME, LAST_NAME}) {
+      BiPredicate<Person, Person> slowTest = slowTest(true);
+      equalityTests.put(field, (personA, personB) -> {
+        if (Thread.currentThread() != caller) {
+          throw new IllegalStateException("Failed test of " + field);
+        }
+        return slowTest.test(personA, personB);
+      });
+    }
+    FieldSchema<Person, PersonField> schema = FieldSchema.builder(equalityTests).build();
+    new FieldComparison<>(new Person(), new Person(), schema).testAllFieldsInParallel(countingExecutor);
+    assertThat(submittedTasks.getAndSet(0)).isZero();
+    FieldComparison<Person, PersonField> comparison = new FieldComparison<>(new Person(), new Person(), schema);
+
+    assertThatThrownBy(() -> comparison.testAllFieldsInParallel(countingExecutor))
+        .isInstanceOf(IllegalStateException.class)
+        .hasMessageStartingWith("Failed test of");
+    assertThat(submittedTasks.get()).isEqualTo(2);
+  }
+
+  private static BiPredicate<Person, Person> slowTest(boolean result) {
+    return (personA, personB) -> {
+      long end = System.nanoTime() + SLOW_TEST_NANOS;
+      while (System.nanoTime() < end) {
+        LockSupport.parkNanos(end - System.nanoTime());
+      }
+      return result;
+    };
+  }
+
+}
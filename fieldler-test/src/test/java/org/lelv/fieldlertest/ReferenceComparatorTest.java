@@ -0,0 +1,85 @@
+package org.lelv.fieldlertest;
+
+import org.junit.jupiter.api.Test;
+import org.lelv.fieldler.output.FieldComparison;
+import org.lelv.fieldler.output.ReferenceComparator;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class ReferenceComparatorTest {
+
+  @Test
+  public void testReferenceIsReadOnce() {
+    Snapshot reference = new Snapshot(1, "alice");
+    List<Snapshot> candidates = Arrays.asList(new Snapshot(1, "alice"), new Snapshot(2, "alice"), new Snapshot(1, "bob"));
+    Snapshot.OWNER_READS.set(0);
+
+    ReferenceComparator<Snapshot, SnapshotField> comparator = SnapshotFieldComparator.against(reference);
+    List<List<SnapshotField>> differences = new ArrayList<>();
+    for (Snapshot candidate : candidates) {
+      List<SnapshotField> fields = new ArrayList<>();
+      comparator.forEachDifference(candidate, (snapshot, field) -> fields.add(field));
+      differences.add(fields);
+    }
+
+    assertThat(differences).containsExactly(Arrays.asList(), Arrays.asList(SnapshotField.VERSION), Arrays.asList(SnapshotField.OWNER));
+    assertThat(Snapshot.OWNER_READS.get()).isEqualTo(1 + candidates.size());
+  }
+
+  @Test
+  public void testMasksMatchFieldComparisons() {
+    Person reference = person(30, "John", "Smith", true);
+    List<Person> candidates = Arrays.asList(person(30, "John", "Smith", true), person(31, "John", "Smith", false),
+                                            person(30, null, "Doe", true), person(1, "Jane", null, false));
+    ReferenceComparator<Person, PersonField> comparator = PersonFieldComparator.against(reference);
+
+    List<Integer> differenceCounts = new ArrayList<>();
+    comparator.compareAll(candidates, (candidate, mask) -> {
+      FieldComparison<Person, PersonField> expected = PersonFieldComparator.compare(reference, candidate);
+      for (PersonField field : PersonField.values()) {
+        boolean different = (mask[field.ordinal() >>> 6] & 1L << field.ordinal()) != 0;
+        assertThat(different).as(field.name()).isEqualTo(expected.isDifferent(field));
+      }
+      differenceCounts.add(expected.numberOfDifferences());
+    });
+
+    assertThat(differenceCounts).containsExactly(0, 2, 2, 4);
+    assertThat(comparator.isEqual(candidates.get(0))).isTrue();
+    assertThat(comparator.isEqual(PersonFieldComparator.schema().mask(PersonField.NAME, PersonField.LAST_NAME), candidates.get(1))).isTrue();
+    assertThat(comparator.differentFields(candidates.get(2)).fields()).containsExactly(PersonField.NAME, PersonField.LAST_NAME);
+    assertThat(comparator.compare(candidates.get(1)).differentFields()).containsExactlyInAnyOrder(PersonField.AGE, PersonField.ALIVE);
+  }
+
+  @Test
+  public void testCustomEqualitiesAreKept() {
+    Account reference = new Account();
+    reference.setEmail("john@mail.com");
+    reference.setBalance(new BigDecimal("10.0"));
+    reference.setWeight(70.0);
+    Account candidate = new Account();
+    candidate.setEmail("JOHN@MAIL.COM");
+    candidate.setBalance(new BigDecimal("10.00"));
+    candidate.setWeight(70.005);
+
+    ReferenceComparator<Account, AccountField> comparator = AccountFieldComparator.against(reference);
+
+    assertThat(comparator.isEqual(candidate)).isTrue();
+    assertThatThrownBy(() -> comparator.differences(candidate, new long[2])).isInstanceOf(IllegalArgumentException.class);
+  }
+
+  private static Person person(int age, String name, String lastName, boolean alive) {
+    Person person = new Person();
+    person.setAge(age);
+    person.setName(name);
+    person.setLastName(lastName);
+    person.setAlive(alive);
+    return person;
+  }
+
+}
@@ -0,0 +1,284 @@
+package org.lelv.fieldlertest;
+
+import org.junit.jupiter.api.Test;
+import org.lelv.fieldler.output.FieldComparison;
+import org.lelv.fieldler.output.RuntimeField;
+import org.lelv.fieldler.output.RuntimeFieldComparator;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class RuntimeFieldComparatorTest {
+
+  @Test
+  public void testSameFieldsAndDifferencesAsTheGeneratedComparator() {
+    RuntimeFieldComparator<Person> comparator = RuntimeFieldComparator.of(Person.class);
+    Random random = new Random(48);
+
+    assertThat(RuntimeFieldComparator.of(Person.class)).isSameAs(comparator);
+    assertThat(comparator.fields()).extracting(RuntimeField::name)
+                                   .containsExactly("age", "name", "lastName", "alive", "requiresOxygen");
+    for (int iteration = 0; iteration < 500; iteration++) {
+      Person personA = randomPerson(random);
+      Person personB = randomPerson(random);
+      Set<String> expected = PersonFieldComparator.compare(personA, personB).differentFields().stream()
+                                                  .map(PersonField::toString)
+                                                  .collect(Collectors.toSet());
+      FieldComparison<Person, RuntimeField> comparison = comparator.compare(personA, personB);
+
+      assertThat(comparison.differentFields()).extracting(RuntimeField::name).containsExactlyInAnyOrderElementsOf(expected);
+      assertThat(comparison.isLess(comparator.field("age"))).isEqualTo(personA.age < personB.age);
+    }
+  }
+
+  @Test
+  public void testPrimitiveAndObjectFields() {
+    RuntimeFieldComparator<Parcel> comparator = RuntimeFieldComparator.of(Parcel.class);
+    Parcel parcelA = new Parcel();
+    Parcel parcelB = new Parcel();
+    parcelA.weight = Float.NaN;
+    parcelB.weight = Float.NaN;
+    parcelA.volume = 0.0;
+    parcelB.volume = -0.0;
+    parcelA.code = 'B';
+    parcelB.code = 'A';
+    parcelA.unit = TimeUnit.DAYS;
+    parcelB.unit = TimeUnit.DAYS;
+    parcelA.value = new BigDecimal("1.0");
+    parcelB.value = new BigDecimal("1.00");
+    parcelB.labels = Collections.singletonList("fragile");
+
+    FieldComparison<Parcel, RuntimeField> comparison = comparator.compare(parcelA, parcelB).testAllFields();
+
+    assertThat(comparison.differentFields()).extracting(RuntimeField::name).containsExactlyInAnyOrder("volume", "code", "value", "labels");
+    assertThat(comparison.isGreater(comparator.field("code"))).isTrue();
+    assertThat(comparison.compare(comparator.field("value"))).isZero();
+    assertThat(comparator.field("code").type()).isEqualTo(char.class);
+    assertThat(comparator.projection(comparator.field("weight"), comparator.field("unit")).equal(parcelA, parcelB)).isTrue();
+    assertThat(comparator.against(parcelA).differentFields(parcelB).fields())
+        .extracting(RuntimeField::name).containsExactlyInAnyOrder("volume", "code", "value", "labels");
+    assertThatThrownBy(() -> comparator.comparator(comparator.field("labels"))).isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> comparator.field("hidden")).isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> RuntimeFieldComparator.of(Hidden.class)).isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  public void testCompositeComparator() {
+    RuntimeFieldComparator<Parcel> comparator = RuntimeFieldComparator.of(Parcel.class);
+    Parcel first = parcel(1, 'B');
+    Parcel second = parcel(2, 'A');
+    Parcel third = parcel(2, 'C');
+    List<Parcel> parcels = new ArrayList<>(Arrays.asList(third, second, first));
+
+    parcels.sort(comparator.comparator(comparator.field("count"), comparator.field("code")));
+
+    assertThat(parcels).containsExactly(first, second, third);
+    assertThat(comparator.comparator(Collections.emptyList()).compare(first, third)).isZero();
+  }
+
+  @Test
+  public void testComparatorIsBuiltOnceAndCached() {
+    RuntimeFieldComparator<Parcel> comparator = RuntimeFieldComparator.of(Parcel.class);
+
+    assertThat(RuntimeFieldComparator.of(Parcel.class)).isSameAs(comparator);
+    assertThat(comparator.type()).isEqualTo(Parcel.class);
+  }
+
+  @Test
+  public void testNonPublicClassesAreRejected() {
+    assertThatThrownBy(() -> RuntimeFieldComparator.of(Hidden.class)).isInstanceOf(IllegalArgumentException.class)
+                                                                      .hasMessageContaining(Hidden.class.getName());
+    assertThatThrownBy(() -> RuntimeFieldComparator.of(int.class)).isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> RuntimeFieldComparator.of(Parcel[].class)).isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  public void testFieldsHiddenByASubclassAreSkipped() {
+    RuntimeFieldComparator<Shelf> comparator = RuntimeFieldComparator.of(Shelf.class);
+    Shelf shelfA = new Shelf();
+    Shelf shelfB = new Shelf();
+    ((Rack) shelfB).code = 1;
+
+    assertThat(comparator.fields()).extracting(RuntimeField::name).containsExactly("code", "height");
+    assertThat(comparator.field("code").type()).isEqualTo(String.class);
+    assertThat(comparator.compare(shelfA, shelfB).testAllFields().differentFields()).isEmpty();
+  }
+
+  @Test
+  public void testAccessorsArePreferredInOrder() {
+    RuntimeFieldComparator<Switch> comparator = RuntimeFieldComparator.of(Switch.class);
+    Switch switchA = new Switch(true, "left", 1);
+    Switch switchB = new Switch(false, "right", 2);
+
+    assertThat(comparator.fields()).extracting(RuntimeField::name).containsExactly("on", "label", "level");
+    assertThat(comparator.compare(switchA, switchB).testAllFields().differentFields())
+        .extracting(RuntimeField::name).containsExactlyInAnyOrder("on", "label", "level");
+  }
+
+  @Test
+  public void testOnlyFieldsComparableWithTheirOwnTypeHaveAnOrder() {
+    RuntimeFieldComparator<Ranking> comparator = RuntimeFieldComparator.of(Ranking.class);
+    Ranking rankingA = new Ranking();
+    Ranking rankingB = new Ranking();
+    rankingA.unit = TimeUnit.SECONDS;
+    rankingB.unit = TimeUnit.DAYS;
+    rankingA.date = LocalDate.of(2020, 1, 1);
+    rankingB.date = LocalDate.of(2021, 1, 1);
+    rankingA.grade = new Grade(3);
+    rankingB.grade = new Grade(2);
+
+    assertThat(comparator.comparator(comparator.field("unit")).compare(rankingA, rankingB)).isNegative();
+    assertThat(comparator.comparator(comparator.field("date")).compare(rankingA, rankingB)).isNegative();
+    assertThat(comparator.comparator(comparator.field("grade")).compare(rankingA, rankingB)).isPositive();
+    assertThatThrownBy(() -> comparator.comparator(comparator.field("anyComparable"))).isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> comparator.comparator(comparator.field("version"))).isInstanceOf(IllegalArgumentException.class);
+  }
+
+  private static Person randomPerson(Random random) {
+    Person person = new Person();
+    person.setAge(random.nextInt(3));
+    person.setName(random.nextBoolean() ? "John" : null);
+    person.setLastName(random.nextBoolean() ? "Smith" : "Doe");
+    person.setAlive(random.nextBoolean());
+    person.setRequiresOxygen(random.nextBoolean() ? Boolean.TRUE : null);
+    return person;
+  }
+
+  private static Parcel parcel(int count, char code) {
+    Parcel parcel = new Parcel();
+    parcel.count = (short) count;
+    parcel.code = code;
+    return parcel;
+  }
+
+  /**
+   * Class which is not annotated, as a class of a third party library would be
+   */
+  public static class Parcel {
+
+    public short count;
+    public char code;
+    public float weight;
+    public double volume;
+    public TimeUnit unit;
+    private BigDecimal value;
+    private List<String> labels;
+    private String hidden;
+
+    public BigDecimal getValue() {
+      return value;
+    }
+
+    public List<String> labels() {
+      return labels;
+    }
+  }
+
+  static class Hidden {
+
+    public int value;
+  }
+
+  public static class Rack {
+
+    public int code;
+    public int height;
+  }
+
+  public static class Shelf extends Rack {
+
+    public String code;
+  }
+
+  /**
+   * Class whose fields have several accessors, of which only the first accepted one is used
+   */
+  public static class Switch {
+
+    private final boolean on;
+    private final String label;
+    private final int level;
+
+    public Switch(boolean on, String label, int level) {
+      this.on = on;
+      this.label = label;
+      this.level = level;
+    }
+
+    public boolean isOn() {
+      return on;
+    }
+
+    public boolean getOn() {
+      return false;
+    }
+
+    public String getLabel() {
+      return label;
+    }
+
+    public String label() {
+      return "";
+    }
+
+    public int level() {
+      return level;
+    }
+  }
+
+  public static class Ranking {
+
+    public TimeUnit unit;
+    public LocalDate date;
+    public Grade grade;
+    public Comparable<String> anyComparable;
+    public Version version;
+  }
+
+  public abstract static class Scale<S extends Scale<S>> implements Comparable<S> {
+
+    abstract int value();
+
+    @Override
+    public int compareTo(S other) {
+      return Integer.compare(value(), other.value());
+    }
+  }
+
+  public static class Grade extends Scale<Grade> {
+
+    private final int value;
+
+    public Grade(int value) {
+      this.value = value;
+    }
+
+    @Override
+    int value() {
+      return value;
+    }
+  }
+
+  /**
+   * Comparable with strings but not with other versions
+   */
+  public static class Version implements Comparable<String> {
+
+    @Override
+    public int compareTo(String other) {
+      return 0;
+    }
+  }
+
+}
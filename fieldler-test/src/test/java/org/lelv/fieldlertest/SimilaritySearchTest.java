@@ -0,0 +1,94 @@
+package org.lelv.fieldlertest;
+
+import org.junit.jupiter.api.Test;
+import org.lelv.fieldler.output.SimilarityMatch;
+import org.lelv.fieldler.output.SimilaritySearch;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.lelv.fieldlertest.PersonField.*;
+
+public class SimilaritySearchTest {
+
+  private static final Map<PersonField, Double> WEIGHTS = new EnumMap<>(PersonField.class);
+
+  static {
+    WEIGHTS.put(LAST_NAME, 5.0);
+    WEIGHTS.put(NAME, 3.0);
+    WEIGHTS.put(AGE, 1.5);
+    WEIGHTS.put(ALIVE, 0.5);
+  }
+
+  private final SimilaritySearch<Person, PersonField> search = new SimilaritySearch<>(PersonFieldComparator.schema(), WEIGHTS);
+
+  @Test
+  public void testTopK() {
+    Person probe = person("John", "Smith", 30, true);
+    Person sameLastName = person("Jack", "Smith", 40, false);
+    Person sameNameAndAge = person("John", "Brown", 30, false);
+    Person identical = person("John", "Smith", 30, true);
+    Person nothingInCommon = person("Anne", "Brown", 50, false);
+
+    List<SimilarityMatch<Person>> matches = search.topK(probe, Arrays.asList(sameLastName, sameNameAndAge, identical, nothingInCommon), 3);
+
+    assertThat(matches).extracting(SimilarityMatch::getObject).containsExactly(identical, sameLastName, sameNameAndAge);
+    assertThat(matches).extracting(SimilarityMatch::getScore).containsExactly(10.0, 5.0, 4.5);
+  }
+
+  @Test
+  public void testSameResultAsScoringAll() {
+    Random random = new Random(7);
+    List<Person> persons = new ArrayList<>();
+    for (int i = 0; i < 30_000; i++) {
+      persons.add(person("Name" + random.nextInt(20), "LastName" + random.nextInt(20), random.nextInt(20), random.nextBoolean()));
+    }
+    Person probe = person("Name1", "LastName1", 1, true);
+
+    for (List<Person> candidates : Arrays.asList(persons.subList(0, 2_000), persons)) {
+      List<Integer> expected = IntStream.range(0, candidates.size())
+                                        .boxed()
+                                        .sorted(Comparator.<Integer>comparingDouble(i -> -score(probe, candidates.get(i))).thenComparingInt(i -> i))
+                                        .limit(10)
+                                        .collect(Collectors.toList());
+      List<SimilarityMatch<Person>> matches = search.topK(probe, candidates, 10);
+
+      assertThat(matches).extracting(SimilarityMatch::getObject)
+                         .containsExactlyElementsOf(expected.stream().map(candidates::get).collect(Collectors.toList()));
+    }
+  }
+
+  @Test
+  public void testInvalidArguments() {
+    assertThatThrownBy(() -> search.topK(person("John", "Smith", 30, true), Collections.emptyList(), 0)).isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> new SimilaritySearch<>(PersonFieldComparator.schema(), Collections.singletonMap(NAME, -1.0)))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  private static double score(Person probe, Person candidate) {
+    return (probe.lastName().equals(candidate.lastName()) ? 5.0 : 0)
+        + (probe.getName().equals(candidate.getName()) ? 3.0 : 0)
+        + (probe.age == candidate.age ? 1.5 : 0)
+        + (probe.isAlive() == candidate.isAlive() ? 0.5 : 0);
+  }
+
+  private static Person person(String name, String lastName, int age, boolean alive) {
+    Person person = new Person();
+    person.setName(name);
+    person.setLastName(lastName);
+    person.setAge(age);
+    person.setAlive(alive);
+    return person;
+  }
+
+}
@@ -0,0 +1,37 @@
+package org.lelv.fieldlertest;
+
+import org.junit.jupiter.api.Test;
+import org.lelv.fieldler.output.FieldComparison;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class WideEntityTest {
+
+  @Test
+  public void chunkedSchemaContainsEveryField() {
+    assertThat(WideEntityFieldComparator.schema().size()).isEqualTo(WideEntityField.values().length);
+    assertThat(WideEntityFieldComparator.schema().fields()).containsExactly(WideEntityField.values());
+    assertThat(Arrays.stream(WideEntityFieldComparator.class.getDeclaredMethods())
+                     .filter(method -> method.getName().startsWith("createEqualityTests"))).hasSize(4);
+  }
+
+  @Test
+  public void compareFieldsOfEveryChunk() {
+    WideEntity entityA = new WideEntity();
+    WideEntity entityB = new WideEntity();
+    entityB.value0 = 1;
+    entityB.value100 = 1;
+    entityB.value149 = 1;
+
+    FieldComparison<WideEntity, WideEntityField> comparison = WideEntityFieldComparator.compare(entityA, entityB);
+
+    assertThat(comparison.differentFields()).containsExactlyInAnyOrder(WideEntityField.VALUE0, WideEntityField.VALUE100,
+                                                                         WideEntityField.VALUE149);
+    assertThat(comparison.numberOfEqualities()).isEqualTo(147);
+    assertThat(comparison.areAllEqual(EnumSet.range(WideEntityField.VALUE1, WideEntityField.VALUE99))).isTrue();
+  }
+
+}
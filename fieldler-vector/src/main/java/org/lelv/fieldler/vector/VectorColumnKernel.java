@@ -0,0 +1,101 @@
+package org.lelv.fieldler.vector;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+import org.lelv.fieldler.output.ColumnKernel;
+import org.lelv.fieldler.output.ScalarColumnKernel;
+
+/**
+ * {@link ColumnKernel} which compares as many rows at once as lanes fit in the preferred vector size of the platform,
+ * using the incubating Vector API. The mask of the lanes which are different is shifted into the bits of the
+ * differences, and the remaining rows that do not fill a vector are compared one at a time, following the same equality
+ * as the {@link ScalarColumnKernel}, so the results of both kernels are identical.
+ *
+ * <p>The kernel is registered as a service of {@code fieldler}, and requires the JVM to be started with
+ * {@code --add-modules jdk.incubator.vector}. Otherwise it can not be loaded, and the scalar kernel is used instead.
+ *
+ * @author Lelv
+ */
+public final class VectorColumnKernel implements ColumnKernel {
+
+  private static final VectorSpecies<Integer> INTS = IntVector.SPECIES_PREFERRED;
+  private static final VectorSpecies<Long> LONGS = LongVector.SPECIES_PREFERRED;
+  private static final VectorSpecies<Double> DOUBLES = DoubleVector.SPECIES_PREFERRED;
+
+  @Override
+  public void differences(int[] columnA, int[] columnB, int rows, long[] differences) {
+    int bound = INTS.loopBound(rows);
+    int row = 0;
+    for (; row < bound; row += INTS.length()) {
+      IntVector vectorA = IntVector.fromArray(INTS, columnA, row);
+      IntVector vectorB = IntVector.fromArray(INTS, columnB, row);
+      addBits(vectorA.compare(VectorOperators.NE, vectorB), row, differences);
+    }
+    for (; row < rows; row++) {
+      if (columnA[row] != columnB[row]) {
+        differences[row >>> 6] |= 1L << row;
+      }
+    }
+  }
+
+  @Override
+  public void differences(long[] columnA, long[] columnB, int rows, long[] differences) {
+    int bound = LONGS.loopBound(rows);
+    int row = 0;
+    for (; row < bound; row += LONGS.length()) {
+      LongVector vectorA = LongVector.fromArray(LONGS, columnA, row);
+      LongVector vectorB = LongVector.fromArray(LONGS, columnB, row);
+      addBits(vectorA.compare(VectorOperators.NE, vectorB), row, differences);
+    }
+    for (; row < rows; row++) {
+      if (columnA[row] != columnB[row]) {
+        differences[row >>> 6] |= 1L << row;
+      }
+    }
+  }
+
+  @Override
+  public void differences(double[] columnA, double[] columnB, int rows, long[] differences) {
+    int bound = DOUBLES.loopBound(rows);
+    int row = 0;
+    for (; row < bound; row += DOUBLES.length()) {
+      DoubleVector vectorA = DoubleVector.fromArray(DOUBLES, columnA, row);
+      DoubleVector vectorB = DoubleVector.fromArray(DOUBLES, columnB, row);
+      // raw bits tell 0.0 from -0.0 as Double.equals does, but distinct NaN payloads must still be equal
+      VectorMask<Long> differentBits = vectorA.viewAsIntegralLanes().compare(VectorOperators.NE, vectorB.viewAsIntegralLanes());
+      VectorMask<Double> bothNaN = vectorA.test(VectorOperators.IS_NAN).and(vectorB.test(VectorOperators.IS_NAN));
+      addBits(differentBits.cast(DOUBLES).andNot(bothNaN), row, differences);
+    }
+    for (; row < rows; row++) {
+      if (Double.doubleToLongBits(columnA[row]) != Double.doubleToLongBits(columnB[row])) {
+        differences[row >>> 6] |= 1L << row;
+      }
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "VectorColumnKernel{ints=" + INTS.length() + ", longs=" + LONGS.length() + ", doubles=" + DOUBLES.length() + '}';
+  }
+
+  /**
+   * The first row of a vector is a multiple of its number of lanes, which divides 64, so the lanes never span two words.
+   * Differences are usually sparse, so a single different lane is set directly, and the whole mask is only converted to
+   * bits when several lanes are different.
+   */
+  private static void addBits(VectorMask<?> different, int row, long[] differences) {
+    if (different.anyTrue()) {
+      int lane = different.firstTrue();
+      if (lane == different.lastTrue()) {
+        differences[row >>> 6] |= 1L << (row + lane);
+      } else {
+        differences[row >>> 6] |= different.toLong() << row;
+      }
+    }
+  }
+
+}
@@ -0,0 +1,89 @@
+package org.lelv.fieldler.vector;
+
+import org.lelv.fieldler.output.ColumnKernel;
+import org.lelv.fieldler.output.ScalarColumnKernel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the throughput of the scalar and the vector kernels over columns with a given ratio of different rows
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+public class ColumnKernelBenchmark {
+
+  @Param({"1000", "1000000"})
+  private int rows;
+
+  @Param({"0.0", "0.01", "0.5"})
+  private double differenceRatio;
+
+  @Param({"scalar", "vector"})
+  private String kernelName;
+
+  private ColumnKernel kernel;
+  private int[] intsA;
+  private int[] intsB;
+  private long[] longsA;
+  private long[] longsB;
+  private double[] doublesA;
+  private double[] doublesB;
+  private long[] differences;
+
+  @Setup
+  public void setup() {
+    kernel = "vector".equals(kernelName) ? new VectorColumnKernel() : new ScalarColumnKernel();
+    Random random = new Random(7);
+    intsA = new int[rows];
+    intsB = new int[rows];
+    longsA = new long[rows];
+    longsB = new long[rows];
+    doublesA = new double[rows];
+    doublesB = new double[rows];
+    for (int row = 0; row < rows; row++) {
+      intsA[row] = random.nextInt();
+      longsA[row] = random.nextLong();
+      doublesA[row] = random.nextDouble();
+      boolean different = random.nextDouble() < differenceRatio;
+      intsB[row] = different ? intsA[row] + 1 : intsA[row];
+      longsB[row] = different ? longsA[row] + 1 : longsA[row];
+      doublesB[row] = different ? doublesA[row] + 1 : doublesA[row];
+    }
+    differences = new long[(rows + Long.SIZE - 1) / Long.SIZE];
+  }
+
+  @Benchmark
+  public long[] ints() {
+    kernel.differences(intsA, intsB, rows, differences);
+    return differences;
+  }
+
+  @Benchmark
+  public long[] longs() {
+    kernel.differences(longsA, longsB, rows, differences);
+    return differences;
+  }
+
+  @Benchmark
+  public long[] doubles() {
+    kernel.differences(doublesA, doublesB, rows, differences);
+    return differences;
+  }
+
+}
@@ -0,0 +1,82 @@
+package org.lelv.fieldler.vector;
+
+import org.junit.jupiter.api.Test;
+import org.lelv.fieldler.output.ColumnDiff;
+import org.lelv.fieldler.output.ColumnKernel;
+import org.lelv.fieldler.output.ScalarColumnKernel;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class VectorColumnKernelTest {
+
+  private static final int[] SIZES = {0, 1, 7, 63, 64, 65, 200, 1000, 4099};
+
+  private final ColumnKernel vectorKernel = new VectorColumnKernel();
+  private final ColumnKernel scalarKernel = new ScalarColumnKernel();
+  private final Random random = new Random(42);
+
+  @Test
+  public void testKernelIsLoadedAsService() {
+    assertThat(ColumnDiff.kernel()).isInstanceOf(VectorColumnKernel.class);
+  }
+
+  @Test
+  public void testIntColumnsMatchScalarKernel() {
+    for (int size : SIZES) {
+      int[] columnA = new int[size];
+      int[] columnB = new int[size];
+      for (int row = 0; row < size; row++) {
+        columnA[row] = random.nextInt(4);
+        columnB[row] = random.nextInt(4);
+      }
+      long[] expected = bits(size);
+      long[] actual = bits(size);
+      scalarKernel.differences(columnA, columnB, size, expected);
+      vectorKernel.differences(columnA, columnB, size, actual);
+      assertThat(actual).as("size %d", size).isEqualTo(expected);
+    }
+  }
+
+  @Test
+  public void testLongColumnsMatchScalarKernel() {
+    for (int size : SIZES) {
+      long[] columnA = new long[size];
+      long[] columnB = new long[size];
+      for (int row = 0; row < size; row++) {
+        columnA[row] = random.nextInt(3) + Long.MAX_VALUE / 2;
+        columnB[row] = random.nextInt(3) + Long.MAX_VALUE / 2;
+      }
+      long[] expected = bits(size);
+      long[] actual = bits(size);
+      scalarKernel.differences(columnA, columnB, size, expected);
+      vectorKernel.differences(columnA, columnB, size, actual);
+      assertThat(actual).as("size %d", size).isEqualTo(expected);
+    }
+  }
+
+  @Test
+  public void testDoubleColumnsFollowDoubleEquals() {
+    double otherNaN = Double.longBitsToDouble(0x7ff8000000000001L);
+    double[] values = {0.0, -0.0, 1.5, Double.NaN, otherNaN, Double.POSITIVE_INFINITY};
+    for (int size : SIZES) {
+      double[] columnA = new double[size];
+      double[] columnB = new double[size];
+      for (int row = 0; row < size; row++) {
+        columnA[row] = values[random.nextInt(values.length)];
+        columnB[row] = values[random.nextInt(values.length)];
+      }
+      long[] expected = bits(size);
+      long[] actual = bits(size);
+      scalarKernel.differences(columnA, columnB, size, expected);
+      vectorKernel.differences(columnA, columnB, size, actual);
+      assertThat(actual).as("size %d", size).isEqualTo(expected);
+    }
+  }
+
+  private static long[] bits(int size) {
+    return new long[(size + Long.SIZE - 1) / Long.SIZE];
+  }
+
+}
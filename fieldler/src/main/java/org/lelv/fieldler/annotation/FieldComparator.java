@@ -9,7 +9,71 @@ import java.lang.annotation.Target;
  * Annotation that flags a class for generating a FieldData enum and a FieldComparator class
  */
 @Target(ElementType.TYPE)
-@Retention(RetentionPolicy.SOURCE)
+@Retention(RetentionPolicy.CLASS)
 public @interface FieldComparator {
 
+  /**
+   * Whether the generated comparator samples the outcome of the equality tests, and periodically reorders the fields
+   * evaluated by multi-field queries so that the expected cost of reaching a decision is minimal. The current order
+   * and statistics are available through the {@code schema()} method of the generated comparator.
+   *
+   * @return true to enable the adaptive mode
+   */
+  boolean adaptive() default false;
+
+  /**
+   * Whether the generated comparator reads directly the package-private and protected fields declared in the package of
+   * the annotated class, instead of going through their getters. Public fields are always read directly, and private
+   * fields always require a getter.
+   *
+   * @return false to only read directly public fields
+   */
+  boolean directFieldAccess() default true;
+
+  /**
+   * Whether the annotated class is immutable. The generated comparator then caches the results of the comparisons,
+   * keyed by the identity of the compared pair of objects, so that comparing again the same pair does not run any
+   * equality test. The first comparison of a pair tests all the fields. The cache only keeps weak references to the
+   * objects.
+   *
+   * @return true if the objects of the class never change
+   */
+  boolean immutable() default false;
+
+  /**
+   * Maximum number of pairs whose results are cached when the class is {@link #immutable()}, rounded up to a power of
+   * two. Storing a new pair may evict a previous one.
+   *
+   * @return the size of the cache
+   */
+  int cacheSize() default 1024;
+
+  /**
+   * Whether to also generate a columnar container of the objects of the class, with one array per field, which supports
+   * bulk loading, row access and a column-wise comparison of two containers.
+   *
+   * @return true to generate the {@code XxxColumns} class
+   */
+  boolean columns() default false;
+
+  /**
+   * Whether to also generate a writer of the differences of the comparisons as JSON, which streams them to an
+   * {@link Appendable} or a {@link java.nio.ByteBuffer} without reflection nor intermediate maps.
+   *
+   * @return true to generate the {@code XxxJsonWriter} class
+   */
+  boolean json() default false;
+
+  /**
+   * Whether the generated comparator avoids lambdas. The equality tests, values, hashes and orders of all the fields are
+   * then implemented by a single nested class, which dispatches by field through generated switches over a table shared
+   * by every comparison. No lambda has to be bootstrapped when the comparator is first used, which reduces the startup
+   * time and the metaspace of applications with many annotated classes. The reference comparator still captures the
+   * values of the reference, except for primitive fields, which it reads on every test to avoid boxing the values of
+   * the candidates.
+   *
+   * @return true to generate a comparator without lambdas
+   */
+  boolean lambdaFree() default false;
+
 }
@@ -9,7 +9,15 @@ import java.lang.annotation.Target;
  * Annotation that flags a class for generating a FieldData enum
  */
 @Target(ElementType.TYPE)
-@Retention(RetentionPolicy.SOURCE)
+@Retention(RetentionPolicy.CLASS)
 public @interface FieldData {
 
+  /**
+   * Whether to also generate a columnar container of the objects of the class, with one array per field, which supports
+   * bulk loading, row access and a column-wise comparison of two containers.
+   *
+   * @return true to generate the {@code XxxColumns} class
+   */
+  boolean columns() default false;
+
 }
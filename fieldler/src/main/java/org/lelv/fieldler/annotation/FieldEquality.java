@@ -0,0 +1,54 @@
+package org.lelv.fieldler.annotation;
+
+import org.lelv.fieldler.output.EqualityStrategies;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Annotation that replaces the default {@code Objects.equals} test of a field with a custom equality strategy.
+ *
+ * <p>The strategy can be either:
+ * <ul>
+ *   <li>a {@link java.util.Comparator} class with a public no-args constructor, in which case the values are considered
+ *   equal when the comparator returns 0</li>
+ *   <li>a static method that receives both values and returns a boolean, declared on the class provided in {@code using}
+ *   (by default {@link EqualityStrategies}). If the method declares a third parameter, the {@code tolerance} is passed to it</li>
+ * </ul>
+ *
+ * <p>The strategy is invoked directly by the generated FieldComparator, without any reflection involved. A strategy
+ * which can not be invoked with the values of the field, a non zero {@code tolerance} without a three parameter
+ * method, or a tolerance which is NaN or infinite, is reported as a compilation error on the field.
+ * <pre>{@code
+ * @FieldEquality(method = "equalsIgnoreCase")
+ * private String email;
+ *
+ * @FieldEquality(method = "equalsWithTolerance", tolerance = 0.001)
+ * private double weight;
+ *
+ * @FieldEquality(using = BigDecimalComparator.class)
+ * private BigDecimal balance;
+ * }</pre>
+ */
+@Target(ElementType.FIELD)
+@Retention(RetentionPolicy.CLASS)
+public @interface FieldEquality {
+
+  /**
+   * @return the comparator class, or the class declaring the static method
+   */
+  Class<?> using() default EqualityStrategies.class;
+
+  /**
+   * @return the name of the static method, must be empty when {@code using} is a comparator
+   */
+  String method() default "";
+
+  /**
+   * @return the tolerance passed to three parameter static methods, which must be a finite number
+   */
+  double tolerance() default 0;
+
+}
@@ -0,0 +1,303 @@
+package org.lelv.fieldler.generator;
+
+import com.squareup.javapoet.ArrayTypeName;
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.FieldSpec;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.ParameterSpec;
+import com.squareup.javapoet.ParameterizedTypeName;
+import com.squareup.javapoet.TypeName;
+import com.squareup.javapoet.TypeSpec;
+import com.squareup.javapoet.WildcardTypeName;
+import org.lelv.fieldler.generator.data.ClassData;
+import org.lelv.fieldler.generator.data.FieldData;
+import org.lelv.fieldler.generator.util.EqualityExpressionUtil;
+
+import javax.lang.model.element.Modifier;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+public class ColumnsCreator {
+
+  private static final String COLUMNS_SUFFIX = "Columns";
+  private static final String OF_METHOD = "of";
+  private static final String SIZE_METHOD = "size";
+  private static final String GET_METHOD = "get";
+  private static final String VALUE_METHOD = "value";
+  private static final String LOAD_METHOD = "load";
+  private static final String DIFF_METHOD = "diff";
+  private static final String COMPARE_COLUMNS_METHOD = "compareColumns";
+  private static final String COLUMNS_VARIABLE = "columns";
+  private static final String OTHER_VARIABLE = "other";
+  private static final String DIFF_VARIABLE = "diff";
+  private static final String ROW_PARAMETER = "row";
+  private static final String FIELD_PARAMETER = "field";
+  private static final String CAPACITY_PARAMETER = "capacity";
+  private static final String ROWS_FIELD = "rows";
+  private static final ClassName COLUMN_DIFF_CLASS_NAME = ClassName.get("org.lelv.fieldler.output", "ColumnDiff");
+  private static final Map<String, TypeName> PRIMITIVE_TYPE_NAMES = new HashMap<>();
+
+  static {
+    PRIMITIVE_TYPE_NAMES.put("boolean", TypeName.BOOLEAN);
+    PRIMITIVE_TYPE_NAMES.put("byte", TypeName.BYTE);
+    PRIMITIVE_TYPE_NAMES.put("short", TypeName.SHORT);
+    PRIMITIVE_TYPE_NAMES.put("char", TypeName.CHAR);
+    PRIMITIVE_TYPE_NAMES.put("int", TypeName.INT);
+    PRIMITIVE_TYPE_NAMES.put("long", TypeName.LONG);
+    PRIMITIVE_TYPE_NAMES.put("float", TypeName.FLOAT);
+    PRIMITIVE_TYPE_NAMES.put("double", TypeName.DOUBLE);
+  }
+
+  private final List<FieldData> fields;
+  private final String objectName;
+  private final ClassName sourceClassClassName;
+  private final ClassName fieldDataEnumClassName;
+  private final ClassName columnsClassName;
+  private final ParameterizedTypeName columnDiffTypeName;
+
+  public ColumnsCreator(ClassData classData, String fieldEnumName) {
+    this.fields = classData.getFieldsData().stream().filter(FieldData::isAccessible).collect(Collectors.toList());
+    this.objectName = Character.toLowerCase(classData.getClassName().charAt(0)) + classData.getClassName().substring(1);
+    this.sourceClassClassName = ClassName.bestGuess(classData.getCanonicalName());
+    this.fieldDataEnumClassName = ClassName.bestGuess(classData.getPackagePath() + "." + fieldEnumName);
+    this.columnsClassName = ClassName.bestGuess(classData.getPackagePath() + "." + classData.getClassName() + COLUMNS_SUFFIX);
+    this.columnDiffTypeName = ParameterizedTypeName.get(COLUMN_DIFF_CLASS_NAME, fieldDataEnumClassName);
+  }
+
+  public TypeSpec create() {
+    MethodChunker methodChunker = new MethodChunker();
+    return TypeSpec.classBuilder(columnsClassName.simpleName())
+                   .addJavadoc(CodeBlock.builder()
+                                        .add("Columnar container of $T objects, which keeps every field in its own array,\n", sourceClassClassName)
+                                        .add("primitive for primitive fields, indexed by row\n")
+                                        .build())
+                   .addModifiers(Modifier.PUBLIC, Modifier.FINAL)
+                   .addFields(createComparatorStrategyFields())
+                   .addField(TypeName.INT, ROWS_FIELD, Modifier.PRIVATE, Modifier.FINAL)
+                   .addFields(createColumnFields())
+                   .addMethod(createConstructor())
+                   .addMethod(createOfMethod())
+                   .addMethod(createSizeMethod())
+                   .addMethods(createGetterMethods())
+                   .addMethod(createGetMethod())
+                   .addMethod(createDiffMethod())
+                   .addMethod(createLoadMethod(methodChunker))
+                   .addMethod(createValueMethod(methodChunker))
+                   .addMethod(createCompareColumnsMethod(methodChunker))
+                   .addMethods(methodChunker.getChunkMethods())
+                   .build();
+  }
+
+  private List<FieldSpec> createComparatorStrategyFields() {
+    return fields.stream()
+                 .filter(EqualityExpressionUtil::hasComparatorStrategy)
+                 .map(EqualityExpressionUtil::comparatorStrategyField)
+                 .collect(Collectors.toList());
+  }
+
+  private List<FieldSpec> createColumnFields() {
+    return fields.stream()
+                 .map(fieldData -> FieldSpec.builder(ArrayTypeName.of(typeName(fieldData)), fieldData.getName(), Modifier.PRIVATE, Modifier.FINAL)
+                                            .build())
+                 .collect(Collectors.toList());
+  }
+
+  private MethodSpec createConstructor() {
+    MethodSpec.Builder constructorBuilder = MethodSpec.constructorBuilder()
+                                                      .addModifiers(Modifier.PRIVATE)
+                                                      .addParameter(TypeName.INT, CAPACITY_PARAMETER)
+                                                      .addStatement("this.$L = $L", ROWS_FIELD, CAPACITY_PARAMETER);
+    for (FieldData fieldData : fields) {
+      TypeName elementTypeName = typeName(fieldData);
+      StringBuilder dimensions = new StringBuilder();
+      while (elementTypeName instanceof ArrayTypeName) {
+        elementTypeName = ((ArrayTypeName) elementTypeName).componentType;
+        dimensions.append("[]");
+      }
+      constructorBuilder.addStatement("this.$L = new $T[$L]$L", fieldData.getName(), elementTypeName, CAPACITY_PARAMETER, dimensions);
+    }
+    return constructorBuilder.build();
+  }
+
+  private MethodSpec createOfMethod() {
+    String objectsName = objectName + "s";
+    ParameterizedTypeName collectionTypeName = ParameterizedTypeName.get(ClassName.get(Collection.class), WildcardTypeName.subtypeOf(sourceClassClassName));
+    return MethodSpec.methodBuilder(OF_METHOD)
+                     .addJavadoc(CodeBlock.builder()
+                                          .add("Copies the fields of the objects to a new container, one row per object following the iteration order\n")
+                                          .add("@param $L the objects\n", objectsName)
+                                          .add("@throws NullPointerException if an object is {@code null}\n")
+                                          .add("@return $T", columnsClassName)
+                                          .build())
+                     .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                     .returns(columnsClassName)
+                     .addParameter(collectionTypeName, objectsName)
+                     .addStatement("$T $L = new $T($L.size())", columnsClassName, COLUMNS_VARIABLE, columnsClassName, objectsName)
+                     .addStatement("int $L = 0", ROW_PARAMETER)
+                     .beginControlFlow("for ($T $L : $L)", sourceClassClassName, objectName, objectsName)
+                     .addStatement("$L($L, $L++, $T.requireNonNull($L))", LOAD_METHOD, COLUMNS_VARIABLE, ROW_PARAMETER, Objects.class, objectName)
+                     .endControlFlow()
+                     .addStatement("return $L", COLUMNS_VARIABLE)
+                     .build();
+  }
+
+  private MethodSpec createSizeMethod() {
+    return MethodSpec.methodBuilder(SIZE_METHOD)
+                     .addJavadoc("Returns the number of rows\n@return number of rows")
+                     .addModifiers(Modifier.PUBLIC)
+                     .returns(TypeName.INT)
+                     .addStatement("return this.$L", ROWS_FIELD)
+                     .build();
+  }
+
+  private List<MethodSpec> createGetterMethods() {
+    List<MethodSpec> getters = new ArrayList<>();
+    for (FieldData fieldData : fields) {
+      String name = fieldData.getName();
+      getters.add(MethodSpec.methodBuilder(GET_METHOD + Character.toUpperCase(name.charAt(0)) + name.substring(1))
+                            .addJavadoc(CodeBlock.builder()
+                                                 .add("Returns the value of the field $L of a row\n", name)
+                                                 .add("@param $L the row\n", ROW_PARAMETER)
+                                                 .add("@throws ArrayIndexOutOfBoundsException if the row does not exist\n")
+                                                 .add("@return the value")
+                                                 .build())
+                            .addModifiers(Modifier.PUBLIC)
+                            .returns(typeName(fieldData))
+                            .addParameter(TypeName.INT, ROW_PARAMETER)
+                            .addStatement("return this.$L[$L]", name, ROW_PARAMETER)
+                            .build());
+    }
+    return getters;
+  }
+
+  private MethodSpec createGetMethod() {
+    return MethodSpec.methodBuilder(GET_METHOD)
+                     .addJavadoc(CodeBlock.builder()
+                                          .add("Returns the value of a field of a row, boxed if the field is primitive\n")
+                                          .add("@param $L the field\n", FIELD_PARAMETER)
+                                          .add("@param $L the row\n", ROW_PARAMETER)
+                                          .add("@throws ArrayIndexOutOfBoundsException if the row does not exist\n")
+                                          .add("@return the value")
+                                          .build())
+                     .addModifiers(Modifier.PUBLIC)
+                     .returns(Object.class)
+                     .addParameter(fieldDataEnumClassName, FIELD_PARAMETER)
+                     .addParameter(TypeName.INT, ROW_PARAMETER)
+                     .addStatement("return $L($L, this, $L)", VALUE_METHOD, FIELD_PARAMETER, ROW_PARAMETER)
+                     .build();
+  }
+
+  private MethodSpec createDiffMethod() {
+    return MethodSpec.methodBuilder(DIFF_METHOD)
+                     .addJavadoc(CodeBlock.builder()
+                                          .add("Compares this container with another one column by column, row against row\n")
+                                          .add("@param $L the other container\n", OTHER_VARIABLE)
+                                          .add("@throws IllegalArgumentException if both containers do not have the same number of rows\n")
+                                          .add("@return the mask of different fields of every row")
+                                          .build())
+                     .addModifiers(Modifier.PUBLIC)
+                     .returns(columnDiffTypeName)
+                     .addParameter(columnsClassName, OTHER_VARIABLE)
+                     .beginControlFlow("if ($L() != $L.$L())", SIZE_METHOD, OTHER_VARIABLE, SIZE_METHOD)
+                     .addStatement("throw new $T(\"Expected \" + $L() + \" rows but found \" + $L.$L())", IllegalArgumentException.class,
+                                   SIZE_METHOD, OTHER_VARIABLE, SIZE_METHOD)
+                     .endControlFlow()
+                     .addStatement("$T $L = new $T<>($T.class, $L())", columnDiffTypeName, DIFF_VARIABLE, COLUMN_DIFF_CLASS_NAME,
+                                   fieldDataEnumClassName, SIZE_METHOD)
+                     .addStatement("$L($L, this, $L)", COMPARE_COLUMNS_METHOD, DIFF_VARIABLE, OTHER_VARIABLE)
+                     .addStatement("return $L", DIFF_VARIABLE)
+                     .build();
+  }
+
+  private MethodSpec createLoadMethod(MethodChunker methodChunker) {
+    ParameterSpec columnsParameter = ParameterSpec.builder(columnsClassName, COLUMNS_VARIABLE).build();
+    ParameterSpec rowParameter = ParameterSpec.builder(TypeName.INT, ROW_PARAMETER).build();
+    ParameterSpec objectParameter = ParameterSpec.builder(sourceClassClassName, objectName).build();
+    MethodSpec.Builder methodBuilder = MethodSpec.methodBuilder(LOAD_METHOD)
+                                                 .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+                                                 .addParameter(columnsParameter)
+                                                 .addParameter(rowParameter)
+                                                 .addParameter(objectParameter);
+    List<CodeBlock> statements = fields.stream()
+                                       .map(fieldData -> CodeBlock.of("$L.$L[$L] = $L.$L", COLUMNS_VARIABLE, fieldData.getName(), ROW_PARAMETER,
+                                                                      objectName, fieldData.getAccess()))
+                                       .collect(Collectors.toList());
+    methodChunker.addStatements(methodBuilder, LOAD_METHOD, statements, MethodChunker.TABLE_CHUNK_SIZE,
+                                columnsParameter, rowParameter, objectParameter);
+    return methodBuilder.build();
+  }
+
+  private MethodSpec createValueMethod(MethodChunker methodChunker) {
+    ParameterSpec fieldParameter = ParameterSpec.builder(fieldDataEnumClassName, FIELD_PARAMETER).build();
+    ParameterSpec columnsParameter = ParameterSpec.builder(columnsClassName, COLUMNS_VARIABLE).build();
+    ParameterSpec rowParameter = ParameterSpec.builder(TypeName.INT, ROW_PARAMETER).build();
+    MethodSpec.Builder methodBuilder = MethodSpec.methodBuilder(VALUE_METHOD)
+                                                 .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+                                                 .returns(Object.class)
+                                                 .addParameter(fieldParameter)
+                                                 .addParameter(columnsParameter)
+                                                 .addParameter(rowParameter);
+    List<MethodChunker.SwitchCase> cases = new ArrayList<>();
+    for (int ordinal = 0; ordinal < fields.size(); ordinal++) {
+      FieldData fieldData = fields.get(ordinal);
+      cases.add(new MethodChunker.SwitchCase(ordinal, fieldData.getEnumName(),
+                                             CodeBlock.of("return $L.$L[$L]", COLUMNS_VARIABLE, fieldData.getName(), ROW_PARAMETER)));
+    }
+    methodChunker.addSwitch(methodBuilder, VALUE_METHOD, TypeName.OBJECT, cases,
+                            CodeBlock.of("throw new $T(\"Unknown field \" + $L)", IllegalArgumentException.class, FIELD_PARAMETER),
+                            MethodChunker.SWITCH_CHUNK_SIZE, fieldParameter, columnsParameter, rowParameter);
+    return methodBuilder.build();
+  }
+
+  private MethodSpec createCompareColumnsMethod(MethodChunker methodChunker) {
+    String columnsA = COLUMNS_VARIABLE + "A";
+    String columnsB = COLUMNS_VARIABLE + "B";
+    ParameterSpec diffParameter = ParameterSpec.builder(columnDiffTypeName, DIFF_VARIABLE).build();
+    ParameterSpec columnsAParameter = ParameterSpec.builder(columnsClassName, columnsA).build();
+    ParameterSpec columnsBParameter = ParameterSpec.builder(columnsClassName, columnsB).build();
+    MethodSpec.Builder methodBuilder = MethodSpec.methodBuilder(COMPARE_COLUMNS_METHOD)
+                                                 .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+                                                 .addParameter(diffParameter)
+                                                 .addParameter(columnsAParameter)
+                                                 .addParameter(columnsBParameter);
+    List<CodeBlock> statements = new ArrayList<>();
+    for (int ordinal = 0; ordinal < fields.size(); ordinal++) {
+      FieldData fieldData = fields.get(ordinal);
+      String name = fieldData.getName();
+      if (fieldData.hasCustomEquality()) {
+        // custom equalities are tested row by row over the values of both columns
+        String valueA = String.format("%s.%s[%s]", columnsA, name, ROW_PARAMETER);
+        String valueB = String.format("%s.%s[%s]", columnsB, name, ROW_PARAMETER);
+        statements.add(CodeBlock.of("$L.compare($L, $L -> $L)", DIFF_VARIABLE, ordinal, ROW_PARAMETER,
+                                    EqualityExpressionUtil.equalityExpression(fieldData, valueA, valueB)));
+      } else {
+        statements.add(CodeBlock.of("$L.compare($L.$L, $L.$L, $L)", DIFF_VARIABLE, columnsA, name, columnsB, name, ordinal));
+      }
+    }
+    methodChunker.addStatements(methodBuilder, COMPARE_COLUMNS_METHOD, statements, MethodChunker.TABLE_CHUNK_SIZE,
+                                diffParameter, columnsAParameter, columnsBParameter);
+    return methodBuilder.build();
+  }
+
+  /**
+   * Columns are declared with the erasure of the type of the field, as arrays of generic types can not be created
+   */
+  private static TypeName typeName(FieldData fieldData) {
+    return typeName(fieldData.getErasedType() == null ? Object.class.getCanonicalName() : fieldData.getErasedType());
+  }
+
+  private static TypeName typeName(String type) {
+    if (type.endsWith("[]")) {
+      return ArrayTypeName.of(typeName(type.substring(0, type.length() - 2)));
+    }
+    TypeName primitiveTypeName = PRIMITIVE_TYPE_NAMES.get(type);
+    return primitiveTypeName == null ? ClassName.bestGuess(type) : primitiveTypeName;
+  }
+
+}
@@ -1,54 +1,621 @@
 package org.lelv.fieldler.generator;
 
+import com.squareup.javapoet.ArrayTypeName;
 import com.squareup.javapoet.CodeBlock;
 import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.FieldSpec;
 import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.ParameterSpec;
 import com.squareup.javapoet.ParameterizedTypeName;
+import com.squareup.javapoet.TypeName;
 import com.squareup.javapoet.TypeSpec;
+import com.squareup.javapoet.WildcardTypeName;
 import org.lelv.fieldler.generator.data.ClassData;
 import org.lelv.fieldler.generator.data.FieldData;
+import org.lelv.fieldler.generator.util.EqualityExpressionUtil;
+import org.lelv.fieldler.generator.util.PrimitiveTypeUtil;
+import org.lelv.fieldler.output.FieldCost;
 
 import javax.lang.model.element.Modifier;
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public class FieldComparatorCreator {
 
   private static final String COMPARE_METHOD = "compare";
+  private static final String SCHEMA_METHOD = "schema";
   private static final String COMPARATOR_SUFFIX = "FieldComparator";
   private static final String EQUALITY_TESTS_VARIABLE = "equalityTests";
   private static final String EQUALITY_TESTS_METHOD = "createEqualityTests";
+  private static final String VALUE_FUNCTIONS_VARIABLE = "valueFunctions";
+  private static final String VALUE_FUNCTIONS_METHOD = "createValueFunctions";
+  private static final String HASH_FUNCTIONS_VARIABLE = "hashFunctions";
+  private static final String HASH_FUNCTIONS_METHOD = "createHashFunctions";
+  private static final String ORDERS_VARIABLE = "orders";
+  private static final String ORDERS_METHOD = "createOrders";
+  private static final String CONSISTENT_ORDERS_VARIABLE = "consistentOrders";
+  private static final String CONSISTENT_ORDERS_METHOD = "createConsistentOrders";
+  private static final String COSTS_VARIABLE = "costs";
+  private static final String COSTS_METHOD = "createCosts";
+  private static final String AGAINST_METHOD = "against";
+  private static final String REFERENCE_TESTS_VARIABLE = "referenceTests";
+  private static final String REFERENCE_TESTS_METHOD = "createReferenceTests";
+  private static final String HISTORY_METHOD = "history";
+  private static final String PROJECTION_METHOD = "projection";
+  private static final String VERSIONS_PARAMETER = "versions";
+  private static final String SCHEMA_FIELD = "SCHEMA";
+  private static final String CACHE_FIELD = "CACHE";
+  private static final String ORDER_SUFFIX = "_ORDER";
+  private static final String COMPARATOR_METHOD = "comparator";
+  private static final String COMPARE_FIELD_METHOD = "compareField";
+  private static final String FIELD_PARAMETER = "field";
+  private static final String FIELD_FUNCTION_CLASS = "FieldFunction";
+  private static final String FIELDS_ORDER_CLASS = "FieldsOrder";
+  private static final String FIELD_FUNCTIONS_FIELD = "FIELD_FUNCTIONS";
+  private static final String FIELD_FUNCTIONS_METHOD = "createFieldFunctions";
+  private static final String TEST_FIELD_METHOD = "testField";
+  private static final String FIELD_VALUE_METHOD = "fieldValue";
+  private static final String HASH_FIELD_METHOD = "hashField";
+  private static final String FIELDS_PARAMETER = "fields";
   private static final ClassName MAP_CLASS_NAME = ClassName.get("java.util", "Map");
   private static final ClassName BI_PREDICATE_CLASS_NAME = ClassName.get("java.util.function", "BiPredicate");
+  private static final ClassName FUNCTION_CLASS_NAME = ClassName.get("java.util.function", "Function");
+  private static final ClassName TO_INT_FUNCTION_CLASS_NAME = ClassName.get("java.util.function", "ToIntFunction");
   private static final ClassName FIELD_COMPARISON_CLASS_NAME = ClassName.get("org.lelv.fieldler.output", "FieldComparison");
+  private static final ClassName FIELD_SCHEMA_CLASS_NAME = ClassName.get("org.lelv.fieldler.output", "FieldSchema");
+  private static final ClassName FIELD_COST_CLASS_NAME = ClassName.get("org.lelv.fieldler.output", "FieldCost");
+  private static final ClassName COMPARISON_CACHE_CLASS_NAME = ClassName.get("org.lelv.fieldler.output", "ComparisonCache");
+  private static final ClassName PREDICATE_CLASS_NAME = ClassName.get("java.util.function", "Predicate");
+  private static final ClassName REFERENCE_COMPARATOR_CLASS_NAME = ClassName.get("org.lelv.fieldler.output", "ReferenceComparator");
+  private static final ClassName FIELD_HISTORY_CLASS_NAME = ClassName.get("org.lelv.fieldler.output", "FieldHistory");
+  private static final ClassName FIELD_PROJECTION_CLASS_NAME = ClassName.get("org.lelv.fieldler.output", "FieldProjection");
+  private static final ClassName FIELD_ORDERING_CLASS_NAME = ClassName.get("org.lelv.fieldler.output", "FieldOrdering");
 
+  private final String objectName;
+  private final String referenceName;
   private final String objectAName;
   private final String objectBName;
   private final ClassData classData;
   private final ClassName fieldDataEnumClassName;
   private final ClassName sourceClassClassName;
   private final ParameterizedTypeName mapOfFieldDataAndBiPredicateTypeName;
+  private final ParameterizedTypeName mapOfFieldDataAndFunctionTypeName;
+  private final ParameterizedTypeName mapOfFieldDataAndToIntFunctionTypeName;
+  private final ParameterizedTypeName mapOfFieldDataAndFieldCostTypeName;
+  private final ParameterizedTypeName fieldSchemaTypeName;
+  private final ParameterizedTypeName comparatorTypeName;
+  private final ParameterizedTypeName mapOfFieldDataAndComparatorTypeName;
+  private final ParameterizedTypeName setOfFieldDataTypeName;
+  private final boolean lambdaFree;
+  private final ClassName fieldFunctionClassName;
+  private final Map<FieldData, Integer> ordinals = new IdentityHashMap<>();
 
   public FieldComparatorCreator(ClassData classData, String fieldEnumName) {
     this.classData = classData;
     this.sourceClassClassName = ClassName.bestGuess(classData.getCanonicalName());
     this.fieldDataEnumClassName = ClassName.bestGuess(classData.getPackagePath() + "." + fieldEnumName);
     String variableName = Character.toLowerCase(classData.getClassName().charAt(0)) + classData.getClassName().substring(1);
+    this.objectName = variableName;
+    this.referenceName = variableName + "Reference";
     this.objectAName = variableName + "A";
     this.objectBName = variableName + "B";
     ParameterizedTypeName biPredicateTypeName = ParameterizedTypeName.get(BI_PREDICATE_CLASS_NAME, sourceClassClassName, sourceClassClassName);
     this.mapOfFieldDataAndBiPredicateTypeName = ParameterizedTypeName.get(MAP_CLASS_NAME, fieldDataEnumClassName, biPredicateTypeName);
+    ParameterizedTypeName functionTypeName = ParameterizedTypeName.get(FUNCTION_CLASS_NAME, sourceClassClassName, WildcardTypeName.subtypeOf(Object.class));
+    this.mapOfFieldDataAndFunctionTypeName = ParameterizedTypeName.get(MAP_CLASS_NAME, fieldDataEnumClassName, functionTypeName);
+    ParameterizedTypeName toIntFunctionTypeName = ParameterizedTypeName.get(TO_INT_FUNCTION_CLASS_NAME, sourceClassClassName);
+    this.mapOfFieldDataAndToIntFunctionTypeName = ParameterizedTypeName.get(MAP_CLASS_NAME, fieldDataEnumClassName, toIntFunctionTypeName);
+    this.mapOfFieldDataAndFieldCostTypeName = ParameterizedTypeName.get(MAP_CLASS_NAME, fieldDataEnumClassName, FIELD_COST_CLASS_NAME);
+    this.fieldSchemaTypeName = ParameterizedTypeName.get(FIELD_SCHEMA_CLASS_NAME, sourceClassClassName, fieldDataEnumClassName);
+    this.comparatorTypeName = ParameterizedTypeName.get(ClassName.get(Comparator.class), sourceClassClassName);
+    this.mapOfFieldDataAndComparatorTypeName = ParameterizedTypeName.get(MAP_CLASS_NAME, fieldDataEnumClassName, comparatorTypeName);
+    this.setOfFieldDataTypeName = ParameterizedTypeName.get(ClassName.get(Set.class), fieldDataEnumClassName);
+    this.lambdaFree = classData.getComparatorOptions().isLambdaFree();
+    this.fieldFunctionClassName = ClassName.bestGuess(classData.getPackagePath() + "." + classData.getClassName() + COMPARATOR_SUFFIX)
+                                           .nestedClass(FIELD_FUNCTION_CLASS);
+    accessibleFields().forEach(fieldData -> ordinals.put(fieldData, ordinals.size()));
   }
 
   public TypeSpec create() {
-    return TypeSpec.classBuilder(classData.getClassName() + COMPARATOR_SUFFIX)
-                   .addModifiers(Modifier.PUBLIC, Modifier.FINAL)
-                   .addMethod(privateEmptyConstructor())
-                   .addMethod(createCompareMethod())
-                   .addMethod(createEqualityTestsMethod())
+    MethodChunker methodChunker = new MethodChunker();
+    TypeSpec.Builder builder = TypeSpec.classBuilder(classData.getClassName() + COMPARATOR_SUFFIX)
+                                       .addModifiers(Modifier.PUBLIC, Modifier.FINAL)
+                                       .addFields(createComparatorStrategyFields());
+    if (lambdaFree) {
+      // declared before the orders and the schema, which are initialized with the field functions
+      builder.addField(createFieldFunctionsField());
+    }
+    builder.addFields(createOrderFields())
+           .addField(createSchemaField())
+           .addFields(createCacheFields())
+           .addMethod(privateEmptyConstructor())
+           .addMethod(createCompareMethod())
+           .addMethod(createSchemaMethod())
+           .addMethod(createAgainstMethod(methodChunker))
+           .addMethod(createHistoryMethod())
+           .addMethod(createProjectionMethod())
+           .addMethod(createFieldComparatorMethod(methodChunker))
+           .addMethod(createFieldsComparatorMethod())
+           .addMethod(createFieldsVarargsComparatorMethod())
+           .addMethod(createCompareFieldMethod(methodChunker))
+           .addMethod(createEqualityTestsMethod(methodChunker))
+           .addMethod(createValueFunctionsMethod(methodChunker))
+           .addMethod(createHashFunctionsMethod(methodChunker))
+           .addMethod(createOrdersMethod(methodChunker))
+           .addMethod(createConsistentOrdersMethod(methodChunker))
+           .addMethod(createCostsMethod(methodChunker));
+    if (lambdaFree) {
+      builder.addMethod(createFieldFunctionsMethod())
+             .addMethod(createTestFieldMethod(methodChunker))
+             .addMethod(createFieldValueMethod(methodChunker))
+             .addMethod(createHashFieldMethod(methodChunker))
+             .addType(createFieldFunctionClass())
+             .addType(createFieldsOrderClass());
+    }
+    return builder.addMethods(methodChunker.getChunkMethods())
+                  .build();
+  }
+
+  /**
+   * Returns the expression of a function of a field: in the lambda-free mode, the field function of the shared table,
+   * which implements every functional interface, and otherwise the lambda
+   */
+  private CodeBlock function(FieldData fieldData, CodeBlock lambda) {
+    return lambdaFree ? CodeBlock.of("$L[$L]", FIELD_FUNCTIONS_FIELD, ordinals.get(fieldData)) : lambda;
+  }
+
+  private FieldSpec createFieldFunctionsField() {
+    return FieldSpec.builder(ArrayTypeName.of(fieldFunctionClassName), FIELD_FUNCTIONS_FIELD, Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                    .initializer("$L()", FIELD_FUNCTIONS_METHOD)
+                    .build();
+  }
+
+  private MethodSpec createFieldFunctionsMethod() {
+    return MethodSpec.methodBuilder(FIELD_FUNCTIONS_METHOD)
+                     .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+                     .returns(ArrayTypeName.of(fieldFunctionClassName))
+                     .addStatement("$T[] $L = $T.values()", fieldDataEnumClassName, FIELDS_PARAMETER, fieldDataEnumClassName)
+                     .addStatement("$T[] functions = new $T[$L.length]", fieldFunctionClassName, fieldFunctionClassName, FIELDS_PARAMETER)
+                     .beginControlFlow("for (int ordinal = 0; ordinal < functions.length; ordinal++)")
+                     .addStatement("functions[ordinal] = new $T($L[ordinal])", fieldFunctionClassName, FIELDS_PARAMETER)
+                     .endControlFlow()
+                     .addStatement("return functions")
+                     .build();
+  }
+
+  /**
+   * A single class implements the equality test, value, hash and order of every field, dispatching by the field through
+   * generated switches, so that no lambda needs to be bootstrapped nor spun as a hidden class at startup
+   */
+  private TypeSpec createFieldFunctionClass() {
+    return TypeSpec.classBuilder(FIELD_FUNCTION_CLASS)
+                   .addModifiers(Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                   .addSuperinterface(ParameterizedTypeName.get(BI_PREDICATE_CLASS_NAME, sourceClassClassName, sourceClassClassName))
+                   .addSuperinterface(ParameterizedTypeName.get(FUNCTION_CLASS_NAME, sourceClassClassName, TypeName.OBJECT))
+                   .addSuperinterface(ParameterizedTypeName.get(TO_INT_FUNCTION_CLASS_NAME, sourceClassClassName))
+                   .addSuperinterface(comparatorTypeName)
+                   .addField(fieldDataEnumClassName, FIELD_PARAMETER, Modifier.PRIVATE, Modifier.FINAL)
+                   .addMethod(MethodSpec.constructorBuilder()
+                                        .addParameter(fieldDataEnumClassName, FIELD_PARAMETER)
+                                        .addStatement("this.$1L = $1L", FIELD_PARAMETER)
+                                        .build())
+                   .addMethod(MethodSpec.methodBuilder("test")
+                                        .addAnnotation(Override.class)
+                                        .addModifiers(Modifier.PUBLIC)
+                                        .returns(TypeName.BOOLEAN)
+                                        .addParameter(sourceClassClassName, objectAName)
+                                        .addParameter(sourceClassClassName, objectBName)
+                                        .addStatement("return $L($L, $L, $L)", TEST_FIELD_METHOD, FIELD_PARAMETER, objectAName, objectBName)
+                                        .build())
+                   .addMethod(MethodSpec.methodBuilder("apply")
+                                        .addAnnotation(Override.class)
+                                        .addModifiers(Modifier.PUBLIC)
+                                        .returns(TypeName.OBJECT)
+                                        .addParameter(sourceClassClassName, objectName)
+                                        .addStatement("return $L($L, $L)", FIELD_VALUE_METHOD, FIELD_PARAMETER, objectName)
+                                        .build())
+                   .addMethod(MethodSpec.methodBuilder("applyAsInt")
+                                        .addAnnotation(Override.class)
+                                        .addModifiers(Modifier.PUBLIC)
+                                        .returns(TypeName.INT)
+                                        .addParameter(sourceClassClassName, objectName)
+                                        .addStatement("return $L($L, $L)", HASH_FIELD_METHOD, FIELD_PARAMETER, objectName)
+                                        .build())
+                   .addMethod(MethodSpec.methodBuilder("compare")
+                                        .addAnnotation(Override.class)
+                                        .addModifiers(Modifier.PUBLIC)
+                                        .returns(TypeName.INT)
+                                        .addParameter(sourceClassClassName, objectAName)
+                                        .addParameter(sourceClassClassName, objectBName)
+                                        .addStatement("return $L($L, $L, $L)", COMPARE_FIELD_METHOD, FIELD_PARAMETER, objectAName, objectBName)
+                                        .build())
+                   .addMethod(MethodSpec.methodBuilder("toString")
+                                        .addAnnotation(Override.class)
+                                        .addModifiers(Modifier.PUBLIC)
+                                        .returns(String.class)
+                                        .addStatement("return $S + $L", FIELD_FUNCTION_CLASS + " ", FIELD_PARAMETER)
+                                        .build())
+                   .build();
+  }
+
+  private MethodSpec createTestFieldMethod(MethodChunker methodChunker) {
+    ParameterSpec fieldParameter = ParameterSpec.builder(fieldDataEnumClassName, FIELD_PARAMETER).build();
+    ParameterSpec objectAParameter = ParameterSpec.builder(sourceClassClassName, objectAName).build();
+    ParameterSpec objectBParameter = ParameterSpec.builder(sourceClassClassName, objectBName).build();
+    MethodSpec.Builder methodBuilder = MethodSpec.methodBuilder(TEST_FIELD_METHOD)
+                                                 .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+                                                 .returns(TypeName.BOOLEAN)
+                                                 .addParameter(fieldParameter)
+                                                 .addParameter(objectAParameter)
+                                                 .addParameter(objectBParameter);
+    List<MethodChunker.SwitchCase> cases = accessibleFields().map(fieldData -> new MethodChunker.SwitchCase(ordinals.get(fieldData), fieldData.getEnumName(),
+                                                                                                            CodeBlock.of("return $L", equalityExpression(fieldData))))
+                                                             .collect(Collectors.toList());
+    methodChunker.addSwitch(methodBuilder, TEST_FIELD_METHOD, TypeName.BOOLEAN, cases, unknownFieldStatement(),
+                            MethodChunker.SWITCH_CHUNK_SIZE, fieldParameter, objectAParameter, objectBParameter);
+    return methodBuilder.build();
+  }
+
+  private MethodSpec createFieldValueMethod(MethodChunker methodChunker) {
+    ParameterSpec fieldParameter = ParameterSpec.builder(fieldDataEnumClassName, FIELD_PARAMETER).build();
+    ParameterSpec objectParameter = ParameterSpec.builder(sourceClassClassName, objectName).build();
+    MethodSpec.Builder methodBuilder = MethodSpec.methodBuilder(FIELD_VALUE_METHOD)
+                                                 .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+                                                 .returns(TypeName.OBJECT)
+                                                 .addParameter(fieldParameter)
+                                                 .addParameter(objectParameter);
+    List<MethodChunker.SwitchCase> cases = accessibleFields().filter(fieldData -> !fieldData.hasCustomEquality())
+                                                             .map(fieldData -> new MethodChunker.SwitchCase(ordinals.get(fieldData), fieldData.getEnumName(),
+                                                                                                            CodeBlock.of("return $L.$L", objectName, fieldData.getAccess())))
+                                                             .collect(Collectors.toList());
+    methodChunker.addSwitch(methodBuilder, FIELD_VALUE_METHOD, TypeName.OBJECT, cases, unknownFieldStatement(),
+                            MethodChunker.SWITCH_CHUNK_SIZE, fieldParameter, objectParameter);
+    return methodBuilder.build();
+  }
+
+  private MethodSpec createHashFieldMethod(MethodChunker methodChunker) {
+    ParameterSpec fieldParameter = ParameterSpec.builder(fieldDataEnumClassName, FIELD_PARAMETER).build();
+    ParameterSpec objectParameter = ParameterSpec.builder(sourceClassClassName, objectName).build();
+    MethodSpec.Builder methodBuilder = MethodSpec.methodBuilder(HASH_FIELD_METHOD)
+                                                 .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+                                                 .returns(TypeName.INT)
+                                                 .addParameter(fieldParameter)
+                                                 .addParameter(objectParameter);
+    List<MethodChunker.SwitchCase> cases = accessibleFields().filter(fieldData -> !fieldData.hasCustomEquality())
+                                                             .map(fieldData -> new MethodChunker.SwitchCase(ordinals.get(fieldData), fieldData.getEnumName(),
+                                                                                                            CodeBlock.of("return $L", hashExpression(fieldData))))
+                                                             .collect(Collectors.toList());
+    methodChunker.addSwitch(methodBuilder, HASH_FIELD_METHOD, TypeName.INT, cases, unknownFieldStatement(),
+                            MethodChunker.SWITCH_CHUNK_SIZE, fieldParameter, objectParameter);
+    return methodBuilder.build();
+  }
+
+  private CodeBlock unknownFieldStatement() {
+    return CodeBlock.of("throw new $T(\"Unknown field \" + $L)", IllegalArgumentException.class, FIELD_PARAMETER);
+  }
+
+  private FieldSpec createSchemaField() {
+    return FieldSpec.builder(fieldSchemaTypeName, SCHEMA_FIELD, Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                    .initializer("$T.builder($L())$>$>\n.type($T.class)\n.valueFunctions($L())\n.hashFunctions($L())\n.orders($L())\n.consistentOrders($L())"
+                                     + "\n.costs($L())\n.adaptive($L)\n.build()$<$<", FIELD_SCHEMA_CLASS_NAME, EQUALITY_TESTS_METHOD,
+                                 sourceClassClassName, VALUE_FUNCTIONS_METHOD, HASH_FUNCTIONS_METHOD, ORDERS_METHOD, CONSISTENT_ORDERS_METHOD, COSTS_METHOD,
+                                 classData.getComparatorOptions().isAdaptive())
+                    .build();
+  }
+
+  private List<FieldSpec> createCacheFields() {
+    if (!classData.getComparatorOptions().isImmutable()) {
+      return Collections.emptyList();
+    }
+    ParameterizedTypeName cacheTypeName = ParameterizedTypeName.get(COMPARISON_CACHE_CLASS_NAME, sourceClassClassName, fieldDataEnumClassName);
+    return Collections.singletonList(FieldSpec.builder(cacheTypeName, CACHE_FIELD, Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                                              .initializer("new $T<>($L, $L)", COMPARISON_CACHE_CLASS_NAME, SCHEMA_FIELD,
+                                                           classData.getComparatorOptions().getCacheSize())
+                                              .build());
+  }
+
+  private MethodSpec createSchemaMethod() {
+    return MethodSpec.methodBuilder(SCHEMA_METHOD)
+                     .addJavadoc(CodeBlock.builder()
+                                          .add("Returns the schema shared by every comparison, which exposes the evaluation order of the fields\n")
+                                          .add("@see org.lelv.fieldler.output.FieldSchema\n")
+                                          .add("@return FieldSchema")
+                                          .build())
+                     .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                     .returns(fieldSchemaTypeName)
+                     .addStatement("return $L", SCHEMA_FIELD)
+                     .build();
+  }
+
+  private List<FieldSpec> createComparatorStrategyFields() {
+    return classData.getFieldsData()
+                    .stream()
+                    .filter(FieldData::isAccessible)
+                    .filter(EqualityExpressionUtil::hasComparatorStrategy)
+                    .map(EqualityExpressionUtil::comparatorStrategyField)
+                    .collect(Collectors.toList());
+  }
+
+  private List<FieldData> orderableFields() {
+    return accessibleFields().filter(this::isOrderable).collect(Collectors.toList());
+  }
+
+  private boolean isOrderable(FieldData fieldData) {
+    return fieldData.isComparable() || EqualityExpressionUtil.hasComparatorStrategy(fieldData);
+  }
+
+  private String orderFieldName(FieldData fieldData) {
+    return fieldData.getEnumName() + ORDER_SUFFIX;
+  }
+
+  private List<FieldSpec> createOrderFields() {
+    return orderableFields().stream()
+                            .map(fieldData -> FieldSpec.builder(comparatorTypeName, orderFieldName(fieldData), Modifier.PUBLIC, Modifier.STATIC, Modifier.FINAL)
+                                                       .addJavadoc(orderJavadoc(fieldData))
+                                                       .initializer(function(fieldData, CodeBlock.of("($L, $L) -> $L", objectAName, objectBName,
+                                                                                                     orderExpression(fieldData))))
+                                                       .build())
+                            .collect(Collectors.toList());
+  }
+
+  private CodeBlock orderJavadoc(FieldData fieldData) {
+    if (fieldData.isComparable() && !PrimitiveTypeUtil.isPrimitive(fieldData.getType()) && !fieldData.hasCustomEquality()) {
+      return CodeBlock.of("Orders by $L, considering {@code null} lower than any other value\n", fieldData.getName());
+    }
+    return CodeBlock.of("Orders by $L\n", fieldData.getName());
+  }
+
+  private CodeBlock orderExpression(FieldData fieldData) {
+    String valueA = String.format("%s.%s", objectAName, fieldData.getAccess());
+    String valueB = String.format("%s.%s", objectBName, fieldData.getAccess());
+    if (EqualityExpressionUtil.hasComparatorStrategy(fieldData)) {
+      return CodeBlock.of("$L.compare($L, $L)", EqualityExpressionUtil.comparatorStrategyFieldName(fieldData), valueA, valueB);
+    }
+    if (PrimitiveTypeUtil.isPrimitive(fieldData.getType())) {
+      return CodeBlock.of("$T.compare($L, $L)", PrimitiveTypeUtil.boxedClassName(fieldData.getType()), valueA, valueB);
+    }
+    return CodeBlock.of("$T.compare($L, $L)", FIELD_ORDERING_CLASS_NAME, valueA, valueB);
+  }
+
+  private List<MethodChunker.SwitchCase> orderSwitchCases(boolean returnComparator) {
+    List<FieldData> fields = accessibleFields().collect(Collectors.toList());
+    List<MethodChunker.SwitchCase> cases = new ArrayList<>();
+    for (int ordinal = 0; ordinal < fields.size(); ordinal++) {
+      FieldData fieldData = fields.get(ordinal);
+      if (isOrderable(fieldData)) {
+        CodeBlock statement = returnComparator ? CodeBlock.of("return $L", orderFieldName(fieldData))
+                                               : CodeBlock.of("return $L", orderExpression(fieldData));
+        cases.add(new MethodChunker.SwitchCase(ordinal, fieldData.getEnumName(), statement));
+      }
+    }
+    return cases;
+  }
+
+  private CodeBlock notComparableStatement() {
+    return CodeBlock.of("throw new $T($S + $L)", IllegalArgumentException.class, "Field is not comparable: ", FIELD_PARAMETER);
+  }
+
+  private MethodSpec createAgainstMethod(MethodChunker methodChunker) {
+    ParameterizedTypeName predicateTypeName = ParameterizedTypeName.get(PREDICATE_CLASS_NAME, sourceClassClassName);
+    ParameterizedTypeName mapOfFieldDataAndPredicateTypeName = ParameterizedTypeName.get(MAP_CLASS_NAME, fieldDataEnumClassName, predicateTypeName);
+    ParameterSpec referenceParameter = ParameterSpec.builder(sourceClassClassName, referenceName).build();
+    MethodSpec.Builder methodBuilder = MethodSpec.methodBuilder(AGAINST_METHOD)
+                                                 .addJavadoc(CodeBlock.builder()
+                                                                      .add("Creates a comparator of the reference against many candidates, which reads the fields of the reference only once\n")
+                                                                      .add("@param $L the reference object\n", referenceName)
+                                                                      .add("@throws NullPointerException if {@code $L} is {@code null}\n", referenceName)
+                                                                      .add("@see org.lelv.fieldler.output.ReferenceComparator\n")
+                                                                      .add("@return ReferenceComparator")
+                                                                      .build())
+                                                 .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                                                 .returns(ParameterizedTypeName.get(REFERENCE_COMPARATOR_CLASS_NAME, sourceClassClassName, fieldDataEnumClassName))
+                                                 .addParameter(referenceParameter);
+    methodBuilder.addStatement("$T.requireNonNull($L)", Objects.class, referenceName);
+    methodBuilder.addStatement("$T $L = new $T<>($T.class)", mapOfFieldDataAndPredicateTypeName, REFERENCE_TESTS_VARIABLE, EnumMap.class, fieldDataEnumClassName);
+    // fields with a custom equality are left to the equality tests of the schema
+    List<CodeBlock> statements = accessibleFields().filter(fieldData -> !fieldData.hasCustomEquality())
+                                                   .filter(fieldData -> !lambdaFree || !PrimitiveTypeUtil.isPrimitive(fieldData.getType()))
+                                                   .map(this::referenceTestStatement)
+                                                   .collect(Collectors.toList());
+    methodChunker.addStatements(methodBuilder, REFERENCE_TESTS_METHOD, statements, MethodChunker.TABLE_CHUNK_SIZE,
+                                ParameterSpec.builder(mapOfFieldDataAndPredicateTypeName, REFERENCE_TESTS_VARIABLE).build(), referenceParameter);
+    methodBuilder.addStatement("return new $T<>($L, $L, $L)", REFERENCE_COMPARATOR_CLASS_NAME, SCHEMA_FIELD, referenceName, REFERENCE_TESTS_VARIABLE);
+    return methodBuilder.build();
+  }
+
+  /**
+   * Returns the statement which captures the value of the reference in the test of a field. In the lambda-free mode the
+   * value is read and compared through the field function of the shared table, which boxes primitive values, so only
+   * reference fields are captured there, while primitive fields keep the equality test of the schema, which reads both
+   * values without boxing.
+   */
+  private CodeBlock referenceTestStatement(FieldData fieldData) {
+    ClassName fieldName = fieldDataEnumClassName.nestedClass(fieldData.getEnumName());
+    if (lambdaFree) {
+      CodeBlock fieldFunction = CodeBlock.of("$L[$L]", FIELD_FUNCTIONS_FIELD, ordinals.get(fieldData));
+      return CodeBlock.of("$L.put($T, $T.equalTo($L.apply($L), $L))", REFERENCE_TESTS_VARIABLE, fieldName, REFERENCE_COMPARATOR_CLASS_NAME,
+                          fieldFunction, referenceName, fieldFunction);
+    }
+    return CodeBlock.of("$L.put($T, $T.$L($L.$L, $L -> $L.$L))", REFERENCE_TESTS_VARIABLE, fieldName, REFERENCE_COMPARATOR_CLASS_NAME,
+                        referenceTestMethod(fieldData), referenceName, fieldData.getAccess(), objectName, objectName, fieldData.getAccess());
+  }
+
+  /**
+   * Primitive values are kept unboxed, widened to the type of the specialized test
+   */
+  private String referenceTestMethod(FieldData fieldData) {
+    switch (String.valueOf(fieldData.getType())) {
+      case "boolean":
+        return "booleanEqualTo";
+      case "byte":
+      case "short":
+      case "char":
+      case "int":
+        return "intEqualTo";
+      case "long":
+        return "longEqualTo";
+      case "float":
+      case "double":
+        return "doubleEqualTo";
+      default:
+        return "equalTo";
+    }
+  }
+
+  private MethodSpec createHistoryMethod() {
+    ParameterizedTypeName listOfVersionsTypeName = ParameterizedTypeName.get(ClassName.get(List.class), WildcardTypeName.subtypeOf(sourceClassClassName));
+    return MethodSpec.methodBuilder(HISTORY_METHOD)
+                     .addJavadoc(CodeBlock.builder()
+                                          .add("Builds the timeline of the changes of every field along the versions, reading every version once\n")
+                                          .add("@param $L the versions, from the oldest to the newest one\n", VERSIONS_PARAMETER)
+                                          .add("@throws NullPointerException if a version is {@code null}\n")
+                                          .add("@see org.lelv.fieldler.output.FieldHistory\n")
+                                          .add("@return FieldHistory")
+                                          .build())
+                     .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                     .returns(ParameterizedTypeName.get(FIELD_HISTORY_CLASS_NAME, sourceClassClassName, fieldDataEnumClassName))
+                     .addParameter(listOfVersionsTypeName, VERSIONS_PARAMETER)
+                     .addStatement("return $T.of($L, $L)", FIELD_HISTORY_CLASS_NAME, SCHEMA_FIELD, VERSIONS_PARAMETER)
+                     .build();
+  }
+
+  private MethodSpec createProjectionMethod() {
+    return MethodSpec.methodBuilder(PROJECTION_METHOD)
+                     .addJavadoc(CodeBlock.builder()
+                                          .add("Creates a projection with hash code and equality over the fields, usable as keys of hash collections\n")
+                                          .add("or as a hash set of the objects themselves\n")
+                                          .add("@param $L the fields of the projection\n", FIELDS_PARAMETER)
+                                          .add("@see org.lelv.fieldler.output.FieldProjection\n")
+                                          .add("@return FieldProjection")
+                                          .build())
+                     .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                     .varargs()
+                     .returns(ParameterizedTypeName.get(FIELD_PROJECTION_CLASS_NAME, sourceClassClassName, fieldDataEnumClassName))
+                     .addParameter(ArrayTypeName.of(fieldDataEnumClassName), FIELDS_PARAMETER)
+                     .addStatement("return $T.of($L, $L.mask($L))", FIELD_PROJECTION_CLASS_NAME, SCHEMA_FIELD, SCHEMA_FIELD, FIELDS_PARAMETER)
+                     .build();
+  }
+
+  private MethodSpec createFieldComparatorMethod(MethodChunker methodChunker) {
+    ParameterSpec fieldParameter = ParameterSpec.builder(fieldDataEnumClassName, FIELD_PARAMETER).build();
+    MethodSpec.Builder methodBuilder = MethodSpec.methodBuilder(COMPARATOR_METHOD)
+                                                 .addJavadoc(CodeBlock.builder()
+                                                                      .add("Returns the comparator which orders by a field, either primitive or {@link Comparable}\n")
+                                                                      .add("@param $L the field\n", FIELD_PARAMETER)
+                                                                      .add("@throws IllegalArgumentException if the field is not comparable\n")
+                                                                      .add("@return Comparator")
+                                                                      .build())
+                                                 .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                                                 .returns(comparatorTypeName)
+                                                 .addParameter(fieldParameter);
+    methodChunker.addSwitch(methodBuilder, COMPARATOR_METHOD, comparatorTypeName, orderSwitchCases(true), notComparableStatement(),
+                            MethodChunker.TABLE_CHUNK_SIZE, fieldParameter);
+    return methodBuilder.build();
+  }
+
+  private MethodSpec createFieldsComparatorMethod() {
+    ParameterizedTypeName listOfFieldsTypeName = ParameterizedTypeName.get(ClassName.get(List.class), fieldDataEnumClassName);
+    MethodSpec.Builder methodBuilder = MethodSpec.methodBuilder(COMPARATOR_METHOD)
+                                                 .addJavadoc(CodeBlock.builder()
+                                                                      .add("Returns a comparator which orders by the first field, then by the second one when the first is equal, and so on\n")
+                                                                      .add("@param $L the fields, either primitive or {@link Comparable}\n", FIELDS_PARAMETER)
+                                                                      .add("@throws IllegalArgumentException if a field is not comparable\n")
+                                                                      .add("@return Comparator")
+                                                                      .build())
+                                                 .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                                                 .returns(comparatorTypeName)
+                                                 .addParameter(listOfFieldsTypeName, FIELDS_PARAMETER)
+                                                 .addStatement("$T[] order = $L.toArray(new $T[0])", fieldDataEnumClassName, FIELDS_PARAMETER, fieldDataEnumClassName)
+                                                 .beginControlFlow("for ($T $L : order)", fieldDataEnumClassName, FIELD_PARAMETER)
+                                                 .addStatement("$L($L)", COMPARATOR_METHOD, FIELD_PARAMETER)
+                                                 .endControlFlow()
+                                                 .beginControlFlow("if (order.length == 1)")
+                                                 .addStatement("return $L(order[0])", COMPARATOR_METHOD)
+                                                 .endControlFlow();
+    if (lambdaFree) {
+      return methodBuilder.addStatement("return new $T(order)", fieldFunctionClassName.peerClass(FIELDS_ORDER_CLASS))
+                          .build();
+    }
+    return methodBuilder.beginControlFlow("return ($L, $L) ->", objectAName, objectBName)
+                        .addCode(compareInOrderCode())
+                        .addCode("$<};\n")
+                        .build();
+  }
+
+  private CodeBlock compareInOrderCode() {
+    return CodeBlock.builder()
+                    .beginControlFlow("for ($T $L : order)", fieldDataEnumClassName, FIELD_PARAMETER)
+                    .addStatement("int result = $L($L, $L, $L)", COMPARE_FIELD_METHOD, FIELD_PARAMETER, objectAName, objectBName)
+                    .beginControlFlow("if (result != 0)")
+                    .addStatement("return result")
+                    .endControlFlow()
+                    .endControlFlow()
+                    .addStatement("return 0")
+                    .build();
+  }
+
+  private TypeSpec createFieldsOrderClass() {
+    return TypeSpec.classBuilder(FIELDS_ORDER_CLASS)
+                   .addModifiers(Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                   .addSuperinterface(comparatorTypeName)
+                   .addField(ArrayTypeName.of(fieldDataEnumClassName), "order", Modifier.PRIVATE, Modifier.FINAL)
+                   .addMethod(MethodSpec.constructorBuilder()
+                                        .addParameter(ArrayTypeName.of(fieldDataEnumClassName), "order")
+                                        .addStatement("this.order = order")
+                                        .build())
+                   .addMethod(MethodSpec.methodBuilder("compare")
+                                        .addAnnotation(Override.class)
+                                        .addModifiers(Modifier.PUBLIC)
+                                        .returns(TypeName.INT)
+                                        .addParameter(sourceClassClassName, objectAName)
+                                        .addParameter(sourceClassClassName, objectBName)
+                                        .addCode(compareInOrderCode())
+                                        .build())
                    .build();
   }
 
+  private MethodSpec createFieldsVarargsComparatorMethod() {
+    return MethodSpec.methodBuilder(COMPARATOR_METHOD)
+                     .addJavadoc(CodeBlock.builder()
+                                          .add("Returns a comparator which orders by the first field, then by the second one when the first is equal, and so on\n")
+                                          .add("@param $L the fields, either primitive or {@link Comparable}\n", FIELDS_PARAMETER)
+                                          .add("@throws IllegalArgumentException if a field is not comparable\n")
+                                          .add("@return Comparator")
+                                          .build())
+                     .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                     .varargs()
+                     .returns(comparatorTypeName)
+                     .addParameter(ArrayTypeName.of(fieldDataEnumClassName), FIELDS_PARAMETER)
+                     .addStatement("return $L($T.asList($L))", COMPARATOR_METHOD, Arrays.class, FIELDS_PARAMETER)
+                     .build();
+  }
+
+  private MethodSpec createCompareFieldMethod(MethodChunker methodChunker) {
+    ParameterSpec fieldParameter = ParameterSpec.builder(fieldDataEnumClassName, FIELD_PARAMETER).build();
+    ParameterSpec objectAParameter = ParameterSpec.builder(sourceClassClassName, objectAName).build();
+    ParameterSpec objectBParameter = ParameterSpec.builder(sourceClassClassName, objectBName).build();
+    MethodSpec.Builder methodBuilder = MethodSpec.methodBuilder(COMPARE_FIELD_METHOD)
+                                                 .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+                                                 .returns(TypeName.INT)
+                                                 .addParameter(fieldParameter)
+                                                 .addParameter(objectAParameter)
+                                                 .addParameter(objectBParameter);
+    methodChunker.addSwitch(methodBuilder, COMPARE_FIELD_METHOD, TypeName.INT, orderSwitchCases(false), notComparableStatement(),
+                            MethodChunker.SWITCH_CHUNK_SIZE, fieldParameter, objectAParameter, objectBParameter);
+    return methodBuilder.build();
+  }
+
   private MethodSpec privateEmptyConstructor() {
     return MethodSpec.constructorBuilder().addModifiers(Modifier.PRIVATE).build();
   }
@@ -63,7 +630,11 @@ public class FieldComparatorCreator {
                                                  .addParameter(sourceClassClassName, objectBName);
     methodBuilder.addStatement("$T.requireNonNull($L)", Objects.class, objectAName);
     methodBuilder.addStatement("$T.requireNonNull($L)", Objects.class, objectBName);
-    methodBuilder.addStatement("return new $T<>($L, $L, $L())", FIELD_COMPARISON_CLASS_NAME, objectAName, objectBName, EQUALITY_TESTS_METHOD);
+    if (classData.getComparatorOptions().isImmutable()) {
+      methodBuilder.addStatement("return $L.compare($L, $L)", CACHE_FIELD, objectAName, objectBName);
+    } else {
+      methodBuilder.addStatement("return new $T<>($L, $L, $L)", FIELD_COMPARISON_CLASS_NAME, objectAName, objectBName, SCHEMA_FIELD);
+    }
     return methodBuilder.build();
   }
 
@@ -78,27 +649,134 @@ public class FieldComparatorCreator {
                       .build();
   }
 
-  private MethodSpec createEqualityTestsMethod() {
+  private MethodSpec createEqualityTestsMethod(MethodChunker methodChunker) {
     MethodSpec.Builder methodBuilder = MethodSpec.methodBuilder(EQUALITY_TESTS_METHOD)
                                                  .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
                                                  .returns(mapOfFieldDataAndBiPredicateTypeName);
-    methodBuilder.addStatement("$T $L = new $T<>()", mapOfFieldDataAndBiPredicateTypeName, EQUALITY_TESTS_VARIABLE, HashMap.class);
-    classData.getFieldsData().forEach(fieldData -> addPredicateTestForField(fieldData, methodBuilder));
+    methodBuilder.addStatement("$T $L = new $T<>($T.class)", mapOfFieldDataAndBiPredicateTypeName, EQUALITY_TESTS_VARIABLE, EnumMap.class, fieldDataEnumClassName);
+    List<CodeBlock> statements = accessibleFields().map(this::predicateTestForField).collect(Collectors.toList());
+    methodChunker.addStatements(methodBuilder, EQUALITY_TESTS_METHOD, statements, MethodChunker.TABLE_CHUNK_SIZE,
+                                ParameterSpec.builder(mapOfFieldDataAndBiPredicateTypeName, EQUALITY_TESTS_VARIABLE).build());
     methodBuilder.addStatement("return $L", EQUALITY_TESTS_VARIABLE);
     return methodBuilder.build();
   }
 
-  private void addPredicateTestForField(FieldData fieldData, MethodSpec.Builder methodBuilder) {
-    if (!fieldData.isAccessible()) {
-      return;
+  private MethodSpec createValueFunctionsMethod(MethodChunker methodChunker) {
+    MethodSpec.Builder methodBuilder = MethodSpec.methodBuilder(VALUE_FUNCTIONS_METHOD)
+                                                 .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+                                                 .returns(mapOfFieldDataAndFunctionTypeName);
+    methodBuilder.addStatement("$T $L = new $T<>($T.class)", mapOfFieldDataAndFunctionTypeName, VALUE_FUNCTIONS_VARIABLE, EnumMap.class, fieldDataEnumClassName);
+    // values of fields with a custom equality can only be compared by their equality test
+    List<CodeBlock> statements = accessibleFields().filter(fieldData -> !fieldData.hasCustomEquality())
+                                                   .map(fieldData -> CodeBlock.of("$L.put($T, $L)", VALUE_FUNCTIONS_VARIABLE,
+                                                                                  fieldDataEnumClassName.nestedClass(fieldData.getEnumName()),
+                                                                                  function(fieldData, CodeBlock.of("$L -> $L.$L", objectName, objectName,
+                                                                                                                   fieldData.getAccess()))))
+                                                   .collect(Collectors.toList());
+    methodChunker.addStatements(methodBuilder, VALUE_FUNCTIONS_METHOD, statements, MethodChunker.TABLE_CHUNK_SIZE,
+                                ParameterSpec.builder(mapOfFieldDataAndFunctionTypeName, VALUE_FUNCTIONS_VARIABLE).build());
+    methodBuilder.addStatement("return $L", VALUE_FUNCTIONS_VARIABLE);
+    return methodBuilder.build();
+  }
+
+  private MethodSpec createHashFunctionsMethod(MethodChunker methodChunker) {
+    MethodSpec.Builder methodBuilder = MethodSpec.methodBuilder(HASH_FUNCTIONS_METHOD)
+                                                 .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+                                                 .returns(mapOfFieldDataAndToIntFunctionTypeName);
+    methodBuilder.addStatement("$T $L = new $T<>($T.class)", mapOfFieldDataAndToIntFunctionTypeName, HASH_FUNCTIONS_VARIABLE, EnumMap.class, fieldDataEnumClassName);
+    // custom equalities can not be hashed consistently, so those fields are left without hash function
+    List<CodeBlock> statements = accessibleFields().filter(fieldData -> !fieldData.hasCustomEquality())
+                                                   .map(fieldData -> CodeBlock.of("$L.put($T, $L)", HASH_FUNCTIONS_VARIABLE,
+                                                                                  fieldDataEnumClassName.nestedClass(fieldData.getEnumName()),
+                                                                                  function(fieldData, CodeBlock.of("$L -> $L", objectName, hashExpression(fieldData)))))
+                                                   .collect(Collectors.toList());
+    methodChunker.addStatements(methodBuilder, HASH_FUNCTIONS_METHOD, statements, MethodChunker.TABLE_CHUNK_SIZE,
+                                ParameterSpec.builder(mapOfFieldDataAndToIntFunctionTypeName, HASH_FUNCTIONS_VARIABLE).build());
+    methodBuilder.addStatement("return $L", HASH_FUNCTIONS_VARIABLE);
+    return methodBuilder.build();
+  }
+
+  private MethodSpec createOrdersMethod(MethodChunker methodChunker) {
+    MethodSpec.Builder methodBuilder = MethodSpec.methodBuilder(ORDERS_METHOD)
+                                                 .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+                                                 .returns(mapOfFieldDataAndComparatorTypeName);
+    methodBuilder.addStatement("$T $L = new $T<>($T.class)", mapOfFieldDataAndComparatorTypeName, ORDERS_VARIABLE, EnumMap.class, fieldDataEnumClassName);
+    List<CodeBlock> statements = orderableFields().stream()
+                                                  .map(fieldData -> CodeBlock.of("$L.put($T, $L)", ORDERS_VARIABLE,
+                                                                                 fieldDataEnumClassName.nestedClass(fieldData.getEnumName()),
+                                                                                 orderFieldName(fieldData)))
+                                                  .collect(Collectors.toList());
+    methodChunker.addStatements(methodBuilder, ORDERS_METHOD, statements, MethodChunker.TABLE_CHUNK_SIZE,
+                                ParameterSpec.builder(mapOfFieldDataAndComparatorTypeName, ORDERS_VARIABLE).build());
+    methodBuilder.addStatement("return $L", ORDERS_VARIABLE);
+    return methodBuilder.build();
+  }
+
+  private MethodSpec createConsistentOrdersMethod(MethodChunker methodChunker) {
+    MethodSpec.Builder methodBuilder = MethodSpec.methodBuilder(CONSISTENT_ORDERS_METHOD)
+                                                 .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+                                                 .returns(setOfFieldDataTypeName);
+    methodBuilder.addStatement("$T $L = $T.noneOf($T.class)", setOfFieldDataTypeName, CONSISTENT_ORDERS_VARIABLE, EnumSet.class, fieldDataEnumClassName);
+    List<CodeBlock> statements = orderableFields().stream()
+                                                  .filter(this::isOrderConsistentWithEquality)
+                                                  .map(fieldData -> CodeBlock.of("$L.add($T)", CONSISTENT_ORDERS_VARIABLE,
+                                                                                 fieldDataEnumClassName.nestedClass(fieldData.getEnumName())))
+                                                  .collect(Collectors.toList());
+    methodChunker.addStatements(methodBuilder, CONSISTENT_ORDERS_METHOD, statements, MethodChunker.TABLE_CHUNK_SIZE,
+                                ParameterSpec.builder(setOfFieldDataTypeName, CONSISTENT_ORDERS_VARIABLE).build());
+    methodBuilder.addStatement("return $L", CONSISTENT_ORDERS_VARIABLE);
+    return methodBuilder.build();
+  }
+
+  /**
+   * Comparator strategies define equality through their order. Otherwise, only primitives, boxed primitives, Strings and
+   * enums are known to have a natural order consistent with equals.
+   */
+  private boolean isOrderConsistentWithEquality(FieldData fieldData) {
+    if (fieldData.hasCustomEquality()) {
+      return fieldData.getEquality().isComparator();
+    }
+    return fieldData.getCost() != FieldCost.COMPLEX;
+  }
+
+  private MethodSpec createCostsMethod(MethodChunker methodChunker) {
+    MethodSpec.Builder methodBuilder = MethodSpec.methodBuilder(COSTS_METHOD)
+                                                 .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+                                                 .returns(mapOfFieldDataAndFieldCostTypeName);
+    methodBuilder.addStatement("$T $L = new $T<>($T.class)", mapOfFieldDataAndFieldCostTypeName, COSTS_VARIABLE, EnumMap.class, fieldDataEnumClassName);
+    List<CodeBlock> statements = accessibleFields().map(fieldData -> CodeBlock.of("$L.put($T, $T.$L)", COSTS_VARIABLE,
+                                                                                  fieldDataEnumClassName.nestedClass(fieldData.getEnumName()),
+                                                                                  FIELD_COST_CLASS_NAME, fieldData.getCost().name()))
+                                                   .collect(Collectors.toList());
+    methodChunker.addStatements(methodBuilder, COSTS_METHOD, statements, MethodChunker.TABLE_CHUNK_SIZE,
+                                ParameterSpec.builder(mapOfFieldDataAndFieldCostTypeName, COSTS_VARIABLE).build());
+    methodBuilder.addStatement("return $L", COSTS_VARIABLE);
+    return methodBuilder.build();
+  }
+
+  private Stream<FieldData> accessibleFields() {
+    return classData.getFieldsData().stream().filter(FieldData::isAccessible);
+  }
+
+  private CodeBlock predicateTestForField(FieldData fieldData) {
+    return CodeBlock.of("$L.put($T, $L)",
+                        EQUALITY_TESTS_VARIABLE,
+                        fieldDataEnumClassName.nestedClass(fieldData.getEnumName()),
+                        function(fieldData, CodeBlock.of("($L, $L) -> $L", objectAName, objectBName, equalityExpression(fieldData))));
+  }
+
+  private CodeBlock hashExpression(FieldData fieldData) {
+    String value = String.format("%s.%s", objectName, fieldData.getAccess());
+    if (PrimitiveTypeUtil.isPrimitive(fieldData.getType())) {
+      return CodeBlock.of("$T.hashCode($L)", PrimitiveTypeUtil.boxedClassName(fieldData.getType()), value);
     }
-    methodBuilder.addStatement("$L.put($T, ($L, $L) -> $T.equals($L, $L))",
-                               EQUALITY_TESTS_VARIABLE,
-                               fieldDataEnumClassName.nestedClass(fieldData.getEnumName()),
-                               objectAName, objectBName,
-                               java.util.Objects.class,
-                               String.format("%s.%s", objectAName, fieldData.getAccess()),
-                               String.format("%s.%s", objectBName, fieldData.getAccess()));
+    return CodeBlock.of("$T.hashCode($L)", Objects.class, value);
+  }
+
+  private CodeBlock equalityExpression(FieldData fieldData) {
+    String valueA = String.format("%s.%s", objectAName, fieldData.getAccess());
+    String valueB = String.format("%s.%s", objectBName, fieldData.getAccess());
+    return EqualityExpressionUtil.equalityExpression(fieldData, valueA, valueB);
   }
 
 }
@@ -6,33 +6,64 @@ import com.squareup.javapoet.TypeSpec;
 
 import javax.annotation.processing.Filer;
 import java.io.IOException;
-import java.util.Arrays;
+import java.util.ArrayList;
 import java.util.List;
 
 public class FieldlerGenerator {
 
   public static List<String> createFieldDataAndFieldComparator(ClassData classData, Filer filer) {
-    String fieldDataName = createFieldData(classData, filer);
-    String fieldComparatorName = createFieldComparator(classData, filer, fieldDataName);
-    return Arrays.asList(fieldDataName, fieldComparatorName);
+    String fieldDataName = createFieldDataEnum(classData, filer);
+    List<String> names = new ArrayList<>();
+    names.add(fieldDataName);
+    names.add(createFieldComparator(classData, filer, fieldDataName));
+    addColumns(classData, filer, fieldDataName, names);
+    addJsonWriter(classData, filer, fieldDataName, names);
+    return names;
   }
 
-  public static String createFieldData(ClassData classData, Filer filer) {
+  public static List<String> createFieldData(ClassData classData, Filer filer) {
+    String fieldDataName = createFieldDataEnum(classData, filer);
+    List<String> names = new ArrayList<>();
+    names.add(fieldDataName);
+    addColumns(classData, filer, fieldDataName, names);
+    return names;
+  }
+
+  private static String createFieldDataEnum(ClassData classData, Filer filer) {
     TypeSpec fieldDataTypeSpec = FieldDataCreator.create(classData);
-    createFile(classData.getPackagePath(), filer, fieldDataTypeSpec);
+    createFile(classData, filer, fieldDataTypeSpec);
     return fieldDataTypeSpec.name;
   }
 
+  private static void addColumns(ClassData classData, Filer filer, String fieldsEnumName, List<String> names) {
+    if (classData.getComparatorOptions().isColumns()) {
+      TypeSpec columnsTypeSpec = new ColumnsCreator(classData, fieldsEnumName).create();
+      createFile(classData, filer, columnsTypeSpec);
+      names.add(columnsTypeSpec.name);
+    }
+  }
+
+  private static void addJsonWriter(ClassData classData, Filer filer, String fieldsEnumName, List<String> names) {
+    if (classData.getComparatorOptions().isJson()) {
+      TypeSpec jsonWriterTypeSpec = new JsonWriterCreator(classData, fieldsEnumName).create();
+      createFile(classData, filer, jsonWriterTypeSpec);
+      names.add(jsonWriterTypeSpec.name);
+    }
+  }
+
   private static String createFieldComparator(ClassData classData, Filer filer, String fieldsEnumName) {
     FieldComparatorCreator fieldComparatorCreator = new FieldComparatorCreator(classData, fieldsEnumName);
     TypeSpec fieldComparatorTypeSpec = fieldComparatorCreator.create();
-    createFile(classData.getPackagePath(), filer, fieldComparatorTypeSpec);
+    createFile(classData, filer, fieldComparatorTypeSpec);
     return fieldComparatorTypeSpec.name;
   }
 
-  private static void createFile(String packageName, Filer filer, TypeSpec typeSpec) {
+  private static void createFile(ClassData classData, Filer filer, TypeSpec typeSpec) {
+    TypeSpec originatedTypeSpec = classData.getOriginatingElement() == null ? typeSpec : typeSpec.toBuilder()
+        .addOriginatingElement(classData.getOriginatingElement())
+        .build();
     JavaFile javaFile = JavaFile
-        .builder(packageName, typeSpec)
+        .builder(classData.getPackagePath(), originatedTypeSpec)
         .build();
     try {
       javaFile.writeTo(filer);
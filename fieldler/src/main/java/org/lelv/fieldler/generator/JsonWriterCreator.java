@@ -0,0 +1,183 @@
+package org.lelv.fieldler.generator;
+
+import com.squareup.javapoet.ArrayTypeName;
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.FieldSpec;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.ParameterSpec;
+import com.squareup.javapoet.ParameterizedTypeName;
+import com.squareup.javapoet.TypeName;
+import com.squareup.javapoet.TypeSpec;
+import org.lelv.fieldler.generator.data.ClassData;
+import org.lelv.fieldler.generator.data.FieldData;
+
+import javax.lang.model.element.Modifier;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class JsonWriterCreator {
+
+  private static final String JSON_WRITER_SUFFIX = "JsonWriter";
+  private static final String FIELDS_FIELD = "FIELDS";
+  private static final String WRITE_DIFFERENCES_METHOD = "writeDifferences";
+  private static final String TO_JSON_METHOD = "toJson";
+  private static final String VALUE_METHOD = "value";
+  private static final String COMPARISON_PARAMETER = "comparison";
+  private static final String OUT_PARAMETER = "out";
+  private static final String WRITER_PARAMETER = "writer";
+  private static final String FIELD_PARAMETER = "field";
+  private static final String OBJECT_PARAMETER = "object";
+  private static final String BUILDER_VARIABLE = "builder";
+  private static final ClassName JSON_WRITER_CLASS_NAME = ClassName.get("org.lelv.fieldler.output", "JsonWriter");
+  private static final ClassName FIELD_COMPARISON_CLASS_NAME = ClassName.get("org.lelv.fieldler.output", "FieldComparison");
+
+  private final List<FieldData> fields;
+  private final ClassName sourceClassClassName;
+  private final ClassName fieldDataEnumClassName;
+  private final ClassName jsonWriterClassName;
+  private final ParameterizedTypeName fieldComparisonTypeName;
+
+  public JsonWriterCreator(ClassData classData, String fieldEnumName) {
+    this.fields = classData.getFieldsData().stream().filter(FieldData::isAccessible).collect(Collectors.toList());
+    this.sourceClassClassName = ClassName.bestGuess(classData.getCanonicalName());
+    this.fieldDataEnumClassName = ClassName.bestGuess(classData.getPackagePath() + "." + fieldEnumName);
+    this.jsonWriterClassName = ClassName.bestGuess(classData.getPackagePath() + "." + classData.getClassName() + JSON_WRITER_SUFFIX);
+    this.fieldComparisonTypeName = ParameterizedTypeName.get(FIELD_COMPARISON_CLASS_NAME, sourceClassClassName, fieldDataEnumClassName);
+  }
+
+  public TypeSpec create() {
+    MethodChunker methodChunker = new MethodChunker(ClassName.get(IOException.class));
+    return TypeSpec.classBuilder(jsonWriterClassName.simpleName())
+                   .addJavadoc(CodeBlock.builder()
+                                        .add("Writes the differences of comparisons of $T objects as a JSON array, with one\n", sourceClassClassName)
+                                        .add("{@code {\"field\": name, \"before\": value, \"after\": value}} object per different field\n")
+                                        .build())
+                   .addModifiers(Modifier.PUBLIC, Modifier.FINAL)
+                   .addField(FieldSpec.builder(ArrayTypeName.of(fieldDataEnumClassName), FIELDS_FIELD, Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                                      .initializer("$T.values()", fieldDataEnumClassName)
+                                      .build())
+                   .addMethod(MethodSpec.constructorBuilder().addModifiers(Modifier.PRIVATE).build())
+                   .addMethod(createWriteToAppendableMethod())
+                   .addMethod(createWriteToByteBufferMethod())
+                   .addMethod(createToJsonMethod())
+                   .addMethod(createWriteDifferencesMethod())
+                   .addMethod(createValueMethod(methodChunker))
+                   .addMethods(methodChunker.getChunkMethods())
+                   .build();
+  }
+
+  private MethodSpec createWriteToAppendableMethod() {
+    return MethodSpec.methodBuilder(WRITE_DIFFERENCES_METHOD)
+                     .addJavadoc(CodeBlock.builder()
+                                          .add("Appends the differences of the comparison as JSON, testing the fields not tested yet\n")
+                                          .add("@param $L the comparison\n", COMPARISON_PARAMETER)
+                                          .add("@param $L the destination of the JSON\n", OUT_PARAMETER)
+                                          .add("@throws IOException if the Appendable fails\n")
+                                          .build())
+                     .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                     .addParameter(fieldComparisonTypeName, COMPARISON_PARAMETER)
+                     .addParameter(Appendable.class, OUT_PARAMETER)
+                     .addException(IOException.class)
+                     .addStatement("$L($L, $T.of($L))", WRITE_DIFFERENCES_METHOD, COMPARISON_PARAMETER, JSON_WRITER_CLASS_NAME, OUT_PARAMETER)
+                     .build();
+  }
+
+  private MethodSpec createWriteToByteBufferMethod() {
+    return MethodSpec.methodBuilder(WRITE_DIFFERENCES_METHOD)
+                     .addJavadoc(CodeBlock.builder()
+                                          .add("Puts the differences of the comparison as JSON encoded in UTF-8, testing the fields not tested yet\n")
+                                          .add("@param $L the comparison\n", COMPARISON_PARAMETER)
+                                          .add("@param $L the destination of the JSON\n", OUT_PARAMETER)
+                                          .add("@throws java.nio.BufferOverflowException if the buffer has not enough remaining space\n")
+                                          .build())
+                     .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                     .addParameter(fieldComparisonTypeName, COMPARISON_PARAMETER)
+                     .addParameter(ByteBuffer.class, OUT_PARAMETER)
+                     .beginControlFlow("try")
+                     .addStatement("$L($L, $T.of($L))", WRITE_DIFFERENCES_METHOD, COMPARISON_PARAMETER, JSON_WRITER_CLASS_NAME, OUT_PARAMETER)
+                     .nextControlFlow("catch ($T e)", IOException.class)
+                     .addComment("a ByteBuffer does not throw IOException")
+                     .addStatement("throw new $T(e)", UncheckedIOException.class)
+                     .endControlFlow()
+                     .build();
+  }
+
+  private MethodSpec createToJsonMethod() {
+    return MethodSpec.methodBuilder(TO_JSON_METHOD)
+                     .addJavadoc(CodeBlock.builder()
+                                          .add("Returns the differences of the comparison as JSON, testing the fields not tested yet\n")
+                                          .add("@param $L the comparison\n", COMPARISON_PARAMETER)
+                                          .add("@return the JSON array of the differences")
+                                          .build())
+                     .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                     .returns(String.class)
+                     .addParameter(fieldComparisonTypeName, COMPARISON_PARAMETER)
+                     .addStatement("$T $L = new $T()", StringBuilder.class, BUILDER_VARIABLE, StringBuilder.class)
+                     .beginControlFlow("try")
+                     .addStatement("$L($L, $L)", WRITE_DIFFERENCES_METHOD, COMPARISON_PARAMETER, BUILDER_VARIABLE)
+                     .nextControlFlow("catch ($T e)", IOException.class)
+                     .addComment("a StringBuilder does not throw IOException")
+                     .addStatement("throw new $T(e)", UncheckedIOException.class)
+                     .endControlFlow()
+                     .addStatement("return $L.toString()", BUILDER_VARIABLE)
+                     .build();
+  }
+
+  private MethodSpec createWriteDifferencesMethod() {
+    return MethodSpec.methodBuilder(WRITE_DIFFERENCES_METHOD)
+                     .addJavadoc(CodeBlock.builder()
+                                          .add("Writes the differences of the comparison as the next value of a writer, testing the fields not tested yet,\n")
+                                          .add("so that they can be part of a bigger document\n")
+                                          .add("@param $L the comparison\n", COMPARISON_PARAMETER)
+                                          .add("@param $L the writer\n", WRITER_PARAMETER)
+                                          .add("@throws IOException if the Appendable of the writer fails\n")
+                                          .build())
+                     .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                     .addParameter(fieldComparisonTypeName, COMPARISON_PARAMETER)
+                     .addParameter(JSON_WRITER_CLASS_NAME, WRITER_PARAMETER)
+                     .addException(IOException.class)
+                     .addStatement("$L.beginArray()", WRITER_PARAMETER)
+                     .beginControlFlow("for ($T $L : $L)", fieldDataEnumClassName, FIELD_PARAMETER, FIELDS_FIELD)
+                     .beginControlFlow("if ($L.isDifferent($L))", COMPARISON_PARAMETER, FIELD_PARAMETER)
+                     .addStatement("$L.beginObject().name(\"field\").value($L.toString()).name(\"before\")", WRITER_PARAMETER, FIELD_PARAMETER)
+                     .addStatement("$L($L, $L.getObjectA(), $L).name(\"after\")", VALUE_METHOD, FIELD_PARAMETER, COMPARISON_PARAMETER, WRITER_PARAMETER)
+                     .addStatement("$L($L, $L.getObjectB(), $L).endObject()", VALUE_METHOD, FIELD_PARAMETER, COMPARISON_PARAMETER, WRITER_PARAMETER)
+                     .endControlFlow()
+                     .endControlFlow()
+                     .addStatement("$L.endArray()", WRITER_PARAMETER)
+                     .build();
+  }
+
+  /**
+   * Values are read through the accessor of every field, and the overload of the writer is chosen by the compiler
+   * following the declared type, so primitive values are written without boxing
+   */
+  private MethodSpec createValueMethod(MethodChunker methodChunker) {
+    ParameterSpec fieldParameter = ParameterSpec.builder(fieldDataEnumClassName, FIELD_PARAMETER).build();
+    ParameterSpec objectParameter = ParameterSpec.builder(sourceClassClassName, OBJECT_PARAMETER).build();
+    ParameterSpec writerParameter = ParameterSpec.builder(JSON_WRITER_CLASS_NAME, WRITER_PARAMETER).build();
+    MethodSpec.Builder methodBuilder = MethodSpec.methodBuilder(VALUE_METHOD)
+                                                 .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+                                                 .returns(JSON_WRITER_CLASS_NAME)
+                                                 .addParameter(fieldParameter)
+                                                 .addParameter(objectParameter)
+                                                 .addParameter(writerParameter)
+                                                 .addException(IOException.class);
+    List<MethodChunker.SwitchCase> cases = new ArrayList<>();
+    for (int ordinal = 0; ordinal < fields.size(); ordinal++) {
+      FieldData fieldData = fields.get(ordinal);
+      cases.add(new MethodChunker.SwitchCase(ordinal, fieldData.getEnumName(),
+                                             CodeBlock.of("return $L.value($L.$L)", WRITER_PARAMETER, OBJECT_PARAMETER, fieldData.getAccess())));
+    }
+    methodChunker.addSwitch(methodBuilder, VALUE_METHOD, JSON_WRITER_CLASS_NAME, cases,
+                            CodeBlock.of("throw new $T(\"Unknown field \" + $L)", IllegalArgumentException.class, FIELD_PARAMETER),
+                            MethodChunker.SWITCH_CHUNK_SIZE, fieldParameter, objectParameter, writerParameter);
+    return methodBuilder.build();
+  }
+
+}
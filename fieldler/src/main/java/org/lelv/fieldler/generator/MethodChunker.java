@@ -0,0 +1,141 @@
+package org.lelv.fieldler.generator;
+
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.ParameterSpec;
+import com.squareup.javapoet.TypeName;
+
+import javax.lang.model.element.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps generated methods small regardless of the number of fields of the class.
+ *
+ * <p>A method with one statement per field grows linearly with the fields, and for very wide classes it goes past the
+ * limits of the JVM: HotSpot does not compile methods bigger than 8000 bytes of bytecode ({@code -XX:-DontCompileHugeMethods}),
+ * and no method can be bigger than 64 KB. When the statements of a method exceed the size of a chunk, they are moved to
+ * private static methods of bounded size, and the original method only calls them in order.
+ *
+ * <p>Switches over the generated field enum are executed on every comparison, so they are split in much smaller chunks:
+ * the original method dispatches by ordinal range to chunk methods with a few cases each, which are small enough to be
+ * inlined by the JIT.
+ */
+class MethodChunker {
+
+  /**
+   * Statements per chunk for methods that fill tables, which run once and only need to stay compilable
+   */
+  static final int TABLE_CHUNK_SIZE = 64;
+
+  /**
+   * Cases per chunk for switches executed on every comparison, which must stay below the JIT inlining thresholds
+   */
+  static final int SWITCH_CHUNK_SIZE = 8;
+
+  private final List<MethodSpec> chunkMethods = new ArrayList<>();
+  private final List<TypeName> exceptions;
+
+  /**
+   * Creates a chunker whose chunk methods declare the provided checked exceptions, thrown by the chunked statements
+   */
+  MethodChunker(TypeName... exceptions) {
+    this.exceptions = Arrays.asList(exceptions);
+  }
+
+  /**
+   * Adds the statements to the method, either directly or through calls to chunk methods named {@code chunkName + index}
+   * that receive the provided parameters, which must be available in the method with the same names.
+   */
+  void addStatements(MethodSpec.Builder methodBuilder, String chunkName, List<CodeBlock> statements, int chunkSize,
+                     ParameterSpec... parameters) {
+    if (statements.size() <= chunkSize) {
+      statements.forEach(methodBuilder::addStatement);
+      return;
+    }
+    String arguments = Arrays.stream(parameters).map(parameter -> parameter.name).collect(Collectors.joining(", "));
+    for (int start = 0, chunk = 0; start < statements.size(); start += chunkSize, chunk++) {
+      String chunkMethodName = chunkName + chunk;
+      MethodSpec.Builder chunkBuilder = MethodSpec.methodBuilder(chunkMethodName)
+                                                  .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+                                                  .addParameters(Arrays.asList(parameters))
+                                                  .addExceptions(exceptions);
+      statements.subList(start, Math.min(start + chunkSize, statements.size())).forEach(chunkBuilder::addStatement);
+      chunkMethods.add(chunkBuilder.build());
+      methodBuilder.addStatement("$L($L)", chunkMethodName, arguments);
+    }
+  }
+
+  /**
+   * Adds to the method a switch over an enum parameter, with the provided cases and a default statement. If there are
+   * more cases than the size of a chunk, the method switches over the ordinal range instead, calling chunk methods named
+   * {@code chunkName + index} that receive the same parameters as the method and contain the switch of their range.
+   */
+  void addSwitch(MethodSpec.Builder methodBuilder, String chunkName, TypeName returnType, List<SwitchCase> cases,
+                 CodeBlock defaultStatement, int chunkSize, ParameterSpec switchParameter, ParameterSpec... parameters) {
+    if (cases.size() <= chunkSize) {
+      addSwitch(methodBuilder, switchParameter, cases, defaultStatement);
+      return;
+    }
+    List<ParameterSpec> chunkParameters = new ArrayList<>();
+    chunkParameters.add(switchParameter);
+    chunkParameters.addAll(Arrays.asList(parameters));
+    String arguments = chunkParameters.stream().map(parameter -> parameter.name).collect(Collectors.joining(", "));
+    Map<Integer, List<SwitchCase>> casesByChunk = cases.stream()
+                                                      .collect(Collectors.groupingBy(switchCase -> switchCase.ordinal / chunkSize,
+                                                                                     TreeMap::new, Collectors.toList()));
+    methodBuilder.beginControlFlow("switch ($L.ordinal() / $L)", switchParameter.name, chunkSize);
+    casesByChunk.forEach((chunk, chunkCases) -> {
+      String chunkMethodName = chunkName + chunk;
+      MethodSpec.Builder chunkBuilder = MethodSpec.methodBuilder(chunkMethodName)
+                                                  .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+                                                  .returns(returnType)
+                                                  .addParameters(chunkParameters)
+                                                  .addExceptions(exceptions);
+      addSwitch(chunkBuilder, switchParameter, chunkCases, defaultStatement);
+      chunkMethods.add(chunkBuilder.build());
+      methodBuilder.addCode("case $L:\n", chunk)
+                   .addStatement("$>return $L($L)$<", chunkMethodName, arguments);
+    });
+    methodBuilder.addCode("default:\n")
+                 .addStatement("$>$L$<", defaultStatement)
+                 .endControlFlow();
+  }
+
+  private static void addSwitch(MethodSpec.Builder methodBuilder, ParameterSpec switchParameter, List<SwitchCase> cases,
+                                CodeBlock defaultStatement) {
+    methodBuilder.beginControlFlow("switch ($L)", switchParameter.name);
+    for (SwitchCase switchCase : cases) {
+      methodBuilder.addCode("case $L:\n", switchCase.constant)
+                   .addStatement("$>$L$<", switchCase.statement);
+    }
+    methodBuilder.addCode("default:\n")
+                 .addStatement("$>$L$<", defaultStatement)
+                 .endControlFlow();
+  }
+
+  List<MethodSpec> getChunkMethods() {
+    return chunkMethods;
+  }
+
+  /**
+   * Case of a switch over an enum, whose statement must end the case, by returning or throwing
+   */
+  static final class SwitchCase {
+
+    private final int ordinal;
+    private final String constant;
+    private final CodeBlock statement;
+
+    SwitchCase(int ordinal, String constant, CodeBlock statement) {
+      this.ordinal = ordinal;
+      this.constant = constant;
+      this.statement = statement;
+    }
+  }
+
+}
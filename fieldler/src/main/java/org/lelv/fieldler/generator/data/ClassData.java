@@ -1,5 +1,6 @@
 package org.lelv.fieldler.generator.data;
 
+import javax.lang.model.element.Element;
 import java.util.List;
 
 public class ClassData {
@@ -8,9 +9,17 @@ public class ClassData {
   private final String packagePath;
   private final String canonicalName;
   private final List<FieldData> fieldsData;
+  private final ComparatorOptions comparatorOptions;
+  private final Element originatingElement;
 
   public ClassData(String canonicalName, List<FieldData> fieldsData) {
+    this(canonicalName, fieldsData, ComparatorOptions.DEFAULT, null);
+  }
+
+  public ClassData(String canonicalName, List<FieldData> fieldsData, ComparatorOptions comparatorOptions, Element originatingElement) {
     this.fieldsData = fieldsData;
+    this.comparatorOptions = comparatorOptions;
+    this.originatingElement = originatingElement;
     this.canonicalName = canonicalName;
     int classNameIndex = canonicalName.lastIndexOf('.');
     this.className = canonicalName.substring(classNameIndex + 1);
@@ -29,6 +38,14 @@ public class ClassData {
     return fieldsData;
   }
 
+  public ComparatorOptions getComparatorOptions() {
+    return comparatorOptions;
+  }
+
+  public Element getOriginatingElement() {
+    return originatingElement;
+  }
+
   public String getCanonicalName() {
     return canonicalName;
   }
@@ -42,6 +59,7 @@ public class ClassData {
     return "ClassData{" +
         "canonicalName='" + canonicalName + '\'' +
         ", fieldsData=" + fieldsData +
+        ", comparatorOptions=" + comparatorOptions +
         '}';
   }
 }
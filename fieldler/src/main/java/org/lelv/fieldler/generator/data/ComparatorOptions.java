@@ -0,0 +1,66 @@
+package org.lelv.fieldler.generator.data;
+
+public class ComparatorOptions {
+
+  public static final ComparatorOptions DEFAULT = new ComparatorOptions(false, true, false, 0, false, false, false);
+
+  private final boolean adaptive;
+  private final boolean directFieldAccess;
+  private final boolean immutable;
+  private final int cacheSize;
+  private final boolean columns;
+  private final boolean json;
+  private final boolean lambdaFree;
+
+  public ComparatorOptions(boolean adaptive, boolean directFieldAccess, boolean immutable, int cacheSize, boolean columns,
+                           boolean json, boolean lambdaFree) {
+    this.adaptive = adaptive;
+    this.directFieldAccess = directFieldAccess;
+    this.immutable = immutable;
+    this.cacheSize = cacheSize;
+    this.columns = columns;
+    this.json = json;
+    this.lambdaFree = lambdaFree;
+  }
+
+  public boolean isAdaptive() {
+    return adaptive;
+  }
+
+  public boolean isDirectFieldAccess() {
+    return directFieldAccess;
+  }
+
+  public boolean isImmutable() {
+    return immutable;
+  }
+
+  public int getCacheSize() {
+    return cacheSize;
+  }
+
+  public boolean isColumns() {
+    return columns;
+  }
+
+  public boolean isJson() {
+    return json;
+  }
+
+  public boolean isLambdaFree() {
+    return lambdaFree;
+  }
+
+  @Override
+  public String toString() {
+    return "ComparatorOptions{" +
+        "adaptive=" + adaptive +
+        ", directFieldAccess=" + directFieldAccess +
+        ", immutable=" + immutable +
+        ", cacheSize=" + cacheSize +
+        ", columns=" + columns +
+        ", json=" + json +
+        ", lambdaFree=" + lambdaFree +
+        '}';
+  }
+}
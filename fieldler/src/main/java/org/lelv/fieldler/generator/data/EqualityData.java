@@ -0,0 +1,55 @@
+package org.lelv.fieldler.generator.data;
+
+public class EqualityData {
+
+  private final String strategyClass;
+  private final String method;
+  private final Double tolerance;
+
+  private EqualityData(String strategyClass, String method, Double tolerance) {
+    this.strategyClass = strategyClass;
+    this.method = method;
+    this.tolerance = tolerance;
+  }
+
+  public static EqualityData comparator(String comparatorClass) {
+    return new EqualityData(comparatorClass, null, null);
+  }
+
+  public static EqualityData staticMethod(String declaringClass, String method) {
+    return new EqualityData(declaringClass, method, null);
+  }
+
+  public static EqualityData staticMethodWithTolerance(String declaringClass, String method, double tolerance) {
+    return new EqualityData(declaringClass, method, tolerance);
+  }
+
+  public String getStrategyClass() {
+    return strategyClass;
+  }
+
+  public String getMethod() {
+    return method;
+  }
+
+  public Double getTolerance() {
+    return tolerance;
+  }
+
+  public boolean isComparator() {
+    return method == null;
+  }
+
+  public boolean hasTolerance() {
+    return tolerance != null;
+  }
+
+  @Override
+  public String toString() {
+    return "EqualityData{" +
+        "strategyClass='" + strategyClass + '\'' +
+        ", method='" + method + '\'' +
+        ", tolerance=" + tolerance +
+        '}';
+  }
+}
@@ -1,16 +1,31 @@
 package org.lelv.fieldler.generator.data;
 
 import org.lelv.fieldler.generator.util.SnakeCaseUtil;
+import org.lelv.fieldler.output.FieldCost;
 
 public class FieldData {
 
   private final String name;
   private final String access;
+  private final String type;
+  private final String erasedType;
+  private final boolean comparable;
   private final String enumName;
+  private final EqualityData equality;
+  private final FieldCost cost;
 
   public FieldData(String name, String access) {
+    this(name, access, null, null, false, null, FieldCost.COMPLEX);
+  }
+
+  public FieldData(String name, String access, String type, String erasedType, boolean comparable, EqualityData equality, FieldCost cost) {
     this.name = name;
     this.access = access;
+    this.type = type;
+    this.erasedType = erasedType;
+    this.comparable = comparable;
+    this.equality = equality;
+    this.cost = cost;
     this.enumName = SnakeCaseUtil.snakeCase(name);
   }
 
@@ -22,19 +37,51 @@ public class FieldData {
     return access;
   }
 
+  public String getType() {
+    return type;
+  }
+
+  /**
+   * Returns the erasure of the type, which can be used to declare arrays of the field
+   */
+  public String getErasedType() {
+    return erasedType;
+  }
+
+  public boolean isComparable() {
+    return comparable;
+  }
+
   public String getEnumName() {
     return enumName;
   }
 
+  public EqualityData getEquality() {
+    return equality;
+  }
+
+  public FieldCost getCost() {
+    return cost;
+  }
+
   public boolean isAccessible() {
     return access != null;
   }
 
+  public boolean hasCustomEquality() {
+    return equality != null;
+  }
+
   @Override
   public String toString() {
     return "FieldData{" +
         "name='" + name + '\'' +
         ", access='" + access + '\'' +
+        ", type='" + type + '\'' +
+        ", erasedType='" + erasedType + '\'' +
+        ", comparable=" + comparable +
+        ", equality=" + equality +
+        ", cost=" + cost +
         '}';
   }
 }
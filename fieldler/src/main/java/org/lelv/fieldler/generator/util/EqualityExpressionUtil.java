@@ -0,0 +1,50 @@
+package org.lelv.fieldler.generator.util;
+
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.FieldSpec;
+import org.lelv.fieldler.generator.data.EqualityData;
+import org.lelv.fieldler.generator.data.FieldData;
+
+import javax.lang.model.element.Modifier;
+import java.util.Objects;
+
+public class EqualityExpressionUtil {
+
+  private static final String EQUALITY_STRATEGY_SUFFIX = "_EQUALITY";
+
+  /**
+   * Returns the expression which tests the equality of two values of a field, following its custom equality if any. Fields
+   * with a comparator strategy expect the field returned by {@link #comparatorStrategyField(FieldData)} to be declared.
+   */
+  public static CodeBlock equalityExpression(FieldData fieldData, String valueA, String valueB) {
+    if (!fieldData.hasCustomEquality()) {
+      return CodeBlock.of("$T.equals($L, $L)", Objects.class, valueA, valueB);
+    }
+    EqualityData equality = fieldData.getEquality();
+    if (equality.isComparator()) {
+      return CodeBlock.of("$L.compare($L, $L) == 0", comparatorStrategyFieldName(fieldData), valueA, valueB);
+    }
+    ClassName strategyClassName = ClassName.bestGuess(equality.getStrategyClass());
+    if (equality.hasTolerance()) {
+      return CodeBlock.of("$T.$L($L, $L, $L)", strategyClassName, equality.getMethod(), valueA, valueB, equality.getTolerance());
+    }
+    return CodeBlock.of("$T.$L($L, $L)", strategyClassName, equality.getMethod(), valueA, valueB);
+  }
+
+  public static boolean hasComparatorStrategy(FieldData fieldData) {
+    return fieldData.hasCustomEquality() && fieldData.getEquality().isComparator();
+  }
+
+  public static FieldSpec comparatorStrategyField(FieldData fieldData) {
+    ClassName comparatorClassName = ClassName.bestGuess(fieldData.getEquality().getStrategyClass());
+    return FieldSpec.builder(comparatorClassName, comparatorStrategyFieldName(fieldData), Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                    .initializer("new $T()", comparatorClassName)
+                    .build();
+  }
+
+  public static String comparatorStrategyFieldName(FieldData fieldData) {
+    return fieldData.getEnumName() + EQUALITY_STRATEGY_SUFFIX;
+  }
+
+}
@@ -0,0 +1,38 @@
+package org.lelv.fieldler.generator.util;
+
+import com.squareup.javapoet.ClassName;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public class PrimitiveTypeUtil {
+
+  private static final Map<String, ClassName> BOXED_CLASS_NAMES = new HashMap<>();
+
+  static {
+    BOXED_CLASS_NAMES.put("boolean", ClassName.get(Boolean.class));
+    BOXED_CLASS_NAMES.put("byte", ClassName.get(Byte.class));
+    BOXED_CLASS_NAMES.put("short", ClassName.get(Short.class));
+    BOXED_CLASS_NAMES.put("char", ClassName.get(Character.class));
+    BOXED_CLASS_NAMES.put("int", ClassName.get(Integer.class));
+    BOXED_CLASS_NAMES.put("long", ClassName.get(Long.class));
+    BOXED_CLASS_NAMES.put("float", ClassName.get(Float.class));
+    BOXED_CLASS_NAMES.put("double", ClassName.get(Double.class));
+  }
+
+  public static boolean isPrimitive(String type) {
+    return BOXED_CLASS_NAMES.containsKey(type);
+  }
+
+  /**
+   * Returns the boxed class of a primitive type, whose static methods (hashCode, compare) work over the primitive value
+   */
+  public static ClassName boxedClassName(String type) {
+    ClassName boxedClassName = BOXED_CLASS_NAMES.get(type);
+    if (boxedClassName == null) {
+      throw new IllegalArgumentException("Not a primitive type: " + type);
+    }
+    return boxedClassName;
+  }
+
+}
@@ -0,0 +1,91 @@
+package org.lelv.fieldler.output;
+
+import java.util.Comparator;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.IntStream;
+
+/**
+ * Samples the outcome of the equality tests of a schema, and periodically computes the evaluation order that minimizes
+ * the expected cost of deciding short-circuiting queries. A field should be tested early when it is cheap and likely to
+ * decide the query, so fields are sorted by ascending {@code staticCostNanos / probabilityOfDeciding}. Durations are not
+ * sampled: most tests take a few nanoseconds, less than reading the clock twice, so timing them one by one would measure
+ * the clock rather than the test.
+ *
+ * <p>The hot path takes no locks: only one out of {@link #SAMPLING_RATE} tests is sampled, and sampled values are added
+ * to atomic counters. The thread that completes a {@link #REORDER_INTERVAL} of samples computes the new order, which is
+ * then published with a single volatile write by the schema.
+ */
+final class AdaptiveStatistics {
+
+  static final int SAMPLING_RATE = 16;
+  static final int REORDER_INTERVAL = 1024;
+
+  private static final long[] STATIC_COST_NANOS = {2, 10, 50};
+
+  private final FieldCost[] costs;
+  private final AtomicLongArray samples;
+  private final AtomicLongArray differences;
+  private final AtomicLong totalSamples = new AtomicLong();
+
+  AdaptiveStatistics(FieldCost[] costs) {
+    this.costs = costs;
+    this.samples = new AtomicLongArray(costs.length);
+    this.differences = new AtomicLongArray(costs.length);
+  }
+
+  boolean shouldSample() {
+    return ThreadLocalRandom.current().nextInt(SAMPLING_RATE) == 0;
+  }
+
+  /**
+   * Records a sampled test
+   *
+   * @return true if a new evaluation order should be computed
+   */
+  boolean record(int index, boolean equal) {
+    samples.incrementAndGet(index);
+    if (!equal) {
+      differences.incrementAndGet(index);
+    }
+    return totalSamples.incrementAndGet() % REORDER_INTERVAL == 0;
+  }
+
+  EvaluationOrder computeOrder() {
+    int size = costs.length;
+    double[] differenceScores = new double[size];
+    double[] equalityScores = new double[size];
+    for (int index = 0; index < size; index++) {
+      long fieldSamples = samples.get(index);
+      long fieldDifferences = differences.get(index);
+      double cost = staticCostNanos(costs[index]);
+      // Laplace smoothing keeps fields with few samples in between the likely and the unlikely ones
+      double differenceProbability = (fieldDifferences + 1.0) / (fieldSamples + 2.0);
+      differenceScores[index] = cost / differenceProbability;
+      equalityScores[index] = cost / (1.0 - differenceProbability);
+    }
+    return new EvaluationOrder(sortedIndexes(differenceScores), sortedIndexes(equalityScores));
+  }
+
+  long samples(int index) {
+    return samples.get(index);
+  }
+
+  long differences(int index) {
+    return differences.get(index);
+  }
+
+  static double staticCostNanos(FieldCost cost) {
+    return STATIC_COST_NANOS[cost.ordinal()];
+  }
+
+  private static int[] sortedIndexes(double[] scores) {
+    return IntStream.range(0, scores.length)
+                    .boxed()
+                    .sorted(Comparator.comparingDouble(index -> scores[index]))
+                    .mapToInt(Integer::intValue)
+                    .toArray();
+  }
+
+}
@@ -0,0 +1,343 @@
+package org.lelv.fieldler.output;
+
+import java.util.BitSet;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+import java.util.function.Consumer;
+import java.util.function.IntPredicate;
+
+/**
+ * Result of the column-wise comparison of two generated {@code XxxColumns} containers, which holds for every row the
+ * mask of the fields that are different between both containers.
+ *
+ * <p>The fields of a row are identified by the ordinal of the generated Field Enum. Masks are stored row after row, so
+ * that the columns are compared one after the other with sequential writes over the masks. Int, long and double columns
+ * are compared by the {@link ColumnKernel} returned by {@link #kernel()}, which may be accelerated.
+ *
+ * @param <U> type of the generated Field Enum
+ * @author Lelv
+ */
+public final class ColumnDiff<U extends Enum<U>> {
+
+  private static final ColumnKernel KERNEL = loadKernel();
+
+  private final Class<U> fieldClass;
+  private final U[] fields;
+  private final int rows;
+  private final int words;
+  private final long[] masks;
+
+  /**
+   * Builds an empty ColumnDiff. It is used by the auto generated Columns, and is not meant for usage by other means.
+   *
+   * @param fieldClass the class of the generated Field Enum
+   * @param rows       the number of rows of both containers
+   */
+  public ColumnDiff(Class<U> fieldClass, int rows) {
+    this.fieldClass = Objects.requireNonNull(fieldClass);
+    this.fields = fieldClass.getEnumConstants();
+    this.rows = rows;
+    this.words = (fields.length + Long.SIZE - 1) / Long.SIZE;
+    this.masks = new long[rows * words];
+  }
+
+  /**
+   * Compares a boolean column, used by the auto generated Columns
+   *
+   * @param columnA the column of the first container
+   * @param columnB the column of the second container
+   * @param index   the ordinal of the field of the column
+   */
+  public void compare(boolean[] columnA, boolean[] columnB, int index) {
+    for (int row = 0; row < rows; row++) {
+      if (columnA[row] != columnB[row]) {
+        markDifferent(row, index);
+      }
+    }
+  }
+
+  /**
+   * Compares a byte column, used by the auto generated Columns
+   *
+   * @param columnA the column of the first container
+   * @param columnB the column of the second container
+   * @param index   the ordinal of the field of the column
+   */
+  public void compare(byte[] columnA, byte[] columnB, int index) {
+    for (int row = 0; row < rows; row++) {
+      if (columnA[row] != columnB[row]) {
+        markDifferent(row, index);
+      }
+    }
+  }
+
+  /**
+   * Compares a short column, used by the auto generated Columns
+   *
+   * @param columnA the column of the first container
+   * @param columnB the column of the second container
+   * @param index   the ordinal of the field of the column
+   */
+  public void compare(short[] columnA, short[] columnB, int index) {
+    for (int row = 0; row < rows; row++) {
+      if (columnA[row] != columnB[row]) {
+        markDifferent(row, index);
+      }
+    }
+  }
+
+  /**
+   * Compares a char column, used by the auto generated Columns
+   *
+   * @param columnA the column of the first container
+   * @param columnB the column of the second container
+   * @param index   the ordinal of the field of the column
+   */
+  public void compare(char[] columnA, char[] columnB, int index) {
+    for (int row = 0; row < rows; row++) {
+      if (columnA[row] != columnB[row]) {
+        markDifferent(row, index);
+      }
+    }
+  }
+
+  /**
+   * Compares an int column, used by the auto generated Columns
+   *
+   * @param columnA the column of the first container
+   * @param columnB the column of the second container
+   * @param index   the ordinal of the field of the column
+   */
+  public void compare(int[] columnA, int[] columnB, int index) {
+    compareBits(index, differences -> KERNEL.differences(columnA, columnB, rows, differences));
+  }
+
+  /**
+   * Compares a long column, used by the auto generated Columns
+   *
+   * @param columnA the column of the first container
+   * @param columnB the column of the second container
+   * @param index   the ordinal of the field of the column
+   */
+  public void compare(long[] columnA, long[] columnB, int index) {
+    compareBits(index, differences -> KERNEL.differences(columnA, columnB, rows, differences));
+  }
+
+  /**
+   * Compares a float column following {@link Float#equals(Object)}, used by the auto generated Columns
+   *
+   * @param columnA the column of the first container
+   * @param columnB the column of the second container
+   * @param index   the ordinal of the field of the column
+   */
+  public void compare(float[] columnA, float[] columnB, int index) {
+    for (int row = 0; row < rows; row++) {
+      if (Float.floatToIntBits(columnA[row]) != Float.floatToIntBits(columnB[row])) {
+        markDifferent(row, index);
+      }
+    }
+  }
+
+  /**
+   * Compares a double column following {@link Double#equals(Object)}, used by the auto generated Columns
+   *
+   * @param columnA the column of the first container
+   * @param columnB the column of the second container
+   * @param index   the ordinal of the field of the column
+   */
+  public void compare(double[] columnA, double[] columnB, int index) {
+    compareBits(index, differences -> KERNEL.differences(columnA, columnB, rows, differences));
+  }
+
+  /**
+   * Compares a column of objects following {@link Objects#equals(Object, Object)}, used by the auto generated Columns
+   *
+   * @param columnA the column of the first container
+   * @param columnB the column of the second container
+   * @param index   the ordinal of the field of the column
+   */
+  public void compare(Object[] columnA, Object[] columnB, int index) {
+    for (int row = 0; row < rows; row++) {
+      if (!Objects.equals(columnA[row], columnB[row])) {
+        markDifferent(row, index);
+      }
+    }
+  }
+
+  /**
+   * Compares a column with a custom equality, used by the auto generated Columns
+   *
+   * @param index     the ordinal of the field of the column
+   * @param equalRows test which tells whether the values of a row are equal
+   */
+  public void compare(int index, IntPredicate equalRows) {
+    for (int row = 0; row < rows; row++) {
+      if (!equalRows.test(row)) {
+        markDifferent(row, index);
+      }
+    }
+  }
+
+  /**
+   * Returns the kernel which compares the int, long and double columns
+   *
+   * @return the kernel found through {@link ServiceLoader}, or the {@link ScalarColumnKernel}
+   */
+  public static ColumnKernel kernel() {
+    return KERNEL;
+  }
+
+  /**
+   * Returns the number of rows compared
+   *
+   * @return number of rows
+   */
+  public int rows() {
+    return rows;
+  }
+
+  /**
+   * Informs whether a field of a row is different between both containers
+   *
+   * @param row   the row
+   * @param field the field
+   * @return true if the field is different, false otherwise
+   * @throws IndexOutOfBoundsException if the row does not exist
+   */
+  public boolean isDifferent(int row, U field) {
+    checkRow(row);
+    int index = field.ordinal();
+    return (masks[row * words + (index >>> 6)] & 1L << index) != 0;
+  }
+
+  /**
+   * Informs whether a row has any different field between both containers
+   *
+   * @param row the row
+   * @return true if any field is different, false otherwise
+   * @throws IndexOutOfBoundsException if the row does not exist
+   */
+  public boolean hasDifferences(int row) {
+    checkRow(row);
+    for (int word = row * words; word < (row + 1) * words; word++) {
+      if (masks[word] != 0) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Returns the number of different fields of a row
+   *
+   * @param row the row
+   * @return number of different fields
+   * @throws IndexOutOfBoundsException if the row does not exist
+   */
+  public int numberOfDifferences(int row) {
+    checkRow(row);
+    int differences = 0;
+    for (int word = row * words; word < (row + 1) * words; word++) {
+      differences += Long.bitCount(masks[word]);
+    }
+    return differences;
+  }
+
+  /**
+   * Returns the different fields of a row
+   *
+   * @param row the row
+   * @return a new set of the different fields
+   * @throws IndexOutOfBoundsException if the row does not exist
+   */
+  public EnumSet<U> differentFields(int row) {
+    checkRow(row);
+    EnumSet<U> result = EnumSet.noneOf(fieldClass);
+    for (int word = 0; word < words; word++) {
+      for (long bits = masks[row * words + word]; bits != 0; bits &= bits - 1) {
+        result.add(fields[word * Long.SIZE + Long.numberOfTrailingZeros(bits)]);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Returns the rows with any different field
+   *
+   * @return a new bitset whose set bits are the rows with differences
+   */
+  public BitSet differentRows() {
+    BitSet result = new BitSet(rows);
+    for (int row = 0; row < rows; row++) {
+      if (hasDifferences(row)) {
+        result.set(row);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Returns the number of rows in which a field is different
+   *
+   * @param field the field
+   * @return number of rows
+   */
+  public int differenceCount(U field) {
+    int index = field.ordinal();
+    int count = 0;
+    for (int row = 0; row < rows; row++) {
+      if ((masks[row * words + (index >>> 6)] & 1L << index) != 0) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  @Override
+  public String toString() {
+    return "ColumnDiff{" +
+        "rows=" + rows +
+        ", differentRows=" + differentRows().cardinality() +
+        '}';
+  }
+
+  private void compareBits(int index, Consumer<long[]> kernelCall) {
+    long[] differences = new long[(rows + Long.SIZE - 1) / Long.SIZE];
+    kernelCall.accept(differences);
+    // differences are usually sparse, so they are spread to the masks of the rows one bit at a time
+    for (int word = 0; word < differences.length; word++) {
+      for (long bits = differences[word]; bits != 0; bits &= bits - 1) {
+        markDifferent(word * Long.SIZE + Long.numberOfTrailingZeros(bits), index);
+      }
+    }
+  }
+
+  private static ColumnKernel loadKernel() {
+    if ("scalar".equals(System.getProperty(ColumnKernel.KERNEL_PROPERTY))) {
+      return new ScalarColumnKernel();
+    }
+    try {
+      Iterator<ColumnKernel> kernels = ServiceLoader.load(ColumnKernel.class, ColumnKernel.class.getClassLoader()).iterator();
+      if (kernels.hasNext()) {
+        return kernels.next();
+      }
+    } catch (ServiceConfigurationError | LinkageError e) {
+      // the accelerated kernel can not run on this JVM
+    }
+    return new ScalarColumnKernel();
+  }
+
+  private void markDifferent(int row, int index) {
+    masks[row * words + (index >>> 6)] |= 1L << index;
+  }
+
+  private void checkRow(int row) {
+    if (row < 0 || row >= rows) {
+      throw new IndexOutOfBoundsException("Row " + row + " out of bounds for " + rows + " rows");
+    }
+  }
+
+}
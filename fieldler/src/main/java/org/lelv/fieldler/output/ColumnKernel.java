@@ -0,0 +1,54 @@
+package org.lelv.fieldler.output;
+
+/**
+ * Kernel which compares two primitive columns row by row, used by {@link ColumnDiff} to compare the columns of the
+ * generated {@code XxxColumns} containers.
+ *
+ * <p>Every method sets bit {@code row % 64} of word {@code row / 64} of the differences for every row in which both
+ * columns are different, leaving the other bits untouched. Values are compared as their boxed counterparts would be
+ * compared by {@code equals}, so two {@code NaN} are equal while {@code 0.0} and {@code -0.0} are different.
+ *
+ * <p>The kernel is discovered through {@link java.util.ServiceLoader}, so that an accelerated implementation can be
+ * provided by adding a module to the classpath, such as {@code fieldler-vector}. Otherwise, or when the system property
+ * {@value #KERNEL_PROPERTY} is {@code scalar}, the {@link ScalarColumnKernel} is used.
+ *
+ * @author Lelv
+ */
+public interface ColumnKernel {
+
+  /**
+   * System property which selects the scalar kernel when set to {@code scalar}
+   */
+  String KERNEL_PROPERTY = "org.lelv.fieldler.columnKernel";
+
+  /**
+   * Compares two int columns
+   *
+   * @param columnA     the first column
+   * @param columnB     the second column
+   * @param rows        the number of rows to compare
+   * @param differences the bits of the different rows, with at least {@code (rows + 63) / 64} words
+   */
+  void differences(int[] columnA, int[] columnB, int rows, long[] differences);
+
+  /**
+   * Compares two long columns
+   *
+   * @param columnA     the first column
+   * @param columnB     the second column
+   * @param rows        the number of rows to compare
+   * @param differences the bits of the different rows, with at least {@code (rows + 63) / 64} words
+   */
+  void differences(long[] columnA, long[] columnB, int rows, long[] differences);
+
+  /**
+   * Compares two double columns
+   *
+   * @param columnA     the first column
+   * @param columnB     the second column
+   * @param rows        the number of rows to compare
+   * @param differences the bits of the different rows, with at least {@code (rows + 63) / 64} words
+   */
+  void differences(double[] columnA, double[] columnB, int rows, long[] differences);
+
+}
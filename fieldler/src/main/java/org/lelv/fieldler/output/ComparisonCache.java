@@ -0,0 +1,107 @@
+package org.lelv.fieldler.output;
+
+import java.lang.ref.WeakReference;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded cache of comparison results for immutable classes, keyed by the identity of the compared pair of objects.
+ *
+ * <p>The first comparison of a pair tests all the fields, and stores which of them are equal. Later comparisons of the
+ * same pair, even from different threads, return a FieldComparison with every result already available, without running
+ * any equality test.
+ *
+ * <p>The cache holds a fixed number of entries, and each pair can only be stored in one of them, chosen by the identity
+ * hash codes of the objects. Storing a pair evicts the pair previously stored in that entry. Entries only keep weak
+ * references to the objects, so the cache never prevents them from being garbage collected.
+ *
+ * <p>Results are only valid as long as the objects are not modified, so the cache must only be used for immutable classes.
+ * It is used by the auto generated FieldComparator of classes annotated with {@code @FieldComparator(immutable = true)}.
+ *
+ * @param <T> type of the class whose objects are being compared
+ * @param <U> type of the generated Field Enum created for class T
+ * @author Lelv
+ */
+public final class ComparisonCache<T, U> {
+
+  private final FieldSchema<T, U> schema;
+  private final AtomicReferenceArray<Entry<T>> entries;
+  private final long[] allTested;
+
+  /**
+   * Builds a ComparisonCache
+   *
+   * @param schema the schema of the fields of the objects
+   * @param size   maximum number of pairs stored, rounded up to a power of two
+   * @throws IllegalArgumentException if the size is not positive
+   */
+  public ComparisonCache(FieldSchema<T, U> schema, int size) {
+    if (size <= 0) {
+      throw new IllegalArgumentException("Cache size must be positive: " + size);
+    }
+    this.schema = Objects.requireNonNull(schema);
+    this.entries = new AtomicReferenceArray<>(Integer.highestOneBit(Math.min(size, 1 << 30) * 2 - 1));
+    this.allTested = new long[(schema.size() + Long.SIZE - 1) / Long.SIZE];
+    for (int index = 0; index < schema.size(); index++) {
+      allTested[index >>> 6] |= 1L << index;
+    }
+  }
+
+  /**
+   * Returns the comparison of the two objects, with the results of every field already available
+   *
+   * @param objectA the first object to compare
+   * @param objectB the second object to compare
+   * @return the comparison of the objects
+   */
+  public FieldComparison<T, U> compare(T objectA, T objectB) {
+    Objects.requireNonNull(objectA);
+    Objects.requireNonNull(objectB);
+    int slot = slot(objectA, objectB);
+    Entry<T> entry = entries.get(slot);
+    if (entry != null && entry.objectA.get() == objectA && entry.objectB.get() == objectB) {
+      return new FieldComparison<>(objectA, objectB, schema, allTested.clone(), entry.equal.clone());
+    }
+    FieldComparison<T, U> comparison = new FieldComparison<>(objectA, objectB, schema);
+    entries.set(slot, new Entry<>(objectA, objectB, comparison.equalMask()));
+    return comparison;
+  }
+
+  /**
+   * Returns the maximum number of pairs stored
+   *
+   * @return the capacity of the cache
+   */
+  public int capacity() {
+    return entries.length();
+  }
+
+  /**
+   * Removes every stored result
+   */
+  public void clear() {
+    for (int slot = 0; slot < entries.length(); slot++) {
+      entries.set(slot, null);
+    }
+  }
+
+  private int slot(T objectA, T objectB) {
+    int hash = System.identityHashCode(objectA) * 31 + System.identityHashCode(objectB);
+    hash ^= hash >>> 16;
+    return hash & (entries.length() - 1);
+  }
+
+  private static final class Entry<T> {
+
+    private final WeakReference<T> objectA;
+    private final WeakReference<T> objectB;
+    private final long[] equal;
+
+    private Entry(T objectA, T objectB, long[] equal) {
+      this.objectA = new WeakReference<>(objectA);
+      this.objectB = new WeakReference<>(objectB);
+      this.equal = equal;
+    }
+  }
+
+}
@@ -0,0 +1,119 @@
+package org.lelv.fieldler.output;
+
+import java.util.Iterator;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+
+/**
+ * Receives the creation of every {@link FieldComparison}, its batches of field tests and the actions it dispatches, so
+ * that they can be recorded by a diagnostic tool, such as JDK Flight Recorder through the {@code fieldler-jfr} module.
+ *
+ * <p>The recorder is discovered through {@link java.util.ServiceLoader} when the first comparison is created. Every kind
+ * of notification is only sent while the recorder has enabled it through {@link #enable(boolean, boolean, boolean)}, so
+ * while it is disabled, and when there is no recorder at all, the cost for a comparison is a single branch.
+ *
+ * <p>Notifications may be sent concurrently from any thread. A batch or an action is notified twice: when it begins, the
+ * recorder returns an object of its own, typically an event whose clock has been started, and when it ends, that same
+ * object is handed back with the outcome.
+ *
+ * @author Lelv
+ */
+public abstract class ComparisonRecorder {
+
+  private static final ComparisonRecorder NONE = new ComparisonRecorder() {
+    @Override
+    protected void comparisonCreated(Class<?> type, int fields) {
+    }
+
+    @Override
+    protected Object beginTests() {
+      return null;
+    }
+
+    @Override
+    protected void endTests(Object batch, Class<?> type, int testedFields, int differences) {
+    }
+
+    @Override
+    protected Object beginAction() {
+      return null;
+    }
+
+    @Override
+    protected void endAction(Object action, Class<?> type, int testedFields, int differences) {
+    }
+  };
+
+  volatile boolean creationEnabled;
+  volatile boolean testsEnabled;
+  volatile boolean actionsEnabled;
+
+  /**
+   * Enables or disables every kind of notification. All of them are disabled until this method is called.
+   *
+   * @param creation whether the creation of the comparisons is notified
+   * @param tests    whether the batches of field tests are notified
+   * @param actions  whether the dispatched actions are notified
+   */
+  protected final void enable(boolean creation, boolean tests, boolean actions) {
+    this.creationEnabled = creation;
+    this.testsEnabled = tests;
+    this.actionsEnabled = actions;
+  }
+
+  /**
+   * Notifies that a comparison has been created
+   *
+   * @param type   the class of the first compared object
+   * @param fields the number of fields of the schema of the comparison
+   */
+  protected abstract void comparisonCreated(Class<?> type, int fields);
+
+  /**
+   * Notifies that a batch of field tests begins, such as those run by {@link FieldComparison#testAllFields()}
+   *
+   * @return the object handed back to {@link #endTests(Object, Class, int, int)}
+   */
+  protected abstract Object beginTests();
+
+  /**
+   * Notifies that a batch of field tests has ended
+   *
+   * @param batch        the object returned by {@link #beginTests()}
+   * @param type         the class of the first compared object
+   * @param testedFields the number of fields tested by the batch
+   * @param differences  the number of different fields known by the comparison after the batch
+   */
+  protected abstract void endTests(Object batch, Class<?> type, int testedFields, int differences);
+
+  /**
+   * Notifies that an action whose condition holds is about to run, such as the one given to
+   * {@link FieldComparison#doWhenDifferent(Object, Runnable)}
+   *
+   * @return the object handed back to {@link #endAction(Object, Class, int, int)}
+   */
+  protected abstract Object beginAction();
+
+  /**
+   * Notifies that an action has run, or has thrown an exception
+   *
+   * @param action       the object returned by {@link #beginAction()}
+   * @param type         the class of the first compared object
+   * @param testedFields the number of fields tested by the comparison when the action was run
+   * @param differences  the number of different fields known by the comparison when the action was run
+   */
+  protected abstract void endAction(Object action, Class<?> type, int testedFields, int differences);
+
+  static ComparisonRecorder load() {
+    try {
+      Iterator<ComparisonRecorder> recorders = ServiceLoader.load(ComparisonRecorder.class, ComparisonRecorder.class.getClassLoader()).iterator();
+      if (recorders.hasNext()) {
+        return recorders.next();
+      }
+    } catch (ServiceConfigurationError | LinkageError e) {
+      // the recorder can not run on this JVM
+    }
+    return NONE;
+  }
+
+}
@@ -0,0 +1,100 @@
+package org.lelv.fieldler.output;
+
+import java.math.BigDecimal;
+
+/**
+ * Built-in equality strategies, meant to be referenced from {@link org.lelv.fieldler.annotation.FieldEquality}.
+ *
+ * <p>Every strategy is null safe: two {@code null} values are equal, and a {@code null} value is never equal to a non
+ * {@code null} one.
+ *
+ * @author Lelv
+ */
+public final class EqualityStrategies {
+
+  private EqualityStrategies() {
+  }
+
+  /**
+   * Compares two strings ignoring case considerations
+   *
+   * @param a the first value
+   * @param b the second value
+   * @return true if both strings are equal ignoring case, false otherwise
+   */
+  public static boolean equalsIgnoreCase(String a, String b) {
+    return a == null ? b == null : a.equalsIgnoreCase(b);
+  }
+
+  /**
+   * Compares two numbers allowing a maximum absolute difference between them
+   *
+   * @param a         the first value
+   * @param b         the second value
+   * @param tolerance the maximum absolute difference for the values to be considered equal
+   * @return true if the values differ by at most the tolerance, false otherwise
+   */
+  public static boolean equalsWithTolerance(double a, double b, double tolerance) {
+    return Double.compare(a, b) == 0 || Math.abs(a - b) <= tolerance;
+  }
+
+  /**
+   * Compares two numbers allowing a maximum absolute difference between them
+   *
+   * @param a         the first value
+   * @param b         the second value
+   * @param tolerance the maximum absolute difference for the values to be considered equal
+   * @return true if the values differ by at most the tolerance, false otherwise
+   */
+  public static boolean equalsWithTolerance(Double a, Double b, double tolerance) {
+    if (a == null || b == null) {
+      return a == b;
+    }
+    return equalsWithTolerance(a.doubleValue(), b.doubleValue(), tolerance);
+  }
+
+  /**
+   * Compares two numbers allowing a maximum absolute difference between them
+   *
+   * @param a         the first value
+   * @param b         the second value
+   * @param tolerance the maximum absolute difference for the values to be considered equal
+   * @return true if the values differ by at most the tolerance, false otherwise
+   */
+  public static boolean equalsWithTolerance(Float a, Float b, double tolerance) {
+    if (a == null || b == null) {
+      return a == b;
+    }
+    return equalsWithTolerance(a.doubleValue(), b.doubleValue(), tolerance);
+  }
+
+  /**
+   * Compares two numbers allowing a maximum absolute difference between them
+   *
+   * @param a         the first value
+   * @param b         the second value
+   * @param tolerance the maximum absolute difference for the values to be considered equal
+   * @return true if the values differ by at most the tolerance, false otherwise
+   */
+  public static boolean equalsWithTolerance(BigDecimal a, BigDecimal b, double tolerance) {
+    if (a == null || b == null) {
+      return a == b;
+    }
+    return a.subtract(b).abs().compareTo(BigDecimal.valueOf(tolerance)) <= 0;
+  }
+
+  /**
+   * Compares two decimals by their numeric value, so that {@code 2.0} and {@code 2.00} are equal
+   *
+   * @param a the first value
+   * @param b the second value
+   * @return true if both decimals represent the same number, false otherwise
+   */
+  public static boolean equalsIgnoreScale(BigDecimal a, BigDecimal b) {
+    if (a == null || b == null) {
+      return a == b;
+    }
+    return a.compareTo(b) == 0;
+  }
+
+}
@@ -0,0 +1,42 @@
+package org.lelv.fieldler.output;
+
+final class EvaluationOrder {
+
+  private final int[] differenceOrder;
+  private final int[] differenceRanks;
+  private final int[] equalityOrder;
+  private final int[] equalityRanks;
+
+  EvaluationOrder(int[] differenceOrder, int[] equalityOrder) {
+    this.differenceOrder = differenceOrder;
+    this.differenceRanks = ranks(differenceOrder);
+    this.equalityOrder = equalityOrder;
+    this.equalityRanks = ranks(equalityOrder);
+  }
+
+  int[] indexes(boolean expectedEquality) {
+    return expectedEquality ? equalityOrder : differenceOrder;
+  }
+
+  void sort(int[] fieldIndexes, int length, boolean expectedEquality) {
+    int[] ranks = expectedEquality ? equalityRanks : differenceRanks;
+    for (int i = 1; i < length; i++) {
+      int current = fieldIndexes[i];
+      int j = i - 1;
+      while (j >= 0 && ranks[fieldIndexes[j]] > ranks[current]) {
+        fieldIndexes[j + 1] = fieldIndexes[j];
+        j--;
+      }
+      fieldIndexes[j + 1] = current;
+    }
+  }
+
+  private static int[] ranks(int[] order) {
+    int[] ranks = new int[order.length];
+    for (int position = 0; position < order.length; position++) {
+      ranks[order[position]] = position;
+    }
+    return ranks;
+  }
+
+}
@@ -1,16 +1,20 @@
 package org.lelv.fieldler.output;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
-import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.BiConsumer;
 import java.util.function.BiPredicate;
 import java.util.function.Supplier;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 /**
  * Class that provides ways of comparing the fields of objects in a clean way.
@@ -26,27 +30,71 @@ import java.util.stream.Stream;
  * called yet again, it will still return true, as the comparison of said field has already been done and stored. If there is a change, then the
  * recommendation would be to create a new FieldComparison out of the modified object, or calling the method {@code clearTests()}
  *
+ * <p>Queries that involve several fields first look at the results that have already been stored, and then test the
+ * remaining fields from the cheapest to the most expensive one, as defined by the {@link FieldSchema}.
+ *
+ * <p>Primitive and {@link Comparable} fields can also be ordered with {@code compare}, {@code isGreater} and
+ * {@code isLess}. The order of each field is also computed once and stored next to its equality. Whenever the order of
+ * a field is consistent with its equality, each of them is deduced from the other without reading the field again.
+ *
+ * <p>The creation of every comparison, its batches of tests and the actions it runs are notified to the
+ * {@link ComparisonRecorder} found on the classpath, if any, while it has enabled them.
+ *
  * @param <T> type of the class whose objects are being compared
  * @param <U> type of the generated Field Enum created for class T
  * @author Lelv
  */
 public final class FieldComparison<T, U> {
 
+  private static final double PARALLEL_THRESHOLD_NANOS = 100_000;
+  private static final double TASK_NANOS = 25_000;
+  private static final ComparisonRecorder RECORDER = ComparisonRecorder.load();
+
   private final T objectA;
   private final T objectB;
-  private final Map<U, BiPredicate<T, T>> equalityTests;
-  private final Map<U, Boolean> equalityResults = new HashMap<>();
+  private final FieldSchema<T, U> schema;
+  private final long[] tested;
+  private final long[] equal;
+  // ordered, greater and less bits, allocated on the first ordering query
+  private long[] order;
 
   /** Builds a FieldComparison, which presents methods for comparing the fields of the two objects, given the equality
-   * tests provided. It is used by the auto generated FieldComparator, and is not meant for usage by other means.
+   * tests provided. Fields are evaluated in the iteration order of the map.
    * @param objectA the first object to compare
    * @param objectB the second object to compare
    * @param equalityTests a map which contains a test that can assert equality or difference of the field, for every accessible field of the objects
    */
   public FieldComparison(T objectA, T objectB, Map<U, BiPredicate<T, T>> equalityTests) {
+    this(objectA, objectB, FieldSchema.builder(equalityTests).build());
+  }
+
+  /** Builds a FieldComparison, which presents methods for comparing the fields of the two objects, given the schema
+   * provided. It is used by the auto generated FieldComparator, and is not meant for usage by other means.
+   * @param objectA the first object to compare
+   * @param objectB the second object to compare
+   * @param schema the schema of the fields of the objects
+   */
+  public FieldComparison(T objectA, T objectB, FieldSchema<T, U> schema) {
     this.objectA = Objects.requireNonNull(objectA);
     this.objectB = Objects.requireNonNull(objectB);
-    this.equalityTests = Objects.requireNonNull(equalityTests);
+    this.schema = Objects.requireNonNull(schema);
+    int words = (schema.size() + Long.SIZE - 1) / Long.SIZE;
+    this.tested = new long[words];
+    this.equal = new long[words];
+    if (RECORDER.creationEnabled) {
+      RECORDER.comparisonCreated(objectA.getClass(), schema.size());
+    }
+  }
+
+  FieldComparison(T objectA, T objectB, FieldSchema<T, U> schema, long[] tested, long[] equal) {
+    this.objectA = objectA;
+    this.objectB = objectB;
+    this.schema = schema;
+    this.tested = tested;
+    this.equal = equal;
+    if (RECORDER.creationEnabled) {
+      RECORDER.comparisonCreated(objectA.getClass(), schema.size());
+    }
   }
 
   /**
@@ -78,10 +126,7 @@ public final class FieldComparison<T, U> {
    * @return true if the field is equal between the two objects, false otherwise
    */
   public boolean isEqual(U field) {
-    if (!equalityResults.containsKey(field)) {
-      testField(field);
-    }
-    return equalityResults.get(field);
+    return testField(schema.indexOf(field));
   }
 
   /**
@@ -91,10 +136,40 @@ public final class FieldComparison<T, U> {
    * @return true if the field is different between the two objects, false otherwise
    */
   public boolean isDifferent(U field) {
-    if (!equalityResults.containsKey(field)) {
-      testField(field);
-    }
-    return !equalityResults.get(field);
+    return !testField(schema.indexOf(field));
+  }
+
+  /**
+   * Compares the value of a field of the first object with the value of the second object
+   *
+   * @param field field to compare
+   * @return -1, 0 or 1 as the value of the first object is less than, equal to, or greater than the value of the second
+   * @throws IllegalArgumentException if the field is not comparable
+   */
+  public int compare(U field) {
+    return compareField(schema.indexOf(field));
+  }
+
+  /**
+   * Informs whether the value of a field of the first object is greater than the value of the second object
+   *
+   * @param field field to compare
+   * @return true if the field is greater in the first object, false otherwise
+   * @throws IllegalArgumentException if the field is not comparable
+   */
+  public boolean isGreater(U field) {
+    return compare(field) > 0;
+  }
+
+  /**
+   * Informs whether the value of a field of the first object is less than the value of the second object
+   *
+   * @param field field to compare
+   * @return true if the field is less in the first object, false otherwise
+   * @throws IllegalArgumentException if the field is not comparable
+   */
+  public boolean isLess(U field) {
+    return compare(field) < 0;
   }
 
   /**
@@ -103,10 +178,7 @@ public final class FieldComparison<T, U> {
    * @return true if any field value is the same between the objects, false otherwise
    */
   public boolean hasEqualities() {
-    if (equalityResults.values().stream().anyMatch(Boolean.TRUE::equals)) {
-      return true;
-    }
-    return equalityTests.keySet().stream().anyMatch(this::isEqual);
+    return anyResult(true);
   }
 
   /**
@@ -115,10 +187,7 @@ public final class FieldComparison<T, U> {
    * @return true if any field value differs between the objects, false otherwise
    */
   public boolean hasDifferences() {
-    if (equalityResults.values().stream().anyMatch(Boolean.FALSE::equals)) {
-      return true;
-    }
-    return equalityTests.keySet().stream().anyMatch(this::isDifferent);
+    return anyResult(false);
   }
 
   /**
@@ -127,7 +196,7 @@ public final class FieldComparison<T, U> {
    * @return set of fields that are equal between the two objects
    */
   public Set<U> equalFields() {
-    return equalityTests.keySet().stream().filter(this::isEqual).collect(Collectors.toSet());
+    return fieldsWithResult(true);
   }
 
   /**
@@ -136,7 +205,7 @@ public final class FieldComparison<T, U> {
    * @return set of fields that differ between the two objects
    */
   public Set<U> differentFields() {
-    return equalityTests.keySet().stream().filter(this::isDifferent).collect(Collectors.toSet());
+    return fieldsWithResult(false);
   }
 
   /**
@@ -145,7 +214,8 @@ public final class FieldComparison<T, U> {
    * @return number of fields that are equal between the two objects
    */
   public int numberOfEqualities() {
-    return equalFields().size();
+    testAllFields();
+    return countBits(equal);
   }
 
   /**
@@ -154,7 +224,8 @@ public final class FieldComparison<T, U> {
    * @return number of fields that differ between the two objects
    */
   public int numberOfDifferences() {
-    return differentFields().size();
+    testAllFields();
+    return schema.size() - countBits(equal);
   }
 
   // Collection functions
@@ -170,7 +241,7 @@ public final class FieldComparison<T, U> {
     if (fields.size() == 0) {
       return hasEqualities();
     }
-    return fields.stream().anyMatch(this::isEqual);
+    return anyResult(fields, true);
   }
 
   /**
@@ -185,7 +256,7 @@ public final class FieldComparison<T, U> {
     if (fields.length == 0) {
       return hasEqualities();
     }
-    return Stream.of(fields).anyMatch(this::isEqual);
+    return anyResult(Arrays.asList(fields), true);
   }
 
   /**
@@ -199,7 +270,7 @@ public final class FieldComparison<T, U> {
     if (fields.size() == 0) {
       return hasDifferences();
     }
-    return fields.stream().anyMatch(this::isDifferent);
+    return anyResult(fields, false);
   }
 
   /**
@@ -214,7 +285,7 @@ public final class FieldComparison<T, U> {
     if (fields.length == 0) {
       return hasDifferences();
     }
-    return Stream.of(fields).anyMatch(this::isDifferent);
+    return anyResult(Arrays.asList(fields), false);
   }
 
   /**
@@ -228,7 +299,7 @@ public final class FieldComparison<T, U> {
     if (fields.size() == 0) {
       return !hasDifferences();
     }
-    return fields.stream().allMatch(this::isEqual);
+    return !anyResult(fields, false);
   }
 
   /**
@@ -243,7 +314,7 @@ public final class FieldComparison<T, U> {
     if (fields.length == 0) {
       return !hasDifferences();
     }
-    return Stream.of(fields).allMatch(this::isEqual);
+    return !anyResult(Arrays.asList(fields), false);
   }
 
   /**
@@ -257,7 +328,7 @@ public final class FieldComparison<T, U> {
     if (fields.size() == 0) {
       return !hasEqualities();
     }
-    return fields.stream().allMatch(this::isDifferent);
+    return !anyResult(fields, true);
   }
 
   /**
@@ -272,7 +343,7 @@ public final class FieldComparison<T, U> {
     if (fields.length == 0) {
       return !hasEqualities();
     }
-    return Stream.of(fields).allMatch(this::isDifferent);
+    return !anyResult(Arrays.asList(fields), true);
   }
 
   // Runnable actions
@@ -286,7 +357,7 @@ public final class FieldComparison<T, U> {
    */
   public FieldComparison<T, U> doWhenEqual(U field, Runnable runnable) {
     if (isEqual(field)) {
-      runnable.run();
+      run(runnable);
     }
     return this;
   }
@@ -300,7 +371,7 @@ public final class FieldComparison<T, U> {
    */
   public FieldComparison<T, U> doWhenDifferent(U field, Runnable runnable) {
     if (isDifferent(field)) {
-      runnable.run();
+      run(runnable);
     }
     return this;
   }
@@ -315,7 +386,7 @@ public final class FieldComparison<T, U> {
    */
   public FieldComparison<T, U> doWhenAnyEqual(Collection<U> fields, Runnable runnable) {
     if (isAnyEqual(fields)) {
-      runnable.run();
+      run(runnable);
     }
     return this;
   }
@@ -330,7 +401,7 @@ public final class FieldComparison<T, U> {
    */
   public FieldComparison<T, U> doWhenAnyDifferent(Collection<U> fields, Runnable runnable) {
     if (isAnyDifferent(fields)) {
-      runnable.run();
+      run(runnable);
     }
     return this;
   }
@@ -345,7 +416,7 @@ public final class FieldComparison<T, U> {
    */
   public FieldComparison<T, U> doWhenAllEqual(Collection<U> fields, Runnable runnable) {
     if (areAllEqual(fields)) {
-      runnable.run();
+      run(runnable);
     }
     return this;
   }
@@ -360,7 +431,7 @@ public final class FieldComparison<T, U> {
    */
   public FieldComparison<T, U> doWhenAllDifferent(Collection<U> fields, Runnable runnable) {
     if (areAllDifferent(fields)) {
-      runnable.run();
+      run(runnable);
     }
     return this;
   }
@@ -376,7 +447,7 @@ public final class FieldComparison<T, U> {
    */
   public FieldComparison<T, U> doWhenEqual(U field, BiConsumer<T, T> objectsConsumer) {
     if (isEqual(field)) {
-      objectsConsumer.accept(objectA, objectB);
+      accept(objectsConsumer);
     }
     return this;
   }
@@ -390,7 +461,7 @@ public final class FieldComparison<T, U> {
    */
   public FieldComparison<T, U> doWhenDifferent(U field, BiConsumer<T, T> objectsConsumer) {
     if (isDifferent(field)) {
-      objectsConsumer.accept(objectA, objectB);
+      accept(objectsConsumer);
     }
     return this;
   }
@@ -404,7 +475,7 @@ public final class FieldComparison<T, U> {
    */
   public FieldComparison<T, U> doWhenAnyEqual(BiConsumer<T, T> objectsConsumer) {
     if (isAnyEqual()) {
-      objectsConsumer.accept(objectA, objectB);
+      accept(objectsConsumer);
     }
     return this;
   }
@@ -419,7 +490,7 @@ public final class FieldComparison<T, U> {
    */
   public FieldComparison<T, U> doWhenAnyEqual(Collection<U> fields, BiConsumer<T, T> objectsConsumer) {
     if (isAnyEqual(fields)) {
-      objectsConsumer.accept(objectA, objectB);
+      accept(objectsConsumer);
     }
     return this;
   }
@@ -432,7 +503,7 @@ public final class FieldComparison<T, U> {
    */
   public FieldComparison<T, U> doWhenAnyDifferent(BiConsumer<T, T> objectsConsumer) {
     if (isAnyDifferent()) {
-      objectsConsumer.accept(objectA, objectB);
+      accept(objectsConsumer);
     }
     return this;
   }
@@ -447,7 +518,7 @@ public final class FieldComparison<T, U> {
    */
   public FieldComparison<T, U> doWhenAnyDifferent(Collection<U> fields, BiConsumer<T, T> objectsConsumer) {
     if (isAnyDifferent(fields)) {
-      objectsConsumer.accept(objectA, objectB);
+      accept(objectsConsumer);
     }
     return this;
   }
@@ -460,7 +531,7 @@ public final class FieldComparison<T, U> {
    */
   public FieldComparison<T, U> doWhenAllEqual(BiConsumer<T, T> objectsConsumer) {
     if (areAllEqual()) {
-      objectsConsumer.accept(objectA, objectB);
+      accept(objectsConsumer);
     }
     return this;
   }
@@ -475,7 +546,7 @@ public final class FieldComparison<T, U> {
    */
   public FieldComparison<T, U> doWhenAllEqual(Collection<U> fields, BiConsumer<T, T> objectsConsumer) {
     if (areAllEqual(fields)) {
-      objectsConsumer.accept(objectA, objectB);
+      accept(objectsConsumer);
     }
     return this;
   }
@@ -489,7 +560,7 @@ public final class FieldComparison<T, U> {
    */
   public FieldComparison<T, U> doWhenAllDifferent(BiConsumer<T, T> objectsConsumer) {
     if (areAllDifferent()) {
-      objectsConsumer.accept(objectA, objectB);
+      accept(objectsConsumer);
     }
     return this;
   }
@@ -504,7 +575,7 @@ public final class FieldComparison<T, U> {
    */
   public FieldComparison<T, U> doWhenAllDifferent(Collection<U> fields, BiConsumer<T, T> objectsConsumer) {
     if (areAllDifferent(fields)) {
-      objectsConsumer.accept(objectA, objectB);
+      accept(objectsConsumer);
     }
     return this;
   }
@@ -678,7 +749,9 @@ public final class FieldComparison<T, U> {
    * @return self
    */
   public FieldComparison<T, U> clearTests() {
-    equalityResults.clear();
+    Arrays.fill(tested, 0L);
+    Arrays.fill(equal, 0L);
+    order = null;
     return this;
   }
 
@@ -692,10 +765,123 @@ public final class FieldComparison<T, U> {
     if (noPendingTests()) {
       return this;
     }
-    equalityTests.keySet().stream().filter(key -> !equalityResults.containsKey(key)).forEach(this::testField);
+    if (RECORDER.testsEnabled) {
+      Object batch = RECORDER.beginTests();
+      int testedBefore = countBits(tested);
+      testPendingFields();
+      endTests(batch, testedBefore);
+    } else {
+      testPendingFields();
+    }
     return this;
   }
 
+  /**
+   * Runs the equality check of all the fields that have not been checked, in parallel on the common fork-join pool.
+   *
+   * @return self
+   * @see #testAllFieldsInParallel(Executor)
+   */
+  public FieldComparison<T, U> testAllFieldsInParallel() {
+    return testAllFieldsInParallel(ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Runs the equality check of all the fields that have not been checked, in parallel on the provided executor. An
+   * executor of virtual threads is a good fit for getters that do I/O.
+   *
+   * <p>The tests only run in parallel when their estimated duration is worth it, otherwise they run on the calling
+   * thread like {@link #testAllFields()}. Every call times its tests in batches, one per task, and records them in the
+   * schema, so durations are estimated from the average duration of the tests timed by previous calls on the same
+   * schema. Until a call has been timed, they are estimated from the {@link FieldCost} of the fields: the first call on
+   * a schema whose getters block runs on the calling thread, and the following ones in parallel. The fields are grouped in tasks of a similar estimated duration. The
+   * results are stored once all the tasks have finished, so this method must not be called concurrently with other
+   * methods of the comparison. An exception thrown by a test is rethrown by this method, and no result is stored.
+   *
+   * @param executor the executor which runs the tests
+   * @return self
+   */
+  public FieldComparison<T, U> testAllFieldsInParallel(Executor executor) {
+    Objects.requireNonNull(executor);
+    if (noPendingTests()) {
+      return this;
+    }
+    if (RECORDER.testsEnabled) {
+      Object batch = RECORDER.beginTests();
+      int testedBefore = countBits(tested);
+      testPendingFieldsInParallel(executor);
+      endTests(batch, testedBefore);
+    } else {
+      testPendingFieldsInParallel(executor);
+    }
+    return this;
+  }
+
+  private void testPendingFields() {
+    for (int index : schema.currentEvaluationOrder().indexes(false)) {
+      testField(index);
+    }
+  }
+
+  private void testPendingFieldsInParallel(Executor executor) {
+    int[] pending = Arrays.stream(schema.currentEvaluationOrder().indexes(false)).filter(index -> !isTested(index)).toArray();
+    double[] estimatedNanos = new double[pending.length];
+    double totalNanos = 0;
+    for (int i = 0; i < pending.length; i++) {
+      estimatedNanos[i] = schema.estimatedNanos(pending[i]);
+      totalNanos += estimatedNanos[i];
+    }
+    if (pending.length < 2 || totalNanos < PARALLEL_THRESHOLD_NANOS) {
+      long start = System.nanoTime();
+      testPendingFields();
+      schema.recordTimedTests(pending.length, System.nanoTime() - start);
+      return;
+    }
+    boolean[] results = new boolean[pending.length];
+    List<CompletableFuture<Void>> tasks = new ArrayList<>();
+    int taskStart = 0;
+    double taskNanos = 0;
+    for (int i = 0; i < pending.length; i++) {
+      taskNanos += estimatedNanos[i];
+      if (taskNanos >= TASK_NANOS && i < pending.length - 1) {
+        int start = taskStart;
+        int end = i + 1;
+        tasks.add(CompletableFuture.runAsync(() -> testRange(pending, results, start, end), executor));
+        taskStart = end;
+        taskNanos = 0;
+      }
+    }
+    // the remaining fields are tested by the calling thread while the tasks run
+    testRange(pending, results, taskStart, pending.length);
+    try {
+      CompletableFuture.allOf(tasks.toArray(new CompletableFuture[0])).join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      if (e.getCause() instanceof Error) {
+        throw (Error) e.getCause();
+      }
+      throw e;
+    }
+    // join happens-before this point, so the results written by the tasks are visible
+    for (int i = 0; i < pending.length; i++) {
+      int index = pending[i];
+      if (results[i]) {
+        equal[index >>> 6] |= 1L << index;
+      }
+      tested[index >>> 6] |= 1L << index;
+    }
+  }
+
+  private void testRange(int[] indexes, boolean[] results, int start, int end) {
+    long startNanos = System.nanoTime();
+    for (int i = start; i < end; i++) {
+      results[i] = schema.test(indexes[i], objectA, objectB);
+    }
+    schema.recordTimedTests(end - start, System.nanoTime() - startNanos);
+  }
+
   /**
    * Runs the equality check of all the provided fields that have not been checked.
    * The class doesn't run any comparison until the moment of accessing a method that requires the assessment of equality. This method
@@ -708,16 +894,186 @@ public final class FieldComparison<T, U> {
     if (fields == null || fields.length == 0 || noPendingTests()) {
       return this;
     }
-    Arrays.stream(fields).filter(key -> !equalityResults.containsKey(key)).forEach(this::testField);
+    int[] pending = pendingIndexes(Arrays.asList(fields));
+    schema.currentEvaluationOrder().sort(pending, pending.length, false);
+    if (RECORDER.testsEnabled) {
+      Object batch = RECORDER.beginTests();
+      int testedBefore = countBits(tested);
+      testIndexes(pending);
+      endTests(batch, testedBefore);
+    } else {
+      testIndexes(pending);
+    }
     return this;
   }
 
-  private void testField(U field) {
-    equalityResults.put(field, equalityTests.get(field).test(objectA, objectB));
+  private void testIndexes(int[] indexes) {
+    for (int index : indexes) {
+      testField(index);
+    }
+  }
+
+  private void endTests(Object batch, int testedBefore) {
+    RECORDER.endTests(batch, objectA.getClass(), countBits(tested) - testedBefore, knownDifferences());
+  }
+
+  private void run(Runnable runnable) {
+    if (!RECORDER.actionsEnabled) {
+      runnable.run();
+      return;
+    }
+    Object action = RECORDER.beginAction();
+    try {
+      runnable.run();
+    } finally {
+      RECORDER.endAction(action, objectA.getClass(), countBits(tested), knownDifferences());
+    }
+  }
+
+  private void accept(BiConsumer<T, T> objectsConsumer) {
+    if (!RECORDER.actionsEnabled) {
+      objectsConsumer.accept(objectA, objectB);
+      return;
+    }
+    Object action = RECORDER.beginAction();
+    try {
+      objectsConsumer.accept(objectA, objectB);
+    } finally {
+      RECORDER.endAction(action, objectA.getClass(), countBits(tested), knownDifferences());
+    }
+  }
+
+  private int knownDifferences() {
+    int differences = 0;
+    for (int word = 0; word < tested.length; word++) {
+      differences += Long.bitCount(tested[word] & ~equal[word]);
+    }
+    return differences;
+  }
+
+  /**
+   * Runs the equality check of all the fields that have not been checked, and returns an immutable result which only
+   * keeps the outcome of every field. The result keeps no reference to the compared objects, so it can be held for a long
+   * time, e.g. queued for a deferred processing, without keeping them reachable.
+   *
+   * @return the result of the comparison
+   */
+  public FieldComparisonResult<T, U> freeze() {
+    return new FieldComparisonResult<>(schema, equalMask());
+  }
+
+  long[] equalMask() {
+    testAllFields();
+    return equal.clone();
+  }
+
+  private boolean testField(int index) {
+    int word = index >>> 6;
+    long bit = 1L << index;
+    if ((tested[word] & bit) == 0) {
+      if (schema.test(index, objectA, objectB)) {
+        equal[word] |= bit;
+      }
+      tested[word] |= bit;
+    }
+    return (equal[word] & bit) != 0;
+  }
+
+  private int compareField(int index) {
+    int words = tested.length;
+    int word = index >>> 6;
+    long bit = 1L << index;
+    if (order == null) {
+      order = new long[3 * words];
+    } else if ((order[word] & bit) != 0) {
+      return (order[words + word] & bit) != 0 ? 1 : (order[2 * words + word] & bit) != 0 ? -1 : 0;
+    }
+    boolean consistent = schema.isOrderConsistentWithEquality(index);
+    int result;
+    if (consistent && isTested(index) && (equal[word] & bit) != 0) {
+      result = 0;
+    } else {
+      result = schema.compare(index, objectA, objectB);
+      if (consistent && !isTested(index)) {
+        if (result == 0) {
+          equal[word] |= bit;
+        }
+        tested[word] |= bit;
+      }
+    }
+    order[word] |= bit;
+    if (result > 0) {
+      order[words + word] |= bit;
+    } else if (result < 0) {
+      order[2 * words + word] |= bit;
+    }
+    return result;
+  }
+
+  private boolean isTested(int index) {
+    return (tested[index >>> 6] & (1L << index)) != 0;
+  }
+
+  private boolean anyResult(boolean expectedEquality) {
+    for (int word = 0; word < tested.length; word++) {
+      long results = expectedEquality ? equal[word] : ~equal[word];
+      if ((tested[word] & results) != 0) {
+        return true;
+      }
+    }
+    for (int index : schema.currentEvaluationOrder().indexes(expectedEquality)) {
+      if (!isTested(index) && testField(index) == expectedEquality) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private boolean anyResult(Collection<U> fields, boolean expectedEquality) {
+    int[] pending = new int[fields.size()];
+    int pendingCount = 0;
+    for (U field : fields) {
+      int index = schema.indexOf(field);
+      if (!isTested(index)) {
+        pending[pendingCount++] = index;
+      } else if (testField(index) == expectedEquality) {
+        return true;
+      }
+    }
+    schema.currentEvaluationOrder().sort(pending, pendingCount, expectedEquality);
+    for (int i = 0; i < pendingCount; i++) {
+      if (testField(pending[i]) == expectedEquality) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private int[] pendingIndexes(Collection<U> fields) {
+    return fields.stream().mapToInt(schema::indexOf).filter(index -> !isTested(index)).distinct().toArray();
+  }
+
+  private Set<U> fieldsWithResult(boolean expectedEquality) {
+    testAllFields();
+    Set<U> result = new HashSet<>();
+    for (int index = 0; index < schema.size(); index++) {
+      if (testField(index) == expectedEquality) {
+        result.add(schema.field(index));
+      }
+    }
+    return result;
   }
 
   private boolean noPendingTests() {
-    return equalityResults.size() == equalityTests.size();
+    return countBits(tested) == schema.size();
+  }
+
+  private static int countBits(long[] words) {
+    int count = 0;
+    for (long word : words) {
+      count += Long.bitCount(word);
+    }
+    return count;
   }
 
 }
@@ -0,0 +1,298 @@
+package org.lelv.fieldler.output;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Immutable outcome of a {@link FieldComparison} in which every field has been tested, created by
+ * {@link FieldComparison#freeze()}.
+ *
+ * <p>It keeps no reference to the compared objects, only to the {@link FieldSchema} shared by all the comparisons of
+ * their class and to one bit per field, so it takes a few dozen bytes and can be queued or cached for a long time
+ * without keeping the objects reachable. It answers the same equality queries as the comparison, with the same meaning
+ * for empty collections of fields, but it can not order the fields nor run actions over the objects.
+ *
+ * <p>Two results are equal when they belong to the same schema and have the same equal and different fields.
+ *
+ * @param <T> type of the class whose objects were compared
+ * @param <U> type of the generated Field Enum created for class T
+ * @author Lelv
+ */
+public final class FieldComparisonResult<T, U> {
+
+  private final FieldSchema<T, U> schema;
+  private final long[] equal;
+
+  FieldComparisonResult(FieldSchema<T, U> schema, long[] equal) {
+    this.schema = schema;
+    this.equal = equal;
+  }
+
+  /**
+   * Returns the schema of the compared objects
+   *
+   * @return the schema
+   */
+  public FieldSchema<T, U> schema() {
+    return schema;
+  }
+
+  /**
+   * Informs whether a field was equal between the two objects
+   *
+   * @param field field to query
+   * @return true if the field was equal, false otherwise
+   */
+  public boolean isEqual(U field) {
+    return isEqual(schema.indexOf(field));
+  }
+
+  /**
+   * Informs whether a field was different between the two objects
+   *
+   * @param field field to query
+   * @return true if the field was different, false otherwise
+   */
+  public boolean isDifferent(U field) {
+    return !isEqual(schema.indexOf(field));
+  }
+
+  /**
+   * Informs whether there were equalities among the fields of the two objects
+   *
+   * @return true if any field was equal, false otherwise
+   */
+  public boolean hasEqualities() {
+    return numberOfEqualities() > 0;
+  }
+
+  /**
+   * Informs whether there were differences among the fields of the two objects
+   *
+   * @return true if any field was different, false otherwise
+   */
+  public boolean hasDifferences() {
+    return numberOfDifferences() > 0;
+  }
+
+  /**
+   * Returns the set of fields that were equal between the two objects
+   *
+   * @return set of equal fields
+   */
+  public Set<U> equalFields() {
+    return fieldsWithResult(true);
+  }
+
+  /**
+   * Returns the set of fields that were different between the two objects
+   *
+   * @return set of different fields
+   */
+  public Set<U> differentFields() {
+    return fieldsWithResult(false);
+  }
+
+  /**
+   * Returns the number of fields that were equal between the two objects
+   *
+   * @return number of equal fields
+   */
+  public int numberOfEqualities() {
+    int count = 0;
+    for (long word : equal) {
+      count += Long.bitCount(word);
+    }
+    return count;
+  }
+
+  /**
+   * Returns the number of fields that were different between the two objects
+   *
+   * @return number of different fields
+   */
+  public int numberOfDifferences() {
+    return schema.size() - numberOfEqualities();
+  }
+
+  /**
+   * Informs whether any of the fields was equal between the two objects
+   *
+   * @param fields fields to consider
+   * @return true if at least one of the provided fields was equal, false otherwise.
+   * If no field is provided, then returns true if there were equalities, false otherwise.
+   */
+  public boolean isAnyEqual(Collection<U> fields) {
+    if (fields.isEmpty()) {
+      return hasEqualities();
+    }
+    return anyResult(fields, true);
+  }
+
+  /**
+   * Informs whether any of the fields was equal between the two objects
+   *
+   * @param fields fields to consider
+   * @return true if at least one of the provided fields was equal, false otherwise.
+   * If no field is provided, then returns true if there were equalities, false otherwise.
+   */
+  @SafeVarargs
+  public final boolean isAnyEqual(U... fields) {
+    return isAnyEqual(Arrays.asList(fields));
+  }
+
+  /**
+   * Informs whether any of the fields was different between the two objects
+   *
+   * @param fields fields to consider
+   * @return true if at least one of the provided fields was different, false otherwise.
+   * If no field is provided, then returns true if there were differences, false otherwise.
+   */
+  public boolean isAnyDifferent(Collection<U> fields) {
+    if (fields.isEmpty()) {
+      return hasDifferences();
+    }
+    return anyResult(fields, false);
+  }
+
+  /**
+   * Informs whether any of the fields was different between the two objects
+   *
+   * @param fields fields to consider
+   * @return true if at least one of the provided fields was different, false otherwise.
+   * If no field is provided, then returns true if there were differences, false otherwise.
+   */
+  @SafeVarargs
+  public final boolean isAnyDifferent(U... fields) {
+    return isAnyDifferent(Arrays.asList(fields));
+  }
+
+  /**
+   * Informs whether all the fields were equal between the two objects
+   *
+   * @param fields fields to consider
+   * @return true if the provided fields were equal, false otherwise.
+   * If no field is provided, then returns true if there were no differences, and false otherwise.
+   */
+  public boolean areAllEqual(Collection<U> fields) {
+    if (fields.isEmpty()) {
+      return !hasDifferences();
+    }
+    return !anyResult(fields, false);
+  }
+
+  /**
+   * Informs whether all the fields were equal between the two objects
+   *
+   * @param fields fields to consider
+   * @return true if the provided fields were equal, false otherwise.
+   * If no field is provided, then returns true if there were no differences, and false otherwise.
+   */
+  @SafeVarargs
+  public final boolean areAllEqual(U... fields) {
+    return areAllEqual(Arrays.asList(fields));
+  }
+
+  /**
+   * Informs whether all the fields were different between the two objects
+   *
+   * @param fields fields to consider
+   * @return true if the provided fields were different, false otherwise.
+   * If no field is provided, returns true if all fields were different, false otherwise.
+   */
+  public boolean areAllDifferent(Collection<U> fields) {
+    if (fields.isEmpty()) {
+      return !hasEqualities();
+    }
+    return !anyResult(fields, true);
+  }
+
+  /**
+   * Informs whether all the fields were different between the two objects
+   *
+   * @param fields fields to consider
+   * @return true if the provided fields were different, false otherwise.
+   * If no field is provided, returns true if all fields were different, false otherwise.
+   */
+  @SafeVarargs
+  public final boolean areAllDifferent(U... fields) {
+    return areAllDifferent(Arrays.asList(fields));
+  }
+
+  /**
+   * Returns the mask of the fields that were equal, usable with the operations of the schema over subsets of fields
+   *
+   * @return mask of equal fields
+   */
+  public FieldMask<U> equalMask() {
+    return new FieldMask<>(schema, equal.clone());
+  }
+
+  /**
+   * Returns the mask of the fields that were different, usable with the operations of the schema over subsets of fields
+   *
+   * @return mask of different fields
+   */
+  public FieldMask<U> differentMask() {
+    long[] different = new long[equal.length];
+    for (int word = 0; word < different.length; word++) {
+      different[word] = ~equal[word];
+    }
+    // the bits past the last field are not fields
+    int lastBits = schema.size() % Long.SIZE;
+    if (lastBits != 0) {
+      different[different.length - 1] &= (1L << lastBits) - 1;
+    }
+    return new FieldMask<>(schema, different);
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    FieldComparisonResult<?, ?> that = (FieldComparisonResult<?, ?>) o;
+    return schema == that.schema && Arrays.equals(equal, that.equal);
+  }
+
+  @Override
+  public int hashCode() {
+    return 31 * System.identityHashCode(schema) + Arrays.hashCode(equal);
+  }
+
+  @Override
+  public String toString() {
+    return "FieldComparisonResult{" +
+        "differentFields=" + differentFields() +
+        '}';
+  }
+
+  private boolean isEqual(int index) {
+    return (equal[index >>> 6] & (1L << index)) != 0;
+  }
+
+  private boolean anyResult(Collection<U> fields, boolean expectedEquality) {
+    for (U field : fields) {
+      if (isEqual(schema.indexOf(field)) == expectedEquality) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private Set<U> fieldsWithResult(boolean expectedEquality) {
+    Set<U> result = new HashSet<>();
+    for (int index = 0; index < schema.size(); index++) {
+      if (isEqual(index) == expectedEquality) {
+        result.add(schema.field(index));
+      }
+    }
+    return result;
+  }
+
+}
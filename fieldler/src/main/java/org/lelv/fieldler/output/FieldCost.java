@@ -0,0 +1,27 @@
+package org.lelv.fieldler.output;
+
+/**
+ * Static estimation of how expensive it is to test the equality of a field, assigned to every field at compilation time.
+ * Queries that involve several fields evaluate them from the cheapest to the most expensive one, so that short-circuiting
+ * queries avoid expensive tests whenever a cheaper field is enough to decide the result.
+ *
+ * @author Lelv
+ */
+public enum FieldCost {
+
+  /**
+   * Primitive fields, compared by value
+   */
+  PRIMITIVE,
+
+  /**
+   * Boxed primitives, Strings and enums
+   */
+  BOXED,
+
+  /**
+   * Collections, arrays, custom classes and fields with a custom comparator
+   */
+  COMPLEX
+
+}
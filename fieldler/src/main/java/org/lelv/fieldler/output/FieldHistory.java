@@ -0,0 +1,242 @@
+package org.lelv.fieldler.output;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.IntStream;
+
+/**
+ * Immutable timeline of the changes of every field along an ordered list of versions of an object, for example the
+ * revisions of an audited entity.
+ *
+ * <p>Version {@code v} changes a field when the field is different between the versions {@code v - 1} and {@code v},
+ * so the first version never changes any field. The changes of every field are stored as a bitset indexed by version,
+ * and the fields changed by a version can be obtained as a {@link FieldMask}.
+ *
+ * <p>Building the history reads the value of every field of every version once, and compares it with the value read
+ * from the previous version, instead of comparing every pair of consecutive versions. Only fields with a custom equality
+ * are tested over the pair of versions, as their value can not be compared on its own. Large histories are processed in
+ * parallel chunks of consecutive versions, where the last version of a chunk is read again by the next one.
+ *
+ * @param <T> type of the class whose versions are compared
+ * @param <U> type of the generated Field Enum created for class T
+ * @author Lelv
+ */
+public final class FieldHistory<T, U> {
+
+  private static final int PARALLEL_THRESHOLD = 1 << 13;
+  // multiple of 64, so that every chunk writes its own words of the bitsets
+  private static final int CHUNK_VERSIONS = 1 << 12;
+
+  private final FieldSchema<T, U> schema;
+  private final int size;
+  private final int words;
+  private final long[] changes;
+
+  private FieldHistory(FieldSchema<T, U> schema, Object[] versions) {
+    this.schema = schema;
+    this.size = versions.length;
+    this.words = (size + Long.SIZE - 1) / Long.SIZE;
+    this.changes = new long[schema.size() * words];
+    if (size >= PARALLEL_THRESHOLD) {
+      int chunks = (size + CHUNK_VERSIONS - 1) / CHUNK_VERSIONS;
+      IntStream.range(0, chunks)
+               .parallel()
+               .forEach(chunk -> scan(versions, Math.max(chunk * CHUNK_VERSIONS, 1), Math.min((chunk + 1) * CHUNK_VERSIONS, size)));
+    } else if (size > 1) {
+      scan(versions, 1, size);
+    }
+  }
+
+  /**
+   * Builds the history of the changes of the fields along the versions
+   *
+   * @param schema   the schema of the fields of the versions
+   * @param versions the versions, from the oldest to the newest one
+   * @param <T>      type of the class whose versions are compared
+   * @param <U>      type of the generated Field Enum created for class T
+   * @return the history
+   * @throws NullPointerException if a version is {@code null}
+   */
+  public static <T, U> FieldHistory<T, U> of(FieldSchema<T, U> schema, List<? extends T> versions) {
+    Objects.requireNonNull(schema);
+    Object[] elements = versions.toArray();
+    for (Object element : elements) {
+      Objects.requireNonNull(element);
+    }
+    return new FieldHistory<>(schema, elements);
+  }
+
+  /**
+   * Returns the schema of the fields of the versions
+   *
+   * @return the schema
+   */
+  public FieldSchema<T, U> schema() {
+    return schema;
+  }
+
+  /**
+   * Returns the number of versions of the history
+   *
+   * @return number of versions
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Informs whether a version changed a field with respect to the previous version
+   *
+   * @param field   the field
+   * @param version the position of the version
+   * @return true if the field is different from the previous version, false otherwise or for the first version
+   * @throws IndexOutOfBoundsException if the version does not belong to the history
+   */
+  public boolean hasChanged(U field, int version) {
+    checkVersion(version);
+    return (changes[schema.indexOf(field) * words + (version >>> 6)] & 1L << version) != 0;
+  }
+
+  /**
+   * Returns the versions which changed a field
+   *
+   * @param field the field
+   * @return a new bitset whose set bits are the positions of the versions which changed the field
+   */
+  public BitSet changes(U field) {
+    int offset = schema.indexOf(field) * words;
+    return BitSet.valueOf(Arrays.copyOfRange(changes, offset, offset + words));
+  }
+
+  /**
+   * Returns the first version, at or after the provided one, which changed a field
+   *
+   * @param field       the field
+   * @param fromVersion the position of the first version to look at
+   * @return the position of the version, or -1 if no later version changed the field
+   */
+  public int nextChange(U field, int fromVersion) {
+    int offset = schema.indexOf(field) * words;
+    if (fromVersion < 0) {
+      fromVersion = 0;
+    }
+    if (fromVersion >= size) {
+      return -1;
+    }
+    int word = fromVersion >>> 6;
+    long bits = changes[offset + word] & -1L << fromVersion;
+    while (bits == 0) {
+      if (++word == words) {
+        return -1;
+      }
+      bits = changes[offset + word];
+    }
+    return word * Long.SIZE + Long.numberOfTrailingZeros(bits);
+  }
+
+  /**
+   * Returns the number of versions which changed a field
+   *
+   * @param field the field
+   * @return number of changes
+   */
+  public int changeCount(U field) {
+    int offset = schema.indexOf(field) * words;
+    int count = 0;
+    for (int word = 0; word < words; word++) {
+      count += Long.bitCount(changes[offset + word]);
+    }
+    return count;
+  }
+
+  /**
+   * Returns the fields changed by a version with respect to the previous version
+   *
+   * @param version the position of the version
+   * @return mask of the changed fields, empty for the first version
+   * @throws IndexOutOfBoundsException if the version does not belong to the history
+   */
+  public FieldMask<U> changedFields(int version) {
+    checkVersion(version);
+    long[] mask = new long[maskWords()];
+    for (int index = 0; index < schema.size(); index++) {
+      if ((changes[index * words + (version >>> 6)] & 1L << version) != 0) {
+        mask[index >>> 6] |= 1L << index;
+      }
+    }
+    return new FieldMask<>(schema, mask);
+  }
+
+  /**
+   * Returns the fields changed by any version of the history
+   *
+   * @return mask of the changed fields
+   */
+  public FieldMask<U> changedFields() {
+    long[] mask = new long[maskWords()];
+    for (int index = 0; index < schema.size(); index++) {
+      for (int word = 0; word < words; word++) {
+        if (changes[index * words + word] != 0) {
+          mask[index >>> 6] |= 1L << index;
+          break;
+        }
+      }
+    }
+    return new FieldMask<>(schema, mask);
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder builder = new StringBuilder("FieldHistory{size=").append(size);
+    for (int index = 0; index < schema.size(); index++) {
+      U field = schema.field(index);
+      builder.append(", ").append(field).append('=').append(changes(field));
+    }
+    return builder.append('}').toString();
+  }
+
+  @SuppressWarnings("unchecked")
+  private void scan(Object[] versions, int from, int to) {
+    int fields = schema.size();
+    Object[] previousValues = new Object[fields];
+    Object[] currentValues = new Object[fields];
+    T previous = (T) versions[from - 1];
+    readValues(previous, previousValues);
+    for (int version = from; version < to; version++) {
+      T current = (T) versions[version];
+      readValues(current, currentValues);
+      for (int index = 0; index < fields; index++) {
+        boolean equal = schema.hasValue(index) ? Objects.equals(previousValues[index], currentValues[index])
+                                               : schema.testWithoutSampling(index, previous, current);
+        if (!equal) {
+          changes[index * words + (version >>> 6)] |= 1L << version;
+        }
+      }
+      Object[] values = previousValues;
+      previousValues = currentValues;
+      currentValues = values;
+      previous = current;
+    }
+  }
+
+  private void readValues(T version, Object[] values) {
+    for (int index = 0; index < values.length; index++) {
+      if (schema.hasValue(index)) {
+        values[index] = schema.value(index, version);
+      }
+    }
+  }
+
+  private void checkVersion(int version) {
+    if (version < 0 || version >= size) {
+      throw new IndexOutOfBoundsException("Version " + version + " out of bounds for " + size + " versions");
+    }
+  }
+
+  private int maskWords() {
+    return (schema.size() + Long.SIZE - 1) / Long.SIZE;
+  }
+
+}
@@ -0,0 +1,173 @@
+package org.lelv.fieldler.output;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * Immutable hash index of objects over a subset of their fields, which allows grouping the objects and looking up those
+ * equal to a probe object on the fields of a {@link FieldMask}, for example all persons with the same last name and
+ * nationality.
+ *
+ * <p>Objects are hashed and compared through the {@link FieldSchema}, so no key object is built neither for the stored
+ * objects nor for the probes. The hash code of every object is computed once when the index is built, in parallel for
+ * large collections.
+ *
+ * @param <T> type of the class whose objects are indexed
+ * @param <U> type of the generated Field Enum created for class T
+ * @author Lelv
+ */
+public final class FieldIndex<T, U> {
+
+  private final FieldSchema<T, U> schema;
+  private final FieldMask<U> mask;
+  private final Object[] elements;
+  private final int[] hashes;
+  private final int[] buckets;
+  private final int[] next;
+
+  private FieldIndex(FieldSchema<T, U> schema, FieldMask<U> mask, Object[] elements) {
+    this.schema = schema;
+    this.mask = mask;
+    this.elements = elements;
+    this.hashes = new int[elements.length];
+    if (elements.length >= HashTables.PARALLEL_THRESHOLD) {
+      Arrays.parallelSetAll(hashes, position -> HashTables.spread(schema.maskHash(mask, element(position))));
+    } else {
+      Arrays.setAll(hashes, position -> HashTables.spread(schema.maskHash(mask, element(position))));
+    }
+    this.buckets = HashTables.newBuckets(elements.length);
+    this.next = new int[elements.length];
+    // inserted backwards so that every bucket keeps the insertion order
+    for (int position = elements.length - 1; position >= 0; position--) {
+      int bucket = hashes[position] & (buckets.length - 1);
+      next[position] = buckets[bucket];
+      buckets[bucket] = position;
+    }
+  }
+
+  /**
+   * Builds an index of the objects over the fields of the mask
+   *
+   * @param schema  the schema of the fields of the objects
+   * @param mask    the fields used for hashing and comparing the objects
+   * @param objects the objects to index, in the order in which lookups return them
+   * @param <T>     type of the class whose objects are indexed
+   * @param <U>     type of the generated Field Enum created for class T
+   * @return the index
+   * @throws IllegalArgumentException if the mask belongs to another schema
+   */
+  public static <T, U> FieldIndex<T, U> build(FieldSchema<T, U> schema, FieldMask<U> mask, Collection<? extends T> objects) {
+    Objects.requireNonNull(schema).checkMask(mask);
+    Object[] elements = objects.toArray();
+    for (Object element : elements) {
+      Objects.requireNonNull(element);
+    }
+    return new FieldIndex<>(schema, mask, elements);
+  }
+
+  /**
+   * Returns the fields used for hashing and comparing the objects
+   *
+   * @return the mask of the index
+   */
+  public FieldMask<U> mask() {
+    return mask;
+  }
+
+  /**
+   * Returns the number of indexed objects
+   *
+   * @return number of objects
+   */
+  public int size() {
+    return elements.length;
+  }
+
+  /**
+   * Returns the indexed objects equal to the probe on all the fields of the mask, in insertion order
+   *
+   * @param probe the object to look up
+   * @return list of matching objects
+   */
+  public List<T> lookup(T probe) {
+    List<T> result = new ArrayList<>();
+    forEachMatch(probe, result::add);
+    return result;
+  }
+
+  /**
+   * Informs whether any indexed object is equal to the probe on all the fields of the mask
+   *
+   * @param probe the object to look up
+   * @return true if there is a matching object, false otherwise
+   */
+  public boolean contains(T probe) {
+    return firstMatch(probe, HashTables.spread(schema.maskHash(mask, probe))) >= 0;
+  }
+
+  /**
+   * Performs an action for every indexed object equal to the probe on all the fields of the mask, in insertion order,
+   * without allocating any object
+   *
+   * @param probe  the object to look up
+   * @param action action to perform with every matching object
+   */
+  public void forEachMatch(T probe, Consumer<? super T> action) {
+    int hash = HashTables.spread(schema.maskHash(mask, probe));
+    for (int position = firstMatch(probe, hash); position >= 0; position = nextMatch(probe, hash, position)) {
+      action.accept(element(position));
+    }
+  }
+
+  /**
+   * Groups the indexed objects which are equal on all the fields of the mask. Groups are sorted by their first object,
+   * and objects within a group keep the insertion order.
+   *
+   * @return list of groups
+   */
+  public List<List<T>> groups() {
+    List<List<T>> groups = new ArrayList<>();
+    boolean[] grouped = new boolean[elements.length];
+    for (int position = 0; position < elements.length; position++) {
+      if (grouped[position]) {
+        continue;
+      }
+      T first = element(position);
+      List<T> group = new ArrayList<>();
+      group.add(first);
+      for (int other = nextMatch(first, hashes[position], position); other >= 0; other = nextMatch(first, hashes[position], other)) {
+        if (!grouped[other]) {
+          grouped[other] = true;
+          group.add(element(other));
+        }
+      }
+      groups.add(group);
+    }
+    return groups;
+  }
+
+  private int firstMatch(T probe, int hash) {
+    return matchFrom(probe, hash, buckets[hash & (buckets.length - 1)]);
+  }
+
+  private int nextMatch(T probe, int hash, int position) {
+    return matchFrom(probe, hash, next[position]);
+  }
+
+  private int matchFrom(T probe, int hash, int position) {
+    while (position >= 0 && (hashes[position] != hash || !schema.maskEqual(mask, probe, element(position)))) {
+      position = next[position];
+    }
+    return position;
+  }
+
+  @SuppressWarnings("unchecked")
+  private T element(int position) {
+    return (T) elements[position];
+  }
+
+}
@@ -0,0 +1,119 @@
+package org.lelv.fieldler.output;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Immutable set of fields of a {@link FieldSchema}, stored as one bit per field index.
+ *
+ * <p>Masks are created through {@link FieldSchema#mask(Object[])}, and are used to select the fields taken into account
+ * by operations that work over a subset of the fields, such as the hashing and equality of a {@link FieldIndex}.
+ *
+ * @param <U> type of the generated Field Enum
+ * @author Lelv
+ */
+public final class FieldMask<U> {
+
+  private final FieldSchema<?, U> schema;
+  private final long[] words;
+
+  FieldMask(FieldSchema<?, U> schema, long[] words) {
+    this.schema = schema;
+    this.words = words;
+  }
+
+  /**
+   * Informs whether the mask contains a field
+   *
+   * @param field the field
+   * @return true if the field belongs to the mask, false otherwise
+   */
+  public boolean contains(U field) {
+    return contains(schema.indexOf(field));
+  }
+
+  /**
+   * Returns the fields of the mask, sorted by index
+   *
+   * @return list of fields
+   */
+  public List<U> fields() {
+    List<U> result = new ArrayList<>(size());
+    for (int index = nextIndex(0); index >= 0; index = nextIndex(index + 1)) {
+      result.add(schema.field(index));
+    }
+    return result;
+  }
+
+  /**
+   * Returns the number of fields of the mask
+   *
+   * @return number of fields
+   */
+  public int size() {
+    int size = 0;
+    for (long word : words) {
+      size += Long.bitCount(word);
+    }
+    return size;
+  }
+
+  /**
+   * Informs whether the mask does not contain any field
+   *
+   * @return true if the mask is empty, false otherwise
+   */
+  public boolean isEmpty() {
+    return nextIndex(0) < 0;
+  }
+
+  FieldSchema<?, U> schema() {
+    return schema;
+  }
+
+  boolean contains(int index) {
+    return (words[index >>> 6] & (1L << index)) != 0;
+  }
+
+  /**
+   * Returns the first index of the mask greater or equal to the provided one, or -1 if there is none
+   */
+  int nextIndex(int fromIndex) {
+    int word = fromIndex >>> 6;
+    if (word >= words.length) {
+      return -1;
+    }
+    long bits = words[word] & (-1L << fromIndex);
+    while (bits == 0) {
+      if (++word == words.length) {
+        return -1;
+      }
+      bits = words[word];
+    }
+    return (word << 6) + Long.numberOfTrailingZeros(bits);
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    FieldMask<?> fieldMask = (FieldMask<?>) o;
+    return schema == fieldMask.schema && Arrays.equals(words, fieldMask.words);
+  }
+
+  @Override
+  public int hashCode() {
+    return Arrays.hashCode(words);
+  }
+
+  @Override
+  public String toString() {
+    return fields().toString();
+  }
+
+}
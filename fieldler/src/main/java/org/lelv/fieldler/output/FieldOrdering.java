@@ -0,0 +1,35 @@
+package org.lelv.fieldler.output;
+
+/**
+ * Natural ordering used by the auto generated comparators for non primitive {@link Comparable} fields.
+ *
+ * @author Lelv
+ */
+public final class FieldOrdering {
+
+  private FieldOrdering() {
+  }
+
+  /**
+   * Compares two values by their natural ordering, considering {@code null} lower than any other value
+   *
+   * @param a   the first value
+   * @param b   the second value
+   * @param <C> type of the values
+   * @return a negative integer, zero, or a positive integer as the first value is less than, equal to, or greater than
+   * the second
+   */
+  public static <C extends Comparable<? super C>> int compare(C a, C b) {
+    if (a == b) {
+      return 0;
+    }
+    if (a == null) {
+      return -1;
+    }
+    if (b == null) {
+      return 1;
+    }
+    return a.compareTo(b);
+  }
+
+}
@@ -0,0 +1,200 @@
+package org.lelv.fieldler.output;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Projection of objects over a subset of their fields, which defines hash codes and equality only over the fields of a
+ * {@link FieldMask}, for example to deduplicate persons by last name and nationality.
+ *
+ * <p>Hash codes are computed by the hash functions of the {@link FieldSchema}, which hash primitive values without
+ * boxing them. A projection can be used in two ways: {@link #key(Object)} wraps an object in a lightweight key for the
+ * standard collections, and {@link #newSet()} creates a {@link ProjectionSet}, which stores the original objects
+ * directly without any key object.
+ *
+ * <p>Fields with a custom equality have no hash function and do not contribute to the hash codes, so projections mainly
+ * over those fields hash poorly.
+ *
+ * @param <T> type of the class whose objects are projected
+ * @param <U> type of the generated Field Enum created for class T
+ * @author Lelv
+ */
+public final class FieldProjection<T, U> {
+
+  private final FieldSchema<T, U> schema;
+  private final FieldMask<U> mask;
+
+  private FieldProjection(FieldSchema<T, U> schema, FieldMask<U> mask) {
+    this.schema = schema;
+    this.mask = mask;
+  }
+
+  /**
+   * Creates a projection over the fields of the mask
+   *
+   * @param schema the schema of the fields of the objects
+   * @param mask   the fields used for hashing and comparing the objects
+   * @param <T>    type of the class whose objects are projected
+   * @param <U>    type of the generated Field Enum created for class T
+   * @return the projection
+   * @throws IllegalArgumentException if the mask belongs to another schema
+   */
+  public static <T, U> FieldProjection<T, U> of(FieldSchema<T, U> schema, FieldMask<U> mask) {
+    Objects.requireNonNull(schema).checkMask(mask);
+    return new FieldProjection<>(schema, mask);
+  }
+
+  /**
+   * Returns the fields used for hashing and comparing the objects
+   *
+   * @return the mask of the projection
+   */
+  public FieldMask<U> mask() {
+    return mask;
+  }
+
+  /**
+   * Returns the hash code of an object, computed only over the fields of the projection
+   *
+   * @param object the object
+   * @return the hash code
+   */
+  public int hash(T object) {
+    return schema.maskHash(mask, object);
+  }
+
+  /**
+   * Informs whether two objects are equal on all the fields of the projection, stopping at the first difference
+   *
+   * @param objectA the first object
+   * @param objectB the second object
+   * @return true if all the fields are equal, false otherwise
+   */
+  public boolean equal(T objectA, T objectB) {
+    return objectA == objectB || schema.maskEqual(mask, objectA, objectB);
+  }
+
+  /**
+   * Informs whether an object is of the class of the projected objects
+   */
+  boolean isInstance(Object object) {
+    return schema.isInstance(object);
+  }
+
+  /**
+   * Wraps an object in a key whose {@code hashCode} and {@code equals} only consider the fields of the projection, to be
+   * used in a {@link java.util.HashMap} or a {@link java.util.HashSet}. The hash code is computed once, when the key is
+   * created, so the fields of the object must not change while the key is in use.
+   *
+   * @param object the object
+   * @return the key
+   */
+  public Key<T> key(T object) {
+    return new Key<>(this, Objects.requireNonNull(object), hash(object));
+  }
+
+  /**
+   * Creates an empty set of objects which are distinct over the fields of the projection
+   *
+   * @return a new set
+   */
+  public ProjectionSet<T> newSet() {
+    return new ProjectionSet<>(this, 0);
+  }
+
+  /**
+   * Creates an empty set of objects which are distinct over the fields of the projection, sized for the expected number
+   * of objects
+   *
+   * @param expectedSize the expected number of objects
+   * @return a new set
+   */
+  public ProjectionSet<T> newSet(int expectedSize) {
+    return new ProjectionSet<>(this, expectedSize);
+  }
+
+  /**
+   * Returns the first object of every group of objects which are equal on all the fields of the projection, following
+   * the iteration order
+   *
+   * @param objects the objects
+   * @return list of distinct objects
+   */
+  public List<T> distinct(Collection<? extends T> objects) {
+    ProjectionSet<T> set = newSet(objects.size());
+    List<T> result = new ArrayList<>();
+    for (T object : objects) {
+      if (set.add(object)) {
+        result.add(object);
+      }
+    }
+    return result;
+  }
+
+  @Override
+  public String toString() {
+    return "FieldProjection{" +
+        "mask=" + mask +
+        '}';
+  }
+
+  /**
+   * Key which wraps an object, with hash code and equality over the fields of a projection. Keys are only equal to keys
+   * of the same projection.
+   *
+   * @param <T> type of the class whose objects are projected
+   */
+  public static final class Key<T> {
+
+    private final FieldProjection<T, ?> projection;
+    private final T object;
+    private final int hash;
+
+    private Key(FieldProjection<T, ?> projection, T object, int hash) {
+      this.projection = projection;
+      this.object = object;
+      this.hash = hash;
+    }
+
+    /**
+     * Returns the wrapped object
+     *
+     * @return the object
+     */
+    public T get() {
+      return object;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof Key)) {
+        return false;
+      }
+      Key<?> key = (Key<?>) o;
+      if (projection != key.projection || hash != key.hash) {
+        return false;
+      }
+      @SuppressWarnings("unchecked")
+      T other = (T) key.object;
+      return projection.equal(object, other);
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+
+    @Override
+    public String toString() {
+      return "Key{" +
+          "object=" + object +
+          '}';
+    }
+  }
+
+}
@@ -0,0 +1,473 @@
+package org.lelv.fieldler.output;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+/**
+ * Describes the comparable fields of a class: the equality test of every field, its position and its cost.
+ *
+ * <p>A schema is created once per class by the auto generated FieldComparator and shared by all the FieldComparisons it
+ * creates. Every field is identified by an index, which follows the iteration order of the map of equality tests (the
+ * ordinal of the field for the generated comparators). Independently of the indexes, fields are evaluated following
+ * their {@link FieldCost}, from the cheapest to the most expensive one.
+ *
+ * <p>An adaptive schema additionally samples which fields decide the queries, and periodically reorders the fields so
+ * that the expected cost of reaching a decision is minimal. The current order and the sampled statistics can be
+ * inspected through {@link #evaluationOrder()} and {@link #statistics()}.
+ *
+ * <p>Every field may also have a hash function consistent with its equality test, which allows hashing and comparing
+ * objects over a {@link FieldMask} without building key objects. Fields without a hash function, such as those with a
+ * custom equality, always hash to 0. Primitive and {@link Comparable} fields also have an order, which is consistent
+ * with their equality test unless they are compared with a custom equality or a {@code compareTo} which is not
+ * consistent with {@code equals}.
+ *
+ * <p>Fields whose equality test is {@link Objects#equals(Object, Object)} over their value may also have a value
+ * function, which reads the value once so that it can be compared against the values of several objects, as done by
+ * {@link FieldHistory}.
+ *
+ * @param <T> type of the class whose objects are being compared
+ * @param <U> type of the generated Field Enum created for class T
+ * @author Lelv
+ */
+public final class FieldSchema<T, U> {
+
+  private final Class<T> type;
+  private final List<U> fields;
+  private final Map<U, Integer> indexes;
+  private final List<BiPredicate<T, T>> equalityTests;
+  private final List<Function<T, ?>> valueFunctions;
+  private final List<ToIntFunction<T>> hashFunctions;
+  private final List<Comparator<T>> orders;
+  private final boolean[] consistentOrders;
+  private final FieldCost[] costs;
+  private final AdaptiveStatistics statistics;
+  private final AtomicLong timedTests = new AtomicLong();
+  private final AtomicLong timedNanos = new AtomicLong();
+  private volatile EvaluationOrder evaluationOrder;
+
+  private FieldSchema(Builder<T, U> builder) {
+    Map<U, BiPredicate<T, T>> equalityTests = builder.equalityTests;
+    Map<U, Function<T, ?>> valueFunctions = builder.valueFunctions;
+    Map<U, ToIntFunction<T>> hashFunctions = builder.hashFunctions;
+    Map<U, Comparator<T>> orders = builder.orders;
+    Set<U> consistentOrders = builder.consistentOrders;
+    Map<U, FieldCost> costs = builder.costs;
+    int size = equalityTests.size();
+    this.type = builder.type;
+    this.fields = Collections.unmodifiableList(new ArrayList<>(equalityTests.keySet()));
+    this.indexes = new HashMap<>();
+    this.equalityTests = new ArrayList<>(equalityTests.values());
+    this.valueFunctions = new ArrayList<>(size);
+    this.hashFunctions = new ArrayList<>(size);
+    this.orders = new ArrayList<>(size);
+    this.consistentOrders = new boolean[size];
+    this.costs = new FieldCost[size];
+    for (int index = 0; index < size; index++) {
+      U field = fields.get(index);
+      indexes.put(field, index);
+      this.valueFunctions.add(valueFunctions.get(field));
+      this.hashFunctions.add(hashFunctions.get(field));
+      this.orders.add(orders.get(field));
+      this.consistentOrders[index] = orders.containsKey(field) && consistentOrders.contains(field);
+      this.costs[index] = costs.getOrDefault(field, FieldCost.COMPLEX);
+    }
+    int[] staticOrder = new int[size];
+    int position = 0;
+    for (FieldCost cost : FieldCost.values()) {
+      for (int index = 0; index < size; index++) {
+        if (this.costs[index] == cost) {
+          staticOrder[position++] = index;
+        }
+      }
+    }
+    this.evaluationOrder = new EvaluationOrder(staticOrder, staticOrder);
+    this.statistics = builder.adaptive ? new AdaptiveStatistics(this.costs) : null;
+  }
+
+  /**
+   * Informs whether an object can be compared by the schema, which is assumed when the schema has no type
+   */
+  boolean isInstance(Object object) {
+    return type == null || type.isInstance(object);
+  }
+
+  /**
+   * Starts building a FieldSchema. Every other part of the schema is optional: by default fields have no value function,
+   * no hash function and no order, their cost is {@link FieldCost#COMPLEX}, so they are evaluated in the iteration order
+   * of the map, and the schema is not adaptive.
+   *
+   * @param equalityTests a map which contains a test that can assert equality or difference of the field, for every accessible field
+   * @param <T>           type of the class whose objects are being compared
+   * @param <U>           type of the fields
+   * @return the builder
+   */
+  public static <T, U> Builder<T, U> builder(Map<U, BiPredicate<T, T>> equalityTests) {
+    return new Builder<>(equalityTests);
+  }
+
+  /**
+   * Returns the number of fields of the schema
+   *
+   * @return number of fields
+   */
+  public int size() {
+    return fields.size();
+  }
+
+  /**
+   * Returns the fields of the schema, sorted by index
+   *
+   * @return unmodifiable list of fields
+   */
+  public List<U> fields() {
+    return fields;
+  }
+
+  /**
+   * Returns the field with the provided index
+   *
+   * @param index index of the field
+   * @return the field
+   */
+  public U field(int index) {
+    return fields.get(index);
+  }
+
+  /**
+   * Returns the index of a field
+   *
+   * @param field the field
+   * @return the index of the field
+   * @throws IllegalArgumentException if the field does not belong to the schema
+   */
+  public int indexOf(U field) {
+    Integer index = indexes.get(field);
+    if (index == null) {
+      throw new IllegalArgumentException("Unknown field " + field);
+    }
+    return index;
+  }
+
+  /**
+   * Returns the cost of a field
+   *
+   * @param field the field
+   * @return the cost of the field
+   */
+  public FieldCost cost(U field) {
+    return costs[indexOf(field)];
+  }
+
+  /**
+   * Informs whether a field can be ordered, which is the case of primitive and {@link Comparable} fields
+   *
+   * @param field the field
+   * @return true if the field has an order, false otherwise
+   */
+  public boolean isComparable(U field) {
+    return orders.get(indexOf(field)) != null;
+  }
+
+  /**
+   * Informs whether the evaluation order adapts to the sampled outcome of the tests
+   *
+   * @return true if the schema is adaptive, false otherwise
+   */
+  public boolean isAdaptive() {
+    return statistics != null;
+  }
+
+  /**
+   * Returns the fields of the schema in the order in which they are evaluated by queries decided by a difference, such
+   * as {@code isAnyDifferent} or {@code areAllEqual}
+   *
+   * @return list of fields sorted by ascending cost, or by ascending expected cost to decision if the schema is adaptive
+   */
+  public List<U> evaluationOrder() {
+    return evaluationOrder(false);
+  }
+
+  /**
+   * Returns the fields of the schema in the order in which they are evaluated by queries decided by an equality, such
+   * as {@code isAnyEqual} or {@code areAllDifferent}
+   *
+   * @return list of fields sorted by ascending cost, or by ascending expected cost to decision if the schema is adaptive
+   */
+  public List<U> equalityEvaluationOrder() {
+    return evaluationOrder(true);
+  }
+
+  /**
+   * Returns a snapshot of the statistics sampled for every field, sorted by index. A schema which is not adaptive never
+   * samples, so all its statistics are 0.
+   *
+   * @return list of statistics
+   */
+  public List<FieldStatistics<U>> statistics() {
+    List<FieldStatistics<U>> result = new ArrayList<>(fields.size());
+    for (int index = 0; index < fields.size(); index++) {
+      if (statistics == null) {
+        result.add(new FieldStatistics<>(fields.get(index), costs[index], 0, 0));
+      } else {
+        result.add(new FieldStatistics<>(fields.get(index), costs[index], statistics.samples(index),
+                                         statistics.differences(index)));
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Creates a mask with the provided fields
+   *
+   * @param fields the fields of the mask
+   * @return the mask
+   * @throws IllegalArgumentException if a field does not belong to the schema
+   */
+  @SafeVarargs
+  public final FieldMask<U> mask(U... fields) {
+    return mask(Arrays.asList(fields));
+  }
+
+  /**
+   * Creates a mask with the provided fields
+   *
+   * @param fields the fields of the mask
+   * @return the mask
+   * @throws IllegalArgumentException if a field does not belong to the schema
+   */
+  public FieldMask<U> mask(Collection<U> fields) {
+    long[] words = new long[(size() + Long.SIZE - 1) / Long.SIZE];
+    for (U field : fields) {
+      int index = indexOf(field);
+      words[index >>> 6] |= 1L << index;
+    }
+    return new FieldMask<>(this, words);
+  }
+
+  /**
+   * Returns the hash code of an object, computed only over the fields of the mask. Two objects equal on all the fields of
+   * the mask have the same hash code.
+   *
+   * @param mask   the fields to hash
+   * @param object the object
+   * @return the hash code
+   * @throws IllegalArgumentException if the mask belongs to another schema
+   */
+  public int hash(FieldMask<U> mask, T object) {
+    checkMask(mask);
+    return maskHash(mask, object);
+  }
+
+  /**
+   * Informs whether two objects are equal on all the fields of the mask, stopping at the first difference
+   *
+   * @param mask    the fields to compare
+   * @param objectA the first object
+   * @param objectB the second object
+   * @return true if all the fields of the mask are equal, false otherwise
+   * @throws IllegalArgumentException if the mask belongs to another schema
+   */
+  public boolean equal(FieldMask<U> mask, T objectA, T objectB) {
+    checkMask(mask);
+    return maskEqual(mask, objectA, objectB);
+  }
+
+  void checkMask(FieldMask<U> mask) {
+    if (mask.schema() != this) {
+      throw new IllegalArgumentException("The mask belongs to another schema");
+    }
+  }
+
+  int maskHash(FieldMask<U> mask, T object) {
+    int hash = 1;
+    for (int index = mask.nextIndex(0); index >= 0; index = mask.nextIndex(index + 1)) {
+      hash = 31 * hash + hash(index, object);
+    }
+    return hash;
+  }
+
+  int compare(int index, T objectA, T objectB) {
+    Comparator<T> order = orders.get(index);
+    if (order == null) {
+      throw new IllegalArgumentException("Field is not comparable: " + fields.get(index));
+    }
+    return Integer.signum(order.compare(objectA, objectB));
+  }
+
+  boolean isOrderConsistentWithEquality(int index) {
+    return consistentOrders[index];
+  }
+
+  boolean isHashable(int index) {
+    return hashFunctions.get(index) != null;
+  }
+
+  int hash(int index, T object) {
+    ToIntFunction<T> hashFunction = hashFunctions.get(index);
+    return hashFunction == null ? 0 : hashFunction.applyAsInt(object);
+  }
+
+  boolean maskEqual(FieldMask<U> mask, T objectA, T objectB) {
+    for (int index = mask.nextIndex(0); index >= 0; index = mask.nextIndex(index + 1)) {
+      if (!testWithoutSampling(index, objectA, objectB)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  boolean hasValue(int index) {
+    return valueFunctions.get(index) != null;
+  }
+
+  Object value(int index, T object) {
+    return valueFunctions.get(index).apply(object);
+  }
+
+  boolean testWithoutSampling(int index, T objectA, T objectB) {
+    return equalityTests.get(index).test(objectA, objectB);
+  }
+
+  boolean test(int index, T objectA, T objectB) {
+    boolean result = equalityTests.get(index).test(objectA, objectB);
+    if (statistics != null && statistics.shouldSample() && statistics.record(index, result)) {
+      evaluationOrder = statistics.computeOrder();
+    }
+    return result;
+  }
+
+  /**
+   * Average duration of the tests timed in batches by {@code testAllFieldsInParallel}, or the static estimation of the
+   * field before any batch has been timed
+   */
+  double estimatedNanos(int index) {
+    long tests = timedTests.get();
+    return tests == 0 ? AdaptiveStatistics.staticCostNanos(costs[index]) : (double) timedNanos.get() / tests;
+  }
+
+  void recordTimedTests(int tests, long elapsedNanos) {
+    timedNanos.addAndGet(elapsedNanos);
+    timedTests.addAndGet(tests);
+  }
+
+  EvaluationOrder currentEvaluationOrder() {
+    return evaluationOrder;
+  }
+
+  private List<U> evaluationOrder(boolean expectedEquality) {
+    int[] indexes = evaluationOrder.indexes(expectedEquality);
+    List<U> result = new ArrayList<>(indexes.length);
+    for (int index : indexes) {
+      result.add(fields.get(index));
+    }
+    return result;
+  }
+
+  /**
+   * Builder of a {@link FieldSchema}, used by the auto generated FieldComparator. The maps and sets are read when the
+   * schema is built, and are not kept by it.
+   *
+   * @param <T> type of the class whose objects are being compared
+   * @param <U> type of the fields
+   */
+  public static final class Builder<T, U> {
+
+    private final Map<U, BiPredicate<T, T>> equalityTests;
+    private Class<T> type;
+    private Map<U, Function<T, ?>> valueFunctions = Collections.emptyMap();
+    private Map<U, ToIntFunction<T>> hashFunctions = Collections.emptyMap();
+    private Map<U, Comparator<T>> orders = Collections.emptyMap();
+    private Set<U> consistentOrders = Collections.emptySet();
+    private Map<U, FieldCost> costs = Collections.emptyMap();
+    private boolean adaptive;
+
+    private Builder(Map<U, BiPredicate<T, T>> equalityTests) {
+      this.equalityTests = Objects.requireNonNull(equalityTests);
+    }
+
+    /**
+     * @param type the class whose objects are compared, which allows telling apart objects of other classes without a
+     *             cast, as done by {@link ProjectionSet#contains(Object)}. Without it, objects are assumed to be of
+     *             that class
+     * @return self
+     */
+    public Builder<T, U> type(Class<T> type) {
+      this.type = Objects.requireNonNull(type);
+      return this;
+    }
+
+    /**
+     * @param valueFunctions the function which reads the value of every field whose equality test is {@link Objects#equals(Object, Object)}
+     * @return self
+     */
+    public Builder<T, U> valueFunctions(Map<U, Function<T, ?>> valueFunctions) {
+      this.valueFunctions = Objects.requireNonNull(valueFunctions);
+      return this;
+    }
+
+    /**
+     * @param hashFunctions the hash function of every field, consistent with its equality test, fields without a hash function always hash to 0
+     * @return self
+     */
+    public Builder<T, U> hashFunctions(Map<U, ToIntFunction<T>> hashFunctions) {
+      this.hashFunctions = Objects.requireNonNull(hashFunctions);
+      return this;
+    }
+
+    /**
+     * @param orders the comparator of every field which can be ordered
+     * @return self
+     */
+    public Builder<T, U> orders(Map<U, Comparator<T>> orders) {
+      this.orders = Objects.requireNonNull(orders);
+      return this;
+    }
+
+    /**
+     * @param consistentOrders the fields whose comparator returns 0 if and only if their equality test is true
+     * @return self
+     */
+    public Builder<T, U> consistentOrders(Set<U> consistentOrders) {
+      this.consistentOrders = Objects.requireNonNull(consistentOrders);
+      return this;
+    }
+
+    /**
+     * @param costs the cost of every field, fields without a cost are considered {@link FieldCost#COMPLEX}
+     * @return self
+     */
+    public Builder<T, U> costs(Map<U, FieldCost> costs) {
+      this.costs = Objects.requireNonNull(costs);
+      return this;
+    }
+
+    /**
+     * @param adaptive whether the evaluation order adapts to the sampled outcome of the tests
+     * @return self
+     */
+    public Builder<T, U> adaptive(boolean adaptive) {
+      this.adaptive = adaptive;
+      return this;
+    }
+
+    /**
+     * @return the schema
+     */
+    public FieldSchema<T, U> build() {
+      return new FieldSchema<>(this);
+    }
+  }
+
+}
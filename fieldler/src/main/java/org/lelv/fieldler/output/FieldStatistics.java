@@ -0,0 +1,77 @@
+package org.lelv.fieldler.output;
+
+/**
+ * Snapshot of the statistics sampled for a field by an adaptive {@link FieldSchema}.
+ *
+ * @param <U> type of the generated Field Enum
+ * @author Lelv
+ */
+public final class FieldStatistics<U> {
+
+  private final U field;
+  private final FieldCost cost;
+  private final long samples;
+  private final long differences;
+
+  FieldStatistics(U field, FieldCost cost, long samples, long differences) {
+    this.field = field;
+    this.cost = cost;
+    this.samples = samples;
+    this.differences = differences;
+  }
+
+  /**
+   * Returns the field whose tests were sampled
+   *
+   * @return the field
+   */
+  public U getField() {
+    return field;
+  }
+
+  /**
+   * Returns the cost of the field, which weighs its difference rate when the fields are reordered
+   *
+   * @return the static cost assigned to the field at compilation time
+   */
+  public FieldCost getCost() {
+    return cost;
+  }
+
+  /**
+   * Returns the number of tests of the field that were sampled
+   *
+   * @return the number of sampled tests of the field
+   */
+  public long getSamples() {
+    return samples;
+  }
+
+  /**
+   * Returns the number of sampled tests that found a difference
+   *
+   * @return the number of sampled tests in which the field was different
+   */
+  public long getDifferences() {
+    return differences;
+  }
+
+  /**
+   * Returns how often the field was different among the sampled tests
+   *
+   * @return the ratio of sampled tests in which the field was different, 0 if there are no samples
+   */
+  public double getDifferenceRate() {
+    return samples == 0 ? 0 : (double) differences / samples;
+  }
+
+  @Override
+  public String toString() {
+    return "FieldStatistics{" +
+        "field=" + field +
+        ", cost=" + cost +
+        ", samples=" + samples +
+        ", differences=" + differences +
+        '}';
+  }
+}
@@ -0,0 +1,36 @@
+package org.lelv.fieldler.output;
+
+import java.util.Arrays;
+
+/**
+ * Helpers shared by the chained hash tables of positions built over arrays of objects, such as {@link FieldIndex},
+ * {@link NearDuplicateFinder} and {@link ProjectionSet}.
+ */
+final class HashTables {
+
+  /**
+   * Number of objects from which the hash codes of all of them are computed in parallel
+   */
+  static final int PARALLEL_THRESHOLD = 1 << 13;
+
+  private HashTables() {
+  }
+
+  /**
+   * Mixes the high bits of a hash code into the low ones, which select the bucket
+   */
+  static int spread(int hash) {
+    return hash ^ (hash >>> 16);
+  }
+
+  /**
+   * Creates the empty buckets, marked with -1, of a table of the provided capacity. Their number is a power of two of at
+   * least twice the capacity, so that a bucket is selected with a mask and chains remain short.
+   */
+  static int[] newBuckets(int capacity) {
+    int[] buckets = new int[Integer.highestOneBit(Math.max(capacity, 1) * 2 - 1) * 2];
+    Arrays.fill(buckets, -1);
+    return buckets;
+  }
+
+}
@@ -0,0 +1,497 @@
+package org.lelv.fieldler.output;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Minimal streaming JSON writer used by the generated {@code XxxJsonWriter} classes, which writes straight to an
+ * {@link Appendable} or, encoded as UTF-8, to a {@link ByteBuffer}.
+ *
+ * <p>Separators between values are written automatically. Strings are escaped in a single pass over their characters,
+ * and integral numbers are written without creating intermediate strings. Numbers which can not be represented in JSON,
+ * such as {@code NaN} or infinities, are written as strings. Objects are written following their type, without
+ * reflection: numbers, booleans, characters and enums as such, arrays and collections as arrays, maps as objects, and
+ * any other object, including iterables which are not collections such as {@link java.nio.file.Path}, as the string
+ * returned by its {@code toString}. Arrays, collections and maps which contain themselves are rejected.
+ *
+ * <p>A JsonWriter is not thread safe, and is meant to be created for every document that is written.
+ *
+ * @author Lelv
+ */
+public final class JsonWriter {
+
+  private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+  private final Appendable appendable;
+  private final ByteBuffer buffer;
+  private final char[] digits = new char[20];
+  private boolean separatorNeeded;
+  private Set<Object> openContainers;
+
+  private JsonWriter(Appendable appendable, ByteBuffer buffer) {
+    this.appendable = appendable;
+    this.buffer = buffer;
+  }
+
+  /**
+   * Creates a writer which appends the JSON to an {@link Appendable}, such as a {@link StringBuilder} or a
+   * {@link java.io.Writer}
+   *
+   * @param appendable the destination of the JSON
+   * @return the writer
+   */
+  public static JsonWriter of(Appendable appendable) {
+    return new JsonWriter(Objects.requireNonNull(appendable), null);
+  }
+
+  /**
+   * Creates a writer which puts the JSON, encoded as UTF-8, into a {@link ByteBuffer}
+   *
+   * @param buffer the destination of the JSON
+   * @return the writer
+   * @throws java.nio.BufferOverflowException when writing, if the buffer has not enough remaining space
+   */
+  public static JsonWriter of(ByteBuffer buffer) {
+    return new JsonWriter(null, Objects.requireNonNull(buffer));
+  }
+
+  /**
+   * Starts an array
+   *
+   * @return this writer
+   * @throws IOException if the Appendable fails
+   */
+  public JsonWriter beginArray() throws IOException {
+    separator();
+    write('[');
+    separatorNeeded = false;
+    return this;
+  }
+
+  /**
+   * Ends the current array
+   *
+   * @return this writer
+   * @throws IOException if the Appendable fails
+   */
+  public JsonWriter endArray() throws IOException {
+    write(']');
+    separatorNeeded = true;
+    return this;
+  }
+
+  /**
+   * Starts an object
+   *
+   * @return this writer
+   * @throws IOException if the Appendable fails
+   */
+  public JsonWriter beginObject() throws IOException {
+    separator();
+    write('{');
+    separatorNeeded = false;
+    return this;
+  }
+
+  /**
+   * Ends the current object
+   *
+   * @return this writer
+   * @throws IOException if the Appendable fails
+   */
+  public JsonWriter endObject() throws IOException {
+    write('}');
+    separatorNeeded = true;
+    return this;
+  }
+
+  /**
+   * Writes the name of the next member of the current object
+   *
+   * @param name the name
+   * @return this writer
+   * @throws IOException if the Appendable fails
+   */
+  public JsonWriter name(CharSequence name) throws IOException {
+    separator();
+    writeString(name);
+    write(':');
+    separatorNeeded = false;
+    return this;
+  }
+
+  /**
+   * Writes a boolean
+   *
+   * @param value the value
+   * @return this writer
+   * @throws IOException if the Appendable fails
+   */
+  public JsonWriter value(boolean value) throws IOException {
+    separator();
+    writeAscii(value ? "true" : "false");
+    return this;
+  }
+
+  /**
+   * Writes a character as a string
+   *
+   * @param value the value
+   * @return this writer
+   * @throws IOException if the Appendable fails
+   */
+  public JsonWriter value(char value) throws IOException {
+    separator();
+    write('"');
+    writeEscaped(value, value, (char) 0);
+    write('"');
+    return this;
+  }
+
+  /**
+   * Writes an integral number
+   *
+   * @param value the value
+   * @return this writer
+   * @throws IOException if the Appendable fails
+   */
+  public JsonWriter value(long value) throws IOException {
+    separator();
+    writeLong(value);
+    return this;
+  }
+
+  /**
+   * Writes a number, or a string if the number is not finite
+   *
+   * @param value the value
+   * @return this writer
+   * @throws IOException if the Appendable fails
+   */
+  public JsonWriter value(float value) throws IOException {
+    separator();
+    if (Float.isFinite(value)) {
+      writeAscii(Float.toString(value));
+    } else {
+      writeString(Float.toString(value));
+    }
+    return this;
+  }
+
+  /**
+   * Writes a number, or a string if the number is not finite
+   *
+   * @param value the value
+   * @return this writer
+   * @throws IOException if the Appendable fails
+   */
+  public JsonWriter value(double value) throws IOException {
+    separator();
+    if (Double.isFinite(value)) {
+      writeAscii(Double.toString(value));
+    } else {
+      writeString(Double.toString(value));
+    }
+    return this;
+  }
+
+  /**
+   * Writes a string, or null
+   *
+   * @param value the value
+   * @return this writer
+   * @throws IOException if the Appendable fails
+   */
+  public JsonWriter value(CharSequence value) throws IOException {
+    if (value == null) {
+      return nullValue();
+    }
+    separator();
+    writeString(value);
+    return this;
+  }
+
+  /**
+   * Writes an object following its type: numbers, booleans, characters and strings as such, enums as their name, arrays
+   * and collections as arrays, maps as objects whose names are the string of their keys, and any other object as the
+   * string returned by its {@code toString}
+   *
+   * @param value the value
+   * @return this writer
+   * @throws IOException if the Appendable fails
+   * @throws IllegalArgumentException if an array, collection or map contains itself, directly or not
+   */
+  public JsonWriter value(Object value) throws IOException {
+    if (value == null) {
+      return nullValue();
+    }
+    if (value instanceof CharSequence) {
+      return value((CharSequence) value);
+    }
+    if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte) {
+      return value(((Number) value).longValue());
+    }
+    if (value instanceof Double) {
+      return value(((Double) value).doubleValue());
+    }
+    if (value instanceof Float) {
+      return value(((Float) value).floatValue());
+    }
+    if (value instanceof BigDecimal || value instanceof BigInteger) {
+      separator();
+      writeAscii(value.toString());
+      return this;
+    }
+    if (value instanceof Boolean) {
+      return value(((Boolean) value).booleanValue());
+    }
+    if (value instanceof Character) {
+      return value(((Character) value).charValue());
+    }
+    if (value instanceof Enum) {
+      return value(((Enum<?>) value).name());
+    }
+    if (value instanceof Collection) {
+      open(value);
+      beginArray();
+      for (Object element : (Collection<?>) value) {
+        value(element);
+      }
+      endArray();
+      return close(value);
+    }
+    if (value instanceof Map) {
+      open(value);
+      beginObject();
+      for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+        name(String.valueOf(entry.getKey()));
+        value(entry.getValue());
+      }
+      endObject();
+      return close(value);
+    }
+    if (value.getClass().isArray()) {
+      open(value);
+      array(value);
+      return close(value);
+    }
+    return value(value.toString());
+  }
+
+  private void open(Object container) {
+    if (openContainers == null) {
+      openContainers = Collections.newSetFromMap(new IdentityHashMap<>());
+    }
+    if (!openContainers.add(container)) {
+      throw new IllegalArgumentException("A value which contains itself can not be written as JSON: "
+                                         + container.getClass().getName());
+    }
+  }
+
+  private JsonWriter close(Object container) {
+    openContainers.remove(container);
+    return this;
+  }
+
+  /**
+   * Writes null
+   *
+   * @return this writer
+   * @throws IOException if the Appendable fails
+   */
+  public JsonWriter nullValue() throws IOException {
+    separator();
+    writeAscii("null");
+    return this;
+  }
+
+  private JsonWriter array(Object array) throws IOException {
+    beginArray();
+    if (array instanceof Object[]) {
+      for (Object element : (Object[]) array) {
+        value(element);
+      }
+    } else if (array instanceof int[]) {
+      for (int element : (int[]) array) {
+        value(element);
+      }
+    } else if (array instanceof long[]) {
+      for (long element : (long[]) array) {
+        value(element);
+      }
+    } else if (array instanceof double[]) {
+      for (double element : (double[]) array) {
+        value(element);
+      }
+    } else if (array instanceof float[]) {
+      for (float element : (float[]) array) {
+        value(element);
+      }
+    } else if (array instanceof boolean[]) {
+      for (boolean element : (boolean[]) array) {
+        value(element);
+      }
+    } else if (array instanceof char[]) {
+      for (char element : (char[]) array) {
+        value(element);
+      }
+    } else if (array instanceof short[]) {
+      for (short element : (short[]) array) {
+        value(element);
+      }
+    } else {
+      for (byte element : (byte[]) array) {
+        value(element);
+      }
+    }
+    return endArray();
+  }
+
+  private void separator() throws IOException {
+    if (separatorNeeded) {
+      write(',');
+    }
+    separatorNeeded = true;
+  }
+
+  private void writeLong(long value) throws IOException {
+    if (value == Long.MIN_VALUE) {
+      writeAscii("-9223372036854775808");
+      return;
+    }
+    if (value < 0) {
+      write('-');
+      value = -value;
+    }
+    int position = digits.length;
+    do {
+      digits[--position] = (char) ('0' + value % 10);
+      value /= 10;
+    } while (value != 0);
+    for (; position < digits.length; position++) {
+      write(digits[position]);
+    }
+  }
+
+  private void writeString(CharSequence value) throws IOException {
+    write('"');
+    int length = value.length();
+    int start = 0;
+    for (int index = 0; index < length; index++) {
+      char character = value.charAt(index);
+      if (character < 0x20 || character == '"' || character == '\\' || (buffer != null && character >= 0x80)) {
+        writeRun(value, start, index);
+        char next = index + 1 < length ? value.charAt(index + 1) : 0;
+        if (writeEscaped(character, value.charAt(index), next)) {
+          index++;
+        }
+        start = index + 1;
+      }
+    }
+    writeRun(value, start, length);
+    write('"');
+  }
+
+  private void writeRun(CharSequence value, int start, int end) throws IOException {
+    if (start == end) {
+      return;
+    }
+    if (buffer == null) {
+      appendable.append(value, start, end);
+    } else {
+      for (int index = start; index < end; index++) {
+        buffer.put((byte) value.charAt(index));
+      }
+    }
+  }
+
+  /**
+   * Writes a character which needs escaping or, in a ByteBuffer, encoding. Returns true if the next character has been
+   * consumed as the low surrogate of a pair.
+   */
+  private boolean writeEscaped(char character, char current, char next) throws IOException {
+    switch (character) {
+      case '"':
+        writeAscii("\\\"");
+        return false;
+      case '\\':
+        writeAscii("\\\\");
+        return false;
+      case '\n':
+        writeAscii("\\n");
+        return false;
+      case '\r':
+        writeAscii("\\r");
+        return false;
+      case '\t':
+        writeAscii("\\t");
+        return false;
+      case '\b':
+        writeAscii("\\b");
+        return false;
+      case '\f':
+        writeAscii("\\f");
+        return false;
+      default:
+        break;
+    }
+    if (character < 0x20) {
+      writeAscii("\\u00");
+      write(HEX_DIGITS[character >> 4]);
+      write(HEX_DIGITS[character & 0xF]);
+      return false;
+    }
+    if (buffer == null) {
+      appendable.append(current);
+      return false;
+    }
+    if (Character.isHighSurrogate(current) && Character.isLowSurrogate(next)) {
+      int codePoint = Character.toCodePoint(current, next);
+      buffer.put((byte) (0xF0 | codePoint >> 18));
+      buffer.put((byte) (0x80 | codePoint >> 12 & 0x3F));
+      buffer.put((byte) (0x80 | codePoint >> 6 & 0x3F));
+      buffer.put((byte) (0x80 | codePoint & 0x3F));
+      return true;
+    }
+    if (Character.isSurrogate(current)) {
+      buffer.put((byte) '?');
+    } else if (current < 0x80) {
+      buffer.put((byte) current);
+    } else if (current < 0x800) {
+      buffer.put((byte) (0xC0 | current >> 6));
+      buffer.put((byte) (0x80 | current & 0x3F));
+    } else {
+      buffer.put((byte) (0xE0 | current >> 12));
+      buffer.put((byte) (0x80 | current >> 6 & 0x3F));
+      buffer.put((byte) (0x80 | current & 0x3F));
+    }
+    return false;
+  }
+
+  private void writeAscii(String value) throws IOException {
+    if (buffer == null) {
+      appendable.append(value);
+    } else {
+      for (int index = 0; index < value.length(); index++) {
+        buffer.put((byte) value.charAt(index));
+      }
+    }
+  }
+
+  private void write(char character) throws IOException {
+    if (buffer == null) {
+      appendable.append(character);
+    } else {
+      buffer.put((byte) character);
+    }
+  }
+
+}
@@ -0,0 +1,217 @@
+package org.lelv.fieldler.output;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.IntStream;
+
+/**
+ * Finds every pair of objects of a collection which are equal on at least a minimum number of the fields of a
+ * {@link FieldMask}, for example records that agree on at least 4 of 6 identifying fields.
+ *
+ * <p>Instead of comparing all the pairs, objects are blocked by the hash of their fields: two objects equal on at least
+ * {@code k} of {@code n} fields are necessarily equal on at least one of any {@code n - k + 1} fields, so only the pairs
+ * sharing a hash bucket of one of the {@code n - k + 1} most selective fields are candidates. Candidates are then
+ * verified field by field, skipping the fields whose hashes already tell that they are different, and stopping as soon
+ * as the result is decided. Fields with a custom equality can not be hashed, so they are only used for blocking when
+ * there are not enough other fields.
+ *
+ * <p>Collections of 8192 objects or more are hashed and scanned in parallel.
+ *
+ * @param <T> type of the class whose objects are compared
+ * @param <U> type of the generated Field Enum created for class T
+ * @author Lelv
+ */
+public final class NearDuplicateFinder<T, U> {
+
+  private final FieldSchema<T, U> schema;
+  private final FieldMask<U> mask;
+  private final int minimumEqualFields;
+
+  /**
+   * Builds a NearDuplicateFinder
+   *
+   * @param schema             the schema of the fields of the objects
+   * @param mask               the fields to compare
+   * @param minimumEqualFields the minimum number of fields of the mask which must be equal
+   * @throws IllegalArgumentException if the mask belongs to another schema, or the minimum is not between 1 and the
+   *                                  number of fields of the mask
+   */
+  public NearDuplicateFinder(FieldSchema<T, U> schema, FieldMask<U> mask, int minimumEqualFields) {
+    Objects.requireNonNull(schema).checkMask(mask);
+    if (minimumEqualFields < 1 || minimumEqualFields > mask.size()) {
+      throw new IllegalArgumentException(String.format("The minimum number of equal fields must be between 1 and %d: %d",
+                                                       mask.size(), minimumEqualFields));
+    }
+    this.schema = schema;
+    this.mask = mask;
+    this.minimumEqualFields = minimumEqualFields;
+  }
+
+  /**
+   * Finds the pairs of objects equal on at least the minimum number of fields. Every pair is returned once, as a
+   * FieldComparison whose first object comes first in the collection. The results of the fields tested during the
+   * search are already stored in the comparisons.
+   *
+   * @param objects the objects to compare
+   * @return list of comparisons of the near duplicate pairs, sorted by the position of their first object
+   */
+  public List<FieldComparison<T, U>> find(Collection<? extends T> objects) {
+    Object[] elements = objects.toArray();
+    for (Object element : elements) {
+      Objects.requireNonNull(element);
+    }
+    return new Search(elements).run();
+  }
+
+  private final class Search {
+
+    private final Object[] elements;
+    private final boolean parallel;
+    private final int[] fields;
+    private final int[][] hashes;
+    private final int blockingFields;
+    private final int[][] buckets;
+    private final int[][] next;
+
+    private Search(Object[] elements) {
+      this.elements = elements;
+      this.parallel = elements.length >= HashTables.PARALLEL_THRESHOLD;
+      int[] maskFields = IntStream.of(schema.currentEvaluationOrder().indexes(false)).filter(mask::contains).toArray();
+      int[][] maskHashes = new int[maskFields.length][];
+      long[] distinctHashes = new long[maskFields.length];
+      for (int position = 0; position < maskFields.length; position++) {
+        maskHashes[position] = fieldHashes(maskFields[position]);
+        distinctHashes[position] = schema.isHashable(maskFields[position]) ? distinctCount(maskHashes[position]) : 0;
+      }
+      // the most selective fields go first, so that they are the ones used for blocking
+      Integer[] selectivityOrder = IntStream.range(0, maskFields.length).boxed().toArray(Integer[]::new);
+      Arrays.sort(selectivityOrder, Comparator.comparingLong(position -> -distinctHashes[position]));
+      this.fields = new int[maskFields.length];
+      this.hashes = new int[maskFields.length][];
+      for (int position = 0; position < maskFields.length; position++) {
+        fields[position] = maskFields[selectivityOrder[position]];
+        hashes[position] = maskHashes[selectivityOrder[position]];
+      }
+      this.blockingFields = fields.length - minimumEqualFields + 1;
+      this.buckets = new int[blockingFields][];
+      this.next = new int[blockingFields][];
+      for (int blockingField = 0; blockingField < blockingFields; blockingField++) {
+        buildBuckets(blockingField);
+      }
+    }
+
+    private List<FieldComparison<T, U>> run() {
+      IntStream positions = IntStream.range(0, elements.length);
+      return (parallel ? positions.parallel() : positions).collect(Results::new, Results::addPairsOf, Results::addAll).comparisons;
+    }
+
+    private int[] fieldHashes(int index) {
+      int[] fieldHashes = new int[elements.length];
+      if (!schema.isHashable(index)) {
+        return fieldHashes;
+      }
+      if (parallel) {
+        Arrays.parallelSetAll(fieldHashes, position -> schema.hash(index, element(position)));
+      } else {
+        Arrays.setAll(fieldHashes, position -> schema.hash(index, element(position)));
+      }
+      return fieldHashes;
+    }
+
+    private long distinctCount(int[] fieldHashes) {
+      int[] sorted = fieldHashes.clone();
+      if (parallel) {
+        Arrays.parallelSort(sorted);
+      } else {
+        Arrays.sort(sorted);
+      }
+      long distinct = sorted.length == 0 ? 0 : 1;
+      for (int position = 1; position < sorted.length; position++) {
+        if (sorted[position] != sorted[position - 1]) {
+          distinct++;
+        }
+      }
+      return distinct;
+    }
+
+    private void buildBuckets(int blockingField) {
+      int[] fieldBuckets = HashTables.newBuckets(elements.length);
+      int[] fieldNext = new int[elements.length];
+      // inserted backwards so that every bucket is sorted by position
+      for (int position = elements.length - 1; position >= 0; position--) {
+        int bucket = HashTables.spread(hashes[blockingField][position]) & (fieldBuckets.length - 1);
+        fieldNext[position] = fieldBuckets[bucket];
+        fieldBuckets[bucket] = position;
+      }
+      buckets[blockingField] = fieldBuckets;
+      next[blockingField] = fieldNext;
+    }
+
+    private boolean isCandidate(int blockingField, int positionA, int positionB) {
+      if (hashes[blockingField][positionA] != hashes[blockingField][positionB]) {
+        return false;
+      }
+      // pairs sharing the bucket of a previous blocking field have already been considered
+      for (int previous = 0; previous < blockingField; previous++) {
+        if (hashes[previous][positionA] == hashes[previous][positionB]) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    @SuppressWarnings("unchecked")
+    private T element(int position) {
+      return (T) elements[position];
+    }
+
+    private final class Results {
+
+      private final List<FieldComparison<T, U>> comparisons = new ArrayList<>();
+      private final long[] tested = new long[(schema.size() + Long.SIZE - 1) / Long.SIZE];
+      private final long[] equal = new long[tested.length];
+
+      private void addPairsOf(int positionA) {
+        for (int blockingField = 0; blockingField < blockingFields; blockingField++) {
+          for (int positionB = next[blockingField][positionA]; positionB >= 0; positionB = next[blockingField][positionB]) {
+            if (isCandidate(blockingField, positionA, positionB) && verify(positionA, positionB)) {
+              comparisons.add(new FieldComparison<>(element(positionA), element(positionB), schema, tested.clone(), equal.clone()));
+            }
+          }
+        }
+      }
+
+      private boolean verify(int positionA, int positionB) {
+        Arrays.fill(tested, 0L);
+        Arrays.fill(equal, 0L);
+        int equalFields = 0;
+        for (int position = 0; position < fields.length; position++) {
+          if (equalFields >= minimumEqualFields) {
+            return true;
+          }
+          if (equalFields + fields.length - position < minimumEqualFields) {
+            return false;
+          }
+          int index = fields[position];
+          long bit = 1L << index;
+          boolean hashesDiffer = schema.isHashable(index) && hashes[position][positionA] != hashes[position][positionB];
+          if (!hashesDiffer && schema.test(index, element(positionA), element(positionB))) {
+            equal[index >>> 6] |= bit;
+            equalFields++;
+          }
+          tested[index >>> 6] |= bit;
+        }
+        return equalFields >= minimumEqualFields;
+      }
+
+      private void addAll(Results other) {
+        comparisons.addAll(other.comparisons);
+      }
+    }
+  }
+
+}
@@ -0,0 +1,290 @@
+package org.lelv.fieldler.output;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+/**
+ * Hash set whose elements are distinct over the fields of a {@link FieldProjection}, instead of following their own
+ * {@code equals} and {@code hashCode}. The original objects are stored directly, with their hash codes, so neither keys
+ * nor entries are allocated.
+ *
+ * <p>Elements are kept in a dense array, chained by bucket as in a {@link FieldIndex}, so the iteration follows the
+ * insertion order until an element is removed, which moves the last element to its position. The fields of an element
+ * must not change while it is in the set. Null elements are not permitted, and the set is not thread safe.
+ *
+ * <p>Note that, as elements are compared by the projection instead of by {@code equals}, this class intentionally
+ * violates the general contract of {@link java.util.Set}, as {@link java.util.TreeSet} does with a comparator which is
+ * not consistent with equals. A ProjectionSet is only equal to another ProjectionSet over the same fields of the same
+ * schema which holds equal elements, and its hash code is computed from the projected hash codes of its elements.
+ *
+ * @param <T> type of the class whose objects are stored
+ * @author Lelv
+ */
+public final class ProjectionSet<T> extends AbstractSet<T> {
+
+  private static final int MINIMUM_CAPACITY = 8;
+
+  private final FieldProjection<T, ?> projection;
+  private Object[] elements;
+  private int[] hashes;
+  private int[] next;
+  private int[] buckets;
+  private int size;
+  private int modifications;
+
+  ProjectionSet(FieldProjection<T, ?> projection, int expectedSize) {
+    this.projection = projection;
+    int capacity = Math.max(MINIMUM_CAPACITY, expectedSize);
+    this.elements = new Object[capacity];
+    this.hashes = new int[capacity];
+    this.next = new int[capacity];
+    this.buckets = HashTables.newBuckets(capacity);
+  }
+
+  /**
+   * Returns the projection which defines the equality of the elements
+   *
+   * @return the projection
+   */
+  public FieldProjection<T, ?> projection() {
+    return projection;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Adds the object if the set has no element equal to it on all the fields of the projection
+   *
+   * @param object the object
+   * @return true if the object has been added, false if an equal element was already stored
+   * @throws NullPointerException if the object is null
+   */
+  @Override
+  public boolean add(T object) {
+    int hash = HashTables.spread(projection.hash(Objects.requireNonNull(object)));
+    if (find(object, hash) >= 0) {
+      return false;
+    }
+    if (size == elements.length) {
+      grow();
+    }
+    hashes[size] = hash;
+    elements[size] = object;
+    link(size);
+    size++;
+    modifications++;
+    return true;
+  }
+
+  /**
+   * Informs whether the set has an element equal to the object on all the fields of the projection
+   *
+   * @param object the object
+   * @return true if there is an equal element, false otherwise, including when the object is not of the type of the elements
+   */
+  @Override
+  public boolean contains(Object object) {
+    if (object == null || !projection.isInstance(object)) {
+      return false;
+    }
+    T probe = cast(object);
+    return find(probe, HashTables.spread(projection.hash(probe))) >= 0;
+  }
+
+  /**
+   * Returns the stored element equal to the probe on all the fields of the projection
+   *
+   * @param probe the object to look up
+   * @return the stored element, or null if there is none
+   */
+  public T get(T probe) {
+    int position = find(probe, HashTables.spread(projection.hash(probe)));
+    return position < 0 ? null : element(position);
+  }
+
+  /**
+   * Removes the element equal to the object on all the fields of the projection
+   *
+   * @param object the object
+   * @return true if an element has been removed, false otherwise, including when the object is not of the type of the elements
+   */
+  @Override
+  public boolean remove(Object object) {
+    if (object == null || !projection.isInstance(object)) {
+      return false;
+    }
+    T probe = cast(object);
+    int position = find(probe, HashTables.spread(projection.hash(probe)));
+    if (position < 0) {
+      return false;
+    }
+    removeAt(position);
+    return true;
+  }
+
+  @Override
+  public void clear() {
+    Arrays.fill(elements, 0, size, null);
+    Arrays.fill(buckets, -1);
+    size = 0;
+    modifications++;
+  }
+
+  @Override
+  public Iterator<T> iterator() {
+    return new Iterator<T>() {
+
+      private int cursor;
+      private int last = -1;
+      private int expectedModifications = modifications;
+
+      @Override
+      public boolean hasNext() {
+        return cursor < size;
+      }
+
+      @Override
+      public T next() {
+        checkModifications();
+        if (cursor >= size) {
+          throw new NoSuchElementException();
+        }
+        last = cursor++;
+        return element(last);
+      }
+
+      @Override
+      public void remove() {
+        if (last < 0) {
+          throw new IllegalStateException();
+        }
+        checkModifications();
+        // the last element is moved to the removed position, which is visited again
+        removeAt(last);
+        cursor = last;
+        last = -1;
+        expectedModifications = modifications;
+      }
+
+      private void checkModifications() {
+        if (modifications != expectedModifications) {
+          throw new ConcurrentModificationException();
+        }
+      }
+    };
+  }
+
+  /**
+   * Informs whether the object is a ProjectionSet over the same fields of the same schema, with the same size, and whose
+   * elements are all equal to an element of this set on the fields of the projection
+   *
+   * @param o the object to compare with
+   * @return true if the sets are equal, false otherwise
+   */
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof ProjectionSet)) {
+      return false;
+    }
+    ProjectionSet<?> that = (ProjectionSet<?>) o;
+    if (size != that.size || !projection.mask().equals(that.projection.mask())) {
+      return false;
+    }
+    for (int position = 0; position < that.size; position++) {
+      // same mask means same schema, so the elements of both sets are of the same type
+      T probe = cast(that.elements[position]);
+      if (find(probe, that.hashes[position]) < 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Returns a sum over the hash codes of the elements computed on the fields of the projection, so that equal sets have
+   * the same hash code
+   *
+   * @return the hash code
+   */
+  @Override
+  public int hashCode() {
+    int hashCode = 0;
+    for (int position = 0; position < size; position++) {
+      hashCode += hashes[position];
+    }
+    return hashCode;
+  }
+
+  private int find(T probe, int hash) {
+    int position = buckets[hash & (buckets.length - 1)];
+    while (position >= 0 && (hashes[position] != hash || !projection.equal(probe, element(position)))) {
+      position = next[position];
+    }
+    return position;
+  }
+
+  private void removeAt(int position) {
+    unlink(position);
+    int last = size - 1;
+    if (position != last) {
+      unlink(last);
+      elements[position] = elements[last];
+      hashes[position] = hashes[last];
+      link(position);
+    }
+    elements[last] = null;
+    size--;
+    modifications++;
+  }
+
+  private void link(int position) {
+    int bucket = hashes[position] & (buckets.length - 1);
+    next[position] = buckets[bucket];
+    buckets[bucket] = position;
+  }
+
+  private void unlink(int position) {
+    int bucket = hashes[position] & (buckets.length - 1);
+    if (buckets[bucket] == position) {
+      buckets[bucket] = next[position];
+      return;
+    }
+    int previous = buckets[bucket];
+    while (next[previous] != position) {
+      previous = next[previous];
+    }
+    next[previous] = next[position];
+  }
+
+  private void grow() {
+    int capacity = elements.length * 2;
+    elements = Arrays.copyOf(elements, capacity);
+    hashes = Arrays.copyOf(hashes, capacity);
+    next = new int[capacity];
+    buckets = HashTables.newBuckets(capacity);
+    for (int position = 0; position < size; position++) {
+      link(position);
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private T element(int position) {
+    return (T) elements[position];
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <T> T cast(Object object) {
+    return (T) object;
+  }
+
+}
@@ -0,0 +1,284 @@
+package org.lelv.fieldler.output;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * Compares one reference object against many candidates, for example a template against every configuration.
+ *
+ * <p>The values of the fields of the reference are read once, when the comparator is created, and kept in tests
+ * specialized for primitive values, so comparing a candidate only reads the fields of the candidate and neither boxes
+ * nor allocates. Fields with a custom equality are still tested over the reference and the candidate. The differences
+ * of a candidate are written to a reusable bit mask, where bit {@code i} of word {@code i / 64} stands for the field of
+ * index {@code i}, or reported to a callback.
+ *
+ * <p>A ReferenceComparator is immutable and can be shared between threads, as long as every thread uses its own mask.
+ *
+ * @param <T> type of the class whose objects are being compared
+ * @param <U> type of the generated Field Enum created for class T
+ * @author Lelv
+ */
+public final class ReferenceComparator<T, U> {
+
+  private final FieldSchema<T, U> schema;
+  private final T reference;
+  private final Predicate<T>[] tests;
+
+  /**
+   * Builds a ReferenceComparator. It is used by the auto generated FieldComparator, and is not meant for usage by other
+   * means.
+   *
+   * @param schema         the schema of the fields of the objects
+   * @param reference      the reference object
+   * @param referenceTests a test for every field which tells whether a candidate is equal to the reference, fields
+   *                       without a test are tested with the equality test of the schema
+   */
+  @SuppressWarnings("unchecked")
+  public ReferenceComparator(FieldSchema<T, U> schema, T reference, Map<U, Predicate<T>> referenceTests) {
+    this.schema = Objects.requireNonNull(schema);
+    this.reference = Objects.requireNonNull(reference);
+    this.tests = new Predicate[schema.size()];
+    for (int index = 0; index < tests.length; index++) {
+      Predicate<T> test = referenceTests.get(schema.field(index));
+      if (test == null) {
+        int fieldIndex = index;
+        test = candidate -> schema.testWithoutSampling(fieldIndex, reference, candidate);
+      }
+      tests[index] = test;
+    }
+  }
+
+  /**
+   * Returns a test which tells whether the int value of a candidate is equal to the value of the reference
+   *
+   * @param value  the value of the reference
+   * @param getter the accessor of the value of the candidate
+   * @param <T>    type of the class whose objects are being compared
+   * @return the test
+   */
+  public static <T> Predicate<T> intEqualTo(int value, ToIntFunction<T> getter) {
+    return candidate -> getter.applyAsInt(candidate) == value;
+  }
+
+  /**
+   * Returns a test which tells whether the long value of a candidate is equal to the value of the reference
+   *
+   * @param value  the value of the reference
+   * @param getter the accessor of the value of the candidate
+   * @param <T>    type of the class whose objects are being compared
+   * @return the test
+   */
+  public static <T> Predicate<T> longEqualTo(long value, ToLongFunction<T> getter) {
+    return candidate -> getter.applyAsLong(candidate) == value;
+  }
+
+  /**
+   * Returns a test which tells whether the double value of a candidate is equal to the value of the reference, following
+   * {@link Double#equals(Object)}
+   *
+   * @param value  the value of the reference
+   * @param getter the accessor of the value of the candidate
+   * @param <T>    type of the class whose objects are being compared
+   * @return the test
+   */
+  public static <T> Predicate<T> doubleEqualTo(double value, ToDoubleFunction<T> getter) {
+    long bits = Double.doubleToLongBits(value);
+    return candidate -> Double.doubleToLongBits(getter.applyAsDouble(candidate)) == bits;
+  }
+
+  /**
+   * Returns a test which tells whether the boolean value of a candidate is equal to the value of the reference
+   *
+   * @param value  the value of the reference
+   * @param getter the accessor of the value of the candidate
+   * @param <T>    type of the class whose objects are being compared
+   * @return the test
+   */
+  public static <T> Predicate<T> booleanEqualTo(boolean value, Predicate<T> getter) {
+    return value ? getter : getter.negate();
+  }
+
+  /**
+   * Returns a test which tells whether the value of a candidate is equal to the value of the reference, following
+   * {@link Objects#equals(Object, Object)}
+   *
+   * @param value  the value of the reference
+   * @param getter the accessor of the value of the candidate
+   * @param <T>    type of the class whose objects are being compared
+   * @return the test
+   */
+  public static <T> Predicate<T> equalTo(Object value, Function<T, ?> getter) {
+    return candidate -> Objects.equals(value, getter.apply(candidate));
+  }
+
+  /**
+   * Returns the reference object
+   *
+   * @return the reference
+   */
+  public T reference() {
+    return reference;
+  }
+
+  /**
+   * Returns the schema of the fields of the objects
+   *
+   * @return the schema
+   */
+  public FieldSchema<T, U> schema() {
+    return schema;
+  }
+
+  /**
+   * Creates a mask big enough to hold the differences of a candidate, meant to be reused across candidates
+   *
+   * @return a new empty mask
+   */
+  public long[] newMask() {
+    return new long[(tests.length + Long.SIZE - 1) / Long.SIZE];
+  }
+
+  /**
+   * Informs whether a field of the candidate is equal to the reference
+   *
+   * @param field     the field
+   * @param candidate the candidate
+   * @return true if the field is equal, false otherwise
+   */
+  public boolean isEqual(U field, T candidate) {
+    return tests[schema.indexOf(field)].test(candidate);
+  }
+
+  /**
+   * Informs whether all the fields of the candidate are equal to the reference, stopping at the first difference
+   *
+   * @param candidate the candidate
+   * @return true if all the fields are equal, false otherwise
+   */
+  public boolean isEqual(T candidate) {
+    for (int index : schema.currentEvaluationOrder().indexes(false)) {
+      if (!tests[index].test(candidate)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Informs whether all the fields of the mask of the candidate are equal to the reference, stopping at the first
+   * difference
+   *
+   * @param mask      the fields to compare
+   * @param candidate the candidate
+   * @return true if all the fields of the mask are equal, false otherwise
+   * @throws IllegalArgumentException if the mask belongs to another schema
+   */
+  public boolean isEqual(FieldMask<U> mask, T candidate) {
+    schema.checkMask(mask);
+    for (int index = mask.nextIndex(0); index >= 0; index = mask.nextIndex(index + 1)) {
+      if (!tests[index].test(candidate)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Writes the fields of the candidate different from the reference to a mask, overwriting its previous content
+   *
+   * @param candidate the candidate
+   * @param mask      the mask, as returned by {@link #newMask()}
+   * @return the number of different fields
+   * @throws IllegalArgumentException if the mask does not have the expected length
+   */
+  public int differences(T candidate, long[] mask) {
+    if (mask.length != (tests.length + Long.SIZE - 1) / Long.SIZE) {
+      throw new IllegalArgumentException("Expected a mask of " + (tests.length + Long.SIZE - 1) / Long.SIZE + " words");
+    }
+    Objects.requireNonNull(candidate);
+    Arrays.fill(mask, 0);
+    int differences = 0;
+    for (int index = 0; index < tests.length; index++) {
+      if (!tests[index].test(candidate)) {
+        mask[index >>> 6] |= 1L << index;
+        differences++;
+      }
+    }
+    return differences;
+  }
+
+  /**
+   * Returns the fields of the candidate different from the reference
+   *
+   * @param candidate the candidate
+   * @return mask of the different fields
+   */
+  public FieldMask<U> differentFields(T candidate) {
+    long[] mask = newMask();
+    differences(candidate, mask);
+    return new FieldMask<>(schema, mask);
+  }
+
+  /**
+   * Calls the consumer with every field of the candidate different from the reference, sorted by index
+   *
+   * @param candidate the candidate
+   * @param consumer  the consumer of the candidate and its different fields
+   */
+  public void forEachDifference(T candidate, BiConsumer<? super T, ? super U> consumer) {
+    Objects.requireNonNull(candidate);
+    for (int index = 0; index < tests.length; index++) {
+      if (!tests[index].test(candidate)) {
+        consumer.accept(candidate, schema.field(index));
+      }
+    }
+  }
+
+  /**
+   * Compares every candidate against the reference, and calls the consumer with the candidate and the mask of its
+   * different fields. The same mask is reused for all the candidates, so it must not be kept by the consumer.
+   *
+   * @param candidates the candidates
+   * @param consumer   the consumer of every candidate and its mask of different fields
+   */
+  public void compareAll(Iterable<? extends T> candidates, BiConsumer<? super T, long[]> consumer) {
+    long[] mask = newMask();
+    for (T candidate : candidates) {
+      differences(candidate, mask);
+      consumer.accept(candidate, mask);
+    }
+  }
+
+  /**
+   * Compares a candidate against the reference, returning a FieldComparison whose fields are all tested, with the
+   * reference as first object
+   *
+   * @param candidate the candidate
+   * @return FieldComparison
+   */
+  public FieldComparison<T, U> compare(T candidate) {
+    long[] equal = newMask();
+    differences(candidate, equal);
+    long[] tested = newMask();
+    for (int index = 0; index < tests.length; index++) {
+      tested[index >>> 6] |= 1L << index;
+      equal[index >>> 6] ^= 1L << index;
+    }
+    return new FieldComparison<>(reference, candidate, schema, tested, equal);
+  }
+
+  @Override
+  public String toString() {
+    return "ReferenceComparator{" +
+        "reference=" + reference +
+        '}';
+  }
+
+}
@@ -0,0 +1,56 @@
+package org.lelv.fieldler.output;
+
+/**
+ * Comparable field of a class which is not annotated, discovered at runtime by a {@link RuntimeFieldComparator}. It plays
+ * the role of the constants of the generated Field Enum: there is a single instance for every field of a class, so
+ * fields can be compared by identity, and its string representation is the name of the field.
+ *
+ * @author Lelv
+ */
+public final class RuntimeField {
+
+  private final Class<?> declaringType;
+  private final String name;
+  private final Class<?> type;
+  private final int ordinal;
+
+  RuntimeField(Class<?> declaringType, String name, Class<?> type, int ordinal) {
+    this.declaringType = declaringType;
+    this.name = name;
+    this.type = type;
+    this.ordinal = ordinal;
+  }
+
+  /**
+   * @return the class whose objects are compared, which is either the class that declares the field or a subclass of it
+   */
+  public Class<?> declaringType() {
+    return declaringType;
+  }
+
+  /**
+   * @return the name of the field
+   */
+  public String name() {
+    return name;
+  }
+
+  /**
+   * @return the type of the value read for the field, which is the return type of its getter when it has one
+   */
+  public Class<?> type() {
+    return type;
+  }
+
+  /**
+   * @return the position of the field, which is also its index in the schema
+   */
+  public int ordinal() {
+    return ordinal;
+  }
+
+  @Override
+  public String toString() {
+    return name;
+  }
+}
@@ -0,0 +1,329 @@
+package org.lelv.fieldler.output;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.lang.reflect.WildcardType;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+/**
+ * Reads a field through a {@link MethodHandle} and provides its equality test, value, hash and order, with the same
+ * semantics as the code generated for an annotated class. Primitive values are read without boxing by the subclass of
+ * their kind, so only {@link #apply(Object)} boxes them.
+ *
+ * @param <T> type of the class whose objects are being compared
+ */
+abstract class RuntimeFieldAccessor<T> implements BiPredicate<T, T>, Function<T, Object>, ToIntFunction<T>, Comparator<T> {
+
+  private final MethodHandle boxedGetter;
+
+  private RuntimeFieldAccessor(MethodHandle getter) {
+    this.boxedGetter = getter.asType(MethodType.methodType(Object.class, Object.class));
+  }
+
+  /**
+   * Creates the accessor of a getter, which may read a field or invoke a method
+   *
+   * @param getter handle which receives the object, of any type, and returns the value of the field
+   * @param <T>    type of the class whose objects are being compared
+   * @return the accessor
+   */
+  static <T> RuntimeFieldAccessor<T> of(MethodHandle getter) {
+    Class<?> type = getter.type().returnType();
+    if (type == boolean.class) {
+      return new BooleanAccessor<>(getter);
+    }
+    if (type == byte.class || type == short.class || type == char.class || type == int.class) {
+      return new IntAccessor<>(getter);
+    }
+    if (type == long.class) {
+      return new LongAccessor<>(getter);
+    }
+    if (type == float.class || type == double.class) {
+      return new DoubleAccessor<>(getter);
+    }
+    return new ObjectAccessor<>(getter, isSelfComparable(type));
+  }
+
+  /**
+   * Informs whether the values of the field can be ordered, which is the case of primitive fields and of fields
+   * comparable with values of their own type
+   *
+   * @return true if {@link #compare(Object, Object)} can be used, false otherwise
+   */
+  boolean isComparable() {
+    return true;
+  }
+
+  @Override
+  public Object apply(T object) {
+    try {
+      return boxedGetter.invokeExact((Object) object);
+    } catch (Throwable throwable) {
+      throw rethrow(throwable);
+    }
+  }
+
+  /**
+   * A type can be ordered when it implements {@code Comparable<? super T>}, as required by {@link FieldOrdering}, which
+   * excludes {@link Comparable} itself or a class comparable to another one, the same as the annotation processor does.
+   * The type argument of Comparable is resolved through the generic parents of the type, so that an enum, which is
+   * comparable to the type variable of {@link Enum}, is comparable to itself.
+   */
+  private static boolean isSelfComparable(Class<?> type) {
+    Type argument = comparableArgument(type, Collections.emptyMap());
+    return argument != null && erasure(argument).isAssignableFrom(type);
+  }
+
+  /**
+   * Returns the type argument of the Comparable implemented by a type, Object if it is raw, or null if there is none
+   */
+  private static Type comparableArgument(Class<?> type, Map<TypeVariable<?>, Type> bindings) {
+    List<Type> parents = new ArrayList<>(Arrays.asList(type.getGenericInterfaces()));
+    if (type.getGenericSuperclass() != null) {
+      parents.add(type.getGenericSuperclass());
+    }
+    for (Type parent : parents) {
+      Class<?> rawParent = erasure(parent);
+      Type[] arguments = parent instanceof ParameterizedType ? ((ParameterizedType) parent).getActualTypeArguments() : new Type[0];
+      if (rawParent == Comparable.class) {
+        return arguments.length == 0 ? Object.class : resolve(arguments[0], bindings);
+      }
+      Map<TypeVariable<?>, Type> parentBindings = new HashMap<>();
+      TypeVariable<?>[] variables = rawParent.getTypeParameters();
+      for (int i = 0; i < arguments.length; i++) {
+        parentBindings.put(variables[i], resolve(arguments[i], bindings));
+      }
+      Type argument = comparableArgument(rawParent, parentBindings);
+      if (argument != null) {
+        return argument;
+      }
+    }
+    return null;
+  }
+
+  private static Type resolve(Type type, Map<TypeVariable<?>, Type> bindings) {
+    Type bound = type instanceof TypeVariable ? bindings.get(type) : null;
+    return bound != null ? bound : type;
+  }
+
+  private static Class<?> erasure(Type type) {
+    if (type instanceof ParameterizedType) {
+      return (Class<?>) ((ParameterizedType) type).getRawType();
+    }
+    if (type instanceof TypeVariable) {
+      return erasure(((TypeVariable<?>) type).getBounds()[0]);
+    }
+    if (type instanceof WildcardType) {
+      return erasure(((WildcardType) type).getUpperBounds()[0]);
+    }
+    if (type instanceof GenericArrayType) {
+      return Array.newInstance(erasure(((GenericArrayType) type).getGenericComponentType()), 0).getClass();
+    }
+    return (Class<?>) type;
+  }
+
+  private static MethodHandle adapt(MethodHandle getter, Class<?> returnType) {
+    return getter.asType(MethodType.methodType(returnType, Object.class));
+  }
+
+  private static RuntimeException rethrow(Throwable throwable) {
+    if (throwable instanceof RuntimeException) {
+      throw (RuntimeException) throwable;
+    }
+    if (throwable instanceof Error) {
+      throw (Error) throwable;
+    }
+    throw new UndeclaredThrowableException(throwable);
+  }
+
+  private static final class BooleanAccessor<T> extends RuntimeFieldAccessor<T> {
+
+    private final MethodHandle getter;
+
+    private BooleanAccessor(MethodHandle getter) {
+      super(getter);
+      this.getter = adapt(getter, boolean.class);
+    }
+
+    private boolean value(T object) {
+      try {
+        return (boolean) getter.invokeExact((Object) object);
+      } catch (Throwable throwable) {
+        throw rethrow(throwable);
+      }
+    }
+
+    @Override
+    public boolean test(T objectA, T objectB) {
+      return value(objectA) == value(objectB);
+    }
+
+    @Override
+    public int applyAsInt(T object) {
+      return Boolean.hashCode(value(object));
+    }
+
+    @Override
+    public int compare(T objectA, T objectB) {
+      return Boolean.compare(value(objectA), value(objectB));
+    }
+  }
+
+  /**
+   * Reads byte, short, char and int fields, widened to int. Their equality, order and hash code are the same as those
+   * of their own boxed classes.
+   */
+  private static final class IntAccessor<T> extends RuntimeFieldAccessor<T> {
+
+    private final MethodHandle getter;
+
+    private IntAccessor(MethodHandle getter) {
+      super(getter);
+      this.getter = adapt(getter, int.class);
+    }
+
+    private int value(T object) {
+      try {
+        return (int) getter.invokeExact((Object) object);
+      } catch (Throwable throwable) {
+        throw rethrow(throwable);
+      }
+    }
+
+    @Override
+    public boolean test(T objectA, T objectB) {
+      return value(objectA) == value(objectB);
+    }
+
+    @Override
+    public int applyAsInt(T object) {
+      return value(object);
+    }
+
+    @Override
+    public int compare(T objectA, T objectB) {
+      return Integer.compare(value(objectA), value(objectB));
+    }
+  }
+
+  private static final class LongAccessor<T> extends RuntimeFieldAccessor<T> {
+
+    private final MethodHandle getter;
+
+    private LongAccessor(MethodHandle getter) {
+      super(getter);
+      this.getter = adapt(getter, long.class);
+    }
+
+    private long value(T object) {
+      try {
+        return (long) getter.invokeExact((Object) object);
+      } catch (Throwable throwable) {
+        throw rethrow(throwable);
+      }
+    }
+
+    @Override
+    public boolean test(T objectA, T objectB) {
+      return value(objectA) == value(objectB);
+    }
+
+    @Override
+    public int applyAsInt(T object) {
+      return Long.hashCode(value(object));
+    }
+
+    @Override
+    public int compare(T objectA, T objectB) {
+      return Long.compare(value(objectA), value(objectB));
+    }
+  }
+
+  /**
+   * Reads float and double fields, widened to double. Widening keeps every value distinct, so the equality, which
+   * follows {@link Double#equals(Object)} as the boxed values do, and the order are the same as those of floats.
+   */
+  private static final class DoubleAccessor<T> extends RuntimeFieldAccessor<T> {
+
+    private final MethodHandle getter;
+
+    private DoubleAccessor(MethodHandle getter) {
+      super(getter);
+      this.getter = adapt(getter, double.class);
+    }
+
+    private double value(T object) {
+      try {
+        return (double) getter.invokeExact((Object) object);
+      } catch (Throwable throwable) {
+        throw rethrow(throwable);
+      }
+    }
+
+    @Override
+    public boolean test(T objectA, T objectB) {
+      return Double.doubleToLongBits(value(objectA)) == Double.doubleToLongBits(value(objectB));
+    }
+
+    @Override
+    public int applyAsInt(T object) {
+      return Double.hashCode(value(object));
+    }
+
+    @Override
+    public int compare(T objectA, T objectB) {
+      return Double.compare(value(objectA), value(objectB));
+    }
+  }
+
+  private static final class ObjectAccessor<T> extends RuntimeFieldAccessor<T> {
+
+    private final boolean comparable;
+
+    private ObjectAccessor(MethodHandle getter, boolean comparable) {
+      super(getter);
+      this.comparable = comparable;
+    }
+
+    @Override
+    boolean isComparable() {
+      return comparable;
+    }
+
+    @Override
+    public boolean test(T objectA, T objectB) {
+      return Objects.equals(apply(objectA), apply(objectB));
+    }
+
+    @Override
+    public int applyAsInt(T object) {
+      return Objects.hashCode(apply(object));
+    }
+
+    @Override
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public int compare(T objectA, T objectB) {
+      if (!comparable) {
+        throw new IllegalArgumentException("Field is not comparable");
+      }
+      return FieldOrdering.compare((Comparable) apply(objectA), (Comparable) apply(objectB));
+    }
+  }
+
+}
@@ -0,0 +1,345 @@
+package org.lelv.fieldler.output;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+/**
+ * Comparator of the objects of a class which can not be annotated, such as the classes of third party libraries. It
+ * offers the same API as an auto generated FieldComparator, with {@link RuntimeField} in place of the generated Field
+ * Enum, and returns the same {@link FieldComparison}.
+ *
+ * <p>The comparator of a class is built on its first use and cached for the lifetime of the class. Its fields are found
+ * with the same rules as the annotation processor: the non static fields of the class and all its parents, read directly
+ * when they are public, or otherwise through a public {@code isXxx()} getter for booleans, a {@code getXxx()} getter or a
+ * same name method, in that order. Fields without an accessor are not compared. The class itself must be public.
+ *
+ * <p>Fields are read through {@link MethodHandle}s, specialized for primitive values so that they are compared without
+ * boxing, and every field has a hash function and, if it is primitive or comparable with its own type, an order. Once
+ * warmed up, every read costs an indirect call that the generated comparators avoid, a few nanoseconds per field, so they
+ * remain the faster choice for the classes which can be annotated.
+ *
+ * @param <T> type of the class whose objects are being compared
+ * @author Lelv
+ */
+public final class RuntimeFieldComparator<T> {
+
+  private static final String IS_PREFIX = "is";
+  private static final String GETTER_PREFIX = "get";
+  private static final Set<Class<?>> BOXED_TYPES = new HashSet<>(Arrays.asList(Boolean.class, Byte.class, Character.class, Short.class,
+                                                                                 Integer.class, Long.class, Float.class, Double.class,
+                                                                                 String.class));
+  private static final ClassValue<RuntimeFieldComparator<?>> COMPARATORS = new ClassValue<RuntimeFieldComparator<?>>() {
+    @Override
+    protected RuntimeFieldComparator<?> computeValue(Class<?> type) {
+      return new RuntimeFieldComparator<>(type);
+    }
+  };
+
+  private final Class<T> type;
+  private final List<RuntimeField> fields;
+  private final Map<String, RuntimeField> fieldsByName;
+  private final List<RuntimeFieldAccessor<T>> accessors;
+  private final FieldSchema<T, RuntimeField> schema;
+
+  private RuntimeFieldComparator(Class<T> type) {
+    if (type.isPrimitive() || type.isArray() || !Modifier.isPublic(type.getModifiers())) {
+      throw new IllegalArgumentException("Only public classes can be compared: " + type.getName());
+    }
+    this.type = type;
+    List<RuntimeField> fields = new ArrayList<>();
+    Map<String, RuntimeField> fieldsByName = new HashMap<>();
+    List<RuntimeFieldAccessor<T>> accessors = new ArrayList<>();
+    Map<RuntimeField, BiPredicate<T, T>> equalityTests = new LinkedHashMap<>();
+    Map<RuntimeField, Function<T, ?>> valueFunctions = new HashMap<>();
+    Map<RuntimeField, ToIntFunction<T>> hashFunctions = new HashMap<>();
+    Map<RuntimeField, Comparator<T>> orders = new HashMap<>();
+    Set<RuntimeField> consistentOrders = new HashSet<>();
+    Map<RuntimeField, FieldCost> costs = new HashMap<>();
+    Set<String> methodNames = publicMethodNames(type);
+    for (Field field : hierarchyFields(type)) {
+      // a field hidden by a field of a subclass keeps the name of the latter
+      MethodHandle getter = fieldsByName.containsKey(field.getName()) ? null : getter(type, field, methodNames);
+      if (getter == null) {
+        continue;
+      }
+      Class<?> valueType = getter.type().returnType();
+      RuntimeField runtimeField = new RuntimeField(type, field.getName(), valueType, fields.size());
+      RuntimeFieldAccessor<T> accessor = RuntimeFieldAccessor.of(getter);
+      FieldCost cost = cost(valueType);
+      fields.add(runtimeField);
+      fieldsByName.put(runtimeField.name(), runtimeField);
+      accessors.add(accessor);
+      equalityTests.put(runtimeField, accessor);
+      valueFunctions.put(runtimeField, accessor);
+      hashFunctions.put(runtimeField, accessor);
+      if (accessor.isComparable()) {
+        orders.put(runtimeField, accessor);
+        if (cost != FieldCost.COMPLEX) {
+          consistentOrders.add(runtimeField);
+        }
+      }
+      costs.put(runtimeField, cost);
+    }
+    this.fields = Collections.unmodifiableList(fields);
+    this.fieldsByName = fieldsByName;
+    this.accessors = accessors;
+    this.schema = FieldSchema.builder(equalityTests)
+                             .type(type)
+                             .valueFunctions(valueFunctions)
+                             .hashFunctions(hashFunctions)
+                             .orders(orders)
+                             .consistentOrders(consistentOrders)
+                             .costs(costs)
+                             .build();
+  }
+
+  /**
+   * Returns the comparator of a class, building it on the first call
+   *
+   * @param type the class whose objects are compared
+   * @param <T>  type of the class
+   * @return the comparator
+   * @throws IllegalArgumentException if the class is not public, or is a primitive or an array type
+   */
+  @SuppressWarnings("unchecked")
+  public static <T> RuntimeFieldComparator<T> of(Class<T> type) {
+    return (RuntimeFieldComparator<T>) COMPARATORS.get(Objects.requireNonNull(type));
+  }
+
+  /**
+   * @return the class whose objects are compared
+   */
+  public Class<T> type() {
+    return type;
+  }
+
+  /**
+   * Returns the comparable fields, in the order of the fields of the class followed by those of its parents
+   *
+   * @return unmodifiable list of fields
+   */
+  public List<RuntimeField> fields() {
+    return fields;
+  }
+
+  /**
+   * Returns a field by its name
+   *
+   * @param name name of the field
+   * @return the field
+   * @throws IllegalArgumentException if the class has no comparable field with that name
+   */
+  public RuntimeField field(String name) {
+    RuntimeField field = fieldsByName.get(name);
+    if (field == null) {
+      throw new IllegalArgumentException("Unknown field " + name + " of " + type.getName());
+    }
+    return field;
+  }
+
+  /**
+   * Compares two objects returning a FieldComparison
+   *
+   * @param objectA the first object to compare
+   * @param objectB the second object to compare
+   * @return FieldComparison
+   * @throws NullPointerException if {@code objectA} or {@code objectB} is {@code null}
+   */
+  public FieldComparison<T, RuntimeField> compare(T objectA, T objectB) {
+    Objects.requireNonNull(objectA);
+    Objects.requireNonNull(objectB);
+    return new FieldComparison<>(objectA, objectB, schema);
+  }
+
+  /**
+   * Returns the schema shared by every comparison, which exposes the evaluation order of the fields
+   *
+   * @return FieldSchema
+   */
+  public FieldSchema<T, RuntimeField> schema() {
+    return schema;
+  }
+
+  /**
+   * Creates a comparator of the reference against many candidates
+   *
+   * @param reference the reference object
+   * @return ReferenceComparator
+   * @throws NullPointerException if {@code reference} is {@code null}
+   */
+  public ReferenceComparator<T, RuntimeField> against(T reference) {
+    return new ReferenceComparator<>(schema, Objects.requireNonNull(reference), Collections.emptyMap());
+  }
+
+  /**
+   * Builds the timeline of the changes of every field along the versions, reading every version once
+   *
+   * @param versions the versions, from the oldest to the newest one
+   * @return FieldHistory
+   * @throws NullPointerException if a version is {@code null}
+   */
+  public FieldHistory<T, RuntimeField> history(List<? extends T> versions) {
+    return FieldHistory.of(schema, versions);
+  }
+
+  /**
+   * Creates a projection with hash code and equality over the fields, usable as keys of hash collections or as a hash
+   * set of the objects themselves
+   *
+   * @param fields the fields of the projection
+   * @return FieldProjection
+   * @throws IllegalArgumentException if a field belongs to another class
+   */
+  public FieldProjection<T, RuntimeField> projection(RuntimeField... fields) {
+    return FieldProjection.of(schema, schema.mask(fields));
+  }
+
+  /**
+   * Returns the comparator which orders by a field, either primitive or {@link Comparable}
+   *
+   * @param field the field
+   * @return Comparator
+   * @throws IllegalArgumentException if the field is not comparable or belongs to another class
+   */
+  public Comparator<T> comparator(RuntimeField field) {
+    RuntimeFieldAccessor<T> accessor = accessors.get(schema.indexOf(field));
+    if (!accessor.isComparable()) {
+      throw new IllegalArgumentException("Field is not comparable: " + field);
+    }
+    return accessor;
+  }
+
+  /**
+   * Returns a comparator which orders by the first field, then by the second one when the first is equal, and so on
+   *
+   * @param fields the fields, either primitive or {@link Comparable}
+   * @return Comparator
+   * @throws IllegalArgumentException if a field is not comparable or belongs to another class
+   */
+  public Comparator<T> comparator(List<RuntimeField> fields) {
+    List<Comparator<T>> order = new ArrayList<>(fields.size());
+    for (RuntimeField field : fields) {
+      order.add(comparator(field));
+    }
+    if (order.size() == 1) {
+      return order.get(0);
+    }
+    return (objectA, objectB) -> {
+      for (Comparator<T> comparator : order) {
+        int result = comparator.compare(objectA, objectB);
+        if (result != 0) {
+          return result;
+        }
+      }
+      return 0;
+    };
+  }
+
+  /**
+   * Returns a comparator which orders by the first field, then by the second one when the first is equal, and so on
+   *
+   * @param fields the fields, either primitive or {@link Comparable}
+   * @return Comparator
+   * @throws IllegalArgumentException if a field is not comparable or belongs to another class
+   */
+  public Comparator<T> comparator(RuntimeField... fields) {
+    return comparator(Arrays.asList(fields));
+  }
+
+  @Override
+  public String toString() {
+    return "RuntimeFieldComparator{" +
+        "type=" + type.getName() +
+        ", fields=" + fields +
+        '}';
+  }
+
+  private static List<Field> hierarchyFields(Class<?> type) {
+    List<Field> fields = new ArrayList<>();
+    for (Class<?> current = type; current != null && current != Object.class; current = current.getSuperclass()) {
+      for (Field field : current.getDeclaredFields()) {
+        if (!Modifier.isStatic(field.getModifiers()) && !field.isSynthetic()) {
+          fields.add(field);
+        }
+      }
+    }
+    return fields;
+  }
+
+  private static Set<String> publicMethodNames(Class<?> type) {
+    Set<String> methodNames = new HashSet<>();
+    for (Class<?> current = type; current != null && current != Object.class; current = current.getSuperclass()) {
+      for (Method method : current.getDeclaredMethods()) {
+        int modifiers = method.getModifiers();
+        if (Modifier.isPublic(modifiers) && !Modifier.isStatic(modifiers) && method.getParameterCount() == 0) {
+          methodNames.add(method.getName());
+        }
+      }
+    }
+    return methodNames;
+  }
+
+  /**
+   * Returns the handle which reads the field, or null if it has no accessor or the accessor is not accessible, for
+   * example because it is declared by a class which is not public
+   */
+  private static MethodHandle getter(Class<?> type, Field field, Set<String> methodNames) {
+    MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+    try {
+      if (Modifier.isPublic(field.getModifiers())) {
+        return lookup.unreflectGetter(field);
+      }
+      for (String methodName : acceptedMethodNames(field)) {
+        if (methodNames.contains(methodName)) {
+          return lookup.unreflect(type.getMethod(methodName));
+        }
+      }
+      return null;
+    } catch (IllegalAccessException | NoSuchMethodException e) {
+      return null;
+    }
+  }
+
+  private static List<String> acceptedMethodNames(Field field) {
+    String fieldName = field.getName();
+    List<String> methodNames = new ArrayList<>();
+    if (field.getType() == boolean.class || field.getType() == Boolean.class) {
+      methodNames.add(methodName(IS_PREFIX, fieldName));
+    }
+    methodNames.add(methodName(GETTER_PREFIX, fieldName));
+    methodNames.add(fieldName);
+    return methodNames;
+  }
+
+  private static String methodName(String prefix, String fieldName) {
+    return prefix + Character.toUpperCase(fieldName.charAt(0)) + fieldName.substring(1);
+  }
+
+  private static FieldCost cost(Class<?> type) {
+    if (type.isPrimitive()) {
+      return FieldCost.PRIMITIVE;
+    }
+    if (type.isEnum() || BOXED_TYPES.contains(type)) {
+      return FieldCost.BOXED;
+    }
+    return FieldCost.COMPLEX;
+  }
+
+}
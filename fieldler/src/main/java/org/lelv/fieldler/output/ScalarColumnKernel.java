@@ -0,0 +1,42 @@
+package org.lelv.fieldler.output;
+
+/**
+ * Portable {@link ColumnKernel}, which compares the columns one row at a time
+ *
+ * @author Lelv
+ */
+public final class ScalarColumnKernel implements ColumnKernel {
+
+  @Override
+  public void differences(int[] columnA, int[] columnB, int rows, long[] differences) {
+    for (int row = 0; row < rows; row++) {
+      if (columnA[row] != columnB[row]) {
+        differences[row >>> 6] |= 1L << row;
+      }
+    }
+  }
+
+  @Override
+  public void differences(long[] columnA, long[] columnB, int rows, long[] differences) {
+    for (int row = 0; row < rows; row++) {
+      if (columnA[row] != columnB[row]) {
+        differences[row >>> 6] |= 1L << row;
+      }
+    }
+  }
+
+  @Override
+  public void differences(double[] columnA, double[] columnB, int rows, long[] differences) {
+    for (int row = 0; row < rows; row++) {
+      if (Double.doubleToLongBits(columnA[row]) != Double.doubleToLongBits(columnB[row])) {
+        differences[row >>> 6] |= 1L << row;
+      }
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "ScalarColumnKernel";
+  }
+
+}
@@ -0,0 +1,40 @@
+package org.lelv.fieldler.output;
+
+/**
+ * Object found by a {@link SimilaritySearch}, together with its similarity score.
+ *
+ * @param <T> type of the class whose objects are compared
+ * @author Lelv
+ */
+public final class SimilarityMatch<T> {
+
+  private final T object;
+  private final double score;
+
+  SimilarityMatch(T object, double score) {
+    this.object = object;
+    this.score = score;
+  }
+
+  /**
+   * @return the object found
+   */
+  public T getObject() {
+    return object;
+  }
+
+  /**
+   * @return the sum of the weights of the fields equal to the probe
+   */
+  public double getScore() {
+    return score;
+  }
+
+  @Override
+  public String toString() {
+    return "SimilarityMatch{" +
+        "object=" + object +
+        ", score=" + score +
+        '}';
+  }
+}
@@ -0,0 +1,247 @@
+package org.lelv.fieldler.output;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+/**
+ * Finds the objects of a collection most similar to a probe object, where the similarity is the sum of the weights of
+ * the fields equal to the probe.
+ *
+ * <p>Fields are evaluated from the highest to the lowest weight, and a candidate is discarded as soon as its best
+ * achievable score, its current score plus the weights of the fields not evaluated yet, can no longer reach the score of
+ * the k-th best candidate found so far. Collections of 8192 objects or more are scanned in parallel by chunks, which
+ * share the best threshold known to discard candidates earlier.
+ *
+ * @param <T> type of the class whose objects are compared
+ * @param <U> type of the generated Field Enum created for class T
+ * @author Lelv
+ */
+public final class SimilaritySearch<T, U> {
+
+  private static final int PARALLEL_THRESHOLD = 1 << 13;
+  private static final int CHUNK_SIZE = 1 << 12;
+
+  private final FieldSchema<T, U> schema;
+  private final int[] fields;
+  private final double[] weights;
+  private final double[] remainingWeights;
+
+  /**
+   * Builds a SimilaritySearch
+   *
+   * @param schema  the schema of the fields of the objects
+   * @param weights the weight of every field taken into account, fields without weight are ignored
+   * @throws IllegalArgumentException if a weight is not positive and finite, or a field does not belong to the schema
+   */
+  public SimilaritySearch(FieldSchema<T, U> schema, Map<U, Double> weights) {
+    this.schema = Objects.requireNonNull(schema);
+    int[] evaluationOrder = schema.currentEvaluationOrder().indexes(false);
+    int[] ranks = new int[schema.size()];
+    for (int position = 0; position < evaluationOrder.length; position++) {
+      ranks[evaluationOrder[position]] = position;
+    }
+    double[] fieldWeights = new double[schema.size()];
+    weights.forEach((field, weight) -> {
+      if (weight == null || !(weight > 0) || Double.isInfinite(weight)) {
+        throw new IllegalArgumentException("The weight of " + field + " must be positive and finite: " + weight);
+      }
+      fieldWeights[schema.indexOf(field)] = weight;
+    });
+    // descending weight, and ascending cost between fields with the same weight
+    this.fields = IntStream.range(0, schema.size())
+                           .filter(index -> fieldWeights[index] > 0)
+                           .boxed()
+                           .sorted(Comparator.<Integer>comparingDouble(index -> -fieldWeights[index]).thenComparingInt(index -> ranks[index]))
+                           .mapToInt(Integer::intValue)
+                           .toArray();
+    this.weights = new double[fields.length];
+    this.remainingWeights = new double[fields.length + 1];
+    for (int position = fields.length - 1; position >= 0; position--) {
+      this.weights[position] = fieldWeights[fields[position]];
+      this.remainingWeights[position] = remainingWeights[position + 1] + this.weights[position];
+    }
+  }
+
+  /**
+   * Returns the k candidates most similar to the probe, sorted by descending score. Candidates with the same score are
+   * sorted by their position in the collection.
+   *
+   * @param probe      the object to compare with
+   * @param candidates the objects to search
+   * @param k          maximum number of results
+   * @return list of the most similar candidates
+   * @throws IllegalArgumentException if k is not positive
+   */
+  public List<SimilarityMatch<T>> topK(T probe, Collection<? extends T> candidates, int k) {
+    Objects.requireNonNull(probe);
+    if (k <= 0) {
+      throw new IllegalArgumentException("k must be positive: " + k);
+    }
+    Object[] elements = candidates.toArray();
+    AtomicLong sharedThreshold = new AtomicLong(Double.doubleToLongBits(Double.NEGATIVE_INFINITY));
+    TopHeap top;
+    if (elements.length < PARALLEL_THRESHOLD) {
+      top = scan(probe, elements, 0, elements.length, k, sharedThreshold);
+    } else {
+      int chunks = (elements.length + CHUNK_SIZE - 1) / CHUNK_SIZE;
+      top = IntStream.range(0, chunks)
+                     .parallel()
+                     .mapToObj(chunk -> scan(probe, elements, chunk * CHUNK_SIZE, Math.min((chunk + 1) * CHUNK_SIZE, elements.length), k, sharedThreshold))
+                     .reduce(TopHeap::merge)
+                     .orElseGet(() -> new TopHeap(k));
+    }
+    return top.matches(elements);
+  }
+
+  private TopHeap scan(T probe, Object[] elements, int from, int to, int k, AtomicLong sharedThreshold) {
+    TopHeap top = new TopHeap(k);
+    for (int position = from; position < to; position++) {
+      T candidate = element(elements, position);
+      Objects.requireNonNull(candidate);
+      double threshold = Double.longBitsToDouble(sharedThreshold.get());
+      double score = 0;
+      int field = 0;
+      // a candidate whose best achievable score is lower than a threshold from any chunk can not be in the final result
+      while (field < fields.length && score + remainingWeights[field] >= threshold && top.canEnter(score + remainingWeights[field])) {
+        if (schema.test(fields[field], probe, candidate)) {
+          score += weights[field];
+        }
+        field++;
+      }
+      if (field == fields.length && top.offer(score, position) && top.isFull()) {
+        raise(sharedThreshold, top.minimumScore());
+      }
+    }
+    return top;
+  }
+
+  private static void raise(AtomicLong sharedThreshold, double threshold) {
+    long current = sharedThreshold.get();
+    while (Double.longBitsToDouble(current) < threshold
+        && !sharedThreshold.compareAndSet(current, Double.doubleToLongBits(threshold))) {
+      current = sharedThreshold.get();
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private T element(Object[] elements, int position) {
+    return (T) elements[position];
+  }
+
+  /**
+   * Bounded min heap of scores and positions, whose root is the worst of the best candidates: the lowest score, and the
+   * highest position between equal scores.
+   */
+  private final class TopHeap {
+
+    private final int capacity;
+    private final double[] scores;
+    private final int[] positions;
+    private int size;
+
+    private TopHeap(int capacity) {
+      this.capacity = capacity;
+      this.scores = new double[capacity];
+      this.positions = new int[capacity];
+    }
+
+    private boolean isFull() {
+      return size == capacity;
+    }
+
+    private double minimumScore() {
+      return scores[0];
+    }
+
+    /**
+     * Whether a candidate with the provided best achievable score could still enter the heap. Candidates are scanned by
+     * ascending position, so a candidate with the same score as the root never replaces it.
+     */
+    private boolean canEnter(double bestScore) {
+      return size < capacity || bestScore > scores[0];
+    }
+
+    private boolean offer(double score, int position) {
+      if (size < capacity) {
+        scores[size] = score;
+        positions[size] = position;
+        siftUp(size++);
+        return true;
+      }
+      if (!isWorse(scores[0], positions[0], score, position)) {
+        return false;
+      }
+      scores[0] = score;
+      positions[0] = position;
+      siftDown(0);
+      return true;
+    }
+
+    private TopHeap merge(TopHeap other) {
+      for (int i = 0; i < other.size; i++) {
+        offer(other.scores[i], other.positions[i]);
+      }
+      return this;
+    }
+
+    private List<SimilarityMatch<T>> matches(Object[] elements) {
+      List<Integer> order = new ArrayList<>(size);
+      for (int i = 0; i < size; i++) {
+        order.add(i);
+      }
+      order.sort(Comparator.<Integer>comparingDouble(i -> -scores[i]).thenComparingInt(i -> positions[i]));
+      List<SimilarityMatch<T>> result = new ArrayList<>(size);
+      for (int i : order) {
+        result.add(new SimilarityMatch<>(element(elements, positions[i]), scores[i]));
+      }
+      return result;
+    }
+
+    private void siftUp(int i) {
+      while (i > 0) {
+        int parent = (i - 1) >>> 1;
+        if (!isWorse(scores[i], positions[i], scores[parent], positions[parent])) {
+          return;
+        }
+        swap(i, parent);
+        i = parent;
+      }
+    }
+
+    private void siftDown(int i) {
+      while (true) {
+        int worst = i;
+        for (int child = 2 * i + 1; child <= 2 * i + 2 && child < size; child++) {
+          if (isWorse(scores[child], positions[child], scores[worst], positions[worst])) {
+            worst = child;
+          }
+        }
+        if (worst == i) {
+          return;
+        }
+        swap(i, worst);
+        i = worst;
+      }
+    }
+
+    private void swap(int i, int j) {
+      double score = scores[i];
+      scores[i] = scores[j];
+      scores[j] = score;
+      int position = positions[i];
+      positions[i] = positions[j];
+      positions[j] = position;
+    }
+
+    private boolean isWorse(double scoreA, int positionA, double scoreB, int positionB) {
+      return scoreA < scoreB || (scoreA == scoreB && positionA > positionB);
+    }
+  }
+
+}
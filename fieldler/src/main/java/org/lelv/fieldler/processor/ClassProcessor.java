@@ -1,19 +1,41 @@
 package org.lelv.fieldler.processor;
 
+import org.lelv.fieldler.annotation.FieldComparator;
+import org.lelv.fieldler.annotation.FieldEquality;
 import org.lelv.fieldler.generator.data.ClassData;
+import org.lelv.fieldler.generator.data.ComparatorOptions;
+import org.lelv.fieldler.generator.data.EqualityData;
 import org.lelv.fieldler.generator.data.FieldData;
+import org.lelv.fieldler.output.FieldCost;
 
 import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
 import javax.lang.model.element.ExecutableElement;
 import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
 import javax.lang.model.element.TypeElement;
 import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
 import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.MirroredTypeException;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.type.TypeVariable;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 class ClassProcessor {
 
@@ -23,34 +45,92 @@ class ClassProcessor {
   private static final String OBJECT = Object.class.getCanonicalName();
   private static final String BOOLEAN_OBJECT = Boolean.class.getCanonicalName();
   private static final String BOOLEAN_PRIMITIVE = boolean.class.getSimpleName();
+  private static final String COMPARATOR = Comparator.class.getCanonicalName();
+  private static final String COMPARABLE = Comparable.class.getCanonicalName();
+  private static final Set<String> BOXED_TYPES = Stream.of(Boolean.class, Byte.class, Character.class, Short.class, Integer.class,
+                                                           Long.class, Float.class, Double.class, String.class)
+                                                       .map(Class::getCanonicalName)
+                                                       .collect(Collectors.toSet());
 
-  public static ClassData processClass(Element classElement) {
+  private final Types types;
+  private final TypeElement comparableElement;
+  private final boolean memoizeHierarchy;
+  private final Map<Element, HierarchyMembers> hierarchyMembersCache = new HashMap<>();
+
+  ClassProcessor(Types types, Elements elements, boolean memoizeHierarchy) {
+    this.types = types;
+    this.comparableElement = elements.getTypeElement(COMPARABLE);
+    this.memoizeHierarchy = memoizeHierarchy;
+  }
+
+  /**
+   * Forgets the members scanned in previous rounds, whose elements are not guaranteed to be valid in a new round
+   */
+  void startRound() {
+    hierarchyMembersCache.clear();
+  }
+
+  public ClassData processClass(Element classElement) {
     String canonicalName = classElement.toString();
-    List<FieldData> fieldData = fieldData(classElement);
-    return new ClassData(canonicalName, fieldData);
-  }
-
-  private static List<FieldData> fieldData(Element classElement) {
-    List<VariableElement> fields = getEnclosedElements(classElement, VariableElement.class);
-    List<ExecutableElement> methods = getEnclosedElements(classElement, ExecutableElement.class);
-    Set<String> methodNames = getPublicAndNoParameterMethodNames(methods);
-    return buildFieldData(fields, methodNames);
-  }
-
-  private static <T> List<T> getEnclosedElements(Element element, Class<T> clazz) {
-    List<T> result = new ArrayList<>();
-    Element currentElement = element;
-    while (currentElement != null) {
-      List<T> fields = currentElement.getEnclosedElements()
-                                     .stream()
-                                     .filter(clazz::isInstance)
-                                     .filter(enclosedElement -> !enclosedElement.getModifiers().contains(Modifier.STATIC))
-                                     .map(clazz::cast)
-                                     .collect(Collectors.toList());
-      result.addAll(fields);
-      currentElement = getSuperClass(currentElement);
+    ComparatorOptions comparatorOptions = comparatorOptions(classElement);
+    List<FieldData> fieldData = fieldData(classElement, comparatorOptions);
+    return new ClassData(canonicalName, fieldData, comparatorOptions, classElement);
+  }
+
+  private static ComparatorOptions comparatorOptions(Element classElement) {
+    FieldComparator fieldComparator = classElement.getAnnotation(FieldComparator.class);
+    org.lelv.fieldler.annotation.FieldData fieldData = classElement.getAnnotation(org.lelv.fieldler.annotation.FieldData.class);
+    boolean columns = fieldData != null && fieldData.columns();
+    if (fieldComparator == null) {
+      return columns ? new ComparatorOptions(false, true, false, 0, true, false, false) : ComparatorOptions.DEFAULT;
     }
-    return result;
+    if (fieldComparator.immutable() && fieldComparator.cacheSize() <= 0) {
+      throw new FieldlerProcessingException("The cache size must be positive: " + fieldComparator.cacheSize(), classElement);
+    }
+    return new ComparatorOptions(fieldComparator.adaptive(), fieldComparator.directFieldAccess(),
+                                 fieldComparator.immutable(), fieldComparator.cacheSize(), columns || fieldComparator.columns(),
+                                 fieldComparator.json(), fieldComparator.lambdaFree());
+  }
+
+  private List<FieldData> fieldData(Element classElement, ComparatorOptions comparatorOptions) {
+    HierarchyMembers members = hierarchyMembers(classElement);
+    Element directAccessClass = comparatorOptions.isDirectFieldAccess() ? classElement : null;
+    return buildFieldData(members.fields, members.methodNames, directAccessClass);
+  }
+
+  /**
+   * Returns the non static fields and the public no parameter method names of a class and all its parents. The result is
+   * memoized for every class of the hierarchy, unless memoization is turned off, so shared parent classes are scanned
+   * only once per round.
+   */
+  private HierarchyMembers hierarchyMembers(Element element) {
+    HierarchyMembers cachedMembers = hierarchyMembersCache.get(element);
+    if (cachedMembers != null) {
+      return cachedMembers;
+    }
+    List<VariableElement> fields = new ArrayList<>();
+    Set<String> methodNames = new HashSet<>();
+    for (Element enclosedElement : element.getEnclosedElements()) {
+      if (enclosedElement.getModifiers().contains(Modifier.STATIC)) {
+        continue;
+      }
+      if (enclosedElement instanceof VariableElement) {
+        fields.add((VariableElement) enclosedElement);
+      } else if (enclosedElement instanceof ExecutableElement && isPublicAndNoParameterMethod((ExecutableElement) enclosedElement)) {
+        methodNames.add(enclosedElement.getSimpleName().toString());
+      }
+    }
+    Element superClass = getSuperClass(element);
+    if (superClass != null) {
+      HierarchyMembers superClassMembers = hierarchyMembers(superClass);
+      fields.addAll(superClassMembers.fields);
+      methodNames.addAll(superClassMembers.methodNames);
+    }
+    HierarchyMembers members = new HierarchyMembers(fields, methodNames);
+    if (memoizeHierarchy) {
+      hierarchyMembersCache.put(element, members);
+    }
+    return members;
   }
 
   private static Element getSuperClass(Element element) {
@@ -65,32 +145,231 @@ class ClassProcessor {
                    .orElse(null);
   }
 
-  private static Set<String> getPublicAndNoParameterMethodNames(List<ExecutableElement> methodElements) {
-    return methodElements.stream()
-                         .filter(method -> method.getModifiers().contains(Modifier.PUBLIC))
-                         .filter(method -> method.getParameters().isEmpty())
-                         .map(ExecutableElement::getSimpleName)
-                         .map(Object::toString)
-                         .collect(Collectors.toSet());
+  private static boolean isPublicAndNoParameterMethod(ExecutableElement method) {
+    return method.getModifiers().contains(Modifier.PUBLIC) && method.getParameters().isEmpty();
   }
 
-  private static List<FieldData> buildFieldData(List<VariableElement> fields, Set<String> methodNames) {
+  private List<FieldData> buildFieldData(List<VariableElement> fields, Set<String> methodNames, Element directAccessClass) {
     List<FieldData> result = new ArrayList<>();
     for (VariableElement field : fields) {
       String access;
       String fieldName = field.getSimpleName().toString();
-      if (canAccessDirectlyField(field)) {
+      if (canAccessDirectlyField(field, directAccessClass)) {
         access = fieldName;
       } else {
         access = accessMethodName(field, methodNames);
       }
-      result.add(new FieldData(fieldName, access));
+      EqualityData equality = equalityData(field);
+      result.add(new FieldData(fieldName, access, field.asType().toString(), erasure(field.asType()), isComparable(field.asType()), equality,
+                               cost(field, equality)));
     }
     return result;
   }
 
-  private static boolean canAccessDirectlyField(Element field) {
-    return field.getModifiers().contains(Modifier.PUBLIC);
+  private static String erasure(TypeMirror type) {
+    switch (type.getKind()) {
+      case DECLARED:
+        return ((TypeElement) ((DeclaredType) type).asElement()).getQualifiedName().toString();
+      case ARRAY:
+        return erasure(((ArrayType) type).getComponentType()) + "[]";
+      case TYPEVAR:
+        return erasure(((TypeVariable) type).getUpperBound());
+      default:
+        return type.getKind().isPrimitive() ? type.getKind().name().toLowerCase(Locale.ROOT) : OBJECT;
+    }
+  }
+
+  private static FieldCost cost(VariableElement field, EqualityData equality) {
+    if (equality != null && equality.isComparator()) {
+      return FieldCost.COMPLEX;
+    }
+    TypeMirror fieldType = field.asType();
+    if (fieldType.getKind().isPrimitive()) {
+      return FieldCost.PRIMITIVE;
+    }
+    if (fieldType.getKind() != TypeKind.DECLARED) {
+      return FieldCost.COMPLEX;
+    }
+    Element typeElement = ((DeclaredType) fieldType).asElement();
+    if (typeElement.getKind() == ElementKind.ENUM || BOXED_TYPES.contains(typeElement.toString())) {
+      return FieldCost.BOXED;
+    }
+    return FieldCost.COMPLEX;
+  }
+
+  /**
+   * Validates the strategy of a field, so that an invalid strategy is reported on the field instead of as a compilation
+   * error of the generated code
+   */
+  private EqualityData equalityData(VariableElement field) {
+    FieldEquality fieldEquality = field.getAnnotation(FieldEquality.class);
+    if (fieldEquality == null) {
+      return null;
+    }
+    if (!Double.isFinite(fieldEquality.tolerance())) {
+      // the tolerance is written as a literal in the generated code, where NaN and Infinity do not compile
+      throw new FieldlerProcessingException("The tolerance must be a finite number: " + fieldEquality.tolerance(), field);
+    }
+    TypeElement strategyElement = strategyElement(fieldEquality);
+    String strategyClass = strategyElement.getQualifiedName().toString();
+    if (isComparator(strategyElement)) {
+      if (!fieldEquality.method().isEmpty()) {
+        throw new FieldlerProcessingException("A comparator strategy can not declare a method: " + strategyClass, field);
+      }
+      if (!hasPublicNoArgsConstructor(strategyElement)) {
+        throw new FieldlerProcessingException("A comparator strategy must be a public concrete class with a public no-args constructor: "
+                                                  + strategyClass, field);
+      }
+      return EqualityData.comparator(strategyClass);
+    }
+    ExecutableElement method = strategyMethod(strategyElement, fieldEquality, field);
+    if (method.getParameters().size() == 3) {
+      return EqualityData.staticMethodWithTolerance(strategyClass, fieldEquality.method(), fieldEquality.tolerance());
+    }
+    return EqualityData.staticMethod(strategyClass, fieldEquality.method());
+  }
+
+  private static TypeElement strategyElement(FieldEquality fieldEquality) {
+    TypeMirror strategyType;
+    try {
+      fieldEquality.using();
+      throw new IllegalStateException("Strategy class should only be available as a type mirror");
+    } catch (MirroredTypeException e) {
+      strategyType = e.getTypeMirror();
+    }
+    return (TypeElement) ((DeclaredType) strategyType).asElement();
+  }
+
+  private static boolean isComparator(TypeElement typeElement) {
+    return isSubtypeOf(typeElement, COMPARATOR);
+  }
+
+  /**
+   * A field can be ordered when it is primitive, or when it can be compared with values of its own type, as required by
+   * {@code FieldOrdering.compare}, which excludes types such as {@code Comparable<?>} or a class comparable to another one
+   */
+  private boolean isComparable(TypeMirror fieldType) {
+    if (fieldType.getKind().isPrimitive()) {
+      return true;
+    }
+    if (fieldType.getKind() != TypeKind.DECLARED) {
+      return false;
+    }
+    DeclaredType selfComparable = types.getDeclaredType(comparableElement, types.getWildcardType(null, fieldType));
+    return types.isAssignable(fieldType, selfComparable);
+  }
+
+  private static boolean isSubtypeOf(TypeElement typeElement, String qualifiedName) {
+    if (qualifiedName.equals(typeElement.getQualifiedName().toString())) {
+      return true;
+    }
+    List<TypeMirror> superTypes = new ArrayList<>(typeElement.getInterfaces());
+    superTypes.add(typeElement.getSuperclass());
+    return superTypes.stream()
+                     .filter(superType -> superType.getKind() == TypeKind.DECLARED)
+                     .map(superType -> (TypeElement) ((DeclaredType) superType).asElement())
+                     .anyMatch(superElement -> isSubtypeOf(superElement, qualifiedName));
+  }
+
+  private static boolean hasPublicNoArgsConstructor(TypeElement strategyElement) {
+    Set<Modifier> modifiers = strategyElement.getModifiers();
+    if (!modifiers.contains(Modifier.PUBLIC) || modifiers.contains(Modifier.ABSTRACT) || strategyElement.getKind() != ElementKind.CLASS
+        || (strategyElement.getNestingKind().isNested() && !modifiers.contains(Modifier.STATIC))) {
+      return false;
+    }
+    return strategyElement.getEnclosedElements()
+                          .stream()
+                          .filter(element -> element.getKind() == ElementKind.CONSTRUCTOR)
+                          .map(ExecutableElement.class::cast)
+                          .anyMatch(constructor -> constructor.getModifiers().contains(Modifier.PUBLIC) && constructor.getParameters().isEmpty());
+  }
+
+  /**
+   * Returns the overload that the generated code calls with the values of the field, and with the tolerance when it is not
+   * zero. Methods with the right name are overloads of the strategy only when they are public and static, return a
+   * boolean, accept the field values as their two first parameters and, if they declare a third one, a double.
+   */
+  private ExecutableElement strategyMethod(TypeElement strategyElement, FieldEquality fieldEquality, VariableElement field) {
+    String strategyClass = strategyElement.getQualifiedName().toString();
+    List<ExecutableElement> namedMethods = strategyElement.getEnclosedElements()
+                                                          .stream()
+                                                          .filter(element -> element.getKind() == ElementKind.METHOD)
+                                                          .map(ExecutableElement.class::cast)
+                                                          .filter(method -> method.getSimpleName().contentEquals(fieldEquality.method()))
+                                                          .filter(method -> method.getModifiers().containsAll(EnumSet.of(Modifier.PUBLIC, Modifier.STATIC)))
+                                                          .collect(Collectors.toList());
+    if (namedMethods.isEmpty()) {
+      throw new FieldlerProcessingException(String.format("No public static method %s found on %s", fieldEquality.method(), strategyClass), field);
+    }
+    List<ExecutableElement> overloads = namedMethods.stream()
+                                                    .filter(method -> isStrategyOverload(method, field.asType()))
+                                                    .collect(Collectors.toList());
+    if (overloads.isEmpty()) {
+      throw new FieldlerProcessingException(String.format("No public static method boolean %s(%s, %s[, double]) found on %s", fieldEquality.method(),
+                                                          field.asType(), field.asType(), strategyClass), field);
+    }
+    if (fieldEquality.tolerance() != 0) {
+      return overloads.stream()
+                      .filter(method -> method.getParameters().size() == 3)
+                      .findFirst()
+                      .orElseThrow(() -> new FieldlerProcessingException(
+                          String.format("The tolerance %s requires a public static method boolean %s(%s, %s, double) on %s", fieldEquality.tolerance(),
+                                        fieldEquality.method(), field.asType(), field.asType(), strategyClass), field));
+    }
+    return overloads.stream()
+                    .min(Comparator.comparingInt(method -> method.getParameters().size()))
+                    .orElseThrow(IllegalStateException::new);
+  }
+
+  private boolean isStrategyOverload(ExecutableElement method, TypeMirror fieldType) {
+    List<? extends VariableElement> parameters = method.getParameters();
+    if (parameters.size() != 2 && parameters.size() != 3) {
+      return false;
+    }
+    if (!types.isAssignable(method.getReturnType(), types.getPrimitiveType(TypeKind.BOOLEAN))) {
+      return false;
+    }
+    for (int index = 0; index < 2; index++) {
+      if (!types.isAssignable(fieldType, types.erasure(parameters.get(index).asType()))) {
+        return false;
+      }
+    }
+    return parameters.size() == 2 || types.isAssignable(types.getPrimitiveType(TypeKind.DOUBLE), parameters.get(2).asType());
+  }
+
+  /**
+   * Public fields are always read directly. The generated classes belong to the package of the annotated class, so if
+   * direct access is enabled they can also read the package-private and protected fields declared in that same package,
+   * avoiding the cost of their getters. A package-private field is only inherited through classes of its own package, so
+   * every class between the annotated class and the declaring one must belong to that package too.
+   */
+  private static boolean canAccessDirectlyField(Element field, Element directAccessClass) {
+    Set<Modifier> modifiers = field.getModifiers();
+    if (modifiers.contains(Modifier.PUBLIC)) {
+      return true;
+    }
+    if (directAccessClass == null || modifiers.contains(Modifier.PRIVATE)) {
+      return false;
+    }
+    String directAccessPackage = packageName(directAccessClass);
+    Element declaringClass = field.getEnclosingElement();
+    for (Element current = directAccessClass; current != null; current = getSuperClass(current)) {
+      if (!directAccessPackage.equals(packageName(current))) {
+        return false;
+      }
+      if (current.equals(declaringClass)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static String packageName(Element element) {
+    Element enclosingElement = element;
+    while (enclosingElement.getKind() != ElementKind.PACKAGE) {
+      enclosingElement = enclosingElement.getEnclosingElement();
+    }
+    return ((PackageElement) enclosingElement).getQualifiedName().toString();
   }
 
   private static String accessMethodName(VariableElement field, Set<String> methodNames) {
@@ -122,4 +401,15 @@ class ClassProcessor {
     return prefix + Character.toUpperCase(fieldName.charAt(0)) + fieldName.substring(1);
   }
 
+  private static final class HierarchyMembers {
+
+    private final List<VariableElement> fields;
+    private final Set<String> methodNames;
+
+    private HierarchyMembers(List<VariableElement> fields, Set<String> methodNames) {
+      this.fields = Collections.unmodifiableList(fields);
+      this.methodNames = Collections.unmodifiableSet(methodNames);
+    }
+  }
+
 }
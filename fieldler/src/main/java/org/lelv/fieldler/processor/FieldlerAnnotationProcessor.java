@@ -7,9 +7,11 @@ import org.lelv.fieldler.generator.FieldlerGenerator;
 import org.lelv.fieldler.generator.data.ClassData;
 
 import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.ProcessingEnvironment;
 import javax.annotation.processing.Processor;
 import javax.annotation.processing.RoundEnvironment;
 import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.annotation.processing.SupportedOptions;
 import javax.annotation.processing.SupportedSourceVersion;
 import javax.lang.model.SourceVersion;
 import javax.lang.model.element.Element;
@@ -25,15 +27,31 @@ import java.util.Set;
 @SupportedSourceVersion(SourceVersion.RELEASE_8)
 @SupportedAnnotationTypes({"org.lelv.fieldler.annotation.FieldData",
                            "org.lelv.fieldler.annotation.FieldComparator"})
+@SupportedOptions(FieldlerAnnotationProcessor.MEMOIZE_HIERARCHY_OPTION)
 public class FieldlerAnnotationProcessor extends AbstractProcessor {
 
+  /**
+   * Processor option which turns off the memoization of the scanned parent classes when set to false, meant for
+   * measuring it
+   */
+  public static final String MEMOIZE_HIERARCHY_OPTION = "fieldler.memoizeHierarchy";
+
   private enum Generator {FIELD_DATA, FIELD_COMPARATOR}
 
   private final Set<Element> processedElements = new HashSet<>();
+  private ClassProcessor classProcessor;
+
+  @Override
+  public synchronized void init(ProcessingEnvironment processingEnv) {
+    super.init(processingEnv);
+    boolean memoizeHierarchy = !"false".equals(processingEnv.getOptions().get(MEMOIZE_HIERARCHY_OPTION));
+    this.classProcessor = new ClassProcessor(processingEnv.getTypeUtils(), processingEnv.getElementUtils(), memoizeHierarchy);
+  }
 
   @Override
   public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
     printInfo("[Fieldler] Starting Annotation Processing");
+    classProcessor.startRound();
     for (TypeElement annotation : annotations) {
       roundEnv.getElementsAnnotatedWith(annotation)
               .stream()
@@ -46,11 +64,15 @@ public class FieldlerAnnotationProcessor extends AbstractProcessor {
 
   private void processElement(Element element) {
     if (canProcessElement(element)) {
-      ClassData classData = ClassProcessor.processClass(element);
-      if (classData.hasAccessibleFields()) {
-        tryGenerateClasses(classData, getGenerator(element));
-      } else {
-        printWarning("[Fieldler] Element has no accessible fields, no classes will be generated for: " + element);
+      try {
+        ClassData classData = classProcessor.processClass(element);
+        if (classData.hasAccessibleFields()) {
+          tryGenerateClasses(classData, getGenerator(element));
+        } else {
+          printWarning("[Fieldler] Element has no accessible fields, no classes will be generated for: " + element);
+        }
+      } catch (FieldlerProcessingException e) {
+        printError("[Fieldler] " + e.getMessage(), e.getElement());
       }
     } else {
       printWarning("[Fieldler] Can not process element: " + element);
@@ -84,7 +106,7 @@ public class FieldlerAnnotationProcessor extends AbstractProcessor {
     }
   }
 
-  private String createFieldData(ClassData classData) {
+  private List<String> createFieldData(ClassData classData) {
     return FieldlerGenerator.createFieldData(classData, processingEnv.getFiler());
   }
 
@@ -99,4 +121,8 @@ public class FieldlerAnnotationProcessor extends AbstractProcessor {
   private void printWarning(String message) {
     processingEnv.getMessager().printMessage(Diagnostic.Kind.MANDATORY_WARNING, message);
   }
+
+  private void printError(String message, Element element) {
+    processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+  }
 }
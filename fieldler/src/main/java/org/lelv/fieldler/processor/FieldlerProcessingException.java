@@ -0,0 +1,20 @@
+package org.lelv.fieldler.processor;
+
+import javax.lang.model.element.Element;
+
+class FieldlerProcessingException extends RuntimeException {
+
+  private static final long serialVersionUID = 3310728461923870146L;
+
+  private final transient Element element;
+
+  FieldlerProcessingException(String message, Element element) {
+    super(message);
+    this.element = element;
+  }
+
+  Element getElement() {
+    return element;
+  }
+
+}